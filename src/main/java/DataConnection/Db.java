@@ -2,6 +2,8 @@ package DataConnection;
 
 import com.zaxxer.hikari.HikariConfig;
 import com.zaxxer.hikari.HikariDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import service.util.Mask;
 
 import javax.sql.DataSource;
@@ -11,13 +13,17 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.util.List;
 import java.util.Properties;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.function.Function;
 
 public final class Db {
+    private static final Logger LOG = LoggerFactory.getLogger(Db.class);
     private static final Path EXTERNAL_CONFIG_PATH = Path.of(System.getProperty("user.home"), ".budget", "db.properties");
     private static final HikariDataSource DS;
     private static final Properties CONFIG_SNAPSHOT = new Properties();
+    private static final List<Runnable> BEFORE_CLOSE = new CopyOnWriteArrayList<>();
 
     static {
         Properties props = loadProperties();
@@ -48,7 +54,27 @@ public final class Db {
         CONFIG_SNAPSHOT.setProperty("db.pool.maxSize", Integer.toString(maxPool));
         CONFIG_SNAPSHOT.setProperty("db.pool.minIdle", Integer.toString(Math.min(minIdle, maxPool)));
 
-        Runtime.getRuntime().addShutdownHook(new Thread(DS::close, "budgetController-hikari-shutdown"));
+        Runtime.getRuntime().addShutdownHook(new Thread(Db::close, "budgetController-hikari-shutdown"));
+    }
+
+    /**
+     * Havuz kapanmadan hemen önce çalışacak iş (ör. bekleyen yazmaları boşaltmak).
+     * Ayrı bir shutdown hook'u havuzla yarışır; burada kayıtlı işler sırayla,
+     * havuz hâlâ açıkken çalışır.
+     */
+    public static void beforeClose(Runnable task) {
+        BEFORE_CLOSE.add(task);
+    }
+
+    private static void close() {
+        for (Runnable task : BEFORE_CLOSE) {
+            try {
+                task.run();
+            } catch (RuntimeException ex) {
+                LOG.warn("Kapanış işi başarısız", ex);
+            }
+        }
+        DS.close();
     }
 
     private Db() {
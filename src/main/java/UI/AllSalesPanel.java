@@ -3,6 +3,8 @@ package UI;
 import DataConnection.Db;
 import model.MoneyUtil;
 import model.PaymentMethod;
+import model.SaleRow;
+import service.SalesQueryService;
 import state.AppState;
 
 import org.slf4j.Logger;
@@ -20,7 +22,6 @@ import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
-import java.sql.Timestamp;
 import java.text.NumberFormat;
 import java.time.Instant;
 import java.time.LocalDate;
@@ -50,6 +51,7 @@ public class AllSalesPanel extends JPanel {
     private static final DateTimeFormatter HHMM = DateTimeFormatter.ofPattern("HH:mm");
 
     private final AppState appState;
+    private final SalesQueryService salesQueryService = new SalesQueryService();
     private final DefaultTableModel tableModel;
     private final JTable table;
     private final JSpinner dateSpinner = new JSpinner(
@@ -157,45 +159,25 @@ public class AllSalesPanel extends JPanel {
      * <p>Payment tablosundan başlamamızın sebebi: o.status sütunu hem string
      * ('COMPLETED') hem numerik (3, 4) olarak DB'lerde farklılık gösterebilir.
      * Her payment kaydı = gerçekten alınmış bir ödeme = satılmış sipariş.
+     * Sorgu REST {@code /api/sales} ile ortaktır ({@link SalesQueryService}).
      */
     private List<OrderRow> loadOrders(LocalDate date) {
-        // noinspection SqlResolve, SqlNoDataSourceInspection
-        final String sql =
-                "SELECT p.id AS payment_id, p.order_id, p.amount, p.method, p.paid_at, " +
-                "       o.note AS order_note, " +
-                "       dt.table_no, " +
-                "       w.full_name AS waiter_name, w.username AS waiter_user, " +
-                "       c.full_name AS cashier_name, c.username AS cashier_user " +
-                "  FROM payments p " +
-                "  LEFT JOIN orders o         ON o.id = p.order_id " +
-                "  LEFT JOIN dining_tables dt ON dt.id = o.table_id " +
-                "  LEFT JOIN users w          ON w.id = o.waiter_id " +
-                "  LEFT JOIN users c          ON c.id = p.cashier_id " +
-                " WHERE DATE(p.paid_at) = ? " +
-                " ORDER BY p.paid_at DESC";
         List<OrderRow> out = new ArrayList<>();
-        try (Connection c = Db.getConnection();
-             PreparedStatement ps = c.prepareStatement(sql)) {
-            ps.setDate(1, java.sql.Date.valueOf(date));
-            try (ResultSet rs = ps.executeQuery()) {
-                while (rs.next()) {
-                    OrderRow r = new OrderRow();
-                    r.orderId = rs.getLong("order_id");
-                    Timestamp ts = rs.getTimestamp("paid_at");
-                    r.closedAt = ts == null ? null : ts.toLocalDateTime();
-                    Object tNo = rs.getObject("table_no");
-                    r.tableNo = (tNo instanceof Number n) ? n.intValue() : null;
-                    r.salonName = resolveSalon(r.tableNo);
-                    r.waiterName = preferFull(rs.getString("waiter_name"), rs.getString("waiter_user"));
-                    r.cashierName = preferFull(rs.getString("cashier_name"), rs.getString("cashier_user"));
-                    BigDecimal amt = rs.getBigDecimal("amount");
-                    r.amount = amt == null ? BigDecimal.ZERO : amt;
-                    r.paymentMethod = describeMethod(rs.getString("method"));
-                    r.orderNote = rs.getString("order_note");
-                    out.add(r);
-                }
+        try {
+            for (SaleRow sale : salesQueryService.getSalesOn(date).rows()) {
+                OrderRow r = new OrderRow();
+                r.orderId = sale.orderId() == null ? 0L : sale.orderId();
+                r.closedAt = sale.paidAt();
+                r.tableNo = sale.tableNo();
+                r.salonName = resolveSalon(r.tableNo);
+                r.waiterName = sale.waiterName() == null ? "-" : sale.waiterName();
+                r.cashierName = sale.cashierName() == null ? "-" : sale.cashierName();
+                r.amount = sale.amount();
+                r.paymentMethod = describeMethod(sale.method());
+                r.orderNote = sale.orderNote();
+                out.add(r);
             }
-        } catch (SQLException ex) {
+        } catch (RuntimeException ex) {
             javax.swing.JOptionPane.showMessageDialog(this,
                     "Satışlar yüklenemedi: " + ex.getMessage(),
                     "Hata", javax.swing.JOptionPane.ERROR_MESSAGE);
@@ -203,12 +185,6 @@ public class AllSalesPanel extends JPanel {
         return out;
     }
 
-    private String preferFull(String full, String user) {
-        if (full != null && !full.isBlank()) return full;
-        if (user != null && !user.isBlank()) return user;
-        return "-";
-    }
-
     private String describeMethod(String code) {
         if (code == null) return "-";
         try {
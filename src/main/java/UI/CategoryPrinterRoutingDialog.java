@@ -2,6 +2,8 @@ package UI;
 
 import model.Category;
 import model.KitchenPrinter;
+import service.print.PrintingService;
+import service.print.PrinterStatus;
 import state.AppState;
 
 import javax.swing.*;
@@ -150,8 +152,11 @@ public class CategoryPrinterRoutingDialog extends JDialog {
         } else {
             for (KitchenPrinter pr : printers) {
                 int id = pr.getId() == null ? 0 : pr.getId().intValue();
+                PrinterStatus status = PrintingService.shared().printerStatus(id);
                 JCheckBox cb = new JCheckBox(
-                        pr.getDisplayName() + "   [" + pr.getCode() + " @ " + pr.getHost() + "]");
+                        pr.getDisplayName() + "   [" + pr.getCode() + " @ " + pr.getHost() + "]"
+                                + "   — " + status.state().label());
+                cb.setToolTipText(status.toString());
                 cb.setFont(cb.getFont().deriveFont(Font.PLAIN, 14f));
                 cb.putClientProperty("printerId", id);
                 cb.setSelected(linked.contains(id));
@@ -228,13 +228,14 @@ public class DailyReportPanel extends JPanel {
                 "       SUM(oi.quantity) AS total_qty " +
                 "  FROM order_items oi " +
                 "  JOIN payments    p ON p.order_id = oi.order_id " +
-                " WHERE DATE(p.paid_at) = ? " +
+                " WHERE p.paid_at >= ? AND p.paid_at < ? " +
                 " GROUP BY oi.product_name, COALESCE(oi.unit_label, '') " +
                 " ORDER BY total_qty DESC";
         List<ProductSummaryRow> rows = new ArrayList<>();
         try (Connection c = Db.getConnection();
              PreparedStatement ps = c.prepareStatement(sql)) {
-            ps.setDate(1, java.sql.Date.valueOf(date));
+            ps.setTimestamp(1, java.sql.Timestamp.valueOf(date.atStartOfDay()));
+            ps.setTimestamp(2, java.sql.Timestamp.valueOf(date.plusDays(1).atStartOfDay()));
             try (ResultSet rs = ps.executeQuery()) {
                 while (rs.next()) {
                     rows.add(new ProductSummaryRow(
@@ -332,13 +333,14 @@ public class DailyReportPanel extends JPanel {
                 "SELECT oi.product_name, SUM(oi.quantity) AS total_qty " +
                 "  FROM order_items oi " +
                 "  JOIN payments p ON p.order_id = oi.order_id " +
-                " WHERE DATE(p.paid_at) = ? " +
+                " WHERE p.paid_at >= ? AND p.paid_at < ? " +
                 " GROUP BY oi.product_name " +
                 " ORDER BY total_qty DESC";
         List<ProductSummaryRow> out = new ArrayList<>();
         try (Connection c = Db.getConnection();
              PreparedStatement ps = c.prepareStatement(sql)) {
-            ps.setDate(1, java.sql.Date.valueOf(date));
+            ps.setTimestamp(1, java.sql.Timestamp.valueOf(date.atStartOfDay()));
+            ps.setTimestamp(2, java.sql.Timestamp.valueOf(date.plusDays(1).atStartOfDay()));
             try (ResultSet rs = ps.executeQuery()) {
                 while (rs.next()) {
                     out.add(new ProductSummaryRow(
@@ -4,8 +4,7 @@ import model.Category;
 import model.MoneyUtil;
 import model.Product;
 
-import service.CategoryService;
-import service.ProductService;
+import service.CatalogCache;
 
 import javax.imageio.ImageIO;
 import javax.swing.*;
@@ -47,8 +46,7 @@ public class ProductPickerDialog extends JDialog {
     private static final String PLACEHOLDER_RESOURCE = "/images/placeholder.png";
     private static final String PRODUCT_IMAGE_PATTERN = "/images/products/%d.png";
 
-    private final CategoryService categoryService = new CategoryService();
-    private final ProductService productService = new ProductService(categoryService);
+    private final CatalogCache catalog = CatalogCache.getInstance();
     private final NumberFormat currencyFormat = MoneyUtil.turkishLiraCurrencyFormat();
     private final JPanel grid = new JPanel(new GridLayout(0, GRID_COLUMNS, 8, 8));
     private final JLabel messageLabel = new JLabel(" ");
@@ -60,6 +58,7 @@ public class ProductPickerDialog extends JDialog {
     private final Map<Long, String>  selectedNotes  = new HashMap<>();  // İçerik dialog ile
 
     private Consumer<Selection> onSelect;
+    private Consumer<List<Selection>> onSelectAll;
     private Long activeCategoryId;
     private boolean fullScreen;
     private Rectangle windowedBounds;
@@ -95,6 +94,14 @@ public class ProductPickerDialog extends JDialog {
         this.onSelect = onSelect;
     }
 
+    /**
+     * Tüm seçimleri tek çağrıda alır (sepet tek seferde eklensin diye).
+     * Ayarlıysa {@link #setOnSelect} çağrılmaz.
+     */
+    public void setOnSelectAll(Consumer<List<Selection>> onSelectAll) {
+        this.onSelectAll = onSelectAll;
+    }
+
     private JComponent buildFilterBar() {
         JPanel container = new JPanel(new BorderLayout());
         JPanel panel = new JPanel(new FlowLayout(FlowLayout.LEFT, 8, 8));
@@ -128,7 +135,7 @@ public class ProductPickerDialog extends JDialog {
     private void populateCategoryButtons(JPanel panel) {
         List<Category> categories;
         try {
-            categories = categoryService.getAllCategories();
+            categories = catalog.getAllCategories();
         } catch (RuntimeException ex) {
             showMessage("Kategori bilgileri yüklenemedi: " + ex.getMessage(), true);
             return;
@@ -183,9 +190,9 @@ public class ProductPickerDialog extends JDialog {
             // Pasifler dahil tüm ürünler — tükenmiş olanlar tile içinde gri/disabled
             // görünür, garson "lahmacun tükenmiş" bilgisini ekranda direkt görür.
             if (categoryId == null) {
-                products = productService.getAllProducts();
+                products = catalog.getAllProducts();
             } else {
-                products = productService.getProductsByCategory(categoryId, 0, 200);
+                products = catalog.getProductsByCategory(categoryId);
             }
             // Aktif olanlar önce, pasifler sonda — sırala
             products = products.stream()
@@ -346,25 +353,27 @@ public class ProductPickerDialog extends JDialog {
     private void addSelectedProducts() {
 
         clearMessage();
-        int added = 0;
         for (ProductTile tile : productTiles) {
             tile.flushSelection();
         }
+        List<Selection> selections = new ArrayList<>();
         for (Map.Entry<Long, Integer> entry : selectedQuantities.entrySet()) {
             Long productId = entry.getKey();
             int quantity = entry.getValue();
             if (productId == null || quantity <= 0) continue;
-            if (onSelect != null) {
-                Integer pieces = selectedPieces.get(productId);
-                String note   = selectedNotes.get(productId);
-                onSelect.accept(new Selection(productId, quantity, pieces, note));
-            }
-            added++;
+            Integer pieces = selectedPieces.get(productId);
+            String note   = selectedNotes.get(productId);
+            selections.add(new Selection(productId, quantity, pieces, note));
         }
-        if (added == 0) {
+        if (selections.isEmpty()) {
             showMessage("Siparişe eklenecek ürün seçmediniz", true);
             return;
         }
+        if (onSelectAll != null) {
+            onSelectAll.accept(List.copyOf(selections));
+        } else if (onSelect != null) {
+            selections.forEach(onSelect);
+        }
         dispose();
     }
 
@@ -611,65 +620,19 @@ public class ProductPickerDialog extends JDialog {
     /**
      * Ürünün "içecek" kategorisinde olup olmadığını tespit eder.
      * İçecek ürünleri için porsiyon/şiş yerine sadece "adet" sorulur.
-     *
-     * NOT: Locale("tr","TR") ZORUNLU — yoksa Türkçe "İçecek" → "i̇çecek"
-     * (combining dot ile) bozulur ve "içecek" keyword'ünü bulamayız.
+     * Sınıflandırma katalog yüklenirken bir kez yapılır (kutucuk başına sorgu yok).
      */
     private boolean isDrinkCategory(Product product) {
-        if (product == null || product.getCategoryId() == null) return false;
-        try {
-            Category cat = categoryService.getCategoryById(product.getCategoryId());
-            if (cat == null || cat.getName() == null) return false;
-            String raw = cat.getName();
-            // Türkçe locale ile düzgün lowercase
-            String l = raw.toLowerCase(new java.util.Locale("tr", "TR"));
-            // ASCII versiyonunu da hesapla (çş yazımı farklı olabilir)
-            String asciiL = l
-                    .replace('ç', 'c').replace('ğ', 'g').replace('ı', 'i')
-                    .replace('ö', 'o').replace('ş', 's').replace('ü', 'u');
-            String[] keywords = {
-                    "içecek", "icecek", "içki", "icki",
-                    "su", "ayran", "kola", "çay", "cay",
-                    "fanta", "sprite", "kahve", "gazoz",
-                    "meşrubat", "mesrubat", "soda", "limonata",
-                    "şalgam", "salgam", "şıra", "sira",
-                    "bar", "meşrub", "mesrub", "drink", "beverage"
-            };
-            for (String kw : keywords) {
-                if (l.contains(kw) || asciiL.contains(kw)) return true;
-            }
-            return false;
-        } catch (RuntimeException ex) {
-            return false;
-        }
+        return product != null && catalog.isDrinkCategory(product.getCategoryId());
     }
 
     /**
      * Ürünün kategorisini "yemek" kabul ediyor muyuz?
-     * <p>Heuristik: kategori adı "yemek", "ana yemek", "kebap", "ızgara", "pide",
-     * "lahmacun", "ciğer", "köfte", "tavuk" gibi kelimeler içeriyorsa.
-     * <p>İleride bir flag/sütun eklenebilir.
+     * <p>Heuristik: kategori adı "yemek", "kebap", "ızgara", "pide" gibi
+     * kelimeler içeriyorsa — bkz. {@link CatalogCache}.
      */
     private boolean isFoodCategory(Product product) {
-        if (product == null || product.getCategoryId() == null) return false;
-        try {
-            Category cat = categoryService.getCategoryById(product.getCategoryId());
-            if (cat == null) return false;
-            String name = cat.getName();
-            if (name == null) return false;
-            String l = name.toLowerCase(java.util.Locale.ROOT);
-            String[] keywords = {
-                    "yemek", "ana yemek", "kebap", "ızgara", "izgara",
-                    "pide", "lahmacun", "ciğer", "ciger", "köfte", "kofte",
-                    "tavuk", "dürüm", "durum", "döner", "doner", "sıcak"
-            };
-            for (String kw : keywords) {
-                if (l.contains(kw)) return true;
-            }
-            return false;
-        } catch (RuntimeException ex) {
-            return false;
-        }
+        return product != null && catalog.isFoodCategory(product.getCategoryId());
     }
 
     private void updateSelection(Long productId, int quantity) {
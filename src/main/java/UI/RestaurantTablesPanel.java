@@ -1,6 +1,7 @@
 package UI;
 
 import state.AppState;
+import state.SnapshotDetail;
 import state.TableOrderStatus;
 import state.TableSnapshot;
 
@@ -18,10 +19,12 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
 
 /**
  * Masa düzenini Bina → Kat → Salon → Masa hiyerarşisiyle gösterir.
@@ -74,6 +77,8 @@ public class RestaurantTablesPanel extends JPanel implements Scrollable {
     private final AppState appState;
     private final User currentUser;
     private final Map<Integer, JButton> tableButtons = new HashMap<>();
+    /** Son toplu yüklemedeki masa özetleri (durum + toplam) — {@link #loadSummaries()}. */
+    private Map<Integer, TableSnapshot> summaries = new HashMap<>();
     private final Map<String, JButton> salonButtons = new HashMap<>();
     private final NumberFormat currencyFormat = MoneyUtil.turkishLiraCurrencyFormat();
     private final PropertyChangeListener listener = this::handleStateChange;
@@ -349,6 +354,7 @@ public class RestaurantTablesPanel extends JPanel implements Scrollable {
     private void refreshGrid() {
         if (currentArea == null) return;
         tableButtons.clear();
+        loadSummaries();
 
         JComponent content;
         if (activeFilter == StatusFilter.ALL) {
@@ -429,7 +435,7 @@ public class RestaurantTablesPanel extends JPanel implements Scrollable {
             // Bu salonda filtreye uyan masa var mı?
             List<Integer> matching = new ArrayList<>();
             for (Integer tableNo : area.getTableNumbers()) {
-                TableOrderStatus st = appState.snapshot(tableNo).getStatus();
+                TableOrderStatus st = statusOf(tableNo);
                 boolean isEmpty = (st == null || st == TableOrderStatus.EMPTY);
                 if (activeFilter == StatusFilter.EMPTY && !isEmpty) continue;
                 if (activeFilter == StatusFilter.OCCUPIED && isEmpty) continue;
@@ -552,7 +558,7 @@ public class RestaurantTablesPanel extends JPanel implements Scrollable {
         int empty = 0;
         int occupied = 0;
         for (Integer tableNo : tableNumbers) {
-            TableOrderStatus st = appState.snapshot(tableNo).getStatus();
+            TableOrderStatus st = statusOf(tableNo);
             if (st == null || st == TableOrderStatus.EMPTY) empty++;
             else occupied++;
         }
@@ -563,7 +569,7 @@ public class RestaurantTablesPanel extends JPanel implements Scrollable {
 
         int shown = 0;
         for (Integer tableNo : tableNumbers) {
-            TableOrderStatus st = appState.snapshot(tableNo).getStatus();
+            TableOrderStatus st = statusOf(tableNo);
             boolean isEmpty = (st == null || st == TableOrderStatus.EMPTY);
             // Filter
             if (activeFilter == StatusFilter.EMPTY && !isEmpty) continue;
@@ -597,10 +603,31 @@ public class RestaurantTablesPanel extends JPanel implements Scrollable {
         button.setMinimumSize(preferredSize);
         button.addActionListener(e -> openTableDialog(tableNo));
         tableButtons.put(tableNo, button);
-        refreshButton(tableNo);
+        applySnapshot(button, summaries.get(tableNo));
         return button;
     }
 
+    /**
+     * Kullanıcının erişebildiği tüm masaların özetini (durum + toplam) tek
+     * toplu sorguyla yükler. Grid çizimi ve filtre sayımları bu haritayı okur;
+     * masa başına ayrı snapshot (kalemler + geçmiş) alınmaz.
+     */
+    private void loadSummaries() {
+        Set<Integer> tableNos = new HashSet<>();
+        for (AppState.AreaDefinition area : appState.getAccessibleAreas(currentUser)) {
+            tableNos.addAll(area.getTableNumbers());
+        }
+        if (currentArea != null) {
+            tableNos.addAll(currentArea.getTableNumbers());
+        }
+        summaries = appState.snapshotAll(tableNos, SnapshotDetail.SUMMARY);
+    }
+
+    private TableOrderStatus statusOf(int tableNo) {
+        TableSnapshot summary = summaries.get(tableNo);
+        return summary == null ? null : summary.getStatus();
+    }
+
     private void openTableDialog(int tableNo) {
         TableSnapshot snapshot = appState.snapshot(tableNo);
         TableOrderDialog dialog = new TableOrderDialog(
@@ -617,13 +644,15 @@ public class RestaurantTablesPanel extends JPanel implements Scrollable {
         if (newValue instanceof Integer) {
             int tableNo = (Integer) newValue;
             SwingUtilities.invokeLater(() -> {
-                refreshButton(tableNo);
-                // Boş/Dolu filtresi aktifse → global görünüm değişebilir, yenile
+                // Boş/Dolu filtresi aktifse → global görünüm değişebilir, yenile.
+                // Grid yeniden çizilirse butonlar zaten taze özetle gelir.
                 if (activeFilter != StatusFilter.ALL) {
                     refreshGrid();
                 } else if (currentArea != null
                         && currentArea.getTableNumbers().contains(tableNo)) {
                     refreshGrid();
+                } else {
+                    refreshButton(tableNo);
                 }
             });
         }
@@ -633,7 +662,16 @@ public class RestaurantTablesPanel extends JPanel implements Scrollable {
         JButton button = tableButtons.get(tableNo);
         if (button == null) return;
 
-        TableSnapshot snapshot = appState.snapshot(tableNo);
+        // Yalnız bu masanın satırı okunur — kat planının tamamı değil
+        TableSnapshot summary = appState.summary(tableNo);
+        if (summary != null) {
+            summaries.put(tableNo, summary);
+        }
+        applySnapshot(button, summary);
+    }
+
+    private void applySnapshot(JButton button, TableSnapshot snapshot) {
+        if (snapshot == null) return;
         button.setText(formatText(snapshot));
 
         // RENKLER buradan geliyor
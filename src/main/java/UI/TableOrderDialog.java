@@ -27,6 +27,7 @@ import java.beans.PropertyChangeListener;
 import java.math.BigDecimal;
 import java.text.NumberFormat;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
 import java.util.EnumSet;
 import java.util.List;
 import java.util.Objects;
@@ -65,7 +66,7 @@ public class TableOrderDialog extends JDialog {
                 local = PRINTING_SERVICE;
                 if (local == null) {
                     try {
-                        local = new PrintingService();
+                        local = PrintingService.shared();
                     } catch (RuntimeException ex) {
                         // Yazıcı kayıtları yoksa DAO patlayabilir; sessiz no-op
                         local = null;
@@ -239,20 +240,23 @@ public class TableOrderDialog extends JDialog {
         // picker kapandıktan sonra en fazla TEK özet dialog.
         EnumSet<ItemNoteUpdateResult> noteFailures = EnumSet.noneOf(ItemNoteUpdateResult.class);
         boolean[] noteConflict = {false};
-        dialog.setOnSelect(selection -> {
-            if (selection == null) return;
-            // Stage 0G: guard + add + not tek AppState wrapper'ında (quantity
-            // artmadan önce çakışma kontrolü; pieces null → porsiyon yolu).
-            ItemAddWithNoteResult result = appState.addItemWithNote(
-                    tableNo, selection.productId(), selection.quantity(),
-                    selection.piecesOverride(), selection.note(), currentUser);
-            if (!result.itemAdded()) {
-                // Çakışma: ürün eklenmedi, not uygulanmadı — diğer ürünler işlenmeye devam eder.
-                noteConflict[0] = true;
-                return;
+        dialog.setOnSelectAll(selections -> {
+            // Sepetin tamamı tek AppState çağrısında: tek transaction, tek
+            // history satırı, tek olay. Stage 0G guard her satıra ayrı uygulanır.
+            List<AppState.ItemRequest> requests = new ArrayList<>(selections.size());
+            for (ProductPickerDialog.Selection selection : selections) {
+                requests.add(new AppState.ItemRequest(selection.productId(), selection.quantity(),
+                        selection.piecesOverride(), selection.note()));
             }
-            if (result.noteResult() != null && result.noteResult() != ItemNoteUpdateResult.APPLIED) {
-                noteFailures.add(result.noteResult());
+            for (ItemAddWithNoteResult result : appState.addItems(tableNo, requests, currentUser)) {
+                if (!result.itemAdded()) {
+                    // Çakışma: ürün eklenmedi, not uygulanmadı — diğer ürünler eklendi.
+                    noteConflict[0] = true;
+                    continue;
+                }
+                if (result.noteResult() != null && result.noteResult() != ItemNoteUpdateResult.APPLIED) {
+                    noteFailures.add(result.noteResult());
+                }
             }
         });
         dialog.setVisible(true);
@@ -633,7 +637,8 @@ public class TableOrderDialog extends JDialog {
                     boolean allOk = true;
                     for (PrintingService.PrintResult r : results) {
                         msg.append("  • ").append(r.target == null ? "?" : r.target.getDisplayName())
-                                .append(" → ").append(r.success ? "BAŞARILI" : "HATA: " + r.errorMessage)
+                                .append(" → ").append(r.success ? "BAŞARILI"
+                                        : r.queued ? "KUYRUKTA (arka planda basılacak)" : "HATA: " + r.errorMessage)
                                 .append("\n");
                         allOk &= r.success;
                     }
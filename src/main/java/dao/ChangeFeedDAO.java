@@ -0,0 +1,30 @@
+package dao;
+
+import model.ChangeEvent;
+
+import java.util.List;
+
+/**
+ * Değişiklik günlüğü ({@code change_seq}).
+ *
+ * <p>Yazma metotları mutasyonla aynı transaction'da çağrılmak üzere
+ * tasarlanmıştır (Connection alan JDBC constructor'ı ile). Tablo yoksa
+ * (SchemaPatcher çalışmamışsa) yazma sessizce atlanır ve
+ * {@link #isAvailable()} {@code false} döner.
+ */
+public interface ChangeFeedDAO {
+
+    void append(String topic, Long tableId, Long entityId);
+
+    /** Siparişin masa id'sini {@code orders} tablosundan alarak günlüğe yazar. */
+    void appendForOrder(String topic, Long orderId);
+
+    /** {@code seq > afterSeq} olan satırları artan sırada döner. */
+    List<ChangeEvent> findSince(long afterSeq, int limit);
+
+    /** Günlükteki en büyük seq; boşsa 0. */
+    long latestSeq();
+
+    /** Günlük tablosu mevcut ve kullanılabilir mi? */
+    boolean isAvailable();
+}
@@ -2,6 +2,7 @@ package dao;
 
 import model.Order;
 import model.OrderStatus;
+import model.TableOrderState;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -11,9 +12,41 @@ import java.util.Optional;
 public interface OrderDAO extends CrudRepository<Order, Long> {
     List<Order> findOpenOrders();
     Optional<Order> findOpenOrderByTable(Long tableId);
+
+    /**
+     * Tüm masaları açık siparişleri ve kalem toplamlarıyla birlikte tek sorguda
+     * döner ({@code dining_tables LEFT JOIN orders}). Masa başına bir satır;
+     * masada birden fazla açık sipariş varsa en yenisi (en büyük id) seçilir.
+     */
+    List<TableOrderState> findAllTableStates();
+
+    /**
+     * {@link #findAllTableStates()}'in tek masa sürümü — yalnız o masanın
+     * satırı ve açık siparişi okunur. Masa yoksa boş.
+     */
+    Optional<TableOrderState> findTableState(int tableNo);
     void updateStatus(Long orderId, OrderStatus status);
     void assignTable(Long orderId, Long tableId);
     /** Siparişi kapatır: closed_at set edilir ve status 'COMPLETED' yapılır. */
     void closeOrder(Long orderId, LocalDateTime closedAt);
     void updateTotals(Long orderId, BigDecimal subtotal, BigDecimal taxTotal, BigDecimal discountTotal, BigDecimal total);
+
+    /**
+     * Toplamları kalemlerin üretilmiş sütunlarından tek {@code UPDATE} ile
+     * yeniden hesaplar (kalemleri uygulamaya çekmeden). Sütunlar yoksa
+     * {@link RuntimeException} — çağıran kalemleri okuyup {@link #updateTotals}'a düşer.
+     */
+    void recomputeTotalsFromItems(Long orderId);
+
+    /**
+     * Bir ürünün bu siparişteki kalem(ler)inin üretilmiş tutarlarını
+     * {@code sign} (+1/-1) ile sipariş toplamlarına ekler — kalem değişikliğinden
+     * önce -1, sonra +1 çağrılınca toplamlar satır sayısından bağımsız olarak
+     * güncellenir. Kalem yoksa toplamlar değişmez. Sütunlar yoksa
+     * {@link RuntimeException} ({@link #recomputeTotalsFromItems} ile aynı).
+     */
+    void adjustTotalsForProduct(Long orderId, Long productId, int sign);
+
+    /** {@link #adjustTotalsForProduct}'ın tek kalem ({@code order_items.id}) sürümü. */
+    void adjustTotalsForItem(Long orderId, Long orderItemId, int sign);
 }
@@ -18,7 +18,27 @@ public interface OrderItemsDAO extends CrudRepository<OrderItem, Long> {
      */
     void addOrIncrement(Long orderId, Long productId, String productName, int qty,
                         BigDecimal unitPrice, Integer piecesPerPortion, String unitLabel);
+
+    /**
+     * Notlu ekleme: not satır kimliğinin parçasıdır ({@code note_hash}) — aynı
+     * notlu satır varsa adet artar, yoksa not ile yeni satır açılır.
+     * {@code note} boşsa 7 argümanlı {@link #addOrIncrement} ile aynıdır.
+     *
+     * @return notun sonucu; not verilmediyse {@code null}
+     */
+    ItemNoteUpdateResult addOrIncrementWithNote(Long orderId, Long productId, String productName, int qty,
+                                                BigDecimal unitPrice, Integer piecesPerPortion,
+                                                String unitLabel, String note);
     void decrementOrRemove(Long orderItemId, int qty);
+
+    /**
+     * {@code fromItemId} satırının adedini {@code intoItemId} satırına ekler ve
+     * {@code fromItemId}'yi siler — not düzenlemesi satırı aynı notlu başka bir
+     * satırla çakıştırdığında. Transaction içinde çağrılmalıdır.
+     *
+     * @return satırlardan biri yoksa {@code false} (hiçbir şey değişmez)
+     */
+    boolean mergeLine(Long fromItemId, Long intoItemId);
     void removeAllForOrder(Long orderId);
 
     /**
@@ -1,10 +1,15 @@
 package dao;
 
+import model.OrderLogRow;
 import state.OrderLogEntry;
 
 import java.util.List;
 
 public interface OrderLogDAO {
     void append(Long orderId, String message);
+
+    /** Satırları tek JDBC batch'iyle, tek transaction'da yazar (verilen sırayla). */
+    void appendAll(List<OrderLogRow> rows);
+
     List<OrderLogEntry> findRecentByOrder(Long orderId, int limit);
 }
@@ -5,6 +5,7 @@ import model.Payment;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface PaymentDAO extends CrudRepository<Payment, Long> {
     List<Payment> findByOrderId(Long orderId);
@@ -12,4 +13,13 @@ public interface PaymentDAO extends CrudRepository<Payment, Long> {
 
     // YENİ: PaymentService’in kullandığı metod
     List<Payment> findByDateRange(LocalDate startInclusive, LocalDate endExclusive);
+
+    /**
+     * {@link #findByDateRange} ile aynı satırlar, aynı sırada — ama liste
+     * kurmadan, okundukça {@code sink}'e verilir (ay sonu raporu / export).
+     * {@code sink} içinde aynı bağlantıyla sorgu yapılmamalı.
+     */
+    default void forEachInDateRange(LocalDate startInclusive, LocalDate endExclusive, Consumer<Payment> sink) {
+        findByDateRange(startInclusive, endExclusive).forEach(sink);
+    }
 }
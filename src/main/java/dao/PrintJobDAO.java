@@ -2,6 +2,7 @@ package dao;
 
 import model.PrintJob;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
@@ -9,11 +10,25 @@ public interface PrintJobDAO {
 
     Long enqueue(PrintJob job);
 
+    /**
+     * Birden fazla işi tek seferde yazar (JDBC: tek transaction, tek batch).
+     *
+     * @return işlerin id'leri, verilen sırayla
+     */
+    default List<Long> enqueueAll(List<PrintJob> jobs) {
+        List<Long> ids = new ArrayList<>(jobs.size());
+        for (PrintJob job : jobs) {
+            ids.add(enqueue(job));
+        }
+        return ids;
+    }
+
     Optional<PrintJob> findById(Long id);
 
     /** Bekleyen + başarısız işleri (yeniden deneme için) en eski tarihten itibaren döner. */
     List<PrintJob> findPending(int limit);
 
+    /** İdempotent: zaten PRINTED olan kayıt (ve {@code printed_at}'i) değişmez. */
     void markPrinted(Long id);
 
     void markFailed(Long id, String error);
@@ -0,0 +1,17 @@
+package dao;
+
+import model.SalesPage;
+
+import java.time.LocalDateTime;
+
+// Read-only: satış listesi (payments JOIN orders/dining_tables/users)
+public interface SalesQueryDAO {
+
+    /**
+     * {@code [from, to)} aralığındaki ödemeler, en yeniden eskiye.
+     *
+     * @param afterCursor önceki sayfanın {@link SalesPage#nextCursor()} değeri; ilk sayfa için {@code null}
+     * @param limit       sayfa boyu; {@code <= 0} ise tüm aralık tek sayfada döner
+     */
+    SalesPage findPage(LocalDateTime from, LocalDateTime to, String afterCursor, int limit);
+}
@@ -0,0 +1,38 @@
+package dao;
+
+import model.ProductRollupRow;
+import model.SalesRollupRow;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Önceden toplanmış satış tabloları ({@code daily_sales_rollup},
+ * {@code daily_product_rollup}). Raporlar ham ödeme satırları yerine bunları
+ * okur; okunan satır sayısı satış hacminden bağımsızdır.
+ */
+public interface SalesRollupDAO {
+
+    /**
+     * Kapanan siparişin ödemelerini ve kalemlerini rollup'lara ekler.
+     * Kapanış transaction'ı içinde, ödemeler yazıldıktan sonra çağrılır.
+     */
+    void applyOrder(Long orderId);
+
+    /** {@code [from, toInclusive]} günlerini ham tablolardan yeniden hesaplar. */
+    void rebuild(LocalDate fromInclusive, LocalDate toInclusive);
+
+    List<SalesRollupRow> findSales(LocalDate fromInclusive, LocalDate toInclusive);
+
+    /** Aralıktaki ürün toplamları (günler birleştirilmiş), adede göre azalan. */
+    List<ProductRollupRow> findProducts(LocalDate fromInclusive, LocalDate toInclusive);
+
+    /** İlk ödemenin günü — geri doldurma (backfill) başlangıcı için. */
+    Optional<LocalDate> findFirstPaymentDate();
+
+    /** Rollup'taki en eski gün; tablo boşsa boş. */
+    Optional<LocalDate> findFirstRollupDate();
+
+    boolean isAvailable();
+}
@@ -0,0 +1,277 @@
+package dao.jdbc;
+
+import DataConnection.Db;
+import dao.ChangeFeedDAO;
+import model.ChangeEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+public class ChangeFeedJdbcDAO implements ChangeFeedDAO {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ChangeFeedJdbcDAO.class);
+
+    /**
+     * Tablo yokluğu tüm örnekler için ortaktır — tx içinde her seferinde yeni
+     * DAO üretildiğinden instance alanı yetmez. Kalıcı değildir: tablo sonradan
+     * oluşabilir (başka düğümde SchemaPatcher, yedekten dönüş), bu yüzden
+     * {@link #REPROBE_INTERVAL_NANOS} sonra tekrar denenir.
+     */
+    private static volatile boolean tableMissing;
+    private static volatile long missingSinceNanos;
+    private static volatile boolean missingReported;
+    private static final Object SCHEMA_LOCK = new Object();
+    static final long REPROBE_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(60);
+
+    private final DataSource dataSource;
+    private final Connection externalConnection;
+
+    public ChangeFeedJdbcDAO() {
+        this(Db.getDataSource(), null);
+    }
+
+    public ChangeFeedJdbcDAO(DataSource dataSource) {
+        this(dataSource, null);
+    }
+
+    public ChangeFeedJdbcDAO(Connection connection) {
+        this(Db.getDataSource(), connection);
+    }
+
+    private ChangeFeedJdbcDAO(DataSource dataSource, Connection externalConnection) {
+        this.dataSource = dataSource;
+        this.externalConnection = externalConnection;
+    }
+
+    private Connection acquireConnection() throws SQLException {
+        if (externalConnection != null) {
+            return externalConnection;
+        }
+        if (dataSource == null) {
+            throw new IllegalStateException("No DataSource configured for ChangeFeedJdbcDAO");
+        }
+        return dataSource.getConnection();
+    }
+
+    private void close(Connection connection) {
+        if (externalConnection == null && connection != null) {
+            try {
+                connection.close();
+            } catch (SQLException e) {
+                throw new RuntimeException(e);
+            }
+        }
+    }
+
+    @Override
+    public void append(String topic, Long tableId, Long entityId) {
+        if (tableMissing()) {
+            return;
+        }
+        final String sql = "INSERT INTO change_seq (topic, table_id, entity_id, origin, created_at) VALUES (?,?,?,?,?)";
+        Connection connection = null;
+        try {
+            connection = acquireConnection();
+            try (PreparedStatement ps = connection.prepareStatement(sql)) {
+                ps.setString(1, topic);
+                setNullableLong(ps, 2, tableId);
+                setNullableLong(ps, 3, entityId);
+                ps.setString(4, ChangeEvent.LOCAL_ORIGIN);
+                ps.setTimestamp(5, new Timestamp(System.currentTimeMillis()));
+                ps.executeUpdate();
+            }
+        } catch (SQLException ex) {
+            handleWriteFailure(ex);
+        } finally {
+            close(connection);
+        }
+    }
+
+    @Override
+    public void appendForOrder(String topic, Long orderId) {
+        if (tableMissing() || orderId == null) {
+            return;
+        }
+        final String sql = "INSERT INTO change_seq (topic, table_id, entity_id, origin, created_at) " +
+                "SELECT ?, o.table_id, o.id, ?, ? FROM orders o WHERE o.id=?";
+        Connection connection = null;
+        try {
+            connection = acquireConnection();
+            try (PreparedStatement ps = connection.prepareStatement(sql)) {
+                ps.setString(1, topic);
+                ps.setString(2, ChangeEvent.LOCAL_ORIGIN);
+                ps.setTimestamp(3, new Timestamp(System.currentTimeMillis()));
+                ps.setLong(4, orderId);
+                ps.executeUpdate();
+            }
+        } catch (SQLException ex) {
+            handleWriteFailure(ex);
+        } finally {
+            close(connection);
+        }
+    }
+
+    @Override
+    public List<ChangeEvent> findSince(long afterSeq, int limit) {
+        if (tableMissing()) {
+            return List.of();
+        }
+        final String sql = "SELECT seq, topic, table_id, entity_id, origin, created_at FROM change_seq " +
+                "WHERE seq > ? ORDER BY seq LIMIT ?";
+        List<ChangeEvent> out = new ArrayList<>();
+        Connection connection = null;
+        try {
+            connection = acquireConnection();
+            try (PreparedStatement ps = connection.prepareStatement(sql)) {
+                ps.setLong(1, afterSeq);
+                ps.setInt(2, limit);
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        out.add(map(rs));
+                    }
+                }
+            }
+        } catch (SQLException ex) {
+            if (handleMissingTable(ex)) {
+                return List.of();
+            }
+            throw new RuntimeException(ex);
+        } finally {
+            close(connection);
+        }
+        return out;
+    }
+
+    @Override
+    public long latestSeq() {
+        if (tableMissing()) {
+            return 0L;
+        }
+        final String sql = "SELECT COALESCE(MAX(seq), 0) FROM change_seq";
+        Connection connection = null;
+        try {
+            connection = acquireConnection();
+            try (PreparedStatement ps = connection.prepareStatement(sql);
+                 ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? rs.getLong(1) : 0L;
+            }
+        } catch (SQLException ex) {
+            if (handleMissingTable(ex)) {
+                return 0L;
+            }
+            throw new RuntimeException(ex);
+        } finally {
+            close(connection);
+        }
+    }
+
+    @Override
+    public boolean isAvailable() {
+        return !tableMissing();
+    }
+
+    /**
+     * Tablonun (yeniden) oluşturulduğu bilindiğinde çağrılır; bir sonraki
+     * çağrı tabloyu beklemeden tekrar dener.
+     */
+    public static void resetAvailability() {
+        tableMissing = false;
+        missingReported = false;
+    }
+
+    /** Yokluk işaretliyse ve yeniden deneme süresi dolduysa işareti kaldırır. */
+    private static boolean tableMissing() {
+        if (!tableMissing) {
+            return false;
+        }
+        if (System.nanoTime() - missingSinceNanos >= REPROBE_INTERVAL_NANOS) {
+            tableMissing = false;
+            return false;
+        }
+        return true;
+    }
+
+    private ChangeEvent map(ResultSet rs) throws SQLException {
+        long tableId = rs.getLong("table_id");
+        Long table = rs.wasNull() ? null : tableId;
+        long entityId = rs.getLong("entity_id");
+        Long entity = rs.wasNull() ? null : entityId;
+        Timestamp created = rs.getTimestamp("created_at");
+        return new ChangeEvent(rs.getLong("seq"), rs.getString("topic"), table, entity,
+                rs.getString("origin"), created == null ? null : created.toLocalDateTime());
+    }
+
+    private static void setNullableLong(PreparedStatement ps, int index, Long value) throws SQLException {
+        if (value == null) {
+            ps.setNull(index, Types.BIGINT);
+        } else {
+            ps.setLong(index, value);
+        }
+    }
+
+    /**
+     * Günlük yazımı asıl mutasyonu asla düşürmez: MySQL'de başarısız tek bir
+     * INSERT transaction'ı geri almaz, bu yüzden hatayı loglayıp devam ederiz.
+     * En kötü durumda diğer terminaller değişikliği bir sonraki olayda görür.
+     */
+    private void handleWriteFailure(SQLException ex) {
+        if (handleMissingTable(ex)) {
+            return;
+        }
+        LOG.warn("change_seq kaydı yazılamadı (SQLState={}): {}", ex.getSQLState(), ex.getMessage());
+    }
+
+    private boolean handleMissingTable(SQLException ex) {
+        if (isMissingTable(ex)) {
+            if (!tableMissing) {
+                synchronized (SCHEMA_LOCK) {
+                    if (!tableMissing) {
+                        missingSinceNanos = System.nanoTime();
+                        tableMissing = true;
+                        // Yeniden denemeler her dakika düşer; yalnız ilki uyarı
+                        if (!missingReported) {
+                            missingReported = true;
+                            LOG.warn("Değişiklik günlüğü tablosu (change_seq) bulunamadı. Tam tarama poller'ına dönülüyor. Detay: "
+                                    + ex.getMessage());
+                        } else {
+                            LOG.debug("change_seq hâlâ yok: {}", ex.getMessage());
+                        }
+                    }
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+
+    private boolean isMissingTable(SQLException ex) {
+        SQLException current = ex;
+        while (current != null) {
+            String state = current.getSQLState();
+            if ("42S02".equals(state) || messageRefersMissingTable(current.getMessage())) {
+                return true;
+            }
+            current = current.getNextException();
+        }
+        return false;
+    }
+
+    private boolean messageRefersMissingTable(String message) {
+        if (message == null) {
+            return false;
+        }
+        String lower = message.toLowerCase();
+        return (lower.contains("doesn't exist") || lower.contains("does not exist") || lower.contains("not found"))
+                && lower.contains("change_seq");
+    }
+}
@@ -13,7 +13,7 @@ public class KitchenPrinterJdbcDAO implements KitchenPrinterDAO {
 
     private static final String COLS =
             "id, code, display_name, host, port, char_per_line, code_page, is_active, note, " +
-            "created_at, updated_at";
+            "fallback_printer_id, keep_alive_ms, created_at, updated_at";
 
     private final Connection externalConn;
 
@@ -32,6 +32,10 @@ public class KitchenPrinterJdbcDAO implements KitchenPrinterDAO {
         p.setCodePage(rs.getInt("code_page"));
         p.setActive(rs.getBoolean("is_active"));
         p.setNote(rs.getString("note"));
+        int fallback = rs.getInt("fallback_printer_id");
+        p.setFallbackPrinterId(rs.wasNull() ? null : fallback);
+        int keepAlive = rs.getInt("keep_alive_ms");
+        p.setKeepAliveMs(rs.wasNull() ? null : keepAlive);
         Timestamp cr = rs.getTimestamp("created_at");
         Timestamp up = rs.getTimestamp("updated_at");
         if (cr != null) p.setCreatedAt(cr.toLocalDateTime());
@@ -43,8 +47,8 @@ public class KitchenPrinterJdbcDAO implements KitchenPrinterDAO {
     @Override
     public Integer create(KitchenPrinter e) {
         final String sql = "INSERT INTO kitchen_printers " +
-                "(code, display_name, host, port, char_per_line, code_page, is_active, note) " +
-                "VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+                "(code, display_name, host, port, char_per_line, code_page, is_active, note, " +
+                "fallback_printer_id, keep_alive_ms) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
         try {
             return runReturning(sql, ps -> {
                 ps.setString(1, e.getCode());
@@ -55,6 +59,8 @@ public class KitchenPrinterJdbcDAO implements KitchenPrinterDAO {
                 ps.setInt(6, e.getCodePage());
                 ps.setBoolean(7, e.isActive());
                 ps.setString(8, e.getNote());
+                setNullableInt(ps, 9, e.getFallbackPrinterId());
+                setNullableInt(ps, 10, e.getKeepAliveMs());
             });
         } catch (SQLException ex) { throw new RuntimeException(ex); }
     }
@@ -63,7 +69,7 @@ public class KitchenPrinterJdbcDAO implements KitchenPrinterDAO {
     public void update(KitchenPrinter e) {
         final String sql = "UPDATE kitchen_printers SET " +
                 "code=?, display_name=?, host=?, port=?, char_per_line=?, code_page=?, " +
-                "is_active=?, note=?, updated_at=NOW() WHERE id=?";
+                "is_active=?, note=?, fallback_printer_id=?, keep_alive_ms=?, updated_at=NOW() WHERE id=?";
         run(sql, ps -> {
             ps.setString(1, e.getCode());
             ps.setString(2, e.getDisplayName());
@@ -73,7 +79,9 @@ public class KitchenPrinterJdbcDAO implements KitchenPrinterDAO {
             ps.setInt(6, e.getCodePage());
             ps.setBoolean(7, e.isActive());
             ps.setString(8, e.getNote());
-            ps.setLong(9, e.getId());
+            setNullableInt(ps, 9, e.getFallbackPrinterId());
+            setNullableInt(ps, 10, e.getKeepAliveMs());
+            ps.setLong(11, e.getId());
         });
     }
 
@@ -109,6 +117,11 @@ public class KitchenPrinterJdbcDAO implements KitchenPrinterDAO {
     // ---- yardımcılar (try-with-resources doğru kullanım) ----
     @FunctionalInterface private interface PsBinder { void bind(PreparedStatement ps) throws SQLException; }
 
+    private static void setNullableInt(PreparedStatement ps, int idx, Integer value) throws SQLException {
+        if (value == null) ps.setNull(idx, Types.INTEGER);
+        else ps.setInt(idx, value);
+    }
+
     private Connection acquireConn() throws SQLException {
         return externalConn != null ? externalConn : Db.getConnection();
     }
@@ -11,8 +11,11 @@ import javax.sql.DataSource;
 import java.math.BigDecimal;
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class OrderItemsJdbcDAO implements OrderItemsDAO {
 
@@ -28,6 +31,10 @@ public class OrderItemsJdbcDAO implements OrderItemsDAO {
      */
     private volatile Boolean noteColumnConfirmed;
 
+    /** {@code SchemaPatcher}'ın eklediği kalem anahtarı — sıra önemli. */
+    private static final List<String> UPSERT_KEY_COLUMNS = List.of("order_id", "product_id", "note_hash");
+    private static final Map<String, Boolean> UPSERT_KEY_BY_URL = new ConcurrentHashMap<>();
+
     private final DataSource dataSource;
     private final Connection externalConnection;
 
@@ -248,38 +255,126 @@ public class OrderItemsJdbcDAO implements OrderItemsDAO {
         addOrIncrement(orderId, productId, productName, quantity, unitPrice, null, null);
     }
 
+    /**
+     * {@code uk_order_items_line (order_id, product_id, note_hash)} varsa tek
+     * {@code INSERT ... ON DUPLICATE KEY UPDATE}: satır yoksa snapshot'larıyla
+     * eklenir, varsa adet artar ve fiyat güncellenir — eşzamanlı eklemeler
+     * aynı satırda buluşur. Anahtar yoksa (eski şema, anahtarsız test DB'si)
+     * eski UPDATE → INSERT → snapshot UPDATE yolu.
+     *
+     * <p>Notsuz ekleme notsuz satıra ({@code note_hash = ''}) gider; notlu
+     * satır artık ayrı kalemdir.
+     */
     @Override
     public void addOrIncrement(Long orderId, Long productId, String productName, int quantity,
                                BigDecimal unitPrice, Integer piecesPerPortion, String unitLabel) {
         Connection connection = null;
         try {
             connection = acquireConnection();
-            try (PreparedStatement upd = connection.prepareStatement(
-                    "UPDATE order_items SET quantity = quantity + ?, unit_price = ? WHERE order_id=? AND product_id=?")) {
-                upd.setInt(1, quantity);
-                upd.setBigDecimal(2, unitPrice);
-                upd.setLong(3, orderId);
-                upd.setLong(4, productId);
-                int rows = upd.executeUpdate();
+            if (hasUpsertKey(connection)) {
+                boolean snapshot = piecesPerPortion != null || unitLabel != null;
+                try {
+                    upsertLine(connection, orderId, productId, productName, quantity, unitPrice,
+                            snapshot, piecesPerPortion, unitLabel, null);
+                } catch (SQLException ex) {
+                    // Migration v3 uygulanmadıysa snapshot sütunları yoktur — onlarsız tekrar
+                    if (!snapshot || !isBadField(ex)) throw ex;
+                    upsertLine(connection, orderId, productId, productName, quantity, unitPrice,
+                            false, null, null, null);
+                }
+            } else {
+                updateThenInsert(connection, orderId, productId, productName, quantity, unitPrice,
+                        piecesPerPortion, unitLabel);
+            }
+        } catch (SQLException ex) {
+            throw new RuntimeException(ex);
+        } finally {
+            close(connection);
+        }
+    }
 
-                if (rows == 0) {
-                    try (PreparedStatement ins = connection.prepareStatement(
-                            "INSERT INTO order_items (order_id, product_id, product_name, quantity, unit_price) VALUES (?,?,?,?,?)")) {
-                        ins.setLong(1, orderId);
-                        ins.setLong(2, productId);
-                        if (productName == null || productName.isBlank()) {
-                            ins.setNull(3, Types.VARCHAR);
-                        } else {
-                            ins.setString(3, productName);
-                        }
-                        ins.setInt(4, quantity);
-                        ins.setBigDecimal(5, unitPrice);
-                        ins.executeUpdate();
-                    }
-                    // Snapshot alanları varsa atayalım (best-effort)
-                    if (piecesPerPortion != null || unitLabel != null) {
-                        applyPortionSnapshotBestEffort(connection, orderId, productId,
-                                piecesPerPortion, unitLabel);
+    /**
+     * Tek satırlık upsert. {@code note} doluysa INSERT'e eklenir; üretilmiş
+     * {@code note_hash} sayesinde aynı notlu satır artar.
+     */
+    private void upsertLine(Connection connection, Long orderId, Long productId, String productName,
+                            int quantity, BigDecimal unitPrice, boolean snapshot,
+                            Integer piecesPerPortion, String unitLabel, String note) throws SQLException {
+        StringBuilder columns = new StringBuilder("order_id, product_id, product_name, quantity, unit_price");
+        StringBuilder values = new StringBuilder("?,?,?,?,?");
+        if (snapshot) {
+            columns.append(", pieces_per_portion, unit_label");
+            values.append(",?,?");
+        }
+        if (note != null) {
+            columns.append(", note");
+            values.append(",?");
+        }
+        final String sql = "INSERT INTO order_items (" + columns + ") VALUES (" + values + ") " +
+                "ON DUPLICATE KEY UPDATE quantity = quantity + VALUES(quantity), unit_price = VALUES(unit_price)";
+        try (PreparedStatement ps = connection.prepareStatement(sql)) {
+            int i = 1;
+            ps.setLong(i++, orderId);
+            ps.setLong(i++, productId);
+            if (productName == null || productName.isBlank()) {
+                ps.setNull(i++, Types.VARCHAR);
+            } else {
+                ps.setString(i++, productName);
+            }
+            ps.setInt(i++, quantity);
+            ps.setBigDecimal(i++, unitPrice);
+            if (snapshot) {
+                if (piecesPerPortion == null) ps.setNull(i++, Types.INTEGER);
+                else ps.setInt(i++, piecesPerPortion);
+                if (unitLabel == null || unitLabel.isBlank()) ps.setNull(i++, Types.VARCHAR);
+                else ps.setString(i++, unitLabel);
+            }
+            if (note != null) {
+                ps.setString(i, note);
+            }
+            ps.executeUpdate();
+        }
+    }
+
+    /**
+     * Notlu ekleme. Anahtarlı şemada not satır kimliğinin parçasıdır: aynı
+     * notlu satır artar, yoksa not ile eklenir — tek ifade. {@code note}
+     * sütunu yoksa not yazılmadan eklenir ({@code UNSUPPORTED_SCHEMA}).
+     * Anahtarsız şemada eski yol + not UPDATE'i.
+     */
+    @Override
+    public ItemNoteUpdateResult addOrIncrementWithNote(Long orderId, Long productId, String productName, int quantity,
+                                                       BigDecimal unitPrice, Integer piecesPerPortion,
+                                                       String unitLabel, String note) {
+        if (note == null || note.isBlank()) {
+            addOrIncrement(orderId, productId, productName, quantity, unitPrice, piecesPerPortion, unitLabel);
+            return null;
+        }
+        String value = note.length() > 255 ? note.substring(0, 255) : note;
+        Connection connection = null;
+        try {
+            connection = acquireConnection();
+            if (!hasUpsertKey(connection)) {
+                updateThenInsert(connection, orderId, productId, productName, quantity, unitPrice,
+                        piecesPerPortion, unitLabel);
+                return applyNoteByProduct(connection, orderId, productId, value);
+            }
+            boolean snapshot = piecesPerPortion != null || unitLabel != null;
+            boolean withNote = true;
+            while (true) {
+                try {
+                    upsertLine(connection, orderId, productId, productName, quantity, unitPrice,
+                            snapshot, piecesPerPortion, unitLabel, withNote ? value : null);
+                    return withNote ? ItemNoteUpdateResult.APPLIED : ItemNoteUpdateResult.UNSUPPORTED_SCHEMA;
+                } catch (SQLException ex) {
+                    if (!isBadField(ex)) throw ex;
+                    // Önce snapshot, sonra not sütunu olmadan tekrar
+                    if (snapshot) {
+                        snapshot = false;
+                    } else if (withNote) {
+                        withNote = false;
+                    } else {
+                        throw ex;
                     }
                 }
             }
@@ -290,6 +385,101 @@ public class OrderItemsJdbcDAO implements OrderItemsDAO {
         }
     }
 
+    private ItemNoteUpdateResult applyNoteByProduct(Connection connection, Long orderId, Long productId,
+                                                    String note) {
+        try (PreparedStatement ps = connection.prepareStatement(
+                "UPDATE order_items SET note=?, updated_at=NOW() WHERE order_id=? AND product_id=?")) {
+            ps.setString(1, note);
+            ps.setLong(2, orderId);
+            ps.setLong(3, productId);
+            return ps.executeUpdate() > 0 ? ItemNoteUpdateResult.APPLIED : ItemNoteUpdateResult.NOT_FOUND;
+        } catch (SQLException ex) {
+            if (isBadField(ex)) return ItemNoteUpdateResult.UNSUPPORTED_SCHEMA;
+            LOG.warn("Order item note update failed (SQLState={}, vendorCode={})",
+                    ex.getSQLState(), ex.getErrorCode());
+            return ItemNoteUpdateResult.FAILED;
+        }
+    }
+
+    /** Upsert anahtarı olmayan şema için eski yol (en fazla üç ifade). */
+    private void updateThenInsert(Connection connection, Long orderId, Long productId, String productName,
+                                  int quantity, BigDecimal unitPrice,
+                                  Integer piecesPerPortion, String unitLabel) throws SQLException {
+        try (PreparedStatement upd = connection.prepareStatement(
+                "UPDATE order_items SET quantity = quantity + ?, unit_price = ? WHERE order_id=? AND product_id=?")) {
+            upd.setInt(1, quantity);
+            upd.setBigDecimal(2, unitPrice);
+            upd.setLong(3, orderId);
+            upd.setLong(4, productId);
+            int rows = upd.executeUpdate();
+
+            if (rows == 0) {
+                try (PreparedStatement ins = connection.prepareStatement(
+                        "INSERT INTO order_items (order_id, product_id, product_name, quantity, unit_price) VALUES (?,?,?,?,?)")) {
+                    ins.setLong(1, orderId);
+                    ins.setLong(2, productId);
+                    if (productName == null || productName.isBlank()) {
+                        ins.setNull(3, Types.VARCHAR);
+                    } else {
+                        ins.setString(3, productName);
+                    }
+                    ins.setInt(4, quantity);
+                    ins.setBigDecimal(5, unitPrice);
+                    ins.executeUpdate();
+                }
+                // Snapshot alanları varsa atayalım (best-effort)
+                if (piecesPerPortion != null || unitLabel != null) {
+                    applyPortionSnapshotBestEffort(connection, orderId, productId,
+                            piecesPerPortion, unitLabel);
+                }
+            }
+        }
+    }
+
+    /**
+     * {@code (order_id, product_id, note_hash)} üzerinde UNIQUE indeks var mı?
+     * Sonuç veritabanı URL'si başına bir kez okunur (DAO her transaction'da
+     * yeniden kurulur); metadata okunamazsa önbelleğe yazılmaz, eski yol seçilir.
+     */
+    private static boolean hasUpsertKey(Connection connection) {
+        String url;
+        try {
+            url = connection.getMetaData().getURL();
+        } catch (SQLException ex) {
+            return false;
+        }
+        Boolean cached = UPSERT_KEY_BY_URL.get(url);
+        if (cached != null) {
+            return cached;
+        }
+        Map<String, List<String>> unique = new HashMap<>();
+        try (ResultSet rs = connection.getMetaData().getIndexInfo(
+                connection.getCatalog(), null, "order_items", true, false)) {
+            while (rs.next()) {
+                String name = rs.getString("INDEX_NAME");
+                String column = rs.getString("COLUMN_NAME");
+                if (name == null || column == null) continue;
+                List<String> cols = unique.computeIfAbsent(name, k -> new ArrayList<>());
+                int pos = rs.getInt("ORDINAL_POSITION");
+                while (cols.size() < pos) cols.add(null);
+                cols.set(pos - 1, column.toLowerCase());
+            }
+        } catch (SQLException ex) {
+            LOG.debug("order_items indeksleri okunamadı: {}", ex.getMessage());
+            return false;
+        }
+        boolean found = unique.containsValue(UPSERT_KEY_COLUMNS);
+        UPSERT_KEY_BY_URL.put(url, found);
+        if (!found) {
+            LOG.info("order_items upsert anahtarı yok — UPDATE/INSERT yolu kullanılacak");
+        }
+        return found;
+    }
+
+    private static boolean isBadField(SQLException ex) {
+        return ex.getErrorCode() == MYSQL_ER_BAD_FIELD_ERROR || "42S22".equals(ex.getSQLState());
+    }
+
     /**
      * Yeni eklenen order_items satırına pieces_per_portion + unit_label
      * snapshot'ı yazmak için best-effort UPDATE. Sütunlar yoksa sessiz geç.
@@ -342,6 +532,44 @@ public class OrderItemsJdbcDAO implements OrderItemsDAO {
         }
     }
 
+    @Override
+    public boolean mergeLine(Long fromItemId, Long intoItemId) {
+        Connection connection = null;
+        try {
+            connection = acquireConnection();
+            int quantity;
+            // MySQL UPDATE aynı tabloyu alt sorguda okuyamaz (1093) — adet önce okunur
+            try (PreparedStatement select = connection.prepareStatement(
+                    "SELECT quantity FROM order_items WHERE id=? FOR UPDATE")) {
+                select.setLong(1, fromItemId);
+                try (ResultSet rs = select.executeQuery()) {
+                    if (!rs.next()) {
+                        return false;
+                    }
+                    quantity = rs.getInt(1);
+                }
+            }
+            try (PreparedStatement update = connection.prepareStatement(
+                    "UPDATE order_items SET quantity = quantity + ? WHERE id=?")) {
+                update.setInt(1, quantity);
+                update.setLong(2, intoItemId);
+                if (update.executeUpdate() == 0) {
+                    return false;
+                }
+            }
+            try (PreparedStatement delete = connection.prepareStatement(
+                    "DELETE FROM order_items WHERE id=?")) {
+                delete.setLong(1, fromItemId);
+                delete.executeUpdate();
+            }
+            return true;
+        } catch (SQLException ex) {
+            throw new RuntimeException(ex);
+        } finally {
+            close(connection);
+        }
+    }
+
     @Override
     public void updateKitchenOverride(Long orderItemId, Integer printerId) {
         final String sql = "UPDATE order_items SET kitchen_override_id=?, updated_at=NOW() WHERE id=?";
@@ -4,6 +4,8 @@ import DataConnection.Db;
 import dao.OrderDAO;
 import model.Order;
 import model.OrderStatus;
+import model.TableOrderState;
+import model.TableStatus;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -407,6 +409,87 @@ public class OrderJdbcDAO implements OrderDAO {
         }
     }
 
+    @Override
+    public List<TableOrderState> findAllTableStates() {
+        List<TableOrderState> list = new ArrayList<>();
+        Connection connection = null;
+        try {
+            connection = acquireConnection();
+            detectStatusMode(connection);
+            // Masa sütunları alias'lı; o.* map(rs)'in beklediği sipariş sütunlarını verir.
+            // Kalem toplamı ilişkili alt sorgu: yalnızca açık siparişin kalemleri
+            // (order_items.order_id indeksi) okunur, geçmiş siparişler taranmaz.
+            final String sql = "SELECT t.id AS t_id, t.table_no AS t_table_no, t.status AS t_status, o.*, " +
+                    "(SELECT SUM(ROUND(COALESCE(oi.unit_price, 0) * GREATEST(oi.quantity, 0), 2)) " +
+                    "   FROM order_items oi WHERE oi.order_id = o.id) AS open_total " +
+                    "FROM dining_tables t " +
+                    "LEFT JOIN (SELECT table_id AS open_table_id, MAX(id) AS open_order_id FROM orders " +
+                    "           WHERE table_id IS NOT NULL AND " + openStatusesCondition() +
+                    "           GROUP BY table_id) oo ON oo.open_table_id = t.id " +
+                    "LEFT JOIN orders o ON o.id = oo.open_order_id " +
+                    "ORDER BY t.table_no";
+            try (PreparedStatement ps = connection.prepareStatement(sql);
+                 ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    list.add(mapTableState(rs));
+                }
+            }
+        } catch (SQLException ex) {
+            throw new RuntimeException(ex);
+        } finally {
+            close(connection);
+        }
+        return list;
+    }
+
+    @Override
+    public Optional<TableOrderState> findTableState(int tableNo) {
+        Connection connection = null;
+        try {
+            connection = acquireConnection();
+            detectStatusMode(connection);
+            // Tek masa: açık sipariş ilişkili alt sorguyla — diğer masaların siparişleri gruplanmaz.
+            // Alt sorgudaki niteliksiz "status" orders x'e çözülür (en içteki kapsam).
+            final String sql = "SELECT t.id AS t_id, t.table_no AS t_table_no, t.status AS t_status, o.*, " +
+                    "(SELECT SUM(ROUND(COALESCE(oi.unit_price, 0) * GREATEST(oi.quantity, 0), 2)) " +
+                    "   FROM order_items oi WHERE oi.order_id = o.id) AS open_total " +
+                    "FROM dining_tables t " +
+                    "LEFT JOIN orders o ON o.id = (SELECT MAX(x.id) FROM orders x " +
+                    "           WHERE x.table_id = t.id AND " + openStatusesCondition() + ") " +
+                    "WHERE t.table_no = ? " +
+                    "ORDER BY t.id LIMIT 1";
+            try (PreparedStatement ps = connection.prepareStatement(sql)) {
+                ps.setInt(1, tableNo);
+                try (ResultSet rs = ps.executeQuery()) {
+                    return rs.next() ? Optional.of(mapTableState(rs)) : Optional.empty();
+                }
+            }
+        } catch (SQLException ex) {
+            throw new RuntimeException(ex);
+        } finally {
+            close(connection);
+        }
+    }
+
+    private TableOrderState mapTableState(ResultSet rs) throws SQLException {
+        Order open = rs.getObject("id") == null ? null : map(rs);
+        BigDecimal openTotal = rs.getBigDecimal("open_total");
+        return new TableOrderState(rs.getLong("t_id"), rs.getInt("t_table_no"),
+                parseTableStatus(rs.getString("t_status")), open,
+                openTotal == null ? BigDecimal.ZERO : openTotal);
+    }
+
+    private TableStatus parseTableStatus(String value) {
+        if (value == null || value.isBlank()) {
+            return TableStatus.EMPTY;
+        }
+        try {
+            return TableStatus.valueOf(value.trim());
+        } catch (IllegalArgumentException ex) {
+            return TableStatus.EMPTY;
+        }
+    }
+
     @Override
     public void updateStatus(Long orderId, OrderStatus status) {
         updateStatusInternal(orderId, status, EnumSet.noneOf(OrderStatus.class));
@@ -668,6 +751,71 @@ public class OrderJdbcDAO implements OrderDAO {
         }
     }
 
+    @Override
+    public void recomputeTotalsFromItems(Long orderId) {
+        final String sql = "UPDATE orders SET " +
+                "subtotal=(SELECT COALESCE(SUM(net_amount),0) FROM order_items WHERE order_id=?), " +
+                "tax_total=(SELECT COALESCE(SUM(tax_amount),0) FROM order_items WHERE order_id=?), " +
+                "discount_total=0, " +
+                "total=(SELECT COALESCE(SUM(line_total),0) FROM order_items WHERE order_id=?), " +
+                "updated_at=NOW() WHERE id=?";
+        Connection connection = null;
+        try {
+            connection = acquireConnection();
+            try (PreparedStatement ps = connection.prepareStatement(sql)) {
+                ps.setLong(1, orderId);
+                ps.setLong(2, orderId);
+                ps.setLong(3, orderId);
+                ps.setLong(4, orderId);
+                ps.executeUpdate();
+            }
+        } catch (SQLException ex) {
+            throw new RuntimeException(ex);
+        } finally {
+            close(connection);
+        }
+    }
+
+    @Override
+    public void adjustTotalsForProduct(Long orderId, Long productId, int sign) {
+        adjustTotals(orderId, "order_id=? AND product_id=?", orderId, productId, sign);
+    }
+
+    @Override
+    public void adjustTotalsForItem(Long orderId, Long orderItemId, int sign) {
+        adjustTotals(orderId, "order_id=? AND id=?", orderId, orderItemId, sign);
+    }
+
+    /**
+     * {@code orders} satırını ilk ifadede kilitler; aynı siparişe eşzamanlı
+     * kalem değişiklikleri commit'e kadar sıralanır, delta kaybolmaz.
+     */
+    private void adjustTotals(Long orderId, String lineFilter, Long key1, Long key2, int sign) {
+        final String sql = "UPDATE orders SET " +
+                "subtotal=subtotal+?*(SELECT COALESCE(SUM(net_amount),0) FROM order_items WHERE " + lineFilter + "), " +
+                "tax_total=tax_total+?*(SELECT COALESCE(SUM(tax_amount),0) FROM order_items WHERE " + lineFilter + "), " +
+                "total=total+?*(SELECT COALESCE(SUM(line_total),0) FROM order_items WHERE " + lineFilter + "), " +
+                "updated_at=NOW() WHERE id=?";
+        Connection connection = null;
+        try {
+            connection = acquireConnection();
+            try (PreparedStatement ps = connection.prepareStatement(sql)) {
+                int i = 1;
+                for (int column = 0; column < 3; column++) {
+                    ps.setInt(i++, sign);
+                    ps.setLong(i++, key1);
+                    ps.setLong(i++, key2);
+                }
+                ps.setLong(i, orderId);
+                ps.executeUpdate();
+            }
+        } catch (SQLException ex) {
+            throw new RuntimeException(ex);
+        } finally {
+            close(connection);
+        }
+    }
+
     private void detectStatusMode(Connection connection) {
         if (statusOrdinalMode || statusModeDetermined) {
             return;
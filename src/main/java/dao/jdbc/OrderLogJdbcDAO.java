@@ -2,6 +2,7 @@ package dao.jdbc;
 
 import DataConnection.Db;
 import dao.OrderLogDAO;
+import model.OrderLogRow;
 import state.OrderLogEntry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -92,6 +93,47 @@ public class OrderLogJdbcDAO implements OrderLogDAO {
         }
     }
 
+    @Override
+    public void appendAll(List<OrderLogRow> rows) {
+        if (tableMissing || rows.isEmpty()) {
+            return;
+        }
+        final String sql = "INSERT INTO order_logs (order_id, event_time, message) VALUES (?,?,?)";
+        Connection connection = null;
+        boolean ownTx = externalConnection == null;
+        try {
+            connection = acquireConnection();
+            if (ownTx) connection.setAutoCommit(false);
+            try (PreparedStatement ps = connection.prepareStatement(sql)) {
+                for (OrderLogRow row : rows) {
+                    ps.setLong(1, row.orderId());
+                    LocalDateTime at = row.eventTime() == null ? LocalDateTime.now() : row.eventTime();
+                    ps.setTimestamp(2, Timestamp.valueOf(at));
+                    if (row.message() == null) {
+                        ps.setNull(3, Types.VARCHAR);
+                    } else {
+                        ps.setString(3, row.message());
+                    }
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+                if (ownTx) connection.commit();
+            } catch (SQLException e) {
+                if (ownTx) connection.rollback();
+                throw e;
+            } finally {
+                if (ownTx) connection.setAutoCommit(true);
+            }
+        } catch (SQLException ex) {
+            if (handleMissingTable(ex)) {
+                return;
+            }
+            throw new RuntimeException(ex);
+        } finally {
+            close(connection);
+        }
+    }
+
     @Override
     public List<OrderLogEntry> findRecentByOrder(Long orderId, int limit) {
         if (tableMissing) {
@@ -12,7 +12,9 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 public class PaymentJdbcDAO implements PaymentDAO {
 
@@ -224,6 +226,38 @@ public class PaymentJdbcDAO implements PaymentDAO {
         return list;
     }
 
+    /**
+     * İleri-yönlü, salt-okunur cursor: satırlar belleğe toplanmaz. MySQL
+     * Connector/J yalnız {@code Integer.MIN_VALUE} fetch size'ında satır satır
+     * akıtır; diğer sürücülerde normal fetch size.
+     */
+    @Override
+    public void forEachInDateRange(LocalDate start, LocalDate end, Consumer<Payment> sink) {
+        final String sql = "SELECT id, order_id, cashier_id, amount, method, paid_at FROM payments WHERE paid_at >= ? AND paid_at < ? ORDER BY paid_at";
+        Connection connection = null;
+        try {
+            connection = acquireConnection();
+            try (PreparedStatement ps = connection.prepareStatement(sql,
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+                ps.setFetchSize(streamingFetchSize(connection));
+                ps.setTimestamp(1, Timestamp.valueOf(start.atStartOfDay()));
+                ps.setTimestamp(2, Timestamp.valueOf(end.atStartOfDay()));
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) sink.accept(map(rs));
+                }
+            }
+        } catch (SQLException ex) {
+            throw new RuntimeException(ex);
+        } finally {
+            close(connection);
+        }
+    }
+
+    private static int streamingFetchSize(Connection connection) throws SQLException {
+        String product = connection.getMetaData().getDatabaseProductName().toLowerCase(Locale.ROOT);
+        return product.contains("mysql") || product.contains("mariadb") ? Integer.MIN_VALUE : 500;
+    }
+
     @Override
     public List<Payment> findByOrderId(Long orderId) {
         final String sql = "SELECT id, order_id, cashier_id, amount, method, paid_at FROM payments WHERE order_id=? ORDER BY id";
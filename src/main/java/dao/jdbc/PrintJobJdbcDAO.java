@@ -58,6 +58,49 @@ public class PrintJobJdbcDAO implements PrintJobDAO {
         }
     }
 
+    @Override
+    public List<Long> enqueueAll(List<PrintJob> jobs) {
+        if (jobs.isEmpty()) return List.of();
+        final String sql = "INSERT INTO print_jobs (order_id, printer_id, payload, status, attempts) " +
+                "VALUES (?, ?, ?, ?, ?)";
+        Connection c = null;
+        boolean ownTx = externalConn == null;
+        try {
+            c = acquire();
+            if (ownTx) c.setAutoCommit(false);
+            try (PreparedStatement ps = c.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+                for (PrintJob job : jobs) {
+                    ps.setLong(1, job.getOrderId());
+                    ps.setInt(2, job.getPrinterId());
+                    ps.setString(3, job.getPayload());
+                    ps.setString(4, job.getStatus().name());
+                    ps.setInt(5, job.getAttempts());
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+                List<Long> ids = new ArrayList<>(jobs.size());
+                try (ResultSet rs = ps.getGeneratedKeys()) {
+                    while (rs.next()) ids.add(rs.getLong(1));
+                }
+                if (ids.size() != jobs.size()) {
+                    throw new SQLException("print_jobs için " + jobs.size() + " id beklendi, "
+                            + ids.size() + " alındı");
+                }
+                if (ownTx) c.commit();
+                return ids;
+            } catch (SQLException e) {
+                if (ownTx) c.rollback();
+                throw e;
+            } finally {
+                if (ownTx) c.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        } finally {
+            closeIfOwned(c);
+        }
+    }
+
     @Override
     public Optional<PrintJob> findById(Long id) {
         final String sql = "SELECT * FROM print_jobs WHERE id=?";
@@ -101,7 +144,9 @@ public class PrintJobJdbcDAO implements PrintJobDAO {
 
     @Override
     public void markPrinted(Long id) {
-        update("UPDATE print_jobs SET status='PRINTED', printed_at=NOW(), last_error=NULL WHERE id=?",
+        // Zaten PRINTED ise dokunma — ilk printed_at korunur (idempotent)
+        update("UPDATE print_jobs SET status='PRINTED', printed_at=NOW(), last_error=NULL " +
+                        "WHERE id=? AND status<>'PRINTED'",
                 ps -> ps.setLong(1, id));
     }
 
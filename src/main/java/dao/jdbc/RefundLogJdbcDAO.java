@@ -94,11 +94,11 @@ public class RefundLogJdbcDAO implements RefundLogDAO {
     public List<RefundLog> findByDateRange(LocalDate fromInclusive, LocalDate toInclusive) {
         ensureTable();
         return query("SELECT " + COLS + " FROM refund_log " +
-                     "WHERE DATE(created_at) BETWEEN ? AND ? " +
+                     "WHERE created_at >= ? AND created_at < ? " +
                      "ORDER BY created_at DESC, id DESC",
                 ps -> {
-                    ps.setDate(1, Date.valueOf(fromInclusive));
-                    ps.setDate(2, Date.valueOf(toInclusive));
+                    ps.setTimestamp(1, Timestamp.valueOf(fromInclusive.atStartOfDay()));
+                    ps.setTimestamp(2, Timestamp.valueOf(toInclusive.plusDays(1).atStartOfDay()));
                 });
     }
 
@@ -0,0 +1,163 @@
+package dao.jdbc;
+
+import DataConnection.Db;
+import dao.SalesQueryDAO;
+import model.SaleRow;
+import model.SalesPage;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Satış listesi okuma modeli. Eskiden her ödeme için sipariş, masa ve kullanıcı
+ * ayrı ayrı okunuyordu (satır başına 3 sorgu); burada tek JOIN ile gelir.
+ *
+ * <p>Sayfalama keyset ile yapılır ({@code paid_at DESC, id DESC}); yoğun
+ * günlerde OFFSET taraması olmaz ve sayfalar arasında eklenen yeni ödemeler
+ * satır kaydırmaz.
+ */
+public class SalesQueryJdbcDAO implements SalesQueryDAO {
+
+    // noinspection SqlResolve, SqlNoDataSourceInspection
+    private static final String SELECT_ROWS =
+            "SELECT p.id AS payment_id, p.order_id, p.amount, p.method, p.paid_at, " +
+            "       o.note AS order_note, " +
+            "       dt.table_no, " +
+            "       w.full_name AS waiter_name, w.username AS waiter_user, " +
+            "       c.full_name AS cashier_name, c.username AS cashier_user " +
+            "  FROM payments p " +
+            "  LEFT JOIN orders o         ON o.id = p.order_id " +
+            "  LEFT JOIN dining_tables dt ON dt.id = o.table_id " +
+            "  LEFT JOIN users w          ON w.id = o.waiter_id " +
+            "  LEFT JOIN users c          ON c.id = p.cashier_id " +
+            " WHERE p.paid_at >= ? AND p.paid_at < ? ";
+
+    private static final String AFTER_CURSOR =
+            "   AND (p.paid_at < ? OR (p.paid_at = ? AND p.id < ?)) ";
+
+    private static final String ORDER_BY = " ORDER BY p.paid_at DESC, p.id DESC";
+
+    private static final String SELECT_TOTALS =
+            "SELECT COUNT(*) AS cnt, COALESCE(SUM(p.amount), 0) AS total " +
+            "  FROM payments p WHERE p.paid_at >= ? AND p.paid_at < ?";
+
+    private final DataSource dataSource;
+
+    public SalesQueryJdbcDAO() {
+        this(Db.getDataSource());
+    }
+
+    public SalesQueryJdbcDAO(DataSource dataSource) {
+        this.dataSource = Objects.requireNonNull(dataSource, "dataSource");
+    }
+
+    @Override
+    public SalesPage findPage(LocalDateTime from, LocalDateTime to, String afterCursor, int limit) {
+        Objects.requireNonNull(from, "from");
+        Objects.requireNonNull(to, "to");
+        Cursor after = Cursor.parse(afterCursor);
+
+        StringBuilder sql = new StringBuilder(SELECT_ROWS);
+        if (after != null) {
+            sql.append(AFTER_CURSOR);
+        }
+        sql.append(ORDER_BY);
+        if (limit > 0) {
+            // Bir fazlası okunur: sonraki sayfa olup olmadığını anlamak için
+            sql.append(" LIMIT ").append(limit + 1);
+        }
+
+        List<SaleRow> rows = new ArrayList<>();
+        int totalCount;
+        BigDecimal totalAmount;
+        try (Connection connection = dataSource.getConnection()) {
+            try (PreparedStatement ps = connection.prepareStatement(sql.toString())) {
+                int i = 1;
+                ps.setTimestamp(i++, Timestamp.valueOf(from));
+                ps.setTimestamp(i++, Timestamp.valueOf(to));
+                if (after != null) {
+                    ps.setTimestamp(i++, Timestamp.valueOf(after.paidAt()));
+                    ps.setTimestamp(i++, Timestamp.valueOf(after.paidAt()));
+                    ps.setLong(i, after.paymentId());
+                }
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        rows.add(map(rs));
+                    }
+                }
+            }
+            try (PreparedStatement ps = connection.prepareStatement(SELECT_TOTALS)) {
+                ps.setTimestamp(1, Timestamp.valueOf(from));
+                ps.setTimestamp(2, Timestamp.valueOf(to));
+                try (ResultSet rs = ps.executeQuery()) {
+                    rs.next();
+                    totalCount = rs.getInt("cnt");
+                    BigDecimal total = rs.getBigDecimal("total");
+                    totalAmount = total == null ? BigDecimal.ZERO : total;
+                }
+            }
+        } catch (SQLException ex) {
+            throw new RuntimeException(ex);
+        }
+
+        String nextCursor = null;
+        if (limit > 0 && rows.size() > limit) {
+            rows = new ArrayList<>(rows.subList(0, limit));
+            nextCursor = rows.get(limit - 1).cursor();
+        }
+        return new SalesPage(List.copyOf(rows), nextCursor, totalCount, totalAmount);
+    }
+
+    private SaleRow map(ResultSet rs) throws SQLException {
+        Object orderId = rs.getObject("order_id");
+        Object tableNo = rs.getObject("table_no");
+        Timestamp paidAt = rs.getTimestamp("paid_at");
+        BigDecimal amount = rs.getBigDecimal("amount");
+        return new SaleRow(
+                rs.getLong("payment_id"),
+                orderId instanceof Number n ? n.longValue() : null,
+                paidAt == null ? null : paidAt.toLocalDateTime(),
+                amount == null ? BigDecimal.ZERO : amount,
+                rs.getString("method"),
+                tableNo instanceof Number n ? n.intValue() : null,
+                preferFull(rs.getString("waiter_name"), rs.getString("waiter_user")),
+                preferFull(rs.getString("cashier_name"), rs.getString("cashier_user")),
+                rs.getString("order_note"));
+    }
+
+    private static String preferFull(String full, String user) {
+        if (full != null && !full.isBlank()) return full;
+        if (user != null && !user.isBlank()) return user;
+        return null;
+    }
+
+    /** {@link SaleRow#cursor()} biçiminin çözülmüş hali. */
+    private record Cursor(LocalDateTime paidAt, long paymentId) {
+
+        static Cursor parse(String value) {
+            if (value == null || value.isBlank()) {
+                return null;
+            }
+            int idx = value.lastIndexOf('_');
+            if (idx <= 0 || idx == value.length() - 1) {
+                throw new IllegalArgumentException("Geçersiz imleç: " + value);
+            }
+            try {
+                return new Cursor(LocalDateTime.parse(value.substring(0, idx)),
+                        Long.parseLong(value.substring(idx + 1)));
+            } catch (DateTimeParseException | NumberFormatException ex) {
+                throw new IllegalArgumentException("Geçersiz imleç: " + value, ex);
+            }
+        }
+    }
+}
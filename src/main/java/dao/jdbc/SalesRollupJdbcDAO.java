@@ -0,0 +1,379 @@
+package dao.jdbc;
+
+import DataConnection.Db;
+import dao.SalesRollupDAO;
+import model.ProductRollupRow;
+import model.SalesRollupRow;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * {@code daily_sales_rollup} / {@code daily_product_rollup} JDBC implementasyonu.
+ *
+ * <p>Artımlı güncelleme {@code INSERT ... SELECT ... ON DUPLICATE KEY UPDATE}
+ * ile yapılır; değerler uygulamada değil, aynı transaction'da yazılmış
+ * {@code payments}/{@code order_items} satırlarından okunur. Böylece rollup
+ * ile ham tablolar aynı zaman damgasını (DB saati) kullanır.
+ *
+ * <p>Ürün satırları siparişin son ödeme gününe yazılır; hesap bölmede kalemler
+ * ödeme sayısı kadar tekrar sayılmaz.
+ */
+public class SalesRollupJdbcDAO implements SalesRollupDAO {
+
+    private static final Logger LOG = LoggerFactory.getLogger(SalesRollupJdbcDAO.class);
+
+    /** Tablo yokluğu tüm örnekler için ortaktır (tx başına yeni DAO üretilir). */
+    private static volatile boolean tableMissing;
+    private static final Object SCHEMA_LOCK = new Object();
+
+    private static final String SALES_COLUMNS =
+            "INSERT INTO daily_sales_rollup (sale_date, sale_hour, method, sale_count, amount) " +
+            "SELECT CAST(p.paid_at AS DATE), HOUR(p.paid_at), COALESCE(p.method, ''), " +
+            "       COUNT(*), COALESCE(SUM(p.amount), 0) " +
+            "  FROM payments p ";
+
+    private static final String SALES_GROUP =
+            " GROUP BY CAST(p.paid_at AS DATE), HOUR(p.paid_at), COALESCE(p.method, '')";
+
+    private static final String PRODUCT_COLUMNS =
+            "INSERT INTO daily_product_rollup " +
+            "  (sale_date, product_name, unit_label, pieces_per_portion, quantity, amount) " +
+            "SELECT CAST(pp.last_paid AS DATE), COALESCE(oi.product_name, ''), COALESCE(oi.unit_label, ''), " +
+            "       COALESCE(MAX(oi.pieces_per_portion), 0), COALESCE(SUM(oi.quantity), 0), " +
+            "       COALESCE(SUM(COALESCE(oi.line_total, oi.quantity * oi.unit_price)), 0) " +
+            "  FROM order_items oi ";
+
+    private static final String PRODUCT_GROUP =
+            " GROUP BY CAST(pp.last_paid AS DATE), COALESCE(oi.product_name, ''), COALESCE(oi.unit_label, '')";
+
+    private final DataSource dataSource;
+    private final Connection externalConnection;
+
+    public SalesRollupJdbcDAO() {
+        this(Db.getDataSource(), null);
+    }
+
+    public SalesRollupJdbcDAO(DataSource dataSource) {
+        this(dataSource, null);
+    }
+
+    public SalesRollupJdbcDAO(Connection connection) {
+        this(Db.getDataSource(), connection);
+    }
+
+    private SalesRollupJdbcDAO(DataSource dataSource, Connection externalConnection) {
+        this.dataSource = dataSource;
+        this.externalConnection = externalConnection;
+    }
+
+    private Connection acquireConnection() throws SQLException {
+        if (externalConnection != null) {
+            return externalConnection;
+        }
+        if (dataSource == null) {
+            throw new IllegalStateException("No DataSource configured for SalesRollupJdbcDAO");
+        }
+        return dataSource.getConnection();
+    }
+
+    private void close(Connection connection) {
+        if (externalConnection == null && connection != null) {
+            try {
+                connection.close();
+            } catch (SQLException e) {
+                throw new RuntimeException(e);
+            }
+        }
+    }
+
+    @Override
+    public void applyOrder(Long orderId) {
+        if (tableMissing || orderId == null) {
+            return;
+        }
+        final String sales = SALES_COLUMNS +
+                " WHERE p.order_id = ? AND p.paid_at IS NOT NULL" + SALES_GROUP +
+                " ON DUPLICATE KEY UPDATE sale_count = sale_count + VALUES(sale_count), " +
+                "                         amount = amount + VALUES(amount)";
+        final String products = PRODUCT_COLUMNS +
+                "  JOIN (SELECT order_id, MAX(paid_at) AS last_paid FROM payments " +
+                "         WHERE order_id = ? AND paid_at IS NOT NULL GROUP BY order_id) pp " +
+                "    ON pp.order_id = oi.order_id" + PRODUCT_GROUP +
+                " ON DUPLICATE KEY UPDATE quantity = quantity + VALUES(quantity), " +
+                "                         amount = amount + VALUES(amount), " +
+                "                         pieces_per_portion = GREATEST(pieces_per_portion, VALUES(pieces_per_portion))";
+        Connection connection = null;
+        try {
+            connection = acquireConnection();
+            try (PreparedStatement ps = connection.prepareStatement(sales)) {
+                ps.setLong(1, orderId);
+                ps.executeUpdate();
+            }
+            try (PreparedStatement ps = connection.prepareStatement(products)) {
+                ps.setLong(1, orderId);
+                ps.executeUpdate();
+            }
+        } catch (SQLException ex) {
+            // Satışı asla düşürmeyiz — sapma yeniden hesaplamada (rebuild) düzelir.
+            if (!handleMissingTable(ex)) {
+                LOG.warn("Satış rollup'ı güncellenemedi (orderId={}, SQLState={}): {}",
+                        orderId, ex.getSQLState(), ex.getMessage());
+            }
+        } finally {
+            close(connection);
+        }
+    }
+
+    @Override
+    public void rebuild(LocalDate fromInclusive, LocalDate toInclusive) {
+        if (tableMissing) {
+            return;
+        }
+        Timestamp start = Timestamp.valueOf(fromInclusive.atStartOfDay());
+        Timestamp end = Timestamp.valueOf(toInclusive.plusDays(1).atStartOfDay());
+        final String insertSales = SALES_COLUMNS +
+                " WHERE p.paid_at >= ? AND p.paid_at < ?" + SALES_GROUP;
+        // Aralıkta ödemesi olan siparişler; son ödeme günü aralık içindeyse sayılır
+        final String insertProducts = PRODUCT_COLUMNS +
+                "  JOIN (SELECT order_id, MAX(paid_at) AS last_paid FROM payments " +
+                "         WHERE order_id IN (SELECT order_id FROM payments WHERE paid_at >= ? AND paid_at < ?) " +
+                "         GROUP BY order_id " +
+                "        HAVING MAX(paid_at) >= ? AND MAX(paid_at) < ?) pp " +
+                "    ON pp.order_id = oi.order_id" + PRODUCT_GROUP;
+
+        Connection connection = null;
+        boolean ownTx = externalConnection == null;
+        try {
+            connection = acquireConnection();
+            if (ownTx) {
+                connection.setAutoCommit(false);
+            }
+            try {
+                for (String table : new String[]{"daily_sales_rollup", "daily_product_rollup"}) {
+                    try (PreparedStatement ps = connection.prepareStatement(
+                            "DELETE FROM " + table + " WHERE sale_date >= ? AND sale_date <= ?")) {
+                        ps.setDate(1, Date.valueOf(fromInclusive));
+                        ps.setDate(2, Date.valueOf(toInclusive));
+                        ps.executeUpdate();
+                    }
+                }
+                try (PreparedStatement ps = connection.prepareStatement(insertSales)) {
+                    ps.setTimestamp(1, start);
+                    ps.setTimestamp(2, end);
+                    ps.executeUpdate();
+                }
+                try (PreparedStatement ps = connection.prepareStatement(insertProducts)) {
+                    ps.setTimestamp(1, start);
+                    ps.setTimestamp(2, end);
+                    ps.setTimestamp(3, start);
+                    ps.setTimestamp(4, end);
+                    ps.executeUpdate();
+                }
+                if (ownTx) {
+                    connection.commit();
+                }
+            } catch (SQLException ex) {
+                if (ownTx) {
+                    connection.rollback();
+                }
+                throw ex;
+            } finally {
+                if (ownTx) {
+                    connection.setAutoCommit(true);
+                }
+            }
+        } catch (SQLException ex) {
+            if (handleMissingTable(ex)) {
+                return;
+            }
+            throw new RuntimeException(ex);
+        } finally {
+            close(connection);
+        }
+    }
+
+    @Override
+    public List<SalesRollupRow> findSales(LocalDate fromInclusive, LocalDate toInclusive) {
+        if (tableMissing) {
+            return List.of();
+        }
+        final String sql = "SELECT sale_date, sale_hour, method, sale_count, amount FROM daily_sales_rollup " +
+                "WHERE sale_date >= ? AND sale_date <= ? ORDER BY sale_date, sale_hour, method";
+        List<SalesRollupRow> out = new ArrayList<>();
+        Connection connection = null;
+        try {
+            connection = acquireConnection();
+            try (PreparedStatement ps = connection.prepareStatement(sql)) {
+                ps.setDate(1, Date.valueOf(fromInclusive));
+                ps.setDate(2, Date.valueOf(toInclusive));
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        BigDecimal amount = rs.getBigDecimal("amount");
+                        out.add(new SalesRollupRow(
+                                rs.getDate("sale_date").toLocalDate(),
+                                rs.getInt("sale_hour"),
+                                rs.getString("method"),
+                                rs.getInt("sale_count"),
+                                amount == null ? BigDecimal.ZERO : amount));
+                    }
+                }
+            }
+        } catch (SQLException ex) {
+            if (handleMissingTable(ex)) {
+                return List.of();
+            }
+            throw new RuntimeException(ex);
+        } finally {
+            close(connection);
+        }
+        return out;
+    }
+
+    @Override
+    public List<ProductRollupRow> findProducts(LocalDate fromInclusive, LocalDate toInclusive) {
+        if (tableMissing) {
+            return List.of();
+        }
+        final String sql = "SELECT product_name, unit_label, MAX(pieces_per_portion) AS pp, " +
+                "       SUM(quantity) AS total_qty, SUM(amount) AS total_amount " +
+                "  FROM daily_product_rollup " +
+                " WHERE sale_date >= ? AND sale_date <= ? " +
+                " GROUP BY product_name, unit_label " +
+                " ORDER BY total_qty DESC";
+        List<ProductRollupRow> out = new ArrayList<>();
+        Connection connection = null;
+        try {
+            connection = acquireConnection();
+            try (PreparedStatement ps = connection.prepareStatement(sql)) {
+                ps.setDate(1, Date.valueOf(fromInclusive));
+                ps.setDate(2, Date.valueOf(toInclusive));
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        BigDecimal amount = rs.getBigDecimal("total_amount");
+                        out.add(new ProductRollupRow(
+                                rs.getString("product_name"),
+                                rs.getString("unit_label"),
+                                rs.getInt("pp"),
+                                rs.getInt("total_qty"),
+                                amount == null ? BigDecimal.ZERO : amount));
+                    }
+                }
+            }
+        } catch (SQLException ex) {
+            if (handleMissingTable(ex)) {
+                return List.of();
+            }
+            throw new RuntimeException(ex);
+        } finally {
+            close(connection);
+        }
+        return out;
+    }
+
+    @Override
+    public Optional<LocalDate> findFirstPaymentDate() {
+        final String sql = "SELECT MIN(paid_at) FROM payments";
+        Connection connection = null;
+        try {
+            connection = acquireConnection();
+            try (PreparedStatement ps = connection.prepareStatement(sql);
+                 ResultSet rs = ps.executeQuery()) {
+                if (rs.next()) {
+                    Timestamp first = rs.getTimestamp(1);
+                    if (first != null) {
+                        return Optional.of(first.toLocalDateTime().toLocalDate());
+                    }
+                }
+                return Optional.empty();
+            }
+        } catch (SQLException ex) {
+            throw new RuntimeException(ex);
+        } finally {
+            close(connection);
+        }
+    }
+
+    @Override
+    public Optional<LocalDate> findFirstRollupDate() {
+        if (tableMissing) {
+            return Optional.empty();
+        }
+        final String sql = "SELECT MIN(sale_date) FROM daily_sales_rollup";
+        Connection connection = null;
+        try {
+            connection = acquireConnection();
+            try (PreparedStatement ps = connection.prepareStatement(sql);
+                 ResultSet rs = ps.executeQuery()) {
+                if (rs.next()) {
+                    Date first = rs.getDate(1);
+                    if (first != null) {
+                        return Optional.of(first.toLocalDate());
+                    }
+                }
+                return Optional.empty();
+            }
+        } catch (SQLException ex) {
+            if (handleMissingTable(ex)) {
+                return Optional.empty();
+            }
+            throw new RuntimeException(ex);
+        } finally {
+            close(connection);
+        }
+    }
+
+    @Override
+    public boolean isAvailable() {
+        return !tableMissing;
+    }
+
+    private boolean handleMissingTable(SQLException ex) {
+        if (isMissingTable(ex)) {
+            if (!tableMissing) {
+                synchronized (SCHEMA_LOCK) {
+                    if (!tableMissing) {
+                        tableMissing = true;
+                        LOG.warn("Satış rollup tabloları bulunamadı. Raporlar ham ödeme tablosundan hesaplanacak. Detay: "
+                                + ex.getMessage());
+                    }
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+
+    private boolean isMissingTable(SQLException ex) {
+        SQLException current = ex;
+        while (current != null) {
+            String state = current.getSQLState();
+            if ("42S02".equals(state) || messageRefersMissingTable(current.getMessage())) {
+                return true;
+            }
+            current = current.getNextException();
+        }
+        return false;
+    }
+
+    private boolean messageRefersMissingTable(String message) {
+        if (message == null) {
+            return false;
+        }
+        String lower = message.toLowerCase();
+        return (lower.contains("doesn't exist") || lower.contains("does not exist") || lower.contains("not found"))
+                && lower.contains("_rollup");
+    }
+}
@@ -8,4 +8,14 @@ public class Category extends BaseEntity {
     public void setName(String name) { this.name = name; }
     public boolean isActive() { return active; }
     public void setActive(boolean active) { this.active = active; }
+
+    public Category copy() {
+        Category c = new Category();
+        c.id = id;
+        c.createdAt = createdAt;
+        c.updatedAt = updatedAt;
+        c.name = name;
+        c.active = active;
+        return c;
+    }
 }
@@ -0,0 +1,39 @@
+package model;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * {@code change_seq} günlüğündeki tek satır.
+ *
+ * <p>Sipariş/ödeme/gider mutasyonları kendi transaction'ları içinde bu günlüğe
+ * bir satır yazar; AppState poller'ı yalnızca {@code seq > sonGörülen} satırları
+ * okuyarak hangi masanın / hangi listenin yenilenmesi gerektiğini anlar.
+ *
+ * <p>{@code origin} satırı yazan uygulama örneğini belirtir — aynı JVM'in kendi
+ * yazdığı satırlar için olay zaten yerelde yayınlandığından tekrar yayınlanmaz.
+ */
+public record ChangeEvent(
+        long seq,
+        String topic,
+        Long tableId,
+        Long entityId,
+        String origin,
+        LocalDateTime createdAt
+) {
+    /** Masa durumu / açık sipariş değişti. */
+    public static final String TOPIC_TABLE = "TABLE";
+    /** Ödeme alındı (satış kapandı). */
+    public static final String TOPIC_SALE = "SALE";
+    /** Gider eklendi / silindi. */
+    public static final String TOPIC_EXPENSE = "EXPENSE";
+    /** Ürün/kategori kataloğu değişti. */
+    public static final String TOPIC_CATALOG = "CATALOG";
+
+    /** Bu JVM'in kimliği — her açılışta yeniden üretilir. */
+    public static final String LOCAL_ORIGIN = UUID.randomUUID().toString().substring(0, 18);
+
+    public boolean isLocal() {
+        return LOCAL_ORIGIN.equals(origin);
+    }
+}
@@ -16,6 +16,8 @@ public class KitchenPrinter extends BaseEntity {
     private int codePage = 12;      // ESC t n  (12 = CP857 Turkish)
     private boolean active = true;
     private String note;
+    private Integer fallbackPrinterId;  // bu yazıcı kullanılamazsa sıradaki (zincir)
+    private Integer keepAliveMs;        // null → fiş sonrası bağlantı kapatılır
 
     public KitchenPrinter() {}
 
@@ -69,6 +71,27 @@ public class KitchenPrinter extends BaseEntity {
     public String getNote()                       { return note; }
     public void setNote(String note)              { this.note = note; }
 
+    /**
+     * Yazıcı pasif/çevrimdışıyken fişin gideceği yedek yazıcı. Yedeğin de
+     * yedeği olabilir — sıra zincir boyunca izlenir ({@code KitchenRouter}).
+     */
+    public Integer getFallbackPrinterId()         { return fallbackPrinterId; }
+    public void setFallbackPrinterId(Integer id)  { this.fallbackPrinterId = id; }
+
+    /**
+     * Bağlantının son fişten sonra açık tutulacağı süre (ms). {@code null}
+     * ya da 0 → her fişten sonra kapatılır; çoğu yazıcı 9100'de tek bağlantı
+     * kabul ettiğinden açık tutma yalnız bu yazıcıyı tek terminal
+     * kullanıyorsa açılmalı.
+     */
+    public Integer getKeepAliveMs()               { return keepAliveMs; }
+    public void setKeepAliveMs(Integer ms) {
+        if (ms != null && ms < 0) {
+            throw new IllegalArgumentException("keepAliveMs negatif olamaz");
+        }
+        this.keepAliveMs = ms;
+    }
+
     @Override
     public String toString() {
         return "KitchenPrinter{" + code + " @ " + host + ":" + port + "}";
@@ -0,0 +1,16 @@
+package model;
+
+import java.time.LocalDateTime;
+
+/**
+ * {@code order_logs} tablosuna yazılacak tek satır.
+ *
+ * <p>{@code eventTime} olayın olduğu an — satır sonradan toplu yazılsa da
+ * geçmiş sıralaması bu zamana göredir.
+ */
+public record OrderLogRow(
+        Long orderId,
+        LocalDateTime eventTime,
+        String message
+) {
+}
@@ -13,7 +13,7 @@ public class PrintJob extends BaseEntity {
 
     private Long orderId;
     private Integer printerId;
-    private String payload;              // serileştirilmiş Receipt JSON
+    private String payload;              // serileştirilmiş Receipt (service.print.ReceiptCodec)
     private PrintJobStatus status = PrintJobStatus.PENDING;
     private int attempts = 0;
     private String lastError;
@@ -129,6 +129,26 @@ public class Product extends BaseEntity {
         this.unitLabel = trimmed.isEmpty() ? null : trimmed;
     }
 
+    /**
+     * Alan alan kopya. Önbellekteki nesneler paylaşıldığından çağırana her
+     * zaman kopya verilir; UI'nin yerinde düzenlemesi önbelleği bozmaz.
+     */
+    public Product copy() {
+        Product p = new Product();
+        p.id = id;
+        p.createdAt = createdAt;
+        p.updatedAt = updatedAt;
+        p.name = name;
+        p.categoryId = categoryId;
+        p.unitPrice = unitPrice;
+        p.vatRate = vatRate;
+        p.stock = stock;
+        p.active = active;
+        p.piecesPerPortion = piecesPerPortion;
+        p.unitLabel = unitLabel;
+        return p;
+    }
+
     /** True → bu ürün şiş/birim bazlı (1 porsiyon = N birim) fiyatlandırılır. */
     public boolean isPieceBased() {
         return piecesPerPortion != null && piecesPerPortion > 0;
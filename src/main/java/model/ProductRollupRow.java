@@ -0,0 +1,17 @@
+package model;
+
+import java.math.BigDecimal;
+
+/**
+ * {@code daily_product_rollup} üzerinden bir tarih aralığı için ürün toplamı.
+ * {@code unitLabel} boş olabilir; {@code piecesPerPortion} şiş bazlı olmayan
+ * ürünlerde 0'dır.
+ */
+public record ProductRollupRow(
+        String productName,
+        String unitLabel,
+        int piecesPerPortion,
+        int quantity,
+        BigDecimal amount
+) {
+}
@@ -0,0 +1,28 @@
+package model;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Satış listesi satırı — ödeme + sipariş + masa + garson/kasiyer tek JOIN'den.
+ *
+ * <p>Ad alanları tam ad, yoksa kullanıcı adıdır; ikisi de yoksa {@code null}.
+ * {@code method} ham DB değeridir ({@link PaymentMethod#fromDatabaseValue(String)}).
+ */
+public record SaleRow(
+        long paymentId,
+        Long orderId,
+        LocalDateTime paidAt,
+        BigDecimal amount,
+        String method,
+        Integer tableNo,
+        String waiterName,
+        String cashierName,
+        String orderNote
+) {
+
+    /** Bu satırdan sonraki sayfayı isteyen opak imleç ({@code paidAt_paymentId}). */
+    public String cursor() {
+        return paidAt + "_" + paymentId;
+    }
+}
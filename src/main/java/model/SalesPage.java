@@ -0,0 +1,18 @@
+package model;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Satış listesinin bir sayfası.
+ *
+ * <p>{@code totalCount}/{@code totalAmount} sayfaya değil tüm aralığa aittir.
+ * {@code nextCursor} son sayfada {@code null}'dır.
+ */
+public record SalesPage(
+        List<SaleRow> rows,
+        String nextCursor,
+        int totalCount,
+        BigDecimal totalAmount
+) {
+}
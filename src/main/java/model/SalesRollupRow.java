@@ -0,0 +1,17 @@
+package model;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * {@code daily_sales_rollup} satırı: gün × saat × ödeme yöntemi başına
+ * ödeme adedi ve tutarı.
+ */
+public record SalesRollupRow(
+        LocalDate saleDate,
+        int saleHour,
+        String method,
+        int saleCount,
+        BigDecimal amount
+) {
+}
@@ -0,0 +1,13 @@
+package model;
+
+import java.math.BigDecimal;
+
+/** Bir zaman dilimi için ödeme adedi ve toplam tutar. */
+public record SalesSummary(int count, BigDecimal amount) {
+
+    public static final SalesSummary EMPTY = new SalesSummary(0, BigDecimal.ZERO.setScale(2));
+
+    public SalesSummary plus(int addCount, BigDecimal addAmount) {
+        return new SalesSummary(count + addCount, amount.add(addAmount == null ? BigDecimal.ZERO : addAmount));
+    }
+}
@@ -0,0 +1,19 @@
+package model;
+
+import java.math.BigDecimal;
+
+/**
+ * Bir masanın anlık durumu: masa satırı + (varsa) açık siparişi ve kalem toplamı.
+ *
+ * <p>{@code dining_tables LEFT JOIN orders} toplu sorgusunun satırıdır;
+ * tüm kat planı tek round-trip ile okunur. Açık sipariş yoksa
+ * {@code openOrder} {@code null}, {@code openTotal} sıfırdır.
+ */
+public record TableOrderState(
+        Long tableId,
+        int tableNo,
+        TableStatus tableStatus,
+        Order openOrder,
+        BigDecimal openTotal
+) {
+}
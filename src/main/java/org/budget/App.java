@@ -56,6 +56,14 @@ public class App {
         Runtime.getRuntime().addShutdownHook(new Thread(DAILY_REPORT_SCHEDULER::stop,
                 "DailyReportScheduler-shutdown"));
 
+        // Mutfak fişi yeniden deneme kuyruğu — önceki oturumda basılamamış
+        // fişler (print_jobs FAILED/PENDING) arka planda yeniden denenir
+        try {
+            service.print.PrintingService.shared();
+        } catch (RuntimeException ex) {
+            System.err.println("Yazıcı kuyruğu başlatılamadı: " + ex.getMessage());
+        }
+
         // REST API server — mobil/uzaktan erişim için
         // GÜVENLİK:
         //   - Üretimde API_HTTP_ENABLED=false önerilir; HTTPS önünde reverse proxy
@@ -0,0 +1,231 @@
+package service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Artımlı yedek zinciri: bir tam dump + onu izleyen binlog delta'ları.
+ *
+ * <p>{@code <zincir>.chain} dosyası (düz metin, sekmeyle ayrılmış) sırayı ve
+ * her parçanın kapsadığı binlog aralığını tutar:
+ * <pre>
+ * full   budget-20260101-040000.sql.gz.enc                       -                  binlog.000012:157   &lt;sha256&gt;
+ * delta  budget-20260101-040000.inc-20260101-050000.sql.gz.enc  binlog.000012:157  binlog.000012:9876  &lt;sha256&gt;
+ * </pre>
+ * Her delta bir öncekinin bittiği konumdan başlamak zorundadır; boşluklu ya
+ * da sırası bozuk zincir okunurken reddedilir. Restore: tam dump'ı, sonra
+ * delta'ları sırayla aynı {@code mysql} oturumuna ver
+ * ({@code tools.BackupDecrypt <zincir>.chain -}).
+ */
+public final class BackupChain {
+
+    public static final String SUFFIX = ".chain";
+
+    /** Binlog dosyası + o dosyadaki bayt konumu. */
+    public record Position(String file, long pos) {
+
+        private static final Pattern TEXT = Pattern.compile("([^:\\s]+):(\\d+)");
+        /**
+         * {@code --source-data=2} ile alınan dump'ın başındaki yorum satırı:
+         * {@code -- CHANGE REPLICATION SOURCE TO SOURCE_LOG_FILE='binlog.000012', SOURCE_LOG_POS=157;}
+         * (8.0.26 öncesi: {@code CHANGE MASTER TO MASTER_LOG_FILE=..., MASTER_LOG_POS=...}).
+         */
+        private static final Pattern DUMP_HEADER = Pattern.compile(
+                "_LOG_FILE\\s*=\\s*'([^']+)'\\s*,\\s*\\w+_LOG_POS\\s*=\\s*(\\d+)");
+
+        public Position {
+            if (file == null || file.isBlank() || pos < 0) {
+                throw new IllegalArgumentException("Geçersiz binlog konumu: " + file + ":" + pos);
+            }
+        }
+
+        public static Position parse(String text) {
+            Matcher m = TEXT.matcher(text.trim());
+            if (!m.matches()) throw new IllegalArgumentException("Geçersiz binlog konumu: " + text);
+            return new Position(m.group(1), Long.parseLong(m.group(2)));
+        }
+
+        /** Dump başlığından konumu çıkarır; bulunamazsa {@code null}. */
+        public static Position fromDumpHeader(String head) {
+            Matcher m = DUMP_HEADER.matcher(head);
+            return m.find() ? new Position(m.group(1), Long.parseLong(m.group(2))) : null;
+        }
+
+        @Override
+        public String toString() {
+            return file + ":" + pos;
+        }
+    }
+
+    public enum Kind { FULL, DELTA }
+
+    /**
+     * @param start delta'nın başladığı konum; tam dump için {@code null}
+     * @param end   bu parçadan sonra gelen ilk olayın konumu
+     */
+    public record Entry(Kind kind, String fileName, Position start, Position end, String sha256) {
+        public Entry {
+            if (kind == Kind.FULL ? start != null : start == null) {
+                throw new IllegalArgumentException("Tam dump'ın başlangıcı olmaz, delta'nın olmak zorunda");
+            }
+        }
+    }
+
+    private final Path file;
+    private final List<Entry> entries;
+
+    private BackupChain(Path file, List<Entry> entries) {
+        this.file = file;
+        this.entries = entries;
+    }
+
+    /** Yeni zincir dosyasını tam dump ile oluşturur; adı dump'ın ilk ekine göre. */
+    public static BackupChain start(Path dir, String name, Entry full) throws IOException {
+        if (full.kind() != Kind.FULL) throw new IllegalArgumentException("Zincir tam dump ile başlar");
+        BackupChain chain = new BackupChain(dir.resolve(name + SUFFIX), new ArrayList<>(List.of(full)));
+        chain.save();
+        return chain;
+    }
+
+    /**
+     * Zincir dosyasını okur ve sürekliliğini doğrular.
+     *
+     * @throws IOException dosya okunamazsa ya da zincir bozuksa
+     */
+    public static BackupChain read(Path file) throws IOException {
+        List<Entry> entries = new ArrayList<>();
+        int lineNo = 0;
+        for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+            lineNo++;
+            if (line.isBlank() || line.startsWith("#")) continue;
+            String[] f = line.split("\t");
+            try {
+                if (f.length != 5) throw new IllegalArgumentException(f.length + " alan");
+                Kind kind = Kind.valueOf(f[0].toUpperCase(Locale.ROOT));
+                Position start = "-".equals(f[2]) ? null : Position.parse(f[2]);
+                entries.add(new Entry(kind, f[1], start, Position.parse(f[3]), f[4]));
+            } catch (IllegalArgumentException ex) {
+                throw new IOException(file.getFileName() + " satır " + lineNo + " bozuk: " + ex.getMessage(), ex);
+            }
+        }
+        BackupChain chain = new BackupChain(file, entries);
+        chain.checkContinuity();
+        return chain;
+    }
+
+    /** Zincire delta ekler; başlangıcı zincirin ucuyla aynı olmalı. */
+    public void append(Entry delta) throws IOException {
+        if (delta.kind() != Kind.DELTA) throw new IllegalArgumentException("Zincire yalnız delta eklenir");
+        if (!delta.start().equals(head())) {
+            throw new IllegalArgumentException("Delta " + delta.start() + " konumundan başlıyor, zincir ucu " + head());
+        }
+        entries.add(delta);
+        try {
+            save();
+        } catch (IOException ex) {
+            entries.remove(entries.size() - 1);
+            throw ex;
+        }
+    }
+
+    /** Sonraki delta'nın başlayacağı konum. */
+    public Position head() {
+        return entries.get(entries.size() - 1).end();
+    }
+
+    public String name() {
+        String n = file.getFileName().toString();
+        return n.substring(0, n.length() - SUFFIX.length());
+    }
+
+    public Path file() {
+        return file;
+    }
+
+    public List<Entry> entries() {
+        return List.copyOf(entries);
+    }
+
+    /** Restore sırasına göre parça dosyaları (zincir dosyasının klasöründe). */
+    public List<Path> files() {
+        List<Path> out = new ArrayList<>(entries.size());
+        for (Entry e : entries) out.add(file.resolveSibling(e.fileName()));
+        return out;
+    }
+
+    /**
+     * Her parçanın var olduğunu ve SHA-256'sının zincirdekiyle aynı olduğunu
+     * kontrol eder — restore'a başlamadan önce çağrılır.
+     */
+    public void verifyFiles() throws IOException {
+        for (Entry e : entries) {
+            Path p = file.resolveSibling(e.fileName());
+            if (!Files.exists(p)) throw new IOException("Zincir parçası eksik: " + e.fileName());
+            String actual = sha256(p);
+            if (!actual.equalsIgnoreCase(e.sha256())) {
+                throw new IOException("SHA-256 uyuşmuyor: " + e.fileName() + " (zincir " + e.sha256()
+                        + ", dosya " + actual + ")");
+            }
+        }
+    }
+
+    private void checkContinuity() throws IOException {
+        if (entries.isEmpty() || entries.get(0).kind() != Kind.FULL) {
+            throw new IOException(file.getFileName() + ": zincir tam dump ile başlamıyor");
+        }
+        for (int i = 1; i < entries.size(); i++) {
+            Entry prev = entries.get(i - 1);
+            Entry e = entries.get(i);
+            if (e.kind() != Kind.DELTA || !e.start().equals(prev.end())) {
+                throw new IOException(file.getFileName() + ": zincir kopuk — " + e.fileName()
+                        + " " + e.start() + " konumundan başlıyor, önceki parça " + prev.end() + " konumunda bitti");
+            }
+        }
+    }
+
+    /** Geçici dosyaya yazıp yerine taşır — yarım yazılmış zincir kalmaz. */
+    private void save() throws IOException {
+        StringBuilder sb = new StringBuilder("# budget yedek zinciri — tür, dosya, başlangıç, bitiş, sha256\n");
+        for (Entry e : entries) {
+            sb.append(e.kind().name().toLowerCase(Locale.ROOT)).append('\t')
+              .append(e.fileName()).append('\t')
+              .append(e.start() == null ? "-" : e.start().toString()).append('\t')
+              .append(e.end()).append('\t')
+              .append(e.sha256()).append('\n');
+        }
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        Files.writeString(tmp, sb, StandardCharsets.UTF_8);
+        try {
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException ex) {
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    static String sha256(Path p) throws IOException {
+        MessageDigest sha;
+        try {
+            sha = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        try (InputStream in = new DigestInputStream(Files.newInputStream(p), sha)) {
+            in.transferTo(java.io.OutputStream.nullOutputStream());
+        }
+        return HexFormat.of().formatHex(sha.digest());
+    }
+}
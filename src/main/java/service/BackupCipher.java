@@ -0,0 +1,305 @@
+package service;
+
+import javax.crypto.AEADBadTagException;
+import javax.crypto.Cipher;
+import javax.crypto.SecretKey;
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.PBEKeySpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.util.Arrays;
+
+/**
+ * Yedekler için akış halinde (segmentli) AES-256-GCM şifreleme.
+ *
+ * <p>JDK'nın GCM çözücüsü etiketi doğrulamadan önce tüm şifreli metni bellekte
+ * tutar; çok büyük bir dump'ı tek GCM mesajı olarak çözmek belleği tüketir.
+ * Bu yüzden veri {@link #SEGMENT_SIZE} büyüklüğünde parçalara bölünür ve her
+ * parça kendi etiketiyle şifrelenir — şifreleme de çözme de sabit bellekle
+ * çalışır.
+ *
+ * <p>Format:
+ * <pre>
+ * başlık : "BCBK" | 0x02 | segmentSize (int) | salt (16) | nonce prefix (7)
+ * segment: last (1 byte) | len (int) | ciphertext (len, 128-bit tag dahil)
+ * </pre>
+ * Segment nonce'u {@code prefix(7) | sıra no (4) | last (1)}; başlık her
+ * segmente AAD olarak bağlanır. Böylece segmentlerin yer değiştirmesi,
+ * çıkarılması ya da dosyanın kesilmesi (son segment işaretsiz biterse)
+ * çözmede hata verir.
+ *
+ * <p>Anahtar PBKDF2-HMAC-SHA256(passphrase, salt, {@value #PBKDF2_ITERATIONS}
+ * iter, 256 bit). İterasyon sayısı OWASP 2023 Password Storage Cheat Sheet'in
+ * önerisi; yedek başına CPU maliyeti &lt; 200 ms.
+ */
+public final class BackupCipher {
+
+    public static final int PBKDF2_ITERATIONS = 600_000;
+
+    /** Segment başına düz metin (64 KiB). */
+    public static final int SEGMENT_SIZE = 64 * 1024;
+
+    private static final byte[] MAGIC = {'B', 'C', 'B', 'K', 2};
+    private static final int MAX_SEGMENT_SIZE = 16 * 1024 * 1024;
+    private static final int TAG_BITS = 128;
+    private static final int TAG_BYTES = TAG_BITS / 8;
+
+    private BackupCipher() {}
+
+    /**
+     * Dosyanın ilk {@link #magicLength()} baytı bu formatın imzası mı?
+     * Eski tek parça {@code .sql.enc} yedekler rastgele salt ile başlar.
+     */
+    public static boolean hasMagic(byte[] prefix) {
+        return prefix.length >= MAGIC.length
+                && Arrays.equals(Arrays.copyOf(prefix, MAGIC.length), MAGIC);
+    }
+
+    public static int magicLength() {
+        return MAGIC.length;
+    }
+
+    /**
+     * {@code out}'a şifreli yazan akış döner; başlık hemen yazılır.
+     * {@code close()} son segmenti yazar ve {@code out}'u kapatır.
+     */
+    public static OutputStream encrypt(OutputStream out, String passphrase) throws IOException {
+        SecureRandom rnd = new SecureRandom();
+        byte[] salt = new byte[16];
+        byte[] prefix = new byte[7];
+        rnd.nextBytes(salt);
+        rnd.nextBytes(prefix);
+        byte[] header = header(SEGMENT_SIZE, salt, prefix);
+        out.write(header);
+        return new EncryptingStream(out, deriveKey(passphrase, salt), prefix, header, SEGMENT_SIZE);
+    }
+
+    /**
+     * {@code in}'den şifreli yedeği çözen akış döner; başlık hemen okunur.
+     * Yanlış parola, bozuk ya da kesilmiş dosya okurken {@link IOException}
+     * verir — doğrulanmamış segmentin düz metni hiç dışarı verilmez.
+     */
+    public static InputStream decrypt(InputStream in, String passphrase) throws IOException {
+        DataInputStream data = new DataInputStream(in);
+        byte[] magic = new byte[MAGIC.length];
+        data.readFully(magic);
+        if (!hasMagic(magic)) {
+            throw new IOException("Yedek formatı tanınmadı (segmentli GCM değil)");
+        }
+        int segmentSize = data.readInt();
+        if (segmentSize <= 0 || segmentSize > MAX_SEGMENT_SIZE) {
+            throw new IOException("Geçersiz segment boyutu: " + segmentSize);
+        }
+        byte[] salt = new byte[16];
+        byte[] prefix = new byte[7];
+        data.readFully(salt);
+        data.readFully(prefix);
+        byte[] header = header(segmentSize, salt, prefix);
+        return new DecryptingStream(data, deriveKey(passphrase, salt), prefix, header, segmentSize);
+    }
+
+    static SecretKey deriveKey(String passphrase, byte[] salt) {
+        try {
+            PBEKeySpec spec = new PBEKeySpec(passphrase.toCharArray(), salt, PBKDF2_ITERATIONS, 256);
+            try {
+                SecretKey tmp = SecretKeyFactory.getInstance("PBKDF2WithHmacSHA256").generateSecret(spec);
+                return new SecretKeySpec(tmp.getEncoded(), "AES");
+            } finally {
+                spec.clearPassword();
+            }
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("PBKDF2 kullanılamıyor", e);
+        }
+    }
+
+    private static byte[] header(int segmentSize, byte[] salt, byte[] prefix) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(MAGIC.length + 4 + salt.length + prefix.length);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.write(MAGIC);
+            out.writeInt(segmentSize);
+            out.write(salt);
+            out.write(prefix);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);   // bellek akışı — olmaz
+        }
+        return bytes.toByteArray();
+    }
+
+    private static GCMParameterSpec nonce(byte[] prefix, int counter, boolean last) {
+        ByteBuffer iv = ByteBuffer.allocate(12);
+        iv.put(prefix).putInt(counter).put((byte) (last ? 1 : 0));
+        return new GCMParameterSpec(TAG_BITS, iv.array());
+    }
+
+    private static Cipher newCipher() {
+        try {
+            return Cipher.getInstance("AES/GCM/NoPadding");
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("AES/GCM kullanılamıyor", e);
+        }
+    }
+
+    private static final class EncryptingStream extends FilterOutputStream {
+        private final DataOutputStream data;
+        private final SecretKey key;
+        private final byte[] prefix;
+        private final byte[] header;
+        private final byte[] buf;
+        private final Cipher cipher = newCipher();
+        private int len;
+        private int counter;
+        private boolean closed;
+
+        EncryptingStream(OutputStream out, SecretKey key, byte[] prefix, byte[] header, int segmentSize) {
+            super(out);
+            this.data = new DataOutputStream(out);
+            this.key = key;
+            this.prefix = prefix;
+            this.header = header;
+            this.buf = new byte[segmentSize];
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int n) throws IOException {
+            if (closed) throw new IOException("Akış kapalı");
+            while (n > 0) {
+                // Dolu tampon ancak arkasından veri gelirse "son değil" olarak yazılır
+                if (len == buf.length) writeSegment(false);
+                int chunk = Math.min(n, buf.length - len);
+                System.arraycopy(b, off, buf, len, chunk);
+                len += chunk;
+                off += chunk;
+                n -= chunk;
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            // Segment sınırı dışında veri yazılmaz; yalnız alttaki akışı boşalt
+            out.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (closed) return;
+            closed = true;
+            try {
+                writeSegment(true);
+                out.flush();
+            } finally {
+                out.close();
+            }
+        }
+
+        private void writeSegment(boolean last) throws IOException {
+            if (counter == Integer.MAX_VALUE) throw new IOException("Yedek çok büyük");
+            byte[] ct;
+            try {
+                cipher.init(Cipher.ENCRYPT_MODE, key, nonce(prefix, counter++, last));
+                cipher.updateAAD(header);
+                ct = cipher.doFinal(buf, 0, len);
+            } catch (GeneralSecurityException e) {
+                throw new IOException("Yedek şifrelenemedi", e);
+            }
+            data.writeByte(last ? 1 : 0);
+            data.writeInt(ct.length);
+            data.write(ct);
+            len = 0;
+        }
+    }
+
+    private static final class DecryptingStream extends InputStream {
+        private final DataInputStream in;
+        private final SecretKey key;
+        private final byte[] prefix;
+        private final byte[] header;
+        private final int segmentSize;
+        private final Cipher cipher = newCipher();
+        private byte[] plain = new byte[0];
+        private int pos;
+        private int counter;
+        private boolean sawLast;
+
+        DecryptingStream(DataInputStream in, SecretKey key, byte[] prefix, byte[] header, int segmentSize) {
+            this.in = in;
+            this.key = key;
+            this.prefix = prefix;
+            this.header = header;
+            this.segmentSize = segmentSize;
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] one = new byte[1];
+            return read(one, 0, 1) < 0 ? -1 : one[0] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int n) throws IOException {
+            if (n == 0) return 0;
+            while (pos == plain.length) {
+                if (sawLast) return -1;
+                readSegment();
+            }
+            int chunk = Math.min(n, plain.length - pos);
+            System.arraycopy(plain, pos, b, off, chunk);
+            pos += chunk;
+            return chunk;
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+
+        private void readSegment() throws IOException {
+            int flag;
+            int len;
+            byte[] ct;
+            try {
+                flag = in.readUnsignedByte();
+                len = in.readInt();
+                if (flag > 1 || len < TAG_BYTES || len > segmentSize + TAG_BYTES) {
+                    throw new IOException("Yedek bozuk: segment " + counter + " başlığı geçersiz");
+                }
+                ct = new byte[len];
+                in.readFully(ct);
+            } catch (EOFException e) {
+                throw new IOException("Yedek eksik: dosya segment " + counter + " içinde kesilmiş", e);
+            }
+            boolean last = flag == 1;
+            try {
+                cipher.init(Cipher.DECRYPT_MODE, key, nonce(prefix, counter++, last));
+                cipher.updateAAD(header);
+                plain = cipher.doFinal(ct);
+            } catch (AEADBadTagException e) {
+                throw new IOException("Parola yanlış ya da yedek bozuk (segment " + (counter - 1) + ")", e);
+            } catch (GeneralSecurityException e) {
+                throw new IOException("Yedek çözülemedi", e);
+            }
+            pos = 0;
+            if (last) {
+                sawLast = true;
+                if (in.read() >= 0) {
+                    throw new IOException("Yedek bozuk: son segmentten sonra fazla veri");
+                }
+            }
+        }
+    }
+}
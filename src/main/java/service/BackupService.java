@@ -3,28 +3,73 @@ package service;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HexFormat;
 import java.util.List;
+import java.util.Map;
 import java.util.Properties;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
-import java.util.stream.Collectors;
 import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
 
 /**
  * Periyodik MySQL yedek servisi.
  *
- * <p>Saatte bir (varsayılan) {@code mysqldump} çalıştırır, çıktıyı
- * {@code ~/Backups/budget-YYYYMMDD-HHmmss.sql} dosyasına yazar.
+ * <p>Saatte bir (varsayılan) {@code mysqldump} çalıştırır; stdout'u gzip ve
+ * (BACKUP_PASS varsa) AES-256-GCM üzerinden doğrudan
+ * {@code ~/Backups/budget-YYYYMMDD-HHmmss.sql.gz.enc} dosyasına akıtır
+ * (şifresiz: {@code .sql.gz}). Düz metin dump diske hiç yazılmaz; yanına
+ * SHA-256 manifesti ({@code .sha256}) bırakılır.
+ *
+ * <p><b>Artımlı mod</b> ({@code BACKUP_INCREMENTAL=true}): her
+ * {@code BACKUP_FULL_EVERY_HOURS} (varsayılan 24) saatte bir binlog konumlu tam
+ * dump, aradaki turlarda yalnız o saatin binlog olayları ({@code mysqlbinlog},
+ * {@code .inc-*} dosyaları). Parçalar {@link BackupChain} dosyasında sıralanır;
+ * restore {@code tools.BackupDecrypt <zincir>.chain -}. Binlog kapalıysa ya da
+ * yetki yoksa her tur tam dump'a döner. {@code updated_at} işaretleri yerine
+ * binlog: silinen satırlar ve {@code updated_at}'i güncellenmeyen yazmalar da
+ * delta'ya girer.
+ *
+ * <p><b>JDBC motoru</b> ({@code BACKUP_ENGINE=jdbc}, ya da {@code mysqldump}
+ * bulunamazsa): alt süreç olmadan, uygulamanın kendi bağlantı havuzundan
+ * tutarlı snapshot ile {@code budget-YYYYMMDD-HHmmss.jdump/} klasörüne
+ * tablo tablo paralel yedek ({@link JdbcBackupExporter};
+ * {@code BACKUP_JDBC_WORKERS}, varsayılan 2). Restore
+ * {@code tools.BackupRestore}. Bu motorda artımlı mod yoktur.
  *
  * <p>30 günden eski yedekleri otomatik temizler (rolling retention).
  *
@@ -49,6 +94,16 @@ public class BackupService {
             "jdbc:mysql://([^:/]+)(?::(\\d+))?/([^?]+).*");
     /** Eski yedekleri sil — bu sürenin altındakini koru. */
     private static final long RETENTION_DAYS = 30;
+    /** mysqldump stderr çıktısı — son çalıştırmanınki. */
+    private static final String DUMP_LOG = "mysqldump-last.log";
+    private static final long DUMP_TIMEOUT_MINUTES = 2;
+    private static final int IO_BUFFER = 64 * 1024;
+    /** Dump başlığında binlog konumunun arandığı bölüm. */
+    private static final int HEAD_BYTES = 16 * 1024;
+    private static final Pattern VERSION = Pattern.compile("(\\d+)\\.(\\d+)\\.(\\d+)");
+    private static final long DEFAULT_FULL_EVERY_HOURS = 24;
+    static final String JDBC_SUFFIX = ".jdump";
+    private static final int DEFAULT_JDBC_WORKERS = 2;
 
     private final Path backupDir;
     private final String host;
@@ -56,7 +111,14 @@ public class BackupService {
     private final String dbName;
     private final String user;
     private final String password;
+    private final String jdbcUrl;
     private final String mysqldumpCmd;
+    private final String mysqlbinlogCmd;
+    private final boolean incremental;
+    private final Duration fullEvery;
+    private final boolean jdbcEngine;
+    private final int jdbcWorkers;
+    private volatile String dumpVersion;
     private ScheduledExecutorService scheduler;
 
     public BackupService() {
@@ -73,9 +135,18 @@ public class BackupService {
             this.port = 3306;
             this.dbName = "posdb";
         }
+        this.jdbcUrl = url;
         this.user = p.getProperty("db.user", "root");
         this.password = p.getProperty("db.password", "");
-        this.mysqldumpCmd = resolveMysqlDumpCommand();
+        this.mysqldumpCmd = resolveMysqlCommand("mysqldump");
+        // Artımlı mod: BACKUP_INCREMENTAL=true → her BACKUP_FULL_EVERY_HOURS'ta
+        // bir tam dump, aradaki turlarda binlog delta'sı
+        this.incremental = Boolean.parseBoolean(System.getenv("BACKUP_INCREMENTAL"));
+        this.fullEvery = Duration.ofHours(parseHours(System.getenv("BACKUP_FULL_EVERY_HOURS")));
+        this.mysqlbinlogCmd = incremental ? resolveMysqlCommand("mysqlbinlog") : null;
+        // BACKUP_ENGINE=jdbc → mysqldump'sız, uygulama içi yedek; mysqldump yoksa da bu
+        this.jdbcEngine = "jdbc".equalsIgnoreCase(System.getenv("BACKUP_ENGINE")) || mysqldumpCmd == null;
+        this.jdbcWorkers = parseWorkers(System.getenv("BACKUP_JDBC_WORKERS"));
         this.backupDir = Paths.get(System.getProperty("user.home"), "Backups");
     }
 
@@ -121,14 +192,10 @@ public class BackupService {
         }
     }
 
-    /** Asıl dump işlemi. true = başarılı. */
+    /** Asıl yedek işlemi (tam ya da artımlı). true = başarılı. */
     private boolean doBackup() {
-        if (mysqldumpCmd == null) {
-            LOG.warn("mysqldump bulunamadı — yedek atlandı");
-            return false;
-        }
         String stamp = LocalDateTime.now().format(STAMP);
-        // BACKUP_PASS varsa şifreli yedek (.sql.enc), yoksa düz .sql
+        // BACKUP_PASS varsa şifreli yedek (.sql.gz.enc), yoksa düz .sql.gz
         String backupPass = System.getenv("BACKUP_PASS");
         boolean encrypt = backupPass != null && !backupPass.isBlank();
         // Production'da şifresiz yedek izni: BACKUP_ALLOW_PLAINTEXT=true gerek
@@ -138,9 +205,132 @@ public class BackupService {
             LOG.warn("Yedek atlandı: BACKUP_PASS yok ve BACKUP_ALLOW_PLAINTEXT=false");
             return false;
         }
+        String pass = encrypt ? backupPass : null;
+
+        if (jdbcEngine) return doJdbcBackup(stamp, pass);
+        if (incremental) {
+            BackupChain chain = currentChain();
+            if (chain != null && !isFullDue(chain, fullEvery, LocalDateTime.now())) {
+                if (doDelta(chain, stamp, pass)) return true;
+                LOG.warn("Artımlı yedek alınamadı — yeni tam yedekle zincir baştan başlıyor");
+            }
+        }
+        return doFull(stamp, pass);
+    }
+
+    /**
+     * Tam dump. Artımlı modda dump {@code --source-data=2} ile alınır; başındaki
+     * binlog konumu yeni zincirin başlangıcı olur.
+     */
+    private boolean doFull(String stamp, String pass) {
+        Path target = backupDir.resolve("budget-" + stamp + extension(pass));
+        HeadTap tap = incremental ? new HeadTap() : null;
+        StreamResult result = runToFile(dumpCommand(incremental), target, pass, tap);
+        if (result == null && incremental) {
+            // Binlog kapalı ya da RELOAD / REPLICATION CLIENT yetkisi yok — yedeksiz kalma
+            LOG.warn("Binlog konumlu dump başarısız (ayrıntı: {}) — konumsuz tam yedek deneniyor",
+                    backupDir.resolve(DUMP_LOG));
+            tap = null;
+            result = runToFile(dumpCommand(false), target, pass, null);
+        }
+        if (result == null) return false;
+
+        if (tap != null) {
+            BackupChain.Position pos = BackupChain.Position.fromDumpHeader(tap.head());
+            if (pos == null) {
+                LOG.warn("Dump başlığında binlog konumu yok — artımlı yedek bu zincirde yapılamaz");
+            } else {
+                try {
+                    BackupChain.start(backupDir, "budget-" + stamp, new BackupChain.Entry(
+                            BackupChain.Kind.FULL, target.getFileName().toString(), null, pos, result.sha256()));
+                } catch (IOException ex) {
+                    LOG.warn("Yedek zinciri yazılamadı: {}", ex.getMessage());
+                }
+            }
+        }
+        logCreated(target, result, pass != null, "tam");
+        return true;
+    }
+
+    /**
+     * {@link JdbcBackupExporter} ile uygulamanın bağlantı havuzundan yedek.
+     * Klasör SHA-256'ları kendi manifestinde tutar.
+     */
+    private boolean doJdbcBackup(String stamp, String pass) {
+        Path target = backupDir.resolve("budget-" + stamp + JDBC_SUFFIX);
+        try {
+            JdbcBackupExporter.Result r = new JdbcBackupExporter(DataConnection.Db.getDataSource(), pass, jdbcWorkers)
+                    .export(target);
+            LOG.info("Yedek alındı (jdbc{}): {} ({} tablo, {} satır, {} byte, {} bağlantı)",
+                    pass == null ? ", şifresiz" : "", target.getFileName(), r.tables(), r.rows(), r.bytes(),
+                    r.workers());
+            service.audit.AuditLog.backupCreated(target.getFileName().toString(), r.bytes(), pass != null);
+            return true;
+        } catch (IOException | SQLException | RuntimeException ex) {
+            LOG.warn("JDBC yedeği başarısız: {}", ex.getMessage());
+            return false;
+        }
+    }
 
-        Path target = backupDir.resolve("budget-" + stamp + ".sql");
-        ProcessBuilder pb = new ProcessBuilder(
+    /**
+     * Zincirin ucundan şu anki binlog konumuna kadar olan olayları
+     * {@code mysqlbinlog} ile çeker. Maliyet yalnız o saatteki yazma
+     * trafiğiyle orantılı; değişiklik yoksa dosya da yazılmaz.
+     *
+     * @return {@code false} → çağıran tam yedeğe döner
+     */
+    private boolean doDelta(BackupChain chain, String stamp, String pass) {
+        if (mysqlbinlogCmd == null) {
+            LOG.warn("mysqlbinlog bulunamadı — artımlı yedek yapılamaz");
+            return false;
+        }
+        BackupChain.Position start = chain.head();
+        BackupChain.Position end;
+        List<String> logs;
+        try (Connection c = DriverManager.getConnection(jdbcUrl, user, password)) {
+            end = currentBinlogPosition(c);
+            logs = binlogFilesBetween(c, start.file(), end.file());
+        } catch (SQLException ex) {
+            LOG.warn("Binlog durumu okunamadı (REPLICATION CLIENT yetkisi?): {}", ex.getMessage());
+            return false;
+        }
+        if (end.equals(start)) {
+            LOG.info("Son yedekten beri binlog ilerlemedi ({}) — delta atlandı", start);
+            return true;
+        }
+        if (logs.isEmpty() || !logs.get(0).equals(start.file())) {
+            LOG.warn("Binlog {} sunucuda yok (purge edilmiş?) — zincir devam edemez", start.file());
+            return false;
+        }
+
+        Path target = backupDir.resolve(chain.name() + ".inc-" + stamp + extension(pass));
+        List<String> cmd = new ArrayList<>(List.of(
+                mysqlbinlogCmd,
+                "--read-from-remote-server",
+                "--host=" + host,
+                "--port=" + port,
+                "--user=" + user,
+                "--database=" + dbName,
+                "--start-position=" + start.pos(),
+                "--stop-position=" + end.pos()));
+        cmd.addAll(logs);
+        StreamResult result = runToFile(cmd, target, pass, null);
+        if (result == null) return false;
+        try {
+            chain.append(new BackupChain.Entry(BackupChain.Kind.DELTA,
+                    target.getFileName().toString(), start, end, result.sha256()));
+        } catch (IOException ex) {
+            LOG.warn("Yedek zinciri güncellenemedi: {}", ex.getMessage());
+            deleteQuietly(target);
+            deleteQuietly(manifestPath(target));
+            return false;
+        }
+        logCreated(target, result, pass != null, "artımlı " + start + " → " + end);
+        return true;
+    }
+
+    private List<String> dumpCommand(boolean withPosition) {
+        List<String> cmd = new ArrayList<>(List.of(
                 mysqldumpCmd,
                 "--host=" + host,
                 "--port=" + port,
@@ -148,142 +338,393 @@ public class BackupService {
                 "--default-character-set=utf8mb4",
                 "--single-transaction",
                 "--routines",
-                "--triggers",
-                "--result-file=" + target.toString(),
-                dbName);
+                "--triggers"));
+        if (withPosition) cmd.add(positionFlag(commandVersion(mysqldumpCmd)));
+        cmd.add(dbName);
+        return cmd;
+    }
+
+    /**
+     * Komutu çalıştırıp stdout'unu {@link #writeCompressed} ile {@code target}'a
+     * akıtır, yanına manifest yazar.
+     *
+     * @return başarısızsa {@code null} (yarım dosya silinmiş olur)
+     */
+    private StreamResult runToFile(List<String> command, Path target, String pass, HeadTap tap) {
+        Path part = backupDir.resolve(target.getFileName() + ".part");
+        ProcessBuilder pb = new ProcessBuilder(command);
         // Şifreyi env üzerinden geç (-p flag kullanmaktan daha güvenli)
         pb.environment().put("MYSQL_PWD", password == null ? "" : password);
-        pb.redirectErrorStream(true);
+        // stdout = dump; stderr ayrı dosyaya (akışa karışmasın)
+        pb.redirectError(ProcessBuilder.Redirect.to(backupDir.resolve(DUMP_LOG).toFile()));
+        String tool = Paths.get(command.get(0)).getFileName().toString();
+        Process proc = null;
+        boolean ok = false;
         try {
-            Process proc = pb.start();
-            boolean finished = proc.waitFor(2, TimeUnit.MINUTES);
-            if (!finished) {
-                proc.destroyForcibly();
-                LOG.warn("mysqldump zaman aşımına uğradı (2dk)");
-                return false;
+            proc = pb.start();
+            Process p = proc;
+            AtomicBoolean timedOut = new AtomicBoolean();
+            CompletableFuture<Void> watchdog = CompletableFuture.runAsync(() -> {
+                timedOut.set(true);
+                p.destroyForcibly();
+            }, CompletableFuture.delayedExecutor(DUMP_TIMEOUT_MINUTES, TimeUnit.MINUTES));
+
+            StreamResult result;
+            try (InputStream out = proc.getInputStream()) {
+                result = writeCompressed(tap == null ? out : tap.wrap(out), part, pass);
+            } finally {
+                watchdog.cancel(false);
+            }
+            proc.waitFor();
+            if (timedOut.get()) {
+                LOG.warn("{} zaman aşımına uğradı ({}dk)", tool, DUMP_TIMEOUT_MINUTES);
+                return null;
             }
             int exit = proc.exitValue();
             if (exit != 0) {
-                LOG.warn("mysqldump hatası (exit={}) — dosya: {}", exit, target);
-                return false;
+                LOG.warn("{} hatası (exit={}) — ayrıntı: {}", tool, exit, backupDir.resolve(DUMP_LOG));
+                return null;
             }
-            long size = Files.size(target);
-            // İsteğe bağlı şifreleme — AES-256-GCM
-            if (encrypt) {
-                Path encrypted = backupDir.resolve("budget-" + stamp + ".sql.enc");
-                try {
-                    encryptFile(target, encrypted, backupPass);
-                    Files.deleteIfExists(target);   // düz dosyayı silelim
-                    long encSize = Files.size(encrypted);
-                    LOG.info("Şifreli yedek alındı: {} ({} byte, kaynak {} byte)",
-                            encrypted.getFileName(), encSize, size);
-                    service.audit.AuditLog.backupCreated(
-                            encrypted.getFileName().toString(), encSize, true);
-                } catch (Exception ex) {
-                    LOG.error("Yedek şifrelenemedi: {}", ex.getMessage());
-                    return false;
-                }
-            } else {
-                LOG.info("Yedek alındı (şifresiz): {} ({} byte)", target.getFileName(), size);
-                service.audit.AuditLog.backupCreated(
-                        target.getFileName().toString(), size, false);
-            }
-            return true;
-        } catch (IOException | InterruptedException ex) {
+            moveIntoPlace(part, target);
+            writeManifest(target, result.sha256());
+            ok = true;
+            return result;
+        } catch (IOException ex) {
+            LOG.warn("Yedek alınamadı: {}", ex.getMessage());
+            return null;
+        } catch (InterruptedException ex) {
             LOG.warn("Yedek alınamadı: {}", ex.getMessage());
             Thread.currentThread().interrupt();
-            return false;
+            return null;
+        } finally {
+            if (!ok) {
+                if (proc != null) proc.destroyForcibly();
+                deleteQuietly(part);
+            }
+        }
+    }
+
+    private void logCreated(Path target, StreamResult result, boolean encrypted, String kind) {
+        long size;
+        try {
+            size = Files.size(target);
+        } catch (IOException ex) {
+            size = -1;
+        }
+        LOG.info("Yedek alındı ({}{}): {} ({} byte, kaynak {} byte, sha256 {})",
+                kind, encrypted ? "" : ", şifresiz", target.getFileName(), size, result.sourceBytes(),
+                result.sha256());
+        service.audit.AuditLog.backupCreated(target.getFileName().toString(), size, encrypted);
+    }
+
+    private static String extension(String pass) {
+        return pass == null ? ".sql.gz" : ".sql.gz.enc";
+    }
+
+    /** Klasördeki en yeni zincir; yoksa ya da okunamıyorsa {@code null}. */
+    private BackupChain currentChain() {
+        Path latest;
+        try (Stream<Path> files = Files.list(backupDir)) {
+            latest = files.filter(p -> {
+                        String n = p.getFileName().toString();
+                        return n.startsWith("budget-") && n.endsWith(BackupChain.SUFFIX);
+                    })
+                    .max(Comparator.naturalOrder())
+                    .orElse(null);
+        } catch (IOException ex) {
+            LOG.warn("Yedek klasörü taranamadı: {}", ex.getMessage());
+            return null;
+        }
+        if (latest == null) return null;
+        try {
+            return BackupChain.read(latest);
+        } catch (IOException ex) {
+            LOG.warn("Yedek zinciri okunamadı, yeni tam yedek alınacak: {}", ex.getMessage());
+            return null;
+        }
+    }
+
+    /** Zincirin tam dump'ı {@code fullEvery}'den eskiyse yeni zincir başlar. */
+    static boolean isFullDue(BackupChain chain, Duration fullEvery, LocalDateTime now) {
+        try {
+            LocalDateTime started = LocalDateTime.parse(chain.name().substring("budget-".length()), STAMP);
+            return !started.plus(fullEvery).isAfter(now);
+        } catch (RuntimeException ex) {
+            return true;
         }
     }
 
     /**
-     * AES-256-GCM ile dosya şifreleme.
+     * {@code SHOW BINARY LOG STATUS} (8.2+), yoksa {@code SHOW MASTER STATUS}.
      *
-     * <p>Format: 16 byte salt | 12 byte IV | ciphertext (GCM tag dahil).
-     * Anahtar PBKDF2-HMAC-SHA256(passphrase, salt, 600 000 iter, 256 bit).
+     * @throws SQLException binlog kapalıysa ya da yetki yoksa
+     */
+    private static BackupChain.Position currentBinlogPosition(Connection c) throws SQLException {
+        SQLException first = null;
+        for (String sql : new String[]{"SHOW BINARY LOG STATUS", "SHOW MASTER STATUS"}) {
+            try (Statement st = c.createStatement();
+                 ResultSet rs = st.executeQuery(sql)) {
+                if (!rs.next()) throw new SQLException("Binlog kapalı (log_bin=OFF)");
+                return new BackupChain.Position(rs.getString("File"), rs.getLong("Position"));
+            } catch (SQLException ex) {
+                if (first == null) first = ex;
+                else first.addSuppressed(ex);
+            }
+        }
+        throw first;
+    }
+
+    /** {@code from}..{@code to} arasındaki binlog dosyaları (ikisi dahil), sıralı. */
+    private static List<String> binlogFilesBetween(Connection c, String from, String to) throws SQLException {
+        List<String> out = new ArrayList<>();
+        try (Statement st = c.createStatement();
+             ResultSet rs = st.executeQuery("SHOW BINARY LOGS")) {
+            while (rs.next()) {
+                String name = rs.getString(1);
+                if (name.compareTo(from) >= 0 && name.compareTo(to) <= 0) out.add(name);
+            }
+        }
+        out.sort(Comparator.naturalOrder());
+        return out;
+    }
+
+    /**
+     * {@code --source-data=2} (8.0.26+); daha eski MySQL ve MariaDB
+     * {@code --master-data=2} bilir. Her ikisi de konumu yorum satırı olarak yazar.
+     */
+    static String positionFlag(String versionOutput) {
+        if (versionOutput != null && !versionOutput.contains("MariaDB")) {
+            Matcher m = VERSION.matcher(versionOutput);
+            if (m.find()) {
+                int major = Integer.parseInt(m.group(1));
+                int minor = Integer.parseInt(m.group(2));
+                int patch = Integer.parseInt(m.group(3));
+                if (major > 8 || (major == 8 && (minor > 0 || patch >= 26))) return "--source-data=2";
+            }
+        }
+        return "--master-data=2";
+    }
+
+    private String commandVersion(String cmd) {
+        String v = dumpVersion;
+        if (v != null) return v;
+        try {
+            Process proc = new ProcessBuilder(cmd, "--version").redirectErrorStream(true).start();
+            try (InputStream in = proc.getInputStream()) {
+                v = new String(in.readNBytes(512), StandardCharsets.UTF_8);
+            }
+            proc.waitFor(5, TimeUnit.SECONDS);
+        } catch (IOException ex) {
+            v = "";
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            v = "";
+        }
+        dumpVersion = v;
+        return v;
+    }
+
+    private static void deleteQuietly(Path p) {
+        try {
+            Files.deleteIfExists(p);
+        } catch (IOException ex) {
+            LOG.warn("Yarım yedek silinemedi: {} - {}", p, ex.getMessage());
+        }
+    }
+
+    /** Akışın ilk {@value #HEAD_BYTES} baytını saklar (dump başlığındaki binlog konumu için). */
+    private static final class HeadTap {
+        private final ByteArrayOutputStream head = new ByteArrayOutputStream(HEAD_BYTES);
+
+        InputStream wrap(InputStream in) {
+            return new FilterInputStream(in) {
+                @Override
+                public int read() throws IOException {
+                    int b = super.read();
+                    if (b >= 0 && head.size() < HEAD_BYTES) head.write(b);
+                    return b;
+                }
+
+                @Override
+                public int read(byte[] buf, int off, int len) throws IOException {
+                    int n = super.read(buf, off, len);
+                    if (n > 0 && head.size() < HEAD_BYTES) {
+                        head.write(buf, off, Math.min(n, HEAD_BYTES - head.size()));
+                    }
+                    return n;
+                }
+            };
+        }
+
+        String head() {
+            return head.toString(StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * Tek geçişli akış: dump → gzip → (varsa) segmentli AES-256-GCM → dosya.
      *
-     * <p>İterasyon sayısı OWASP 2023 Password Storage Cheat Sheet'in PBKDF2-HMAC-SHA256
-     * için önerdiği 600 000 değerinde. Günde 1 yedek için CPU maliyeti < 200 ms,
-     * brute-force maliyeti ~10x artar.
+     * <p>Düz metin diske hiç yazılmaz; bellek kullanımı tampon boyutlarıyla
+     * sınırlı (dump büyüklüğünden bağımsız). SHA-256 diske giden baytlardan
+     * aynı geçişte hesaplanır — dosyayı manifest için yeniden okumak gerekmez.
      *
-     * <p>Çözmek için: bkz. SECURITY.md §4 (Java tek satır komutu). Restore aracı
-     * aynı iterasyon sayısını kullanmalı; aksi halde decrypt başarısız olur.
+     * @param passphrase {@code null} ise şifrelenmez
+     */
+    static StreamResult writeCompressed(InputStream dump, Path out, String passphrase) throws IOException {
+        MessageDigest sha = newSha256();
+        long sourceBytes;
+        try (OutputStream gz = openCompressed(out, passphrase, sha)) {
+            sourceBytes = dump.transferTo(gz);
+        }
+        return new StreamResult(sourceBytes, HexFormat.of().formatHex(sha.digest()));
+    }
+
+    /**
+     * {@link #writeCompressed} ile aynı zincir, yazılabilir akış olarak:
+     * yazılan düz metin gzip + (varsa) şifrelenip {@code out}'a gider, diske
+     * giden baytlar {@code sha}'ya eklenir. Kapatınca dosya tamamlanır.
+     */
+    static OutputStream openCompressed(Path out, String passphrase, MessageDigest sha) throws IOException {
+        OutputStream file = new DigestOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(out), IO_BUFFER), sha);
+        try {
+            OutputStream sink = passphrase == null ? file : BackupCipher.encrypt(file, passphrase);
+            return new GZIPOutputStream(sink, IO_BUFFER);
+        } catch (IOException | RuntimeException ex) {
+            file.close();   // şifreleme akışı açılamadıysa da kapansın
+            throw ex;
+        }
+    }
+
+    /**
+     * {@link #openCompressed} ile yazılmış dosyayı okur; şifreli mi değil mi
+     * ilk baytlardan anlaşılır.
      */
-    private static final int PBKDF2_ITERATIONS = 600_000;
+    static InputStream openDecompressed(Path in, String passphrase) throws IOException {
+        InputStream raw = new BufferedInputStream(Files.newInputStream(in), IO_BUFFER);
+        try {
+            raw.mark(BackupCipher.magicLength());
+            byte[] head = raw.readNBytes(BackupCipher.magicLength());
+            raw.reset();
+            if (BackupCipher.hasMagic(head)) {
+                if (passphrase == null) throw new IOException(in.getFileName() + " şifreli; BACKUP_PASS gerekli");
+                return new GZIPInputStream(BackupCipher.decrypt(raw, passphrase), IO_BUFFER);
+            }
+            return new GZIPInputStream(raw, IO_BUFFER);
+        } catch (IOException | RuntimeException ex) {
+            raw.close();
+            throw ex;
+        }
+    }
 
-    private static void encryptFile(Path in, Path out, String passphrase) throws Exception {
-        byte[] salt = new byte[16];
-        new java.security.SecureRandom().nextBytes(salt);
-        byte[] iv = new byte[12];
-        new java.security.SecureRandom().nextBytes(iv);
+    static MessageDigest newSha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
 
-        javax.crypto.spec.PBEKeySpec spec =
-                new javax.crypto.spec.PBEKeySpec(passphrase.toCharArray(), salt, PBKDF2_ITERATIONS, 256);
-        javax.crypto.SecretKey tmp = javax.crypto.SecretKeyFactory
-                .getInstance("PBKDF2WithHmacSHA256").generateSecret(spec);
-        javax.crypto.SecretKey key = new javax.crypto.spec.SecretKeySpec(tmp.getEncoded(), "AES");
+    /** Akışın sonucu: sıkıştırılmadan önceki dump boyutu ve dosyanın SHA-256'sı. */
+    record StreamResult(long sourceBytes, String sha256) {}
 
-        javax.crypto.Cipher cipher = javax.crypto.Cipher.getInstance("AES/GCM/NoPadding");
-        javax.crypto.spec.GCMParameterSpec gcm = new javax.crypto.spec.GCMParameterSpec(128, iv);
-        cipher.init(javax.crypto.Cipher.ENCRYPT_MODE, key, gcm);
+    /**
+     * {@code <yedek>.sha256} — {@code sha256sum -c} ile doğrulanabilir biçim.
+     * {@code tools.BackupDecrypt} de çözmeden önce bu dosyayı kontrol eder.
+     */
+    static Path manifestPath(Path backup) {
+        return backup.resolveSibling(backup.getFileName() + ".sha256");
+    }
+
+    private static void writeManifest(Path backup, String sha256) throws IOException {
+        Files.writeString(manifestPath(backup), sha256 + "  " + backup.getFileName() + "\n",
+                StandardCharsets.US_ASCII);
+    }
 
-        try (java.io.OutputStream os = Files.newOutputStream(out);
-             java.io.InputStream is = Files.newInputStream(in);
-             javax.crypto.CipherOutputStream cos = new javax.crypto.CipherOutputStream(os, cipher)) {
-            os.write(salt);
-            os.write(iv);
-            byte[] buf = new byte[8192];
-            int n;
-            while ((n = is.read(buf)) > 0) cos.write(buf, 0, n);
+    private static void moveIntoPlace(Path part, Path target) throws IOException {
+        try {
+            Files.move(part, target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException ex) {
+            Files.move(part, target, StandardCopyOption.REPLACE_EXISTING);
         }
     }
 
-    /** RETENTION_DAYS'ten eski yedekleri sil. */
+    /**
+     * RETENTION_DAYS'ten eski yedekleri sil. Zincirler bütün olarak silinir —
+     * en yeni parçası da eskiyse; tam dump'ı silinmiş delta'lar restore edilemez.
+     */
     private void cleanOldBackups() {
         long cutoffMillis = System.currentTimeMillis()
                 - TimeUnit.DAYS.toMillis(RETENTION_DAYS);
+        Map<Path, Long> mtimes = new HashMap<>();
         try (Stream<Path> files = Files.list(backupDir)) {
-            List<Path> oldOnes = files
-                    .filter(p -> p.getFileName().toString().startsWith("budget-"))
-                    .filter(p -> {
-                        String name = p.getFileName().toString();
-                        return name.endsWith(".sql") || name.endsWith(".sql.enc");
-                    })
-                    .filter(p -> {
+            files.filter(p -> isBackupFile(p.getFileName().toString()))
+                    .forEach(p -> {
                         try {
-                            return Files.getLastModifiedTime(p).toMillis() < cutoffMillis;
+                            mtimes.put(p, Files.getLastModifiedTime(p).toMillis());
                         } catch (IOException ex) {
-                            return false;
+                            // okunamayanı silme
                         }
-                    })
-                    .sorted(Comparator.naturalOrder())
-                    .collect(Collectors.toList());
-            for (Path p : oldOnes) {
-                try {
-                    Files.delete(p);
-                    LOG.info("Eski yedek silindi: {}", p.getFileName());
-                } catch (IOException ex) {
-                    LOG.warn("Eski yedek silinemedi: {} - {}", p, ex.getMessage());
-                }
-            }
+                    });
         } catch (IOException ex) {
             LOG.warn("Yedek klasörü taranamadı: {}", ex.getMessage());
+            return;
+        }
+        for (Path p : selectExpired(mtimes, cutoffMillis)) {
+            try {
+                JdbcBackupExporter.deleteRecursively(p);
+                LOG.info("Eski yedek silindi: {}", p.getFileName());
+            } catch (IOException ex) {
+                LOG.warn("Eski yedek silinemedi: {} - {}", p, ex.getMessage());
+            }
+        }
+    }
+
+    private static boolean isBackupFile(String name) {
+        return name.startsWith("budget-")
+                && (name.endsWith(".sql") || name.endsWith(".sql.enc")
+                || name.endsWith(".sql.gz") || name.endsWith(".sql.gz.enc")
+                || name.endsWith(".sha256") || name.endsWith(".part")
+                || name.endsWith(BackupChain.SUFFIX) || name.endsWith(JDBC_SUFFIX));
+    }
+
+    /**
+     * Silinecek dosyalar: aynı yedeğe ait dosyalar (ilk noktaya kadarki ad —
+     * dump, manifest, zincir, delta'lar) ancak hepsi {@code cutoffMillis}'ten
+     * eskiyse seçilir. En yeni grup hiç silinmez: yedekler uzun süre durmuşsa
+     * elde kalan son yedek de gitmesin.
+     */
+    static List<Path> selectExpired(Map<Path, Long> mtimes, long cutoffMillis) {
+        TreeMap<String, List<Path>> groups = new TreeMap<>();
+        for (Path p : mtimes.keySet()) {
+            String name = p.getFileName().toString();
+            int dot = name.indexOf('.');
+            groups.computeIfAbsent(dot < 0 ? name : name.substring(0, dot), k -> new ArrayList<>()).add(p);
+        }
+        List<Path> out = new ArrayList<>();
+        String newest = groups.isEmpty() ? null : groups.lastKey();
+        for (Map.Entry<String, List<Path>> g : groups.entrySet()) {
+            if (g.getKey().equals(newest)) continue;
+            boolean allOld = g.getValue().stream().allMatch(p -> mtimes.get(p) < cutoffMillis);
+            if (allOld) out.addAll(g.getValue());
         }
+        out.sort(Comparator.naturalOrder());
+        return out;
     }
 
     /**
-     * mysqldump komutunu çözer:
+     * mysqldump / mysqlbinlog komutunu çözer:
      * 1. Önce sistem PATH'inde dene
      * 2. Bulunmazsa Windows'ta varsayılan kurulum yolunu dene
      */
-    private String resolveMysqlDumpCommand() {
-        String cmd = isWindows() ? "mysqldump.exe" : "mysqldump";
+    private String resolveMysqlCommand(String tool) {
+        String cmd = isWindows() ? tool + ".exe" : tool;
         if (commandExists(cmd)) return cmd;
         if (isWindows()) {
             String[] candidates = {
-                    "C:\\Program Files\\MySQL\\MySQL Server 9.3\\bin\\mysqldump.exe",
-                    "C:\\Program Files\\MySQL\\MySQL Server 8.4\\bin\\mysqldump.exe",
-                    "C:\\Program Files\\MySQL\\MySQL Server 8.0\\bin\\mysqldump.exe",
+                    "C:\\Program Files\\MySQL\\MySQL Server 9.3\\bin\\" + cmd,
+                    "C:\\Program Files\\MySQL\\MySQL Server 8.4\\bin\\" + cmd,
+                    "C:\\Program Files\\MySQL\\MySQL Server 8.0\\bin\\" + cmd,
             };
             for (String c : candidates) {
                 if (Files.exists(Paths.get(c))) return c;
@@ -292,6 +733,30 @@ public class BackupService {
         return null;
     }
 
+    private static long parseHours(String value) {
+        if (value == null || value.isBlank()) return DEFAULT_FULL_EVERY_HOURS;
+        try {
+            long h = Long.parseLong(value.trim());
+            if (h > 0) return h;
+        } catch (NumberFormatException ex) {
+            // aşağıda uyarı
+        }
+        LOG.warn("BACKUP_FULL_EVERY_HOURS geçersiz: {} — {} saat kullanılıyor", value, DEFAULT_FULL_EVERY_HOURS);
+        return DEFAULT_FULL_EVERY_HOURS;
+    }
+
+    private static int parseWorkers(String value) {
+        if (value == null || value.isBlank()) return DEFAULT_JDBC_WORKERS;
+        try {
+            int n = Integer.parseInt(value.trim());
+            if (n > 0) return n;
+        } catch (NumberFormatException ex) {
+            // aşağıda uyarı
+        }
+        LOG.warn("BACKUP_JDBC_WORKERS geçersiz: {} — {} kullanılıyor", value, DEFAULT_JDBC_WORKERS);
+        return DEFAULT_JDBC_WORKERS;
+    }
+
     private boolean commandExists(String cmd) {
         try {
             ProcessBuilder pb = new ProcessBuilder(cmd, "--version");
@@ -0,0 +1,337 @@
+package service;
+
+import dao.CategoryDAO;
+import dao.ProductDAO;
+import dao.jdbc.CategoryJdbcDAO;
+import dao.jdbc.ProductJdbcDAO;
+import model.Category;
+import model.Product;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Ürün/kategori kataloğunun sürümlü, bellek içi kopyası.
+ *
+ * <p>Katalog nadiren değişir ama çok sık okunur (ürün listesi, API, mutfak
+ * yönlendirmesi, ürün seçici kutucukları). Tüm tablo tek seferde okunur ve
+ * değişmez bir {@link Snapshot} olarak tutulur; okuyucular kilitsizdir.
+ *
+ * <p>Geçersizleştirme: katalog yazımları {@link #invalidate()} çağırır (sürüm
+ * artar), diğer terminallerin yazımları change feed üzerinden gelir. Change
+ * feed yoksa {@code maxAge} sonunda kendiliğinden yenilenir. Sipariş
+ * yollarındaki stok hareketleri önbelleği geçersizleştirmez — stok UI'da
+ * yönetilmiyor; görüntüdeki {@code stock} en fazla {@code maxAge} kadar eskidir.
+ *
+ * <p>Dışarıya her zaman kopya verilir — UI ürün nesnelerini yerinde düzenler.
+ */
+public class CatalogCache {
+
+    private static final Logger LOG = LoggerFactory.getLogger(CatalogCache.class);
+
+    /** Change feed olmadan başka terminalin değişikliğinin en geç görüneceği süre. */
+    private static final Duration DEFAULT_MAX_AGE = Duration.ofSeconds(60);
+
+    private static final Locale TR = new Locale("tr", "TR");
+
+    private static final String[] DRINK_KEYWORDS = {
+            "içecek", "icecek", "içki", "icki",
+            "su", "ayran", "kola", "çay", "cay",
+            "fanta", "sprite", "kahve", "gazoz",
+            "meşrubat", "mesrubat", "soda", "limonata",
+            "şalgam", "salgam", "şıra", "sira",
+            "bar", "meşrub", "mesrub", "drink", "beverage"
+    };
+
+    private static final String[] FOOD_KEYWORDS = {
+            "yemek", "ana yemek", "kebap", "ızgara", "izgara",
+            "pide", "lahmacun", "ciğer", "ciger", "köfte", "kofte",
+            "tavuk", "dürüm", "durum", "döner", "doner", "sıcak"
+    };
+
+    private static class Holder {
+        private static final CatalogCache INSTANCE = new CatalogCache();
+    }
+
+    /** Uygulama genelinde paylaşılan örnek (AppState, API, mutfak yönlendirme, UI). */
+    public static CatalogCache getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    private final ProductDAO productDAO;
+    private final CategoryDAO categoryDAO;
+    private final long maxAgeNanos;
+    private final AtomicLong version = new AtomicLong(1);
+    private final AtomicLong generations = new AtomicLong();
+    private final Object loadLock = new Object();
+    private volatile Snapshot snapshot;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
+    public CatalogCache() {
+        this(new ProductJdbcDAO(), new CategoryJdbcDAO(), DEFAULT_MAX_AGE);
+    }
+
+    public CatalogCache(ProductDAO productDAO, CategoryDAO categoryDAO, Duration maxAge) {
+        this.productDAO = Objects.requireNonNull(productDAO, "productDAO");
+        this.categoryDAO = Objects.requireNonNull(categoryDAO, "categoryDAO");
+        this.maxAgeNanos = Objects.requireNonNull(maxAge, "maxAge").toNanos();
+    }
+
+    /** Tüm ürünler (pasif dahil), DB sırasıyla. */
+    public List<Product> getAllProducts() {
+        return copies(current().products);
+    }
+
+    public List<Product> getProductsByCategory(Long categoryId) {
+        if (categoryId == null) {
+            return List.of();
+        }
+        return copies(current().productsByCategory.getOrDefault(categoryId, List.of()));
+    }
+
+    /** {@link ProductService#getProductsByCategoryName} ile aynı anlam: boş ad → tüm ürünler. */
+    public List<Product> getProductsByCategoryName(String categoryName) {
+        if (categoryName == null || categoryName.isBlank()) {
+            return getAllProducts();
+        }
+        Snapshot s = current();
+        Category category = s.categoriesByName.get(nameKey(categoryName));
+        if (category == null) {
+            return List.of();
+        }
+        return copies(s.productsByCategory.getOrDefault(category.getId(), List.of()));
+    }
+
+    public Optional<Product> findProduct(Long productId) {
+        if (productId == null) {
+            return Optional.empty();
+        }
+        Product p = current().productsById.get(productId);
+        return p == null ? Optional.empty() : Optional.of(p.copy());
+    }
+
+    /** Mutfak yönlendirmesi için: kopya üretmeden ürünün kategori id'si. */
+    public Long findCategoryIdOfProduct(Long productId) {
+        if (productId == null) {
+            return null;
+        }
+        Product p = current().productsById.get(productId);
+        return p == null ? null : p.getCategoryId();
+    }
+
+    public List<Category> getAllCategories() {
+        List<Category> source = current().categories;
+        List<Category> out = new ArrayList<>(source.size());
+        for (Category c : source) {
+            out.add(c.copy());
+        }
+        return out;
+    }
+
+    public Category getCategory(Long categoryId) {
+        if (categoryId == null) {
+            return null;
+        }
+        Category c = current().categoriesById.get(categoryId);
+        return c == null ? null : c.copy();
+    }
+
+    /** Kategori id → ad (değiştirilemez). */
+    public Map<Long, String> getCategoryNames() {
+        return current().categoryNames;
+    }
+
+    public boolean isDrinkCategory(Long categoryId) {
+        return categoryId != null && current().drinkCategoryIds.contains(categoryId);
+    }
+
+    public boolean isFoodCategory(Long categoryId) {
+        return categoryId != null && current().foodCategoryIds.contains(categoryId);
+    }
+
+    /** Sonraki okuma katalogu DB'den yeniden yükler. */
+    public void invalidate() {
+        version.incrementAndGet();
+        invalidations.increment();
+    }
+
+    public long version() {
+        return version.get();
+    }
+
+    /**
+     * Şu an sunulan görüntünün yükleme numarası. Sürümden farkı: süre dolup
+     * yeniden yüklemede de artar — HTTP ETag'i için içerik kimliği olarak kullanılır.
+     */
+    public long generation() {
+        return current().generation;
+    }
+
+    public Stats stats() {
+        return new Stats(version.get(), hits.sum(), misses.sum(), invalidations.sum());
+    }
+
+    private Snapshot current() {
+        Snapshot s = snapshot;
+        if (isFresh(s)) {
+            hits.increment();
+            return s;
+        }
+        synchronized (loadLock) {
+            s = snapshot;
+            if (isFresh(s)) {
+                hits.increment();
+                return s;
+            }
+            misses.increment();
+            // Sürüm yüklemeden ÖNCE okunur: yükleme sırasında gelen bir
+            // invalidate sonraki okumada yeniden yüklemeye yol açar.
+            long v = version.get();
+            long started = System.nanoTime();
+            List<Product> products = productDAO.findAll(0, Integer.MAX_VALUE);
+            List<Category> categories = categoryDAO.findAll(0, Integer.MAX_VALUE);
+            s = new Snapshot(v, generations.incrementAndGet(), System.nanoTime(), products, categories);
+            snapshot = s;
+            LOG.debug("Katalog yüklendi: sürüm={}, {} ürün, {} kategori ({} ms)", v, s.products.size(),
+                    s.categories.size(), (System.nanoTime() - started) / 1_000_000);
+            return s;
+        }
+    }
+
+    private boolean isFresh(Snapshot s) {
+        return s != null
+                && s.version == version.get()
+                && System.nanoTime() - s.loadedAtNanos < maxAgeNanos;
+    }
+
+    private static List<Product> copies(List<Product> source) {
+        List<Product> out = new ArrayList<>(source.size());
+        for (Product p : source) {
+            out.add(p.copy());
+        }
+        return out;
+    }
+
+    private static String nameKey(String name) {
+        return name.trim().toLowerCase(TR);
+    }
+
+    /**
+     * Kategori adı "içecek" sınıfında mı? İçecek ürünleri için porsiyon/şiş
+     * yerine sadece "adet" sorulur.
+     *
+     * <p>NOT: Locale("tr","TR") ZORUNLU — yoksa "İçecek" → "i̇çecek" (combining
+     * dot ile) bozulur ve anahtar kelime bulunamaz.
+     */
+    static boolean isDrinkCategoryName(String raw) {
+        if (raw == null) return false;
+        String l = raw.toLowerCase(TR);
+        // ASCII versiyonunu da hesapla (çş yazımı farklı olabilir)
+        String asciiL = l
+                .replace('ç', 'c').replace('ğ', 'g').replace('ı', 'i')
+                .replace('ö', 'o').replace('ş', 's').replace('ü', 'u');
+        for (String kw : DRINK_KEYWORDS) {
+            if (l.contains(kw) || asciiL.contains(kw)) return true;
+        }
+        return false;
+    }
+
+    /** Kategori adı "yemek" sınıfında mı? (kebap, ızgara, pide, ...) */
+    static boolean isFoodCategoryName(String raw) {
+        if (raw == null) return false;
+        String l = raw.toLowerCase(Locale.ROOT);
+        for (String kw : FOOD_KEYWORDS) {
+            if (l.contains(kw)) return true;
+        }
+        return false;
+    }
+
+    /** Önbellek sayaçları: okuma isabetleri, DB'den yüklemeler, geçersizleştirmeler. */
+    public record Stats(long version, long hits, long misses, long invalidations) {
+        public double hitRatio() {
+            long total = hits + misses;
+            return total == 0 ? 0.0 : hits / (double) total;
+        }
+    }
+
+    /** Bir yüklemenin değişmez görüntüsü. */
+    private static final class Snapshot {
+        final long version;
+        final long generation;
+        final long loadedAtNanos;
+        final List<Product> products;
+        final Map<Long, Product> productsById;
+        final Map<Long, List<Product>> productsByCategory;
+        final List<Category> categories;
+        final Map<Long, Category> categoriesById;
+        final Map<String, Category> categoriesByName;
+        final Map<Long, String> categoryNames;
+        final Set<Long> drinkCategoryIds;
+        final Set<Long> foodCategoryIds;
+
+        Snapshot(long version, long generation, long loadedAtNanos,
+                 List<Product> products, List<Category> categories) {
+            this.version = version;
+            this.generation = generation;
+            this.loadedAtNanos = loadedAtNanos;
+
+            List<Product> productList = new ArrayList<>();
+            Map<Long, Product> byId = new HashMap<>();
+            Map<Long, List<Product>> byCategory = new HashMap<>();
+            for (Product p : products) {
+                if (p == null) continue;
+                productList.add(p);
+                if (p.getId() != null) byId.put(p.getId(), p);
+                if (p.getCategoryId() != null) {
+                    byCategory.computeIfAbsent(p.getCategoryId(), k -> new ArrayList<>()).add(p);
+                }
+            }
+            byCategory.replaceAll((k, v) -> Collections.unmodifiableList(v));
+
+            List<Category> categoryList = new ArrayList<>();
+            Map<Long, Category> catById = new HashMap<>();
+            Map<String, Category> catByName = new HashMap<>();
+            Map<Long, String> names = new HashMap<>();
+            Set<Long> drinks = new HashSet<>();
+            Set<Long> foods = new HashSet<>();
+            for (Category c : categories) {
+                if (c == null) continue;
+                categoryList.add(c);
+                if (c.getName() != null && !c.getName().isBlank()) {
+                    catByName.putIfAbsent(nameKey(c.getName()), c);
+                }
+                if (c.getId() == null) continue;
+                catById.put(c.getId(), c);
+                names.put(c.getId(), c.getName());
+                if (isDrinkCategoryName(c.getName())) drinks.add(c.getId());
+                if (isFoodCategoryName(c.getName())) foods.add(c.getId());
+            }
+
+            this.products = Collections.unmodifiableList(productList);
+            this.productsById = byId;
+            this.productsByCategory = byCategory;
+            this.categories = Collections.unmodifiableList(categoryList);
+            this.categoriesById = catById;
+            this.categoriesByName = catByName;
+            this.categoryNames = Collections.unmodifiableMap(names);
+            this.drinkCategoryIds = drinks;
+            this.foodCategoryIds = foods;
+        }
+    }
+}
@@ -1,30 +1,54 @@
 package service;
 
+import DataConnection.Db;
+import DataConnection.TransactionExecutor;
+import dao.ChangeFeedDAO;
 import dao.ExpenseDAO;
+import dao.jdbc.ChangeFeedJdbcDAO;
 import dao.jdbc.ExpenseJdbcDAO;
+import model.ChangeEvent;
 import model.Expense;
 import model.MoneyUtil;
 
 import java.math.BigDecimal;
+import java.sql.Connection;
 import java.time.LocalDate;
 import java.time.YearMonth;
 import java.util.List;
 import java.util.Objects;
+import java.util.function.Function;
 
 public class ExpenseService {
 
     private final ExpenseDAO expenseDAO;
+    private final Function<Connection, ExpenseDAO> expenseDaoFactory;
+    private final Function<Connection, ChangeFeedDAO> changeFeedFactory;
+    private final TransactionExecutor txExecutor;
 
     public ExpenseService() {
         this(new ExpenseJdbcDAO());
     }
 
     public ExpenseService(ExpenseDAO expenseDAO) {
+        this(expenseDAO, ExpenseJdbcDAO::new, ChangeFeedJdbcDAO::new, Db::tx);
+    }
+
+    public ExpenseService(ExpenseDAO expenseDAO,
+                          Function<Connection, ExpenseDAO> expenseDaoFactory,
+                          Function<Connection, ChangeFeedDAO> changeFeedFactory,
+                          TransactionExecutor txExecutor) {
         this.expenseDAO = Objects.requireNonNull(expenseDAO, "expenseDAO");
+        this.expenseDaoFactory = Objects.requireNonNull(expenseDaoFactory, "expenseDaoFactory");
+        this.changeFeedFactory = Objects.requireNonNull(changeFeedFactory, "changeFeedFactory");
+        this.txExecutor = Objects.requireNonNull(txExecutor, "txExecutor");
     }
 
     public Long createExpense(Expense expense) {
-        return expenseDAO.create(expense);
+        return txExecutor.execute(conn -> {
+            Long id = expenseDaoFactory.apply(conn).create(expense);
+            changeFeedFactory.apply(conn).append(ChangeEvent.TOPIC_EXPENSE, null, id);
+            return id;
+        });
     }
 
     public List<Expense> getExpensesOn(LocalDate date) {
@@ -47,7 +71,11 @@ public class ExpenseService {
         if (id == null || id <= 0) {
             throw new IllegalArgumentException("Geçersiz gider ID");
         }
-        expenseDAO.deleteById(id);
+        txExecutor.execute(conn -> {
+            expenseDaoFactory.apply(conn).deleteById(id);
+            changeFeedFactory.apply(conn).append(ChangeEvent.TOPIC_EXPENSE, null, id);
+            return null;
+        });
     }
 
     public BigDecimal sumExpensesOn(LocalDate date) {
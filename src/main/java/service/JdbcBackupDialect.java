@@ -0,0 +1,243 @@
+package service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * JDBC yedek motorunun veritabanına özgü kısmı: tutarlı snapshot açma,
+ * tablo DDL'i ve import oturum ayarları. Gerisi (satır akışı, INSERT
+ * üretimi, dosyalar) ortak.
+ *
+ * <p>Desteklenenler: MySQL/MariaDB (üretim) ve H2 (testler).
+ */
+abstract class JdbcBackupDialect {
+
+    private static final Logger LOG = LoggerFactory.getLogger(JdbcBackupDialect.class);
+
+    static JdbcBackupDialect detect(Connection c) throws SQLException {
+        String product = c.getMetaData().getDatabaseProductName().toLowerCase(Locale.ROOT);
+        if (product.contains("mysql") || product.contains("mariadb")) return new MySql();
+        if (product.contains("h2")) return new H2();
+        throw new SQLException("JDBC yedeği bu veritabanını desteklemiyor: " + product);
+    }
+
+    abstract String name();
+
+    String quote(String identifier) {
+        return '"' + identifier.replace("\"", "\"\"") + '"';
+    }
+
+    /** Bağlantının şemasındaki tablolar (view'lar hariç), ada göre sıralı. */
+    List<String> tables(Connection c) throws SQLException {
+        List<String> out = new ArrayList<>();
+        DatabaseMetaData md = c.getMetaData();
+        try (ResultSet rs = md.getTables(c.getCatalog(), c.getSchema(), "%", null)) {
+            while (rs.next()) {
+                // MySQL "TABLE", H2 2.x "BASE TABLE"
+                String type = rs.getString("TABLE_TYPE");
+                if ("TABLE".equals(type) || "BASE TABLE".equals(type)) out.add(rs.getString("TABLE_NAME"));
+            }
+        }
+        out.sort(null);
+        return out;
+    }
+
+    /** Tabloları (boş) yeniden kuran DDL ifadeleri, uygulanma sırasıyla. */
+    abstract List<String> schema(Connection c, List<String> tables) throws SQLException;
+
+    /** Satırları belleğe almadan akıtan fetch size. */
+    int fetchSize() {
+        return 1_000;
+    }
+
+    /**
+     * Aynı anı gören {@code workers} bağlantı açar (hepsi açık transaction'da).
+     * Varsayılan: paylaşılan snapshot desteklenmez → tek bağlantı.
+     */
+    List<Connection> openSnapshot(DataSource ds, int workers) throws SQLException {
+        return List.of(beginSnapshot(ds.getConnection()));
+    }
+
+    Connection beginSnapshot(Connection c) throws SQLException {
+        try {
+            c.setTransactionIsolation(Connection.TRANSACTION_REPEATABLE_READ);
+            c.setAutoCommit(false);
+            return c;
+        } catch (SQLException ex) {
+            c.close();
+            throw ex;
+        }
+    }
+
+    /** Import oturumu: yabancı anahtar kontrolü vb. kapat (her işçi bağlantısında). */
+    void prepareImportSession(Connection c) throws SQLException {
+    }
+
+    /** Tüm import öncesi/sonrası, veritabanı genelinde (tek bağlantıdan). */
+    void beforeImport(Connection c) throws SQLException {
+    }
+
+    void afterImport(Connection c) throws SQLException {
+    }
+
+    static void release(List<Connection> connections) {
+        for (Connection c : connections) {
+            try {
+                c.rollback();   // salt okuma — değişiklik yok
+                c.setAutoCommit(true);
+            } catch (SQLException ex) {
+                LOG.debug("Snapshot bağlantısı sıfırlanamadı: {}", ex.getMessage());
+            }
+            try {
+                c.close();
+            } catch (SQLException ex) {
+                LOG.debug("Snapshot bağlantısı kapatılamadı: {}", ex.getMessage());
+            }
+        }
+    }
+
+    static final class MySql extends JdbcBackupDialect {
+
+        @Override
+        String name() {
+            return "MySQL";
+        }
+
+        @Override
+        String quote(String identifier) {
+            return '`' + identifier.replace("`", "``") + '`';
+        }
+
+        @Override
+        List<String> schema(Connection c, List<String> tables) throws SQLException {
+            List<String> out = new ArrayList<>(tables.size());
+            try (Statement st = c.createStatement()) {
+                for (String t : tables) {
+                    try (ResultSet rs = st.executeQuery("SHOW CREATE TABLE " + quote(t))) {
+                        if (rs.next()) out.add(rs.getString(2));
+                    }
+                }
+            }
+            return out;
+        }
+
+        /** Connector/J yalnız {@code Integer.MIN_VALUE} ile satır satır akıtır. */
+        @Override
+        int fetchSize() {
+            return Integer.MIN_VALUE;
+        }
+
+        /**
+         * mydumper yöntemi: kısa bir {@code FLUSH TABLES WITH READ LOCK}
+         * altında her işçi {@code START TRANSACTION WITH CONSISTENT SNAPSHOT}
+         * açar, kilit hemen bırakılır. Yazmalar yalnız birkaç ms bekler;
+         * bütün işçiler aynı anı görür. RELOAD yetkisi yoksa tek bağlantıya
+         * düşülür (yine tutarlı, paralel değil).
+         */
+        @Override
+        List<Connection> openSnapshot(DataSource ds, int workers) throws SQLException {
+            if (workers <= 1) return List.of(beginSnapshot(ds.getConnection()));
+            List<Connection> out = new ArrayList<>(workers);
+            try (Connection lock = ds.getConnection()) {
+                try (Statement st = lock.createStatement()) {
+                    st.execute("FLUSH TABLES WITH READ LOCK");
+                } catch (SQLException ex) {
+                    LOG.warn("FLUSH TABLES WITH READ LOCK başarısız (RELOAD yetkisi?) — tek bağlantıyla yedekleniyor: {}",
+                            ex.getMessage());
+                    return List.of(beginSnapshot(ds.getConnection()));
+                }
+                try {
+                    for (int i = 0; i < workers; i++) out.add(beginSnapshot(ds.getConnection()));
+                } catch (SQLException ex) {
+                    release(out);
+                    throw ex;
+                } finally {
+                    try (Statement st = lock.createStatement()) {
+                        st.execute("UNLOCK TABLES");
+                    }
+                }
+            }
+            return out;
+        }
+
+        @Override
+        Connection beginSnapshot(Connection c) throws SQLException {
+            super.beginSnapshot(c);
+            try (Statement st = c.createStatement()) {
+                st.execute("START TRANSACTION WITH CONSISTENT SNAPSHOT, READ ONLY");
+            } catch (SQLException ex) {
+                c.close();
+                throw ex;
+            }
+            return c;
+        }
+
+        @Override
+        void prepareImportSession(Connection c) throws SQLException {
+            try (Statement st = c.createStatement()) {
+                st.execute("SET FOREIGN_KEY_CHECKS=0");
+                st.execute("SET UNIQUE_CHECKS=0");
+                // Dump'taki metinler standart SQL kaçışlı ('' ); id=0 satırları korunur
+                st.execute("SET SESSION sql_mode = CONCAT(@@sql_mode, ',NO_BACKSLASH_ESCAPES,NO_AUTO_VALUE_ON_ZERO')");
+            }
+        }
+    }
+
+    static final class H2 extends JdbcBackupDialect {
+
+        @Override
+        String name() {
+            return "H2";
+        }
+
+        /**
+         * H2'de {@code SHOW CREATE TABLE} yok; {@code SCRIPT NODATA} çıktısından
+         * tablo/indeks/kısıt ifadeleri alınır (kullanıcı ve ayarlar hariç).
+         */
+        @Override
+        List<String> schema(Connection c, List<String> tables) throws SQLException {
+            List<String> creates = new ArrayList<>();
+            List<String> alters = new ArrayList<>();
+            try (Statement st = c.createStatement();
+                 ResultSet rs = st.executeQuery("SCRIPT NODATA NOPASSWORDS NOSETTINGS")) {
+                while (rs.next()) {
+                    String sql = rs.getString(1).trim();
+                    String upper = sql.toUpperCase(Locale.ROOT);
+                    if (upper.startsWith("ALTER TABLE")) {
+                        alters.add(sql);
+                    } else if (upper.startsWith("CREATE") && !upper.startsWith("CREATE USER")
+                            && !upper.startsWith("CREATE SCHEMA")) {
+                        creates.add(sql);
+                    }
+                }
+            }
+            // Yabancı anahtarlar hedef tablolar kurulduktan sonra
+            creates.addAll(alters);
+            return creates;
+        }
+
+        @Override
+        void beforeImport(Connection c) throws SQLException {
+            try (Statement st = c.createStatement()) {
+                st.execute("SET REFERENTIAL_INTEGRITY FALSE");
+            }
+        }
+
+        @Override
+        void afterImport(Connection c) throws SQLException {
+            try (Statement st = c.createStatement()) {
+                st.execute("SET REFERENTIAL_INTEGRITY TRUE");
+            }
+        }
+    }
+}
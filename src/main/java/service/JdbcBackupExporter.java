@@ -0,0 +1,330 @@
+package service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sql.DataSource;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * {@code mysqldump}'sız, uygulama içi mantıksal yedek.
+ *
+ * <p>Her tablo ileri-yönlü, salt-okunur bir {@link ResultSet} ile akıtılır
+ * (satırlar belleğe alınmaz) ve çok satırlı {@code INSERT} ifadeleri olarak
+ * gzip + (varsa) AES-GCM dosyalara yazılır. Büyük tablolar
+ * {@link #CHUNK_ROWS} satırlık parçalara bölünür; import parçaları paralel
+ * yükleyebilir.
+ *
+ * <p>Tablolar {@code workers} iş parçacığında paralel okunur; tüm bağlantılar
+ * aynı snapshot'ı görür (bkz. {@link JdbcBackupDialect#openSnapshot}).
+ * Klasör {@code .part} adıyla yazılır, manifest en son eklenir ve klasör
+ * yerine taşınır — yarım yedek asla geçerli görünmez.
+ *
+ * <p>Geri yükleme: {@link JdbcBackupImporter} / {@code tools.BackupRestore}.
+ */
+public final class JdbcBackupExporter {
+
+    private static final Logger LOG = LoggerFactory.getLogger(JdbcBackupExporter.class);
+
+    /** Tek INSERT ifadesindeki satır sayısı. */
+    static final int BATCH_ROWS = 500;
+    /** Tek veri dosyasındaki satır sayısı. */
+    static final int CHUNK_ROWS = 50_000;
+
+    private final DataSource dataSource;
+    private final String passphrase;
+    private final int workers;
+    private final int chunkRows;
+
+    /**
+     * @param passphrase {@code null} → şifresiz (yalnız gzip)
+     * @param workers    paralel okuyan bağlantı sayısı (≥ 1)
+     */
+    public JdbcBackupExporter(DataSource dataSource, String passphrase, int workers) {
+        this(dataSource, passphrase, workers, CHUNK_ROWS);
+    }
+
+    JdbcBackupExporter(DataSource dataSource, String passphrase, int workers, int chunkRows) {
+        this.dataSource = Objects.requireNonNull(dataSource, "dataSource");
+        this.passphrase = passphrase;
+        this.workers = Math.max(1, workers);
+        this.chunkRows = chunkRows;
+    }
+
+    /** Export sonucu (log ve audit için). */
+    public record Result(Path dir, int tables, long rows, long bytes, int workers) {}
+
+    /**
+     * Veritabanını {@code target} klasörüne yazar.
+     *
+     * @throws IOException  dosya yazılamazsa
+     * @throws SQLException okuma başarısızsa
+     */
+    public Result export(Path target) throws IOException, SQLException {
+        if (Files.exists(target)) throw new IOException("Hedef zaten var: " + target);
+        Path part = target.resolveSibling(target.getFileName() + ".part");
+        deleteRecursively(part);
+        Files.createDirectories(part);
+
+        JdbcBackupDialect dialect;
+        try (Connection c = dataSource.getConnection()) {
+            dialect = JdbcBackupDialect.detect(c);
+        }
+        String ext = passphrase == null ? ".sql.gz" : ".sql.gz.enc";
+        boolean ok = false;
+        try {
+            List<Connection> snapshot = dialect.openSnapshot(dataSource, workers);
+            JdbcBackupManifest manifest;
+            try {
+                manifest = exportSnapshot(dialect, snapshot, part, ext);
+            } finally {
+                JdbcBackupDialect.release(snapshot);
+            }
+            manifest.write(part);
+            Files.move(part, target);
+            ok = true;
+            return new Result(target, manifest.tables.size(), manifest.totalRows(), sizeOf(target), snapshot.size());
+        } finally {
+            if (!ok) deleteRecursively(part);
+        }
+    }
+
+    private JdbcBackupManifest exportSnapshot(JdbcBackupDialect dialect, List<Connection> snapshot,
+                                              Path dir, String ext) throws IOException, SQLException {
+        Connection first = snapshot.get(0);
+        List<String> tables = dialect.tables(first);
+
+        String schemaFile = "schema" + ext;
+        MessageDigest schemaSha = BackupService.newSha256();
+        try (Writer w = writer(dir.resolve(schemaFile), schemaSha)) {
+            for (String ddl : dialect.schema(first, tables)) {
+                w.write(stripSemicolon(ddl));
+                w.write(";\n");
+            }
+        }
+
+        Queue<String> queue = new ConcurrentLinkedQueue<>(tables);
+        Map<String, List<JdbcBackupManifest.DataFile>> byTable = new java.util.concurrent.ConcurrentHashMap<>();
+        ExecutorService pool = Executors.newFixedThreadPool(snapshot.size(), new java.util.concurrent.ThreadFactory() {
+            private final AtomicInteger n = new AtomicInteger();
+
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread t = new Thread(r, "backup-export-" + n.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            }
+        });
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (Connection c : snapshot) {
+                futures.add(pool.submit(() -> {
+                    String table;
+                    while ((table = queue.poll()) != null) {
+                        byTable.put(table, exportTable(dialect, c, table, dir, ext));
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> f : futures) {
+                try {
+                    f.get();
+                } catch (ExecutionException ex) {
+                    queue.clear();   // diğer işçiler yeni tabloya başlamasın
+                    Throwable cause = ex.getCause();
+                    if (cause instanceof IOException io) throw io;
+                    if (cause instanceof SQLException sql) throw sql;
+                    throw new IllegalStateException("Tablo yedeklenemedi", cause);
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("Yedek kesildi", ex);
+                }
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        Map<String, Long> rows = new LinkedHashMap<>();
+        List<JdbcBackupManifest.DataFile> files = new ArrayList<>();
+        for (String t : tables) {
+            long n = 0;
+            for (JdbcBackupManifest.DataFile f : byTable.getOrDefault(t, List.of())) {
+                n += f.rows();
+                files.add(f);
+            }
+            rows.put(t, n);
+        }
+        return new JdbcBackupManifest(dialect.name(), schemaFile,
+                HexFormat.of().formatHex(schemaSha.digest()), rows, files);
+    }
+
+    /** Tek tabloyu akıtır; {@link #CHUNK_ROWS}'da bir yeni dosyaya geçer. */
+    private List<JdbcBackupManifest.DataFile> exportTable(JdbcBackupDialect dialect, Connection c, String table,
+                                                          Path dir, String ext) throws IOException, SQLException {
+        List<JdbcBackupManifest.DataFile> out = new ArrayList<>();
+        try (Statement st = c.createStatement(ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+            st.setFetchSize(dialect.fetchSize());
+            try (ResultSet rs = st.executeQuery("SELECT * FROM " + dialect.quote(table))) {
+                ResultSetMetaData md = rs.getMetaData();
+                int cols = md.getColumnCount();
+                int[] types = new int[cols + 1];
+                StringBuilder head = new StringBuilder("INSERT INTO ").append(dialect.quote(table)).append(" (");
+                for (int i = 1; i <= cols; i++) {
+                    types[i] = md.getColumnType(i);
+                    if (i > 1) head.append(", ");
+                    head.append(dialect.quote(md.getColumnName(i)));
+                }
+                String insert = head.append(") VALUES\n").toString();
+
+                String baseName = safeFileName(table);
+                StringBuilder row = new StringBuilder(256);
+                Writer w = null;
+                MessageDigest sha = null;
+                String fileName = null;
+                long rowsInFile = 0;
+                int rowsInStatement = 0;
+                try {
+                    while (rs.next()) {
+                        if (w == null) {
+                            fileName = String.format("%s.%04d%s", baseName, out.size() + 1, ext);
+                            sha = BackupService.newSha256();
+                            w = writer(dir.resolve(fileName), sha);
+                        }
+                        row.setLength(0);
+                        row.append(rowsInStatement == 0 ? insert : ",\n").append('(');
+                        for (int i = 1; i <= cols; i++) {
+                            if (i > 1) row.append(", ");
+                            appendLiteral(row, rs, i, types[i]);
+                        }
+                        row.append(')');
+                        w.append(row);
+                        rowsInFile++;
+                        if (++rowsInStatement == BATCH_ROWS) {
+                            w.write(";\n");
+                            rowsInStatement = 0;
+                        }
+                        if (rowsInFile == chunkRows) {
+                            if (rowsInStatement > 0) w.write(";\n");
+                            w.close();
+                            w = null;
+                            out.add(new JdbcBackupManifest.DataFile(table, fileName, rowsInFile,
+                                    HexFormat.of().formatHex(sha.digest())));
+                            rowsInFile = 0;
+                            rowsInStatement = 0;
+                        }
+                    }
+                    if (w != null) {
+                        if (rowsInStatement > 0) w.write(";\n");
+                        w.close();
+                        w = null;
+                        out.add(new JdbcBackupManifest.DataFile(table, fileName, rowsInFile,
+                                HexFormat.of().formatHex(sha.digest())));
+                    }
+                } finally {
+                    if (w != null) w.close();
+                }
+            }
+        }
+        long total = 0;
+        for (JdbcBackupManifest.DataFile f : out) total += f.rows();
+        LOG.debug("{}: {} satır, {} dosya", table, total, out.size());
+        return out;
+    }
+
+    /**
+     * Değeri her iki lehçede (MySQL, H2) geçerli SQL literal'i olarak yazar.
+     * Metinler standart SQL kaçışıyla ({@code ''}); tarih/saat sürücünün
+     * metin gösterimiyle — saat dilimi dönüşümü olmadan, sunucudaki değer.
+     */
+    static void appendLiteral(StringBuilder sb, ResultSet rs, int i, int type) throws SQLException {
+        switch (type) {
+            case Types.BIT, Types.BOOLEAN -> {
+                boolean b = rs.getBoolean(i);
+                sb.append(rs.wasNull() ? "NULL" : b ? "TRUE" : "FALSE");
+            }
+            case Types.TINYINT, Types.SMALLINT, Types.INTEGER, Types.BIGINT,
+                 Types.REAL, Types.FLOAT, Types.DOUBLE -> {
+                String s = rs.getString(i);
+                sb.append(s == null ? "NULL" : s);
+            }
+            case Types.DECIMAL, Types.NUMERIC -> {
+                java.math.BigDecimal d = rs.getBigDecimal(i);
+                sb.append(d == null ? "NULL" : d.toPlainString());
+            }
+            case Types.BINARY, Types.VARBINARY, Types.LONGVARBINARY, Types.BLOB -> {
+                byte[] bytes = rs.getBytes(i);
+                if (bytes == null) sb.append("NULL");
+                else sb.append("X'").append(HexFormat.of().formatHex(bytes)).append('\'');
+            }
+            default -> {
+                String s = rs.getString(i);
+                if (s == null) {
+                    sb.append("NULL");
+                } else {
+                    sb.append('\'');
+                    for (int k = 0; k < s.length(); k++) {
+                        char ch = s.charAt(k);
+                        if (ch == '\'') sb.append('\'');
+                        sb.append(ch);
+                    }
+                    sb.append('\'');
+                }
+            }
+        }
+    }
+
+    private Writer writer(Path file, MessageDigest sha) throws IOException {
+        return new BufferedWriter(new OutputStreamWriter(
+                BackupService.openCompressed(file, passphrase, sha), StandardCharsets.UTF_8), 64 * 1024);
+    }
+
+    private static String stripSemicolon(String sql) {
+        String s = sql.strip();
+        return s.endsWith(";") ? s.substring(0, s.length() - 1) : s;
+    }
+
+    private static String safeFileName(String table) {
+        return table.replaceAll("[^A-Za-z0-9_]", "_");
+    }
+
+    private static long sizeOf(Path dir) throws IOException {
+        try (var files = Files.list(dir)) {
+            long n = 0;
+            for (Path p : files.toList()) n += Files.size(p);
+            return n;
+        }
+    }
+
+    static void deleteRecursively(Path p) throws IOException {
+        if (!Files.exists(p)) return;
+        try (var walk = Files.walk(p)) {
+            for (Path q : walk.sorted(java.util.Comparator.reverseOrder()).toList()) Files.delete(q);
+        }
+    }
+}
@@ -0,0 +1,202 @@
+package service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sql.DataSource;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * {@link JdbcBackupExporter} klasörünü boş bir veritabanına geri yükler.
+ *
+ * <p>Hedef şema boş olmalı. Önce manifest ve tüm dosyaların SHA-256'sı
+ * doğrulanır, sonra şema tek bağlantıda kurulur; veri dosyaları
+ * {@code workers} bağlantıda paralel yüklenir (her dosya kendi
+ * transaction'ı). Yüklenen satır sayısı manifesttekiyle tutmazsa hata verilir.
+ */
+public final class JdbcBackupImporter {
+
+    private static final Logger LOG = LoggerFactory.getLogger(JdbcBackupImporter.class);
+
+    private final DataSource dataSource;
+    private final String passphrase;
+    private final int workers;
+
+    public JdbcBackupImporter(DataSource dataSource, String passphrase, int workers) {
+        this.dataSource = Objects.requireNonNull(dataSource, "dataSource");
+        this.passphrase = passphrase;
+        this.workers = Math.max(1, workers);
+    }
+
+    /** @return yüklenen toplam satır */
+    public long restore(Path dir) throws IOException, SQLException {
+        JdbcBackupManifest manifest = JdbcBackupManifest.read(dir);
+        manifest.verify(dir);
+
+        JdbcBackupDialect dialect;
+        try (Connection c = dataSource.getConnection()) {
+            dialect = JdbcBackupDialect.detect(c);
+            if (!dialect.name().equals(manifest.dialect)) {
+                throw new SQLException(manifest.dialect + " yedeği " + dialect.name() + " veritabanına yüklenemez");
+            }
+            List<String> existing = dialect.tables(c);
+            if (!existing.isEmpty()) {
+                throw new SQLException("Hedef veritabanı boş değil (" + existing.size()
+                        + " tablo) — boş bir şemaya yükleyin");
+            }
+            dialect.prepareImportSession(c);
+            try (Statement st = c.createStatement();
+                 Reader r = reader(dir.resolve(manifest.schemaFile))) {
+                String sql;
+                StatementReader statements = new StatementReader(r);
+                while ((sql = statements.next()) != null) st.execute(sql);
+            }
+            dialect.beforeImport(c);
+            try {
+                long rows = loadData(dialect, dir, manifest);
+                if (rows != manifest.totalRows()) {
+                    throw new SQLException("Yüklenen satır " + rows + ", manifestte " + manifest.totalRows());
+                }
+                LOG.info("JDBC yedeği yüklendi: {} tablo, {} satır", manifest.tables.size(), rows);
+                return rows;
+            } finally {
+                dialect.afterImport(c);
+            }
+        }
+    }
+
+    private long loadData(JdbcBackupDialect dialect, Path dir, JdbcBackupManifest manifest)
+            throws IOException, SQLException {
+        Queue<JdbcBackupManifest.DataFile> queue = new ConcurrentLinkedQueue<>(manifest.dataFiles);
+        AtomicLong rows = new AtomicLong();
+        int n = Math.max(1, Math.min(workers, manifest.dataFiles.size()));
+        ExecutorService pool = Executors.newFixedThreadPool(n, new java.util.concurrent.ThreadFactory() {
+            private final AtomicInteger seq = new AtomicInteger();
+
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread t = new Thread(r, "backup-import-" + seq.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            }
+        });
+        try {
+            List<Future<?>> futures = new ArrayList<>(n);
+            for (int i = 0; i < n; i++) {
+                futures.add(pool.submit(() -> {
+                    try (Connection c = dataSource.getConnection()) {
+                        dialect.prepareImportSession(c);
+                        c.setAutoCommit(false);
+                        try {
+                            JdbcBackupManifest.DataFile f;
+                            while ((f = queue.poll()) != null) rows.addAndGet(loadFile(c, dir, f));
+                        } catch (IOException | SQLException | RuntimeException ex) {
+                            c.rollback();
+                            throw ex;
+                        } finally {
+                            c.setAutoCommit(true);
+                        }
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> f : futures) {
+                try {
+                    f.get();
+                } catch (ExecutionException ex) {
+                    queue.clear();
+                    Throwable cause = ex.getCause();
+                    if (cause instanceof IOException io) throw io;
+                    if (cause instanceof SQLException sql) throw sql;
+                    throw new IllegalStateException("Yedek dosyası yüklenemedi", cause);
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("Geri yükleme kesildi", ex);
+                }
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        return rows.get();
+    }
+
+    private long loadFile(Connection c, Path dir, JdbcBackupManifest.DataFile f) throws IOException, SQLException {
+        long n = 0;
+        try (Statement st = c.createStatement(); Reader r = reader(dir.resolve(f.fileName()))) {
+            StatementReader statements = new StatementReader(r);
+            String sql;
+            while ((sql = statements.next()) != null) n += st.executeUpdate(sql);
+        } catch (SQLException ex) {
+            throw new SQLException(f.fileName() + ": " + ex.getMessage(), ex.getSQLState(), ex);
+        }
+        c.commit();
+        if (n != f.rows()) {
+            throw new SQLException(f.fileName() + ": " + n + " satır yüklendi, manifestte " + f.rows());
+        }
+        return n;
+    }
+
+    private Reader reader(Path file) throws IOException {
+        return new BufferedReader(new InputStreamReader(
+                BackupService.openDecompressed(file, passphrase), StandardCharsets.UTF_8), 64 * 1024);
+    }
+
+    /**
+     * Akıştan {@code ;} ile biten ifadeleri okur. Tırnak ({@code '…'},
+     * {@code "…"}, {@code `…`}) içindeki {@code ;} ayırıcı sayılmaz; tırnak
+     * içi kaçış iki katlamadır ({@code ''}) — exporter'ın ürettiği biçim.
+     */
+    static final class StatementReader {
+
+        private final Reader in;
+        private final StringBuilder sb = new StringBuilder(64 * 1024);
+
+        StatementReader(Reader in) {
+            this.in = in;
+        }
+
+        /** Sonraki ifade (sondaki {@code ;} olmadan); akış bittiyse {@code null}. */
+        String next() throws IOException {
+            sb.setLength(0);
+            char quote = 0;
+            int ch;
+            while ((ch = in.read()) != -1) {
+                char c = (char) ch;
+                if (quote != 0) {
+                    sb.append(c);
+                    // '' kaçışı: kapanış + hemen açılış olarak okunur, sonuç aynı
+                    if (c == quote) quote = 0;
+                } else if (c == ';') {
+                    String sql = sb.toString().strip();
+                    if (!sql.isEmpty()) return sql;
+                    sb.setLength(0);
+                } else {
+                    if (c == '\'' || c == '"' || c == '`') quote = c;
+                    sb.append(c);
+                }
+            }
+            String rest = sb.toString().strip();
+            if (!rest.isEmpty()) throw new IOException("Yedek dosyası yarım ifadeyle bitiyor");
+            return null;
+        }
+    }
+}
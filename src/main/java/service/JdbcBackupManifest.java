@@ -0,0 +1,123 @@
+package service;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * JDBC yedek klasörünün içindekiler ({@code manifest.txt}).
+ *
+ * <p>Sekmeyle ayrılmış düz metin; exporter en son yazar — manifesti olmayan
+ * klasör yarım kalmış demektir ve importer reddeder:
+ * <pre>
+ * format  1
+ * dialect MySQL
+ * schema  schema.sql.gz.enc              &lt;sha256&gt;
+ * table   orders  1200
+ * data    orders  orders.0001.sql.gz.enc  1200  &lt;sha256&gt;
+ * </pre>
+ */
+final class JdbcBackupManifest {
+
+    static final String FILE_NAME = "manifest.txt";
+    static final int FORMAT = 1;
+
+    record DataFile(String table, String fileName, long rows, String sha256) {}
+
+    final String dialect;
+    final String schemaFile;
+    final String schemaSha256;
+    /** Tablo → toplam satır; export sırasıyla. */
+    final Map<String, Long> tables;
+    final List<DataFile> dataFiles;
+
+    JdbcBackupManifest(String dialect, String schemaFile, String schemaSha256,
+                       Map<String, Long> tables, List<DataFile> dataFiles) {
+        this.dialect = dialect;
+        this.schemaFile = schemaFile;
+        this.schemaSha256 = schemaSha256;
+        this.tables = tables;
+        this.dataFiles = dataFiles;
+    }
+
+    long totalRows() {
+        long n = 0;
+        for (long r : tables.values()) n += r;
+        return n;
+    }
+
+    void write(Path dir) throws IOException {
+        StringBuilder sb = new StringBuilder("# budget JDBC yedeği\n");
+        sb.append("format\t").append(FORMAT).append('\n');
+        sb.append("dialect\t").append(dialect).append('\n');
+        sb.append("schema\t").append(schemaFile).append('\t').append(schemaSha256).append('\n');
+        tables.forEach((t, rows) -> sb.append("table\t").append(t).append('\t').append(rows).append('\n'));
+        for (DataFile f : dataFiles) {
+            sb.append("data\t").append(f.table()).append('\t').append(f.fileName()).append('\t')
+              .append(f.rows()).append('\t').append(f.sha256()).append('\n');
+        }
+        Files.writeString(dir.resolve(FILE_NAME), sb, StandardCharsets.UTF_8);
+    }
+
+    static JdbcBackupManifest read(Path dir) throws IOException {
+        Path file = dir.resolve(FILE_NAME);
+        if (!Files.exists(file)) {
+            throw new IOException(dir.getFileName() + " içinde " + FILE_NAME + " yok — yedek yarım kalmış");
+        }
+        String dialect = null;
+        String schemaFile = null;
+        String schemaSha = null;
+        Map<String, Long> tables = new LinkedHashMap<>();
+        List<DataFile> data = new ArrayList<>();
+        int lineNo = 0;
+        for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+            lineNo++;
+            if (line.isBlank() || line.startsWith("#")) continue;
+            String[] f = line.split("\t");
+            try {
+                switch (f[0]) {
+                    case "format" -> {
+                        if (Integer.parseInt(f[1]) != FORMAT) throw new IOException("desteklenmeyen format " + f[1]);
+                    }
+                    case "dialect" -> dialect = f[1];
+                    case "schema" -> {
+                        schemaFile = f[1];
+                        schemaSha = f[2];
+                    }
+                    case "table" -> tables.put(f[1], Long.parseLong(f[2]));
+                    case "data" -> data.add(new DataFile(f[1], f[2], Long.parseLong(f[3]), f[4]));
+                    default -> throw new IOException("bilinmeyen kayıt " + f[0]);
+                }
+            } catch (RuntimeException ex) {
+                throw new IOException(FILE_NAME + " satır " + lineNo + " bozuk: " + ex.getMessage(), ex);
+            } catch (IOException ex) {
+                throw new IOException(FILE_NAME + " satır " + lineNo + ": " + ex.getMessage(), ex);
+            }
+        }
+        if (dialect == null || schemaFile == null) throw new IOException(FILE_NAME + " eksik");
+        for (DataFile f : data) {
+            if (!tables.containsKey(f.table())) throw new IOException(FILE_NAME + ": tanımsız tablo " + f.table());
+        }
+        return new JdbcBackupManifest(dialect, schemaFile, schemaSha, tables, data);
+    }
+
+    /** Her dosya var mı ve SHA-256'sı manifesttekiyle aynı mı — import'tan önce. */
+    void verify(Path dir) throws IOException {
+        check(dir, schemaFile, schemaSha256);
+        for (DataFile f : dataFiles) check(dir, f.fileName(), f.sha256());
+    }
+
+    private static void check(Path dir, String name, String sha) throws IOException {
+        Path p = dir.resolve(name);
+        if (!Files.exists(p)) throw new IOException("Yedek dosyası eksik: " + name);
+        String actual = BackupChain.sha256(p);
+        if (!actual.equalsIgnoreCase(sha)) {
+            throw new IOException("SHA-256 uyuşmuyor: " + name + " (manifest " + sha + ", dosya " + actual + ")");
+        }
+    }
+}
@@ -2,28 +2,99 @@ package service;
 
 import dao.OrderLogDAO;
 import dao.jdbc.OrderLogJdbcDAO;
+import model.OrderLogRow;
 import state.OrderLogEntry;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
 
+/**
+ * Sipariş geçmişi ({@code order_logs}).
+ *
+ * <p>{@link #append} satırı {@link OrderLogWriter} kuyruğuna bırakır — garsonun
+ * yolunda INSERT/commit beklenmez; satırlar arka planda toplu yazılır.
+ * {@link #getRecentLogs} henüz yazılmamış satırları da görür. Satış kapanışı
+ * ve uygulama kapanışı {@link #flush} / {@link #shutdown} ile kuyruğu boşaltır.
+ */
 public class OrderLogService {
 
+    /** {@link #flush} / {@link #shutdown} için en fazla bekleme. */
+    static final long FLUSH_TIMEOUT_MS = 5_000;
+
     private final OrderLogDAO orderLogDAO;
+    private final OrderLogWriter writer;
 
     public OrderLogService() {
         this(new OrderLogJdbcDAO());
     }
 
     public OrderLogService(OrderLogDAO orderLogDAO) {
+        this(orderLogDAO, new OrderLogWriter(orderLogDAO));
+    }
+
+    OrderLogService(OrderLogDAO orderLogDAO, OrderLogWriter writer) {
         this.orderLogDAO = Objects.requireNonNull(orderLogDAO, "orderLogDAO");
+        this.writer = Objects.requireNonNull(writer, "writer");
     }
 
     public void append(Long orderId, String message) {
-        orderLogDAO.append(orderId, message);
+        if (orderId == null) {
+            return;
+        }
+        writer.append(new OrderLogRow(orderId, LocalDateTime.now(), message));
     }
 
+    /** Son {@code limit} kayıt, yeniden eskiye — kuyrukta bekleyenler dahil. */
     public List<OrderLogEntry> getRecentLogs(Long orderId, int limit) {
-        return orderLogDAO.findRecentByOrder(orderId, limit);
+        // Sıra DB okumasından önce alınır: arada yazılan batch kaybolmaz
+        long settled = writer.settledSeq();
+        List<OrderLogEntry> persisted = orderLogDAO.findRecentByOrder(orderId, limit);
+        List<OrderLogRow> pending = writer.pendingAfter(orderId, settled);
+        if (pending.isEmpty()) {
+            return persisted;
+        }
+        List<OrderLogEntry> out = new ArrayList<>(Math.min(limit, pending.size() + persisted.size()));
+        for (int i = pending.size() - 1; i >= 0 && out.size() < limit; i--) {
+            OrderLogRow row = pending.get(i);
+            out.add(new OrderLogEntry(row.eventTime(), row.message()));
+        }
+        for (OrderLogEntry entry : persisted) {
+            if (out.size() >= limit) break;
+            out.add(entry);
+        }
+        return out;
+    }
+
+    /**
+     * Kuyruktaki bütün satırlar yazılana kadar bekler (en fazla
+     * {@link #FLUSH_TIMEOUT_MS}).
+     *
+     * @return süre içinde boşaldıysa {@code true}
+     */
+    public boolean flush() {
+        return writer.flush(FLUSH_TIMEOUT_MS);
     }
+
+    /** Kuyruğu boşaltıp yazıcıyı durdurur; sonraki kayıtlar senkron yazılır. */
+    public void shutdown() {
+        writer.shutdown(FLUSH_TIMEOUT_MS);
+    }
+
+    /** Yazma kuyruğu derinliği, gecikmesi ve sayaçları. */
+    public Stats stats() {
+        OrderLogWriter.Stats s = writer.stats();
+        return new Stats(s.depth(), s.lagMillis(), s.maxLagMillis(), s.batches(), s.written(),
+                s.failed(), s.blocked(), s.direct());
+    }
+
+    /**
+     * Yazıcı durumu. {@code lagMillis}: kuyruktaki en eski kaydın yaşı;
+     * {@code maxLagMillis}: ekleme→commit arasında görülen en uzun süre;
+     * {@code blocked}: kuyruk dolu diye bekleyen ekleme sayısı; {@code direct}:
+     * kuyruğa giremeyip çağıranda yazılan kayıt sayısı.
+     */
+    public record Stats(int depth, long lagMillis, long maxLagMillis, long batches, long written,
+                        long failed, long blocked, long direct) {}
 }
@@ -0,0 +1,350 @@
+package service;
+
+import dao.OrderLogDAO;
+import model.OrderLogRow;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * {@code order_logs} satırlarını arka planda, gruplayarak yazar (write-behind).
+ *
+ * <p>Çağıran yalnız sınırlı kuyruğa ekler. Tek arka plan thread'i ilk satırı
+ * aldıktan sonra en fazla {@code flushInterval} kadar daha bekleyip o ana kadar
+ * gelenleri (en fazla {@code maxBatch}) tek {@link OrderLogDAO#appendAll}
+ * çağrısıyla — tek JDBC batch, tek commit — yazar. Bir satır DB'ye en geç
+ * {@code flushInterval} + bir batch süresi sonra düşer.
+ *
+ * <p>Kurallar:
+ * <ul>
+ *   <li>Geri basınç: kuyruk doluysa çağıran en fazla {@code maxBlock} bekler;
+ *       hâlâ yer yoksa satırı kendi thread'inde doğrudan yazar. Satır
+ *       düşürülmez.</li>
+ *   <li>{@link #flush} o ana kadar eklenmiş bütün satırlar yazılana kadar bekler
+ *       (satış kapanışı, kapanış kancası).</li>
+ *   <li>{@link #shutdown} önce boşaltır, sonra thread'i durdurur; sonrasındaki
+ *       eklemeler eskisi gibi senkron yazılır.</li>
+ *   <li>Batch yazılamazsa satırlar loglanıp bırakılır — eski senkron yolda da
+ *       hata uyarıyla yutuluyordu.</li>
+ * </ul>
+ */
+final class OrderLogWriter {
+
+    private static final Logger LOG = LoggerFactory.getLogger(OrderLogWriter.class);
+
+    static final int DEFAULT_CAPACITY = 4_096;
+    static final long DEFAULT_FLUSH_INTERVAL_MS = 50;
+    static final int DEFAULT_MAX_BATCH = 256;
+    static final long DEFAULT_MAX_BLOCK_MS = 250;
+
+    private final OrderLogDAO orderLogDAO;
+    private final BlockingQueue<Pending> queue;
+    private final long flushIntervalNanos;
+    private final int maxBatch;
+    private final long maxBlockMs;
+
+    private final AtomicLong seq = new AtomicLong();
+    /** Yazılmış (veya bırakılmış) en büyük sıra — batch'ler sırayla yazılır. */
+    private volatile long settledSeq;
+    /**
+     * Arka plan thread'inin kuyruktan aldığı ama henüz commit etmediği satırlar
+     * (toplama penceresi dahil); okuma tarafı bekleyenleri buradan da görür.
+     */
+    private volatile List<Pending> inFlight = List.of();
+    /** Kuyruğa girmiş, henüz yazılmamış (veya bırakılmamış) satır sayısı. */
+    private final AtomicInteger unsettled = new AtomicInteger();
+    private Thread thread;   // this ile korunur
+    private volatile boolean closed;
+
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder written = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder blocked = new LongAdder();
+    private final LongAdder direct = new LongAdder();
+    private final AtomicLong maxLagNanos = new AtomicLong();
+
+    OrderLogWriter(OrderLogDAO orderLogDAO) {
+        this(orderLogDAO, DEFAULT_CAPACITY, DEFAULT_FLUSH_INTERVAL_MS, DEFAULT_MAX_BATCH, DEFAULT_MAX_BLOCK_MS);
+    }
+
+    OrderLogWriter(OrderLogDAO orderLogDAO, int capacity, long flushIntervalMs, int maxBatch, long maxBlockMs) {
+        if (capacity < 1 || maxBatch < 1) {
+            throw new IllegalArgumentException("capacity ve maxBatch >= 1 olmalı");
+        }
+        this.orderLogDAO = Objects.requireNonNull(orderLogDAO, "orderLogDAO");
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, flushIntervalMs));
+        this.maxBatch = maxBatch;
+        this.maxBlockMs = Math.max(0, maxBlockMs);
+    }
+
+    /** Satırı yazma kuyruğuna ekler; kapanmışsa veya kuyruk taşıyorsa doğrudan yazar. */
+    void append(OrderLogRow row) {
+        if (closed) {
+            writeDirect(row);
+            return;
+        }
+        if (!ensureStarted()) {
+            writeDirect(row);
+            return;
+        }
+        Pending p = new Pending(seq.incrementAndGet(), row, System.nanoTime(), null);
+        if (enqueue(p)) {
+            if (closed) drainOrphans();
+            return;
+        }
+        // Kuyruk hâlâ dolu (DB yavaş/erişilemez): kaydı kaybetmek yerine çağıranda yaz.
+        // Sırası kuyruktakilerden önceye düşebilir; geçmiş event_time'a göre sıralanır.
+        LOG.warn("Sipariş logu kuyruğu dolu ({}), satır doğrudan yazılıyor", queue.size());
+        writeDirect(row);
+    }
+
+    private boolean enqueue(Pending p) {
+        unsettled.incrementAndGet();
+        if (queue.offer(p)) {
+            return true;
+        }
+        blocked.increment();
+        boolean queued;
+        try {
+            queued = queue.offer(p, maxBlockMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            queued = false;
+        }
+        if (!queued) unsettled.decrementAndGet();
+        return queued;
+    }
+
+    /** Kapanışla yarışıp thread durduktan sonra kuyruğa düşen satırlar. */
+    private synchronized void drainOrphans() {
+        if (thread != null) return;
+        List<Pending> orphans = new ArrayList<>();
+        queue.drainTo(orphans);
+        for (Pending p : orphans) {
+            if (p.row != null) {
+                try {
+                    writeDirect(p.row);
+                } finally {
+                    unsettled.decrementAndGet();
+                }
+            }
+            if (p.barrier != null) p.barrier.complete(null);
+        }
+    }
+
+    /**
+     * O ana kadar eklenmiş bütün satırlar yazılana kadar bekler.
+     *
+     * @return süre içinde boşaldıysa {@code true}
+     */
+    boolean flush(long timeoutMs) {
+        // Kuyruğun boş görünmesi yetmez: alınan satır toplama penceresinde
+        // bekliyor olabilir. Yazılmamış satır yoksa beklenecek bir şey yok.
+        if (unsettled.get() == 0) {
+            return true;
+        }
+        synchronized (this) {
+            if (thread == null) {
+                return queue.isEmpty();
+            }
+        }
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+        try {
+            if (!queue.offer(new Pending(0, null, System.nanoTime(), done), timeoutMs, TimeUnit.MILLISECONDS)) {
+                return false;
+            }
+            done.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (ExecutionException | TimeoutException e) {
+            return false;
+        }
+    }
+
+    /** Bekleyenleri yazar ve thread'i durdurur; sonraki eklemeler senkron yazılır. */
+    void shutdown(long timeoutMs) {
+        closed = true;
+        if (!flush(timeoutMs)) {
+            LOG.warn("Sipariş logu kapanışta {} ms içinde boşaltılamadı; kalan {} satır", timeoutMs, queue.size());
+        }
+        Thread t;
+        synchronized (this) {
+            t = thread;
+            thread = null;
+        }
+        if (t != null) {
+            t.interrupt();
+            try {
+                t.join(timeoutMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Yazılmış sayılan en büyük sıra; {@link #pendingAfter} ile birlikte kullanılır.
+     * Yalnız yazıcı thread'i ilerletir.
+     */
+    long settledSeq() {
+        return settledSeq;
+    }
+
+    /**
+     * Siparişin henüz DB'de görünmeyebilecek satırları, eskiden yeniye: kuyrukta
+     * bekleyenlerin hepsi, yazılmakta olan batch'ten de sırası {@code afterSeq}'ten
+     * büyük olanlar. {@code afterSeq} DB okumasından önce {@link #settledSeq}'ten
+     * alınırsa satır kaybolmaz; okuma sırasında commit edilen batch'in satırları
+     * o tek okumada iki kez görünebilir.
+     */
+    List<OrderLogRow> pendingAfter(Long orderId, long afterSeq) {
+        List<OrderLogRow> out = new ArrayList<>();
+        for (Pending p : inFlight) {
+            if (p.seq > afterSeq && p.isFor(orderId)) out.add(p.row);
+        }
+        for (Pending p : queue) {
+            if (p.isFor(orderId)) out.add(p.row);
+        }
+        return out;
+    }
+
+    Stats stats() {
+        long now = System.nanoTime();
+        long oldest = now;
+        for (Pending p : inFlight) {
+            if (p.row != null) {
+                oldest = Math.min(oldest, p.enqueuedNanos);
+                break;
+            }
+        }
+        for (Pending p : queue) {
+            if (p.row != null) {
+                oldest = Math.min(oldest, p.enqueuedNanos);
+                break;
+            }
+        }
+        return new Stats(queue.size(), TimeUnit.NANOSECONDS.toMillis(now - oldest),
+                TimeUnit.NANOSECONDS.toMillis(maxLagNanos.get()),
+                batches.sum(), written.sum(), failed.sum(), blocked.sum(), direct.sum());
+    }
+
+    private synchronized boolean ensureStarted() {
+        if (thread != null) return true;
+        if (closed) return false;
+        thread = new Thread(this::run, "order-log-writer");
+        thread.setDaemon(true);
+        thread.start();
+        return true;
+    }
+
+    private void run() {
+        List<Pending> batch = new ArrayList<>(maxBatch);
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                Pending first = queue.take();
+                batch.add(first);
+                inFlight = List.of(first);
+                if (first.row != null) {
+                    collect(batch, first.enqueuedNanos + flushIntervalNanos);
+                }
+                queue.drainTo(batch, maxBatch - batch.size());
+                write(batch);
+                batch.clear();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            // Kapanırken yarışta kuyruğa düşmüş satırları da yaz; kesme bayrağı
+            // JDBC sürücüsünü bozmasın
+            Thread.interrupted();
+            queue.drainTo(batch);
+            write(batch);
+        }
+    }
+
+    /** Grup commit penceresi: batch dolana, bir flush gelene ya da süre bitene kadar topla. */
+    private void collect(List<Pending> batch, long deadlineNanos) throws InterruptedException {
+        while (batch.size() < maxBatch) {
+            long wait = deadlineNanos - System.nanoTime();
+            if (wait <= 0) return;
+            Pending next = queue.poll(wait, TimeUnit.NANOSECONDS);
+            if (next == null) return;
+            batch.add(next);
+            if (next.barrier != null) return;
+            inFlight = List.copyOf(batch);
+        }
+    }
+
+    private void write(List<Pending> batch) {
+        if (batch.isEmpty()) return;
+        List<OrderLogRow> rows = new ArrayList<>(batch.size());
+        long lastSeq = 0;
+        long oldest = Long.MAX_VALUE;
+        for (Pending p : batch) {
+            if (p.row != null) {
+                rows.add(p.row);
+                lastSeq = Math.max(lastSeq, p.seq);
+                oldest = Math.min(oldest, p.enqueuedNanos);
+            }
+        }
+        inFlight = List.copyOf(batch);
+        try {
+            if (!rows.isEmpty()) {
+                orderLogDAO.appendAll(rows);
+                batches.increment();
+                written.add(rows.size());
+                maxLagNanos.accumulateAndGet(System.nanoTime() - oldest, Math::max);
+            }
+        } catch (RuntimeException e) {
+            failed.add(rows.size());
+            LOG.warn("{} sipariş logu satırı yazılamadı: {}", rows.size(), e.getMessage(), e);
+        } finally {
+            settle(lastSeq);
+            unsettled.addAndGet(-rows.size());
+            inFlight = List.of();
+            for (Pending p : batch) {
+                if (p.barrier != null) p.barrier.complete(null);
+            }
+        }
+    }
+
+    private void settle(long upTo) {
+        if (upTo > settledSeq) settledSeq = upTo;
+    }
+
+    private void writeDirect(OrderLogRow row) {
+        direct.increment();
+        orderLogDAO.appendAll(List.of(row));
+        written.increment();
+    }
+
+    /** Kuyruk elemanı: satır ya da ({@code row == null}) bir flush işareti. */
+    private record Pending(long seq, OrderLogRow row, long enqueuedNanos, CompletableFuture<Void> barrier) {
+        boolean isFor(Long orderId) {
+            return row != null && Objects.equals(row.orderId(), orderId);
+        }
+    }
+
+    /**
+     * Yazıcı durumu. {@code lagMillis} kuyruktaki en eski satırın yaşı (boşsa 0);
+     * {@code maxLagMillis} ekleme→commit arasında görülen en uzun süre.
+     */
+    record Stats(int depth, long lagMillis, long maxLagMillis, long batches, long written,
+                 long failed, long blocked, long direct) {}
+}
@@ -2,18 +2,25 @@ package service;
 
 import DataConnection.Db;
 import DataConnection.TransactionExecutor;
+import dao.ChangeFeedDAO;
 import dao.OrderDAO;
 import dao.OrderItemsDAO;
+import dao.OrderLogDAO;
 import dao.PaymentDAO;
 import dao.ProductDAO;
 import dao.RestaurantTableDAO;
+import dao.SalesRollupDAO;
 import dao.UserDAO;
+import dao.jdbc.ChangeFeedJdbcDAO;
 import dao.jdbc.OrderItemsJdbcDAO;
 import dao.jdbc.OrderJdbcDAO;
+import dao.jdbc.OrderLogJdbcDAO;
 import dao.jdbc.PaymentJdbcDAO;
 import dao.jdbc.ProductJdbcDAO;
 import dao.jdbc.RestaurantTableJdbcDAO;
+import dao.jdbc.SalesRollupJdbcDAO;
 import dao.jdbc.UserJdbcDAO;
+import model.ChangeEvent;
 import model.ItemNoteUpdateResult;
 import model.Order;
 import model.OrderItem;
@@ -22,8 +29,11 @@ import model.Payment;
 import model.PaymentMethod;
 import model.Product;
 import model.RestaurantTable;
+import model.TableOrderState;
 import model.TableStatus;
 import model.User;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import service.print.PrintingService;
 
 import java.math.BigDecimal;
@@ -33,9 +43,12 @@ import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.function.Function;
+import java.util.function.IntConsumer;
 
 public class OrderService {
 
+    private static final Logger LOG = LoggerFactory.getLogger(OrderService.class);
+
     private final OrderDAO orderDAO;
     private final OrderItemsDAO orderItemsDAO;
     private final ProductDAO productDAO;
@@ -47,7 +60,12 @@ public class OrderService {
     private final Function<Connection, ProductDAO> productDaoFactory;
     private final Function<Connection, PaymentDAO> paymentDaoFactory;
     private final Function<Connection, RestaurantTableDAO> tableDaoFactory;
+    private final Function<Connection, ChangeFeedDAO> changeFeedFactory;
+    private final Function<Connection, SalesRollupDAO> rollupFactory;
+    private final Function<Connection, OrderLogDAO> orderLogDaoFactory;
     private final TransactionExecutor txExecutor;
+    /** Üretilmiş toplam sütunları yoksa tek-UPDATE toplam yenilemesi bir kez denenir. */
+    private volatile boolean sqlTotalsUnsupported;
 
     public OrderService() {
         this(new OrderJdbcDAO(), new OrderItemsJdbcDAO(), new ProductJdbcDAO(),
@@ -59,9 +77,7 @@ public class OrderService {
                         ProductDAO productDAO,
                         PaymentDAO paymentDAO,
                         RestaurantTableDAO tableDAO) {
-        this(orderDAO, orderItemsDAO, productDAO, paymentDAO, tableDAO,
-                OrderJdbcDAO::new, OrderItemsJdbcDAO::new, ProductJdbcDAO::new,
-                PaymentJdbcDAO::new, RestaurantTableJdbcDAO::new, Db::tx);
+        this(orderDAO, orderItemsDAO, productDAO, paymentDAO, tableDAO, TxDaos.jdbc(), Db::tx);
     }
 
     public OrderService(OrderDAO orderDAO,
@@ -69,25 +85,92 @@ public class OrderService {
                         ProductDAO productDAO,
                         PaymentDAO paymentDAO,
                         RestaurantTableDAO tableDAO,
-                        Function<Connection, OrderDAO> orderDaoFactory,
-                        Function<Connection, OrderItemsDAO> orderItemsDaoFactory,
-                        Function<Connection, ProductDAO> productDaoFactory,
-                        Function<Connection, PaymentDAO> paymentDaoFactory,
-                        Function<Connection, RestaurantTableDAO> tableDaoFactory,
+                        TxDaos txDaos,
                         TransactionExecutor txExecutor) {
         this.orderDAO = Objects.requireNonNull(orderDAO, "orderDAO");
         this.orderItemsDAO = Objects.requireNonNull(orderItemsDAO, "orderItemsDAO");
         this.productDAO = Objects.requireNonNull(productDAO, "productDAO");
         this.paymentDAO = Objects.requireNonNull(paymentDAO, "paymentDAO");
         this.tableDAO = Objects.requireNonNull(tableDAO, "tableDAO");
-        this.orderDaoFactory = Objects.requireNonNull(orderDaoFactory, "orderDaoFactory");
-        this.orderItemsDaoFactory = Objects.requireNonNull(orderItemsDaoFactory, "orderItemsDaoFactory");
-        this.productDaoFactory = Objects.requireNonNull(productDaoFactory, "productDaoFactory");
-        this.paymentDaoFactory = Objects.requireNonNull(paymentDaoFactory, "paymentDaoFactory");
-        this.tableDaoFactory = Objects.requireNonNull(tableDaoFactory, "tableDaoFactory");
+        Objects.requireNonNull(txDaos, "txDaos");
+        this.orderDaoFactory = txDaos.orders;
+        this.orderItemsDaoFactory = txDaos.orderItems;
+        this.productDaoFactory = txDaos.products;
+        this.paymentDaoFactory = txDaos.payments;
+        this.tableDaoFactory = txDaos.tables;
+        this.changeFeedFactory = txDaos.changeFeed;
+        this.rollupFactory = txDaos.rollups;
+        this.orderLogDaoFactory = txDaos.orderLogs;
         this.txExecutor = Objects.requireNonNull(txExecutor, "txExecutor");
     }
 
+    /**
+     * Transaction içinde, o transaction'ın bağlantısıyla DAO üreten fabrikalar.
+     * {@link #jdbc()} JDBC fabrikalarıyla başlar; yalnız değiştirilecekler
+     * adlarıyla verilir:
+     * <pre>{@code
+     *   TxDaos.jdbc().orders(c -> orders).orderItems(c -> items)
+     * }</pre>
+     * {@link OrderService} oluşturulurken kopyalanır; sonraki değişiklik etkilemez.
+     */
+    public static final class TxDaos {
+        private Function<Connection, OrderDAO> orders = OrderJdbcDAO::new;
+        private Function<Connection, OrderItemsDAO> orderItems = OrderItemsJdbcDAO::new;
+        private Function<Connection, ProductDAO> products = ProductJdbcDAO::new;
+        private Function<Connection, PaymentDAO> payments = PaymentJdbcDAO::new;
+        private Function<Connection, RestaurantTableDAO> tables = RestaurantTableJdbcDAO::new;
+        private Function<Connection, ChangeFeedDAO> changeFeed = ChangeFeedJdbcDAO::new;
+        private Function<Connection, SalesRollupDAO> rollups = SalesRollupJdbcDAO::new;
+        private Function<Connection, OrderLogDAO> orderLogs = OrderLogJdbcDAO::new;
+
+        private TxDaos() {
+        }
+
+        public static TxDaos jdbc() {
+            return new TxDaos();
+        }
+
+        public TxDaos orders(Function<Connection, OrderDAO> factory) {
+            this.orders = Objects.requireNonNull(factory, "orders");
+            return this;
+        }
+
+        public TxDaos orderItems(Function<Connection, OrderItemsDAO> factory) {
+            this.orderItems = Objects.requireNonNull(factory, "orderItems");
+            return this;
+        }
+
+        public TxDaos products(Function<Connection, ProductDAO> factory) {
+            this.products = Objects.requireNonNull(factory, "products");
+            return this;
+        }
+
+        public TxDaos payments(Function<Connection, PaymentDAO> factory) {
+            this.payments = Objects.requireNonNull(factory, "payments");
+            return this;
+        }
+
+        public TxDaos tables(Function<Connection, RestaurantTableDAO> factory) {
+            this.tables = Objects.requireNonNull(factory, "tables");
+            return this;
+        }
+
+        public TxDaos changeFeed(Function<Connection, ChangeFeedDAO> factory) {
+            this.changeFeed = Objects.requireNonNull(factory, "changeFeed");
+            return this;
+        }
+
+        public TxDaos rollups(Function<Connection, SalesRollupDAO> factory) {
+            this.rollups = Objects.requireNonNull(factory, "rollups");
+            return this;
+        }
+
+        public TxDaos orderLogs(Function<Connection, OrderLogDAO> factory) {
+            this.orderLogs = Objects.requireNonNull(factory, "orderLogs");
+            return this;
+        }
+    }
+
     public Optional<Order> getOrderById(Long orderId) {
         return orderDAO.findById(orderId);
     }
@@ -100,6 +183,16 @@ public class OrderService {
         return orderDAO.findOpenOrderByTable(tableId);
     }
 
+    /** Tüm masaların durumu + açık siparişi — tek sorgu. */
+    public List<TableOrderState> getAllTableStates() {
+        return orderDAO.findAllTableStates();
+    }
+
+    /** Tek masanın durumu + açık siparişi; masa satırı yoksa boş. */
+    public Optional<TableOrderState> getTableState(int tableNo) {
+        return orderDAO.findTableState(tableNo);
+    }
+
     public Order createOrder(Long tableId, Long waiterId) {
         return txExecutor.execute(conn -> {
             OrderDAO txOrder = orderDaoFactory.apply(conn);
@@ -113,6 +206,7 @@ public class OrderService {
             if (tableId != null) {
                 txTable.updateStatus(tableId, TableStatus.OCCUPIED);
             }
+            changeFeedFactory.apply(conn).append(ChangeEvent.TOPIC_TABLE, tableId, id);
             return order;
         });
     }
@@ -124,17 +218,8 @@ public class OrderService {
             PaymentDAO txPayments = paymentDaoFactory.apply(conn);
             RestaurantTableDAO txTables = tableDaoFactory.apply(conn);
 
-            BigDecimal subtotal = BigDecimal.ZERO;
-            BigDecimal taxTotal = BigDecimal.ZERO;
-            BigDecimal total = BigDecimal.ZERO;
-
-            List<OrderItem> items = txItems.findByOrderId(orderId);
-            for (OrderItem it : items) {
-                if (it.getNetAmount() != null) subtotal = subtotal.add(it.getNetAmount());
-                if (it.getTaxAmount() != null) taxTotal = taxTotal.add(it.getTaxAmount());
-                if (it.getLineTotal() != null) total = total.add(it.getLineTotal());
-            }
-            txOrders.updateTotals(orderId, subtotal, taxTotal, BigDecimal.ZERO, total);
+            Optional<Order> order = txOrders.findById(orderId);
+            BigDecimal total = reconcileTotals(txOrders, txItems, orderId, order.orElse(null));
 
             Payment p = new Payment();
             p.setOrderId(orderId);
@@ -144,12 +229,15 @@ public class OrderService {
             txPayments.create(p);
 
             txOrders.closeOrder(orderId, LocalDateTime.now());
+            // Rapor rollup'ı satışla aynı transaction'da güncellenir
+            rollupFactory.apply(conn).applyOrder(orderId);
 
-            txOrders.findById(orderId).ifPresent(o -> {
+            order.ifPresent(o -> {
                 if (o.getTableId() != null) {
                     txTables.updateStatus(o.getTableId(), TableStatus.EMPTY);
                 }
             });
+            changeFeedFactory.apply(conn).appendForOrder(ChangeEvent.TOPIC_SALE, orderId);
             return null;
         });
     }
@@ -180,32 +268,141 @@ public class OrderService {
         txExecutor.execute(conn -> {
             ProductDAO txProduct = productDaoFactory.apply(conn);
             OrderItemsDAO txItems = orderItemsDaoFactory.apply(conn);
+            OrderDAO txOrders = orderDaoFactory.apply(conn);
 
             Product product = txProduct.findById(productId).orElseThrow();
             // Stok kontrolü iptal edildi — sistem stok yönetmiyor (UI'dan gizli).
+            PricedLine line = PricedLine.of(product, quantity, pieces);
+            changeLine(txOrders, txItems, orderId,
+                    sign -> txOrders.adjustTotalsForProduct(orderId, productId, sign),
+                    () -> txItems.addOrIncrement(orderId, productId, product.getName(),
+                            line.quantity(), line.unitPrice(), line.piecesPerPortion(), line.unitLabel()));
+            txProduct.updateStock(productId, -line.quantity());
+            changeFeedFactory.apply(conn).appendForOrder(ChangeEvent.TOPIC_TABLE, orderId);
+            return null;
+        });
+    }
+
+    /** {@link #addItemInOneTransaction} sonucu: güncel sipariş satırı ve yeni mi açıldığı. */
+    public record AddItemResult(Order order, boolean orderCreated) {}
+
+    /**
+     * Garson yolundaki "ürün ekle" komutu — tek transaction, sabit sayıda ifade.
+     *
+     * <p>Eski zincir ({@code getOpenOrderByTable} → {@link #addItemToOrder} →
+     * {@link #updateOrderStatus} → {@link #recomputeTotals} → masa durumu →
+     * sipariş logu → imza için iki SELECT) dört ayrı transaction ve iki
+     * autocommit yazma yapıyordu; ara hatada yarım kalabiliyordu. Burada:
+     * <ol>
+     *   <li>açık sipariş SELECT (yoksa aynı transaction'da INSERT)</li>
+     *   <li>kalemin eski tutarı toplamlardan düşülür, kalem eklenir/artırılır
+     *       (tek upsert), yeni tutarı eklenir (bkz. {@link #changeLine})</li>
+     *   <li>stok UPDATE</li>
+     *   <li>sipariş durumu UPDATE</li>
+     *   <li>masa durumu UPDATE</li>
+     *   <li>sipariş logu INSERT</li>
+     *   <li>değişiklik günlüğü INSERT (eskiden iki kez)</li>
+     *   <li>masa imzası için siparişi geri okuma</li>
+     * </ol>
+     * Ürün SELECT'i yapılmaz: çağıran ürünü bu komuttan hemen önce DB'den
+     * okumuştur; fiyat hesabı {@link #addItemToOrder} ile aynıdır.
+     *
+     * @param pieces {@code null} → porsiyon bazlı; dolu → şiş bazlı (bkz. {@link #addItemToOrder(Long, Long, int, Integer)})
+     * @param logMessage {@code order_logs}'a yazılacak satır
+     */
+    public AddItemResult addItemInOneTransaction(Long tableId, Long waiterId, Product product,
+                                                 int quantity, Integer pieces, String logMessage) {
+        AddItemsResult result = addItemsInOneTransaction(tableId, waiterId,
+                List.of(new LineRequest(product, quantity, pieces, null)), logMessage);
+        return new AddItemResult(result.order(), result.orderCreated());
+    }
+
+    /** Sepet satırı: ürün (çağıran okumuş), adet, şiş ({@code null} → porsiyon) ve opsiyonel not. */
+    public record LineRequest(Product product, int quantity, Integer pieces, String note) {}
+
+    /**
+     * {@link #addItemsInOneTransaction} sonucu. {@code noteResults} satırlarla
+     * aynı sırada; not istenmeyen satır için {@code null}.
+     */
+    public record AddItemsResult(Order order, boolean orderCreated, List<ItemNoteUpdateResult> noteResults) {}
+
+    /**
+     * Bir sepetin tamamını tek transaction'da ekler — {@link #addItemInOneTransaction}
+     * adımları, kalem başına yalnız kalem/toplam/stok ifadeleri tekrarlanır;
+     * açık sipariş, durum, masa, sipariş logu ({@code logMessage} tek satır) ve
+     * değişiklik günlüğü sepet başına bir kez. Notlu satır notuyla birlikte
+     * eklenir ({@link OrderItemsDAO#addOrIncrementWithNote}). Herhangi bir
+     * satır hata verirse hiçbiri eklenmez.
+     */
+    public AddItemsResult addItemsInOneTransaction(Long tableId, Long waiterId, List<LineRequest> lines,
+                                                   String logMessage) {
+        if (lines == null || lines.isEmpty()) throw new IllegalArgumentException("Eklenecek ürün yok");
+        List<PricedLine> priced = new java.util.ArrayList<>(lines.size());
+        for (LineRequest req : lines) {
+            if (req.quantity() <= 0) throw new IllegalArgumentException("quantity > 0 olmalı");
+            Long productId = req.product().getId();
+            if (productId == null || productId <= 0) throw new IllegalArgumentException("Ürün kaydedilmemiş");
+            priced.add(PricedLine.of(req.product(), req.quantity(), req.pieces()));
+        }
 
-            BigDecimal unitPrice;
-            Integer ppSnapshot;
-            String labelSnapshot;
-            int qtyForDb;
+        return txExecutor.execute(conn -> {
+            OrderDAO txOrders = orderDaoFactory.apply(conn);
+            OrderItemsDAO txItems = orderItemsDaoFactory.apply(conn);
+            ProductDAO txProducts = productDaoFactory.apply(conn);
+
+            Order order = txOrders.findOpenOrderByTable(tableId).orElse(null);
+            boolean created = order == null;
+            if (created) {
+                order = new Order(tableId, waiterId, OrderStatus.PENDING);
+                Long id = txOrders.create(order);
+                if (id == null || id <= 0) {
+                    throw new IllegalStateException("Order create failed");
+                }
+                order.setId(id);
+            }
+            Long orderId = order.getId();
+            List<ItemNoteUpdateResult> noteResults = new java.util.ArrayList<>(lines.size());
+            for (int i = 0; i < lines.size(); i++) {
+                Product product = lines.get(i).product();
+                String note = lines.get(i).note();
+                PricedLine line = priced.get(i);
+                Long productId = product.getId();
+                ItemNoteUpdateResult[] noteResult = {null};
+                changeLine(txOrders, txItems, orderId,
+                        sign -> txOrders.adjustTotalsForProduct(orderId, productId, sign),
+                        () -> {
+                            if (note == null || note.isBlank()) {
+                                txItems.addOrIncrement(orderId, productId, product.getName(), line.quantity(),
+                                        line.unitPrice(), line.piecesPerPortion(), line.unitLabel());
+                            } else {
+                                noteResult[0] = txItems.addOrIncrementWithNote(orderId, productId, product.getName(),
+                                        line.quantity(), line.unitPrice(), line.piecesPerPortion(),
+                                        line.unitLabel(), note);
+                            }
+                        });
+                noteResults.add(noteResult[0]);
+                txProducts.updateStock(productId, -line.quantity());
+            }
+            txOrders.updateStatus(orderId, OrderStatus.IN_PROGRESS);
+            tableDaoFactory.apply(conn).updateStatus(tableId, TableStatus.OCCUPIED);
+            orderLogDaoFactory.apply(conn).append(orderId, logMessage);
+            changeFeedFactory.apply(conn).append(ChangeEvent.TOPIC_TABLE, tableId, orderId);
+            return new AddItemsResult(txOrders.findById(orderId).orElse(order), created,
+                    java.util.Collections.unmodifiableList(noteResults));
+        });
+    }
+
+    /** Ürün + adetten {@code order_items}'a yazılacak miktar/fiyat/snapshot. */
+    private record PricedLine(int quantity, BigDecimal unitPrice, Integer piecesPerPortion, String unitLabel) {
+        static PricedLine of(Product product, int quantity, Integer pieces) {
             if (pieces != null && pieces > 0 && product.isPieceBased()) {
                 // Şiş bazlı: birim fiyatı = porsiyon / piecesPerPortion
-                unitPrice = product.getPerPiecePrice();
-                qtyForDb = pieces;
-                ppSnapshot = product.getPiecesPerPortion();
-                labelSnapshot = product.getUnitLabel();
-            } else {
-                // Porsiyon bazlı (eski davranış)
-                unitPrice = product.getUnitPrice();
-                qtyForDb = quantity;
-                ppSnapshot = null;
-                labelSnapshot = product.getUnitLabel();
+                return new PricedLine(pieces, product.getPerPiecePrice(),
+                        product.getPiecesPerPortion(), product.getUnitLabel());
             }
-            txItems.addOrIncrement(orderId, productId, product.getName(),
-                    qtyForDb, unitPrice, ppSnapshot, labelSnapshot);
-            txProduct.updateStock(productId, -qtyForDb);
-            return null;
-        });
+            // Porsiyon bazlı (eski davranış)
+            return new PricedLine(quantity, product.getUnitPrice(), null, product.getUnitLabel());
+        }
     }
 
     public void decrementItem(Long orderItemId, int quantity) {
@@ -215,11 +412,17 @@ public class OrderService {
             OrderItemsDAO txItems = orderItemsDaoFactory.apply(conn);
             ProductDAO txProduct = productDaoFactory.apply(conn);
 
+            OrderDAO txOrders = orderDaoFactory.apply(conn);
+
             OrderItem item = txItems.findById(orderItemId).orElseThrow();
             if (item.getProductId() != null) {
                 txProduct.updateStock(item.getProductId(), quantity);
             }
-            txItems.decrementOrRemove(orderItemId, quantity);
+            Long orderId = item.getOrderId();
+            changeLine(txOrders, txItems, orderId,
+                    sign -> txOrders.adjustTotalsForItem(orderId, orderItemId, sign),
+                    () -> txItems.decrementOrRemove(orderItemId, quantity));
+            changeFeedFactory.apply(conn).appendForOrder(ChangeEvent.TOPIC_TABLE, item.getOrderId());
             return null;
         });
     }
@@ -236,6 +439,9 @@ public class OrderService {
                 }
             }
             txItems.removeAllForOrder(orderId);
+            orderDaoFactory.apply(conn).updateTotals(orderId,
+                    BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.ZERO);
+            changeFeedFactory.apply(conn).appendForOrder(ChangeEvent.TOPIC_TABLE, orderId);
             return null;
         });
     }
@@ -253,27 +459,122 @@ public class OrderService {
             if (newTableId != null) {
                 txTables.updateStatus(newTableId, TableStatus.OCCUPIED);
             }
+            ChangeFeedDAO txFeed = changeFeedFactory.apply(conn);
+            if (oldTableId != null && !oldTableId.equals(newTableId)) {
+                txFeed.append(ChangeEvent.TOPIC_TABLE, oldTableId, orderId);
+            }
+            txFeed.append(ChangeEvent.TOPIC_TABLE, newTableId, orderId);
             return null;
         });
     }
 
+    /**
+     * Toplamları kalemlerden baştan hesaplar. Kalem değişiklikleri toplamları
+     * artımlı tuttuğundan ({@link #changeLine}) normal akışta gerekmez;
+     * elle düzeltme ve eski şema içindir.
+     */
     public void recomputeTotals(Long orderId) {
         txExecutor.execute(conn -> {
-            OrderItemsDAO txItems = orderItemsDaoFactory.apply(conn);
-            OrderDAO txOrders = orderDaoFactory.apply(conn);
+            recomputeTotals(orderDaoFactory.apply(conn), orderItemsDaoFactory.apply(conn), orderId);
+            return null;
+        });
+    }
 
-            BigDecimal subtotal = BigDecimal.ZERO;
-            BigDecimal taxTotal = BigDecimal.ZERO;
-            BigDecimal total = BigDecimal.ZERO;
+    /**
+     * Önce tek {@code UPDATE} ({@link OrderDAO#recomputeTotalsFromItems});
+     * üretilmiş sütunları olmayan eski şemada kalemleri okuyup toplar.
+     */
+    private void recomputeTotals(OrderDAO txOrders, OrderItemsDAO txItems, Long orderId) {
+        if (!sqlTotalsUnsupported) {
+            try {
+                txOrders.recomputeTotalsFromItems(orderId);
+                return;
+            } catch (RuntimeException ex) {
+                if (!isMissingColumn(ex)) throw ex;
+                sqlTotalsUnsupported = true;
+            }
+        }
+        BigDecimal subtotal = BigDecimal.ZERO;
+        BigDecimal taxTotal = BigDecimal.ZERO;
+        BigDecimal total = BigDecimal.ZERO;
+
+        for (OrderItem it : txItems.findByOrderId(orderId)) {
+            if (it.getNetAmount() != null) subtotal = subtotal.add(it.getNetAmount());
+            if (it.getTaxAmount() != null) taxTotal = taxTotal.add(it.getTaxAmount());
+            if (it.getLineTotal() != null) total = total.add(it.getLineTotal());
+        }
+        txOrders.updateTotals(orderId, subtotal, taxTotal, BigDecimal.ZERO, total);
+    }
 
-            for (OrderItem it : txItems.findByOrderId(orderId)) {
-                if (it.getNetAmount() != null) subtotal = subtotal.add(it.getNetAmount());
-                if (it.getTaxAmount() != null) taxTotal = taxTotal.add(it.getTaxAmount());
-                if (it.getLineTotal() != null) total = total.add(it.getLineTotal());
+    /**
+     * Kalem değişikliğini sipariş toplamlarıyla aynı transaction'da uygular:
+     * kalemin eski tutarı düşülür ({@code adjust(-1)}), değişiklik yapılır,
+     * yeni tutarı eklenir ({@code adjust(+1)}). İki UPDATE de yalnız etkilenen
+     * kalem(ler)i okur — maliyet siparişteki kalem sayısından bağımsız.
+     * Fiyat değişimi ve satır silinmesi de doğru yansır (saklı tutarlar
+     * kullanılır, Java'da yuvarlama yok). Eski şemada tam hesaba düşer.
+     */
+    private void changeLine(OrderDAO txOrders, OrderItemsDAO txItems, Long orderId,
+                            IntConsumer adjust, Runnable change) {
+        boolean incremental = !sqlTotalsUnsupported;
+        if (incremental) {
+            try {
+                adjust.accept(-1);
+            } catch (RuntimeException ex) {
+                if (!isMissingColumn(ex)) throw ex;
+                sqlTotalsUnsupported = true;
+                incremental = false;
             }
-            txOrders.updateTotals(orderId, subtotal, taxTotal, BigDecimal.ZERO, total);
-            return null;
-        });
+        }
+        change.run();
+        if (incremental) {
+            adjust.accept(1);
+        } else {
+            recomputeTotals(txOrders, txItems, orderId);
+        }
+    }
+
+    /**
+     * Kapanışta artımlı toplamları kalemlerin tam toplamıyla doğrular; fark
+     * varsa loglar ve tam toplamı yazar. Ödeme her durumda tam toplamdan alınır.
+     *
+     * @param stored kapanış öncesi sipariş satırı (yoksa doğrulama yapılmadan yazılır)
+     * @return kalemlerden hesaplanan genel toplam
+     */
+    private BigDecimal reconcileTotals(OrderDAO txOrders, OrderItemsDAO txItems, Long orderId, Order stored) {
+        BigDecimal subtotal = BigDecimal.ZERO;
+        BigDecimal taxTotal = BigDecimal.ZERO;
+        BigDecimal total = BigDecimal.ZERO;
+
+        for (OrderItem it : txItems.findByOrderId(orderId)) {
+            if (it.getNetAmount() != null) subtotal = subtotal.add(it.getNetAmount());
+            if (it.getTaxAmount() != null) taxTotal = taxTotal.add(it.getTaxAmount());
+            if (it.getLineTotal() != null) total = total.add(it.getLineTotal());
+        }
+        if (stored != null
+                && sameAmount(stored.getSubtotal(), subtotal)
+                && sameAmount(stored.getTaxTotal(), taxTotal)
+                && sameAmount(stored.getDiscountTotal(), BigDecimal.ZERO)
+                && sameAmount(stored.getTotal(), total)) {
+            return total;
+        }
+        if (stored != null) {
+            LOG.warn("Sipariş {} toplam kayması: kayıtlı {}/{}/{}, kalemlerden {}/{}/{} — düzeltildi",
+                    orderId, stored.getSubtotal(), stored.getTaxTotal(), stored.getTotal(),
+                    subtotal, taxTotal, total);
+        }
+        txOrders.updateTotals(orderId, subtotal, taxTotal, BigDecimal.ZERO, total);
+        return total;
+    }
+
+    private static boolean sameAmount(BigDecimal a, BigDecimal b) {
+        return a != null && b != null && a.compareTo(b) == 0;
+    }
+
+    /** SQLState 42xxx (bilinmeyen sütun vb.) — geçici hata (kilit, bağlantı) değil. */
+    private static boolean isMissingColumn(RuntimeException ex) {
+        return ex.getCause() instanceof java.sql.SQLException sql
+                && sql.getSQLState() != null && sql.getSQLState().startsWith("42");
     }
 
     public List<OrderItem> getItemsForOrder(Long orderId) {
@@ -281,23 +582,114 @@ public class OrderService {
     }
 
     public void updateOrderStatus(Long orderId, OrderStatus status) {
-        orderDAO.updateStatus(orderId, status);
+        txExecutor.execute(conn -> {
+            orderDaoFactory.apply(conn).updateStatus(orderId, status);
+            changeFeedFactory.apply(conn).appendForOrder(ChangeEvent.TOPIC_TABLE, orderId);
+            return null;
+        });
+    }
+
+    /**
+     * Hesap bölme kapanışı: her parça ayrı Payment olarak yazılır, sipariş
+     * COMPLETED yapılır ve masa boşaltılır — hepsi tek transaction'da.
+     */
+    public void checkoutSplitAndClose(Long orderId, Long cashierUserId, List<Payment> parts) {
+        txExecutor.execute(conn -> {
+            PaymentDAO txPayments = paymentDaoFactory.apply(conn);
+            OrderDAO txOrders = orderDaoFactory.apply(conn);
+            RestaurantTableDAO txTables = tableDaoFactory.apply(conn);
+
+            Optional<Order> order = txOrders.findById(orderId);
+            reconcileTotals(txOrders, orderItemsDaoFactory.apply(conn), orderId, order.orElse(null));
+            for (Payment part : parts) {
+                if (part == null || part.getAmount() == null || part.getMethod() == null) continue;
+                part.setOrderId(orderId);
+                part.setCashierId(cashierUserId);
+                txPayments.create(part);
+            }
+            txOrders.updateStatus(orderId, OrderStatus.COMPLETED);
+            rollupFactory.apply(conn).applyOrder(orderId);
+            order.ifPresent(o -> {
+                if (o.getTableId() != null) {
+                    txTables.updateStatus(o.getTableId(), TableStatus.EMPTY);
+                }
+            });
+            changeFeedFactory.apply(conn).appendForOrder(ChangeEvent.TOPIC_SALE, orderId);
+            return null;
+        });
     }
 
     /**
      * Bir siparişin tüm bekleyen (printed_at IS NULL) kalemlerini "basıldı"
      * olarak işaretler. "Sipariş hazır" akışında çağrılır — UI'da YENİ
-     * etiketinin temizlenmesini sağlar.
+     * etiketinin temizlenmesini sağlar. Kalem değiştiyse aynı transaction'da
+     * değişiklik günlüğüne yazılır — diğer terminaller masayı yeniler.
      */
     public void markAllItemsPrinted(Long orderId) {
         if (orderId == null) return;
-        orderItemsDAO.markItemsPrinted(orderId);
+        txExecutor.execute(conn -> {
+            if (orderItemsDaoFactory.apply(conn).markItemsPrinted(orderId) > 0) {
+                changeFeedFactory.apply(conn).appendForOrder(ChangeEvent.TOPIC_TABLE, orderId);
+            }
+            return null;
+        });
     }
 
-    /** Bir sipariş kaleminin notunu günceller. Sonucu DAO'dan aynen aktarır. */
+    /**
+     * Bir sipariş kaleminin notunu günceller. Sonucu DAO'dan aynen aktarır;
+     * uygulandıysa aynı transaction'da değişiklik günlüğüne yazılır.
+     *
+     * <p>Yeni not aynı ürünün başka bir satırının notuyla aynıysa (boş not
+     * dahil) satırlar birleştirilir: adet o satıra eklenir, bu satır silinir —
+     * {@code uk_order_items_line} çakışması yerine.
+     */
     public ItemNoteUpdateResult updateItemNote(Long orderItemId, String note) {
         if (orderItemId == null) return ItemNoteUpdateResult.NOT_FOUND;
-        return orderItemsDAO.updateNote(orderItemId, note);
+        return txExecutor.execute(conn -> {
+            OrderItemsDAO txItems = orderItemsDaoFactory.apply(conn);
+            OrderItem item = txItems.findById(orderItemId).orElse(null);
+            if (item == null) return ItemNoteUpdateResult.NOT_FOUND;
+            OrderItem twin = findLineTwin(txItems, item, note);
+            ItemNoteUpdateResult result;
+            if (twin != null) {
+                OrderDAO txOrders = orderDaoFactory.apply(conn);
+                Long orderId = item.getOrderId();
+                boolean[] merged = {false};
+                changeLine(txOrders, txItems, orderId,
+                        sign -> {
+                            txOrders.adjustTotalsForItem(orderId, orderItemId, sign);
+                            txOrders.adjustTotalsForItem(orderId, twin.getId(), sign);
+                        },
+                        () -> merged[0] = txItems.mergeLine(orderItemId, twin.getId()));
+                result = merged[0] ? ItemNoteUpdateResult.APPLIED : ItemNoteUpdateResult.NOT_FOUND;
+            } else {
+                result = txItems.updateNote(orderItemId, note);
+            }
+            if (result == ItemNoteUpdateResult.APPLIED) {
+                changeFeedFactory.apply(conn).appendForOrder(ChangeEvent.TOPIC_TABLE, item.getOrderId());
+            }
+            return result;
+        });
+    }
+
+    /** Not değişince aynı satır kimliğine düşecek diğer kalem; yoksa {@code null}. */
+    private static OrderItem findLineTwin(OrderItemsDAO txItems, OrderItem item, String note) {
+        if (item.getProductId() == null) return null;
+        String key = lineNote(note);
+        for (OrderItem other : txItems.findByOrderId(item.getOrderId())) {
+            if (!item.getId().equals(other.getId())
+                    && item.getProductId().equals(other.getProductId())
+                    && key.equals(lineNote(other.getNote()))) {
+                return other;
+            }
+        }
+        return null;
+    }
+
+    /** DAO'nun sakladığı biçim: boş not → "", en fazla 255 karakter. */
+    private static String lineNote(String note) {
+        if (note == null || note.isBlank()) return "";
+        return note.length() > 255 ? note.substring(0, 255) : note;
     }
 
     /** Stage 0G guard kapısı — saf pass-through, ek iş mantığı yok. */
@@ -386,10 +778,11 @@ public class OrderService {
                 salonName == null ? "" : salonName,
                 tableNo, waiterName, note, pendingItems);
 
-        // Başarılı baskı(lar) varsa kalemleri "basıldı" olarak işaretle
-        boolean anySuccess = results.stream().anyMatch(r -> r.success);
-        if (anySuccess) {
-            orderItemsDAO.markItemsPrinted(orderId);
+        // Başarılı ya da arka planda sürdürülen baskı(lar) varsa kalemleri "basıldı"
+        // olarak işaretle — kuyruktaki fiş tekrar gönderilirse mutfağa iki kez düşer
+        boolean anySent = results.stream().anyMatch(r -> r.success || r.queued);
+        if (anySent) {
+            markAllItemsPrinted(orderId);
         }
         return results;
     }
@@ -8,10 +8,9 @@ import model.PaymentMethod;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import org.apache.poi.xssf.usermodel.XSSFSheet;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 import org.apache.poi.ss.usermodel.Row;
 import org.apache.poi.ss.usermodel.Sheet;
+import service.report.StreamingSheet;
 
 import java.io.FileOutputStream;
 import java.io.IOException;
@@ -20,6 +19,7 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Objects;
+import java.util.function.Consumer;
 
 public class PaymentService {
 
@@ -76,28 +76,46 @@ public class PaymentService {
         return paymentDAO.create(p);
     }
 
+    /**
+     * Aralıktaki ödemeleri liste kurmadan, okundukça {@code sink}'e verir
+     * (bkz. {@link PaymentDAO#forEachInDateRange}).
+     */
+    public void forEachPaymentBetween(LocalDate startInclusive, LocalDate endExclusive, Consumer<Payment> sink) {
+        paymentDAO.forEachInDateRange(startInclusive, endExclusive, sink);
+    }
+
     public boolean exportPaymentsToExcel(List<Payment> payments, String filePath) {
+        return exportPaymentsToExcel(payments::forEach, filePath);
+    }
+
+    /** Aralıktaki ödemeleri DB cursor'ından doğrudan Excel'e akıtır. */
+    public boolean exportPaymentsToExcel(LocalDate startInclusive, LocalDate endExclusive, String filePath) {
+        return exportPaymentsToExcel(sink -> forEachPaymentBetween(startInclusive, endExclusive, sink), filePath);
+    }
+
+    /**
+     * SXSSF ile yazar: bellekte {@link StreamingSheet#ROW_WINDOW} satır,
+     * sütun genişlikleri yazarken hesaplanır ({@code autoSizeColumn} yok).
+     */
+    private boolean exportPaymentsToExcel(Consumer<Consumer<Payment>> source, String filePath) {
         return executeIo(LOG, "Ödemeler Excel'e aktarılamadı: {}", () -> {
-            try (XSSFWorkbook workbook = new XSSFWorkbook()) {
-                XSSFSheet sheet = workbook.createSheet("Payments");
-                createHeaderRow(sheet, "Payment ID", "Order ID", "Cashier ID", "Amount", "Method", "Paid At");
-
-                int rowIndex = 1;
-                for (Payment pay : payments) {
-                    Row row = sheet.createRow(rowIndex++);
-                    row.createCell(0).setCellValue(pay.getId());
-                    row.createCell(1).setCellValue(pay.getOrderId());
-                    row.createCell(2).setCellValue(pay.getCashierId() == null ? "" : pay.getCashierId().toString());
-                    row.createCell(3).setCellValue(
+            try (StreamingSheet sheet = new StreamingSheet("Payments", 6)) {
+                Row header = sheet.row();
+                String[] columns = {"Payment ID", "Order ID", "Cashier ID", "Amount", "Method", "Paid At"};
+                for (int i = 0; i < columns.length; i++) sheet.text(header, i, columns[i]);
+
+                source.accept(pay -> {
+                    Row row = sheet.row();
+                    sheet.number(row, 0, pay.getId());
+                    sheet.number(row, 1, pay.getOrderId());
+                    sheet.text(row, 2, pay.getCashierId() == null ? "" : pay.getCashierId().toString());
+                    sheet.text(row, 3,
                             pay.getAmount() == null ? "" : MoneyUtil.two(pay.getAmount()).toPlainString());
-                    row.createCell(4).setCellValue(pay.getMethod() == null ? "" : pay.getMethod().toString());
-                    row.createCell(5).setCellValue(
-                            pay.getPaidAt() == null ? "" : pay.getPaidAt().toString()
-                    );
-                }
-                autoSizeColumns(sheet, 6);
+                    sheet.text(row, 4, pay.getMethod() == null ? "" : pay.getMethod().toString());
+                    sheet.text(row, 5, pay.getPaidAt() == null ? "" : pay.getPaidAt().toString());
+                });
                 try (FileOutputStream out = new FileOutputStream(filePath)) {
-                    workbook.write(out);
+                    sheet.write(out);
                 }
             }
         });
@@ -1,26 +1,160 @@
 package service;
 
+import dao.PaymentDAO;
 import dao.ReportsDAO;
+import dao.SalesRollupDAO;
+import dao.jdbc.PaymentJdbcDAO;
 import dao.jdbc.ReportsJdbcDAO;
+import dao.jdbc.SalesRollupJdbcDAO;
+import model.Payment;
+import model.ProductRollupRow;
 import model.ProductSalesRow;
+import model.SalesRollupRow;
+import model.SalesSummary;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
 
+/**
+ * Rapor sorguları.
+ *
+ * <p>Gün/ay/saat/personel özetleri {@code daily_sales_rollup} tablosundan
+ * okunur: okunan satır sayısı gün × saat × yöntem ile sınırlıdır, satış
+ * hacminden bağımsızdır. Rollup tabloları yoksa aynı sonuçlar ham ödeme
+ * satırlarından hesaplanır.
+ */
 public class ReportsService {
 
+    private static final Logger LOG = LoggerFactory.getLogger(ReportsService.class);
+
     private final ReportsDAO reportsDAO;
+    private final SalesRollupDAO rollupDAO;
+    private final PaymentDAO paymentDAO;
 
     public ReportsService() {
         this(new ReportsJdbcDAO());
     }
 
     public ReportsService(ReportsDAO reportsDAO) {
+        this(reportsDAO, new SalesRollupJdbcDAO(), new PaymentJdbcDAO());
+    }
+
+    public ReportsService(ReportsDAO reportsDAO, SalesRollupDAO rollupDAO, PaymentDAO paymentDAO) {
         this.reportsDAO = Objects.requireNonNull(reportsDAO, "reportsDAO");
+        this.rollupDAO = Objects.requireNonNull(rollupDAO, "rollupDAO");
+        this.paymentDAO = Objects.requireNonNull(paymentDAO, "paymentDAO");
     }
 
     public List<ProductSalesRow> getProductSalesBefore(LocalDateTime threshold) {
         return reportsDAO.findProductSalesBefore(threshold);
     }
+
+    /** {@code [from, toInclusive]} günlerindeki ödeme adedi ve toplamı. */
+    public SalesSummary getSalesSummary(LocalDate from, LocalDate toInclusive) {
+        SalesSummary summary = SalesSummary.EMPTY;
+        for (SalesRollupRow row : salesRows(from, toInclusive)) {
+            summary = summary.plus(row.saleCount(), row.amount());
+        }
+        return new SalesSummary(summary.count(), summary.amount().setScale(2, RoundingMode.HALF_UP));
+    }
+
+    /** Bir günün saatlik dağılımı — her zaman 24 eleman (index = saat). */
+    public List<SalesSummary> getHourlySales(LocalDate date) {
+        List<SalesSummary> hours = new ArrayList<>(Collections.nCopies(24, SalesSummary.EMPTY));
+        for (SalesRollupRow row : salesRows(date, date)) {
+            int h = row.saleHour();
+            hours.set(h, hours.get(h).plus(row.saleCount(), row.amount()));
+        }
+        return hours;
+    }
+
+    /**
+     * Haftanın günü × saat ödeme adetleri: {@code [0=Pzt..6=Pzr][0..23]}.
+     * Personel önerisi için.
+     */
+    public int[][] getWeekdayHourCounts(LocalDate from, LocalDate toInclusive) {
+        int[][] counts = new int[7][24];
+        for (SalesRollupRow row : salesRows(from, toInclusive)) {
+            int dow = row.saleDate().getDayOfWeek().getValue() - 1;
+            counts[dow][row.saleHour()] += row.saleCount();
+        }
+        return counts;
+    }
+
+    /**
+     * Ürün toplamları. Rollup tabloları yoksa boş liste döner —
+     * {@link #isRollupAvailable()} ile kontrol edip eski sorguya düşülmeli.
+     */
+    public List<ProductRollupRow> getProductSummary(LocalDate from, LocalDate toInclusive) {
+        return rollupDAO.findProducts(from, toInclusive);
+    }
+
+    public boolean isRollupAvailable() {
+        return rollupDAO.isAvailable();
+    }
+
+    /** Verilen günlerin rollup satırlarını ham tablolardan yeniden hesaplar. */
+    public void rebuildRollups(LocalDate from, LocalDate toInclusive) {
+        Objects.requireNonNull(from, "from");
+        Objects.requireNonNull(toInclusive, "toInclusive");
+        if (toInclusive.isBefore(from)) {
+            throw new IllegalArgumentException("Bitiş tarihi başlangıçtan önce olamaz");
+        }
+        long started = System.currentTimeMillis();
+        rollupDAO.rebuild(from, toInclusive);
+        LOG.info("Satış rollup'ı yeniden hesaplandı: {} → {} ({} ms)",
+                from, toInclusive, System.currentTimeMillis() - started);
+    }
+
+    /**
+     * Açılış işi: rollup ilk ödemeye kadar geriye uzanmıyorsa (ilk kurulum veya
+     * yarıda kalmış doldurma) tüm geçmişi doldurur; değilse dünü yeniden
+     * hesaplar (kapanış sonrası düzenlenen ödemelerden kalan sapmayı siler).
+     * Bugün, açık kasalardaki satış transaction'larıyla kilit çekişmesine
+     * girmemek için yalnızca ilk doldurmada yeniden hesaplanır.
+     */
+    public void refreshRollupsOnStartup() {
+        if (!rollupDAO.isAvailable()) {
+            return;
+        }
+        LocalDate today = LocalDate.now();
+        java.util.Optional<LocalDate> firstPayment = rollupDAO.findFirstPaymentDate();
+        if (firstPayment.isEmpty()) {
+            return;
+        }
+        java.util.Optional<LocalDate> firstRollup = rollupDAO.findFirstRollupDate();
+        if (firstRollup.isEmpty() || firstRollup.get().isAfter(firstPayment.get())) {
+            rebuildRollups(firstPayment.get(), today);
+        } else {
+            rebuildRollups(today.minusDays(1), today.minusDays(1));
+        }
+    }
+
+    private List<SalesRollupRow> salesRows(LocalDate from, LocalDate toInclusive) {
+        Objects.requireNonNull(from, "from");
+        Objects.requireNonNull(toInclusive, "toInclusive");
+        if (rollupDAO.isAvailable()) {
+            List<SalesRollupRow> rows = rollupDAO.findSales(from, toInclusive);
+            if (rollupDAO.isAvailable()) {
+                return rows;
+            }
+        }
+        // Rollup yok — ham ödemelerden aynı satırları üret
+        List<SalesRollupRow> rows = new ArrayList<>();
+        for (Payment p : paymentDAO.findByDateRange(from, toInclusive.plusDays(1))) {
+            if (p.getPaidAt() == null) continue;
+            rows.add(new SalesRollupRow(p.getPaidAt().toLocalDate(), p.getPaidAt().getHour(),
+                    p.getMethod() == null ? "" : p.getMethod().name(), 1,
+                    p.getAmount() == null ? BigDecimal.ZERO : p.getAmount()));
+        }
+        return rows;
+    }
 }
@@ -1,24 +1,44 @@
 package service;
 
+import DataConnection.Db;
+import DataConnection.TransactionExecutor;
+import dao.ChangeFeedDAO;
 import dao.RestaurantTableDAO;
+import dao.jdbc.ChangeFeedJdbcDAO;
 import dao.jdbc.RestaurantTableJdbcDAO;
+import model.ChangeEvent;
 import model.RestaurantTable;
 import model.TableStatus;
 
+import java.sql.Connection;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Function;
 
 public class RestaurantTableService {
 
     private final RestaurantTableDAO tableDAO;
+    private final Function<Connection, RestaurantTableDAO> tableDaoFactory;
+    private final Function<Connection, ChangeFeedDAO> changeFeedFactory;
+    private final TransactionExecutor txExecutor;
 
     public RestaurantTableService() {
         this(new RestaurantTableJdbcDAO());
     }
 
     public RestaurantTableService(RestaurantTableDAO tableDAO) {
+        this(tableDAO, RestaurantTableJdbcDAO::new, ChangeFeedJdbcDAO::new, Db::tx);
+    }
+
+    public RestaurantTableService(RestaurantTableDAO tableDAO,
+                                  Function<Connection, RestaurantTableDAO> tableDaoFactory,
+                                  Function<Connection, ChangeFeedDAO> changeFeedFactory,
+                                  TransactionExecutor txExecutor) {
         this.tableDAO = Objects.requireNonNull(tableDAO, "tableDAO");
+        this.tableDaoFactory = Objects.requireNonNull(tableDaoFactory, "tableDaoFactory");
+        this.changeFeedFactory = Objects.requireNonNull(changeFeedFactory, "changeFeedFactory");
+        this.txExecutor = Objects.requireNonNull(txExecutor, "txExecutor");
     }
 
     /* --------- Sorgular --------- */
@@ -64,12 +84,20 @@ public class RestaurantTableService {
     }
 
     public void markTableOccupied(Long tableId, boolean occupied) {
-        TableStatus newStatus = occupied ? TableStatus.OCCUPIED : TableStatus.EMPTY;
-        tableDAO.updateStatus(tableId, newStatus);
+        updateStatus(tableId, occupied ? TableStatus.OCCUPIED : TableStatus.EMPTY);
     }
 
     public void markTableReserved(Long tableId) {
-        tableDAO.updateStatus(tableId, TableStatus.RESERVED);
+        updateStatus(tableId, TableStatus.RESERVED);
+    }
+
+    /** Durum değişikliği ve {@code change_seq} satırı aynı transaction'da — diğer terminaller görsün. */
+    private void updateStatus(Long tableId, TableStatus status) {
+        txExecutor.execute(conn -> {
+            tableDaoFactory.apply(conn).updateStatus(tableId, status);
+            changeFeedFactory.apply(conn).append(ChangeEvent.TOPIC_TABLE, tableId, null);
+            return null;
+        });
     }
 
     public void updateTableNote(Long tableId, String note) {
@@ -0,0 +1,32 @@
+package service;
+
+import dao.SalesQueryDAO;
+import dao.jdbc.SalesQueryJdbcDAO;
+import model.SalesPage;
+
+import java.time.LocalDate;
+import java.util.Objects;
+
+public class SalesQueryService {
+
+    private final SalesQueryDAO salesQueryDAO;
+
+    public SalesQueryService() {
+        this(new SalesQueryJdbcDAO());
+    }
+
+    public SalesQueryService(SalesQueryDAO salesQueryDAO) {
+        this.salesQueryDAO = Objects.requireNonNull(salesQueryDAO, "salesQueryDAO");
+    }
+
+    /** Bir günün satışları (tamamı). */
+    public SalesPage getSalesOn(LocalDate date) {
+        return getSalesPageOn(date, null, 0);
+    }
+
+    /** Bir günün satışlarından bir sayfa; {@code limit <= 0} ise tamamı. */
+    public SalesPage getSalesPageOn(LocalDate date, String afterCursor, int limit) {
+        Objects.requireNonNull(date, "date");
+        return salesQueryDAO.findPage(date.atStartOfDay(), date.plusDays(1).atStartOfDay(), afterCursor, limit);
+    }
+}
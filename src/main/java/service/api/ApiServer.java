@@ -16,6 +16,7 @@ import org.slf4j.LoggerFactory;
 import org.mindrot.jbcrypt.BCrypt;
 import service.UserService;
 import state.AppState;
+import state.SnapshotDetail;
 import state.TableSnapshot;
 
 import java.math.BigDecimal;
@@ -60,8 +61,11 @@ public class ApiServer {
 
     private final AppState appState;
     private final UserService userService = new UserService();
+    private final service.SalesQueryService salesQueryService = new service.SalesQueryService();
     /** Bearer token oturum deposu — login sonrası rastgele 256-bit token. */
     private final SessionStore sessions = new SessionStore();
+    private final ConditionalGet conditionalGet = new ConditionalGet();
+    private final EventHub eventHub;
     /** Brute-force / rate-limit izleyici (kullanıcı:IP). */
     private final AuthFailureTracker authTracker = new AuthFailureTracker();
 
@@ -78,6 +82,7 @@ public class ApiServer {
 
     public ApiServer(AppState appState) {
         this.appState = appState;
+        this.eventHub = new EventHub(appState, sessions);
     }
 
     /** API server'ı belirtilen portta başlatır. Daemon thread'de çalışır. */
@@ -129,6 +134,7 @@ public class ApiServer {
         app.exception(Exception.class, this::handleUncaughtException);
 
         registerRoutes();
+        eventHub.start();
 
         app.start(port);
         LOG.info("REST API başladı: port={} (CORS allowlist: {})",
@@ -136,6 +142,7 @@ public class ApiServer {
     }
 
     public synchronized void stop() {
+        eventHub.shutdown();
         if (app != null) {
             app.stop();
             app = null;
@@ -159,12 +166,14 @@ public class ApiServer {
         app.post("/api/login", this::login);
         app.post("/api/logout", this::logout);
         app.get("/api/me", this::me);
+        app.sse("/api/events", this::openEventStream);
         app.get("/api/products", this::listProducts);
         app.get("/api/tables", this::listTables);
         app.get("/api/tables/{tableNo}", this::getTable);
         app.post("/api/tables/{tableNo}/lock", this::acquireTableLock);
         app.delete("/api/tables/{tableNo}/lock", this::releaseTableLock);
         app.post("/api/tables/{tableNo}/items", this::addItem);
+        app.post("/api/tables/{tableNo}/items/batch", this::addItemsBatch);
         app.post("/api/tables/{tableNo}/sale", this::completeSale);
         app.post("/api/tables/{tableNo}/split-sale", this::splitSale);
         app.post("/api/tables/{tableNo}/send-to-kitchen", this::sendToKitchen);
@@ -187,6 +196,7 @@ public class ApiServer {
         app.get("/api/reports/staff-suggestions", this::staffSuggestions);
         app.get("/api/reports/product-summary", this::productSummaryReport);
         app.get("/api/reports/monthly", this::monthlyReport);
+        app.post("/api/reports/rollup/rebuild", this::rebuildSalesRollup);
         // Ürün yönetimi
         app.get("/api/products/all", this::listAllProducts);
         app.post("/api/products", this::createProduct);
@@ -194,6 +204,10 @@ public class ApiServer {
         app.post("/api/products/{id}/active", this::toggleProductActive);
         app.delete("/api/products/{id}", this::deleteProduct);
         app.get("/api/categories", this::listCategories);
+        app.get("/api/catalog/stats", this::catalogCacheStats);
+        app.get("/api/print/queue", this::printQueueStats);
+        app.get("/api/order-logs/stats", this::orderLogStats);
+        app.get("/api/print/printers", this::printerStatuses);
         // Kullanıcı yönetimi (admin/kasiyer için)
         app.get("/api/users", this::listUsers);
         app.post("/api/users", this::createUser);
@@ -509,17 +523,26 @@ public class ApiServer {
         ctx.json(resp);
     }
 
+    /**
+     * GET /api/events — SSE akışı: {@code tables}, {@code sales}, {@code products},
+     * {@code categories} olayları (kullanıcının alanlarına göre süzülür).
+     * Olay yalnızca neyin değiştiğini söyler; istemci ilgili GET'i ETag ile yeniler.
+     */
+    private void openEventStream(io.javalin.http.sse.SseClient client) {
+        Context ctx = client.ctx();
+        User user = requireUser(ctx);
+        String header = ctx.header("Authorization");
+        String token = (header != null && header.startsWith("Bearer "))
+                ? header.substring("Bearer ".length()).trim() : null;
+        eventHub.subscribe(client, user, token);
+    }
+
     private void listProducts(Context ctx) {
+        if (conditionalGet.notModified(ctx, "p" + appState.getCatalogVersion())) return;
         List<Product> products = appState.getAvailableProducts();
         // Her ürüne kategori adını da ekle — mobil tarafı "İçecek" gibi kategorileri
         // tespit edip şiş bölümünü gizleyebilir.
-        service.CategoryService categoryService = new service.CategoryService();
-        java.util.Map<Long, String> categoryNames = new java.util.HashMap<>();
-        for (model.Category c : categoryService.getAllCategories()) {
-            if (c != null && c.getId() != null) {
-                categoryNames.put(c.getId(), c.getName());
-            }
-        }
+        Map<Long, String> categoryNames = appState.getCategoryNames();
         List<Map<String, Object>> out = new java.util.ArrayList<>();
         for (Product p : products) {
             if (p == null) continue;
@@ -544,11 +567,20 @@ public class ApiServer {
      */
     private void listTables(Context ctx) {
         User user = requireUser(ctx);
+        // Yanıt kullanıcının alan yetkilerine bağlı; yetki değişimi de kat planı sürümünü artırır.
+        if (conditionalGet.notModified(ctx, "f" + appState.getFloorVersion() + "u" + user.getId())) return;
         List<AppState.AreaDefinition> areas = appState.getAccessibleAreas(user);
+        java.util.Set<Integer> tableNos = new java.util.HashSet<>();
+        for (AppState.AreaDefinition area : areas) {
+            tableNos.addAll(area.getTableNumbers());
+        }
+        // Tüm kat planı tek toplu sorguyla — kalem/geçmiş okunmaz.
+        Map<Integer, TableSnapshot> snapshots = appState.snapshotAll(tableNos, SnapshotDetail.SUMMARY);
         List<Map<String, Object>> tables = new java.util.ArrayList<>();
         for (AppState.AreaDefinition area : areas) {
             for (Integer tableNo : area.getTableNumbers()) {
-                TableSnapshot snap = appState.snapshot(tableNo);
+                TableSnapshot snap = snapshots.get(tableNo);
+                if (snap == null) continue;
                 Map<String, Object> t = new HashMap<>();
                 t.put("tableNo", tableNo);
                 t.put("building", area.getBuilding());
@@ -570,6 +602,13 @@ public class ApiServer {
             ctx.status(403).json(Map.of("error", "Bu masaya erişim yetkiniz yok"));
             return;
         }
+        // Sürüm yalnız change_seq'e yazılan mutasyonlarla güvenilir ilerler; günlük
+        // yoksa başka terminalin not/mutfak değişikliği sürümü oynatmaz → ETag verme.
+        if (appState.isTableVersionJournaled()) {
+            if (conditionalGet.notModified(ctx, "t" + tableNo + "v" + appState.getTableVersion(tableNo))) return;
+        } else {
+            ctx.header("Cache-Control", "private, no-cache");
+        }
         TableSnapshot snap = appState.snapshot(tableNo);
         ctx.json(snap);
     }
@@ -628,6 +667,80 @@ public class ApiServer {
         }
     }
 
+    /** Toplu eklemede tek istekte kabul edilen en fazla satır. */
+    private static final int MAX_BATCH_ITEMS = 100;
+
+    /**
+     * POST /api/tables/{tableNo}/items/batch
+     * Body: {"items": [{"productId": 1, "quantity": 2}, {"productId": 7, "pieces": 5, "note": "acısız"}, ...]}
+     *
+     * <p>Sepetin tamamı tek transaction'da eklenir; tek sipariş logu, tek
+     * değişiklik olayı. Geçersiz satır tüm isteği reddeder (400, hiçbir şey
+     * eklenmez). Not çakışan satırlar atlanır ve {@code results}'ta
+     * {@code "conflict"} döner — hepsi çakışırsa 409.
+     */
+    private void addItemsBatch(Context ctx) {
+        User user = requireUser(ctx);
+        int tableNo = Integer.parseInt(ctx.pathParam("tableNo"));
+        if (!appState.canAccessTable(tableNo, user)) {
+            ctx.status(403).json(Map.of("error", "Bu masaya erişim yetkiniz yok"));
+            return;
+        }
+        Map<String, Object> body = ctx.bodyAsClass(Map.class);
+        Object itemsRaw = body.get("items");
+        if (!(itemsRaw instanceof List<?> rawList) || rawList.isEmpty()) {
+            ctx.status(400).json(Map.of("error", "items dizisi gerekli"));
+            return;
+        }
+        if (rawList.size() > MAX_BATCH_ITEMS) {
+            ctx.status(400).json(Map.of("error", "En fazla " + MAX_BATCH_ITEMS + " satır gönderilebilir"));
+            return;
+        }
+        List<state.AppState.ItemRequest> requests = new java.util.ArrayList<>();
+        for (Object iObj : rawList) {
+            if (!(iObj instanceof Map<?, ?> item)) {
+                ctx.status(400).json(Map.of("error", "items elemanları nesne olmalı"));
+                return;
+            }
+            Long productId = toLong(item.get("productId"));
+            if (productId == null || productId <= 0) {
+                ctx.status(400).json(Map.of("error", "productId gerekli"));
+                return;
+            }
+            int qty = toInt(item.get("quantity"), 1);
+            Integer pieces = item.get("pieces") == null ? null : toInt(item.get("pieces"), 0);
+            String note = item.get("note") == null ? null : item.get("note").toString().trim();
+            // Tekli uç noktayla aynı kural: şiş yolu yalnız pieces > 0 ise
+            requests.add(new state.AppState.ItemRequest(productId, qty,
+                    (pieces != null && pieces > 0) ? pieces : null, note));
+        }
+        try {
+            List<model.ItemAddWithNoteResult> results = appState.addItems(tableNo, requests, user);
+            List<Map<String, Object>> out = new java.util.ArrayList<>(results.size());
+            int added = 0;
+            for (int i = 0; i < results.size(); i++) {
+                model.ItemAddWithNoteResult r = results.get(i);
+                Map<String, Object> row = new java.util.LinkedHashMap<>();
+                row.put("productId", requests.get(i).productId());
+                row.put("status", r.itemAdded() ? "added" : "conflict");
+                if (r.noteResult() != null) {
+                    row.put("noteStatus", r.noteResult().name());
+                }
+                if (r.itemAdded()) added++;
+                out.add(row);
+            }
+            Map<String, Object> resp = new java.util.LinkedHashMap<>();
+            resp.put("status", added > 0 ? "added" : "conflict");
+            resp.put("tableNo", tableNo);
+            resp.put("added", added);
+            resp.put("results", out);
+            if (added == 0) ctx.status(409);
+            ctx.json(resp);
+        } catch (RuntimeException ex) {
+            ctx.status(400).json(Map.of("error", ex.getMessage()));
+        }
+    }
+
     /**
      * POST /api/tables/{tableNo}/sale
      * Body: {"method":"CASH|CREDIT_CARD|TRANSFER"}
@@ -901,8 +1014,10 @@ public class ApiServer {
     // ============================================================
 
     /**
-     * GET /api/sales?date=YYYY-MM-DD
+     * GET /api/sales?date=YYYY-MM-DD[&limit=N&cursor=...]
      * Verilen gün için tüm satış kayıtları (admin için tablo, kasiyer kendi günü).
+     * {@code limit} verilirse sayfalı döner; sonraki sayfa için yanıttaki
+     * {@code nextCursor} gönderilir ({@code count}/{@code total} tüm güne aittir).
      */
     private void listSales(Context ctx) {
         User user = requireUser(ctx);
@@ -914,49 +1029,52 @@ public class ApiServer {
         java.time.LocalDate date = (dateStr == null || dateStr.isBlank())
                 ? java.time.LocalDate.now()
                 : java.time.LocalDate.parse(dateStr);
-        // Payment objelerini direkt al — orderId bilgisi gerekiyor (kalemler için)
-        service.PaymentService paymentService = new service.PaymentService();
-        service.OrderService orderService = new service.OrderService();
-        service.RestaurantTableService tableService = new service.RestaurantTableService();
-        List<model.Payment> payments = paymentService.getPaymentsOn(date);
-        BigDecimal total = payments.stream()
-                .map(p -> p.getAmount() == null ? BigDecimal.ZERO : p.getAmount())
-                .reduce(BigDecimal.ZERO, BigDecimal::add)
-                .setScale(2, java.math.RoundingMode.HALF_UP);
+        // Opsiyonel sayfalama: ?limit=N&cursor=<önceki yanıtın nextCursor'ı>.
+        // limit verilmezse günün tamamı döner (eski istemciler için).
+        int limit = 0;
+        String limitStr = ctx.queryParam("limit");
+        if (limitStr != null && !limitStr.isBlank()) {
+            try {
+                limit = Math.min(Integer.parseInt(limitStr.trim()), 500);
+            } catch (NumberFormatException ex) {
+                limit = -1;
+            }
+            if (limit < 0) {
+                ctx.status(400).json(Map.of("error", "Geçersiz limit"));
+                return;
+            }
+        }
+        model.SalesPage page;
+        try {
+            // Tek JOIN: masa, garson, kasiyer satırla birlikte gelir (satır başına ek sorgu yok)
+            page = salesQueryService.getSalesPageOn(date, ctx.queryParam("cursor"), limit);
+        } catch (IllegalArgumentException ex) {
+            ctx.status(400).json(Map.of("error", ex.getMessage()));
+            return;
+        }
         List<Map<String, Object>> out = new java.util.ArrayList<>();
-        for (model.Payment p : payments) {
+        for (model.SaleRow row : page.rows()) {
             Map<String, Object> m = new java.util.HashMap<>();
-            m.put("orderId", p.getOrderId());
-            m.put("amount", p.getAmount());
-            m.put("method", p.getMethod() == null ? null : p.getMethod().name());
-            m.put("timestamp", p.getPaidAt() == null
-                    ? (p.getCreatedAt() == null ? null : p.getCreatedAt().toString())
-                    : p.getPaidAt().toString());
-            // Order'dan masa ve garson bilgisi
-            if (p.getOrderId() != null) {
-                model.Order order = orderService.getOrderById(p.getOrderId()).orElse(null);
-                if (order != null && order.getTableId() != null) {
-                    model.RestaurantTable t = tableService.getTableById(order.getTableId()).orElse(null);
-                    if (t != null) m.put("tableNo", t.getTableNo());
-                }
-            }
+            m.put("orderId", row.orderId());
+            m.put("amount", row.amount());
+            // Eski yanıtla aynı: enum adı (CASH/CREDIT_CARD/...), DB değeri değil
+            PaymentMethod method = PaymentMethod.fromDatabaseValue(row.method());
+            m.put("method", method == null ? row.method() : method.name());
+            m.put("timestamp", row.paidAt() == null ? null : row.paidAt().toString());
+            if (row.tableNo() != null) m.put("tableNo", row.tableNo());
+            if (row.waiterName() != null) m.put("waiter", row.waiterName());
             // Cashier (kasiyer) adı
-            if (p.getCashierId() != null) {
-                model.User u = userService.getUserById(p.getCashierId()).orElse(null);
-                if (u != null) {
-                    m.put("performer", u.getFullName() != null && !u.getFullName().isBlank()
-                            ? u.getFullName() : u.getUsername());
-                }
-            }
+            if (row.cashierName() != null) m.put("performer", row.cashierName());
             out.add(m);
         }
         Map<String, Object> resp = new java.util.HashMap<>();
         resp.put("date", date.toString());
-        resp.put("count", payments.size());
+        resp.put("count", page.totalCount());
         resp.put("sales", out);
+        resp.put("nextCursor", page.nextCursor());
         // KASIYER: toplam ciro gizli — sadece ADMIN görür
         if (user.getRole() == Role.ADMIN) {
-            resp.put("total", total);
+            resp.put("total", page.totalAmount().setScale(2, java.math.RoundingMode.HALF_UP));
         }
         ctx.json(resp);
     }
@@ -1153,11 +1271,12 @@ public class ApiServer {
         java.time.LocalDate date = (dateStr == null || dateStr.isBlank())
                 ? java.time.LocalDate.now()
                 : java.time.LocalDate.parse(dateStr);
-        BigDecimal salesTotal = appState.getSalesTotal(date);
+        model.SalesSummary sales = appState.getSalesSummary(date, date);
+        BigDecimal salesTotal = sales.amount();
         BigDecimal expenseTotal = appState.getExpenseTotal(date);
         BigDecimal netProfit = salesTotal.subtract(expenseTotal)
                 .setScale(2, java.math.RoundingMode.HALF_UP);
-        int salesCount = appState.getSalesOn(date).size();
+        int salesCount = sales.count();
         int expenseCount = appState.getExpensesOn(date).size();
         ctx.json(Map.of(
                 "date", date.toString(),
@@ -1193,6 +1312,24 @@ public class ApiServer {
             to = d;
         }
 
+        if (appState.isSalesRollupAvailable()) {
+            // Günlük ürün rollup'ı: aralıktaki gün × ürün satırları, kalem taraması yok
+            List<Map<String, Object>> rows = new java.util.ArrayList<>();
+            for (model.ProductRollupRow r : appState.getProductSummary(from, to)) {
+                rows.add(productSummaryRow(r.productName(), r.unitLabel(), r.quantity(),
+                        r.piecesPerPortion(), r.amount()));
+            }
+            if (appState.isSalesRollupAvailable()) {
+                Map<String, Object> resp = new java.util.HashMap<>();
+                resp.put("from", from.toString());
+                resp.put("to", to.toString());
+                resp.put("count", rows.size());
+                resp.put("rows", rows);
+                ctx.json(resp);
+                return;
+            }
+        }
+
         final String sql =
                 "SELECT oi.product_name, " +
                 "       COALESCE(oi.unit_label, '') AS unit_label, " +
@@ -1201,31 +1338,19 @@ public class ApiServer {
                 "       SUM(oi.line_total) AS total_amount " +
                 "  FROM order_items oi " +
                 "  JOIN payments    p ON p.order_id = oi.order_id " +
-                " WHERE DATE(p.paid_at) BETWEEN ? AND ? " +
+                " WHERE p.paid_at >= ? AND p.paid_at < ? " +
                 " GROUP BY oi.product_name, COALESCE(oi.unit_label, '') " +
                 " ORDER BY total_qty DESC";
         List<Map<String, Object>> out = new java.util.ArrayList<>();
         try (java.sql.Connection c = DataConnection.Db.getConnection();
              java.sql.PreparedStatement ps = c.prepareStatement(sql)) {
-            ps.setDate(1, java.sql.Date.valueOf(from));
-            ps.setDate(2, java.sql.Date.valueOf(to));
+            // Yarı açık aralık [from, to+1) — DATE(paid_at) paid_at indeksini kullanamaz
+            ps.setTimestamp(1, java.sql.Timestamp.valueOf(from.atStartOfDay()));
+            ps.setTimestamp(2, java.sql.Timestamp.valueOf(to.plusDays(1).atStartOfDay()));
             try (java.sql.ResultSet rs = ps.executeQuery()) {
                 while (rs.next()) {
-                    Map<String, Object> m = new java.util.HashMap<>();
-                    String name = rs.getString("product_name");
-                    String unit = rs.getString("unit_label");
-                    int qty = rs.getInt("total_qty");
-                    int pp = rs.getInt("pp");
-                    BigDecimal amt = rs.getBigDecimal("total_amount");
-                    String effectiveUnit = (unit == null || unit.isBlank())
-                            ? (pp > 0 ? "şiş" : "porsiyon") : unit;
-                    m.put("productName", name);
-                    m.put("unitLabel", effectiveUnit);
-                    m.put("totalQty", qty);
-                    m.put("piecesPerPortion", pp);
-                    m.put("portionEquivalent", pp > 0 ? (qty / (double) pp) : qty);
-                    m.put("totalAmount", amt);
-                    out.add(m);
+                    out.add(productSummaryRow(rs.getString("product_name"), rs.getString("unit_label"),
+                            rs.getInt("total_qty"), rs.getInt("pp"), rs.getBigDecimal("total_amount")));
                 }
             }
         } catch (java.sql.SQLException ex) {
@@ -1240,6 +1365,20 @@ public class ApiServer {
         ctx.json(resp);
     }
 
+    private static Map<String, Object> productSummaryRow(String name, String unit, int qty, int pp,
+                                                         BigDecimal amount) {
+        Map<String, Object> m = new java.util.HashMap<>();
+        String effectiveUnit = (unit == null || unit.isBlank())
+                ? (pp > 0 ? "şiş" : "porsiyon") : unit;
+        m.put("productName", name);
+        m.put("unitLabel", effectiveUnit);
+        m.put("totalQty", qty);
+        m.put("piecesPerPortion", pp);
+        m.put("portionEquivalent", pp > 0 ? (qty / (double) pp) : qty);
+        m.put("totalAmount", amount);
+        return m;
+    }
+
     private void tryFallbackProductSummary(List<Map<String, Object>> out,
                                            java.time.LocalDate from,
                                            java.time.LocalDate to) {
@@ -1247,13 +1386,14 @@ public class ApiServer {
                 "SELECT oi.product_name, SUM(oi.quantity) AS total_qty " +
                 "  FROM order_items oi " +
                 "  JOIN payments p ON p.order_id = oi.order_id " +
-                " WHERE DATE(p.paid_at) BETWEEN ? AND ? " +
+                " WHERE p.paid_at >= ? AND p.paid_at < ? " +
                 " GROUP BY oi.product_name " +
                 " ORDER BY total_qty DESC";
         try (java.sql.Connection c = DataConnection.Db.getConnection();
              java.sql.PreparedStatement ps = c.prepareStatement(sql)) {
-            ps.setDate(1, java.sql.Date.valueOf(from));
-            ps.setDate(2, java.sql.Date.valueOf(to));
+            // Yarı açık aralık [from, to+1) — DATE(paid_at) paid_at indeksini kullanamaz
+            ps.setTimestamp(1, java.sql.Timestamp.valueOf(from.atStartOfDay()));
+            ps.setTimestamp(2, java.sql.Timestamp.valueOf(to.plusDays(1).atStartOfDay()));
             try (java.sql.ResultSet rs = ps.executeQuery()) {
                 while (rs.next()) {
                     Map<String, Object> m = new java.util.HashMap<>();
@@ -1280,19 +1420,14 @@ public class ApiServer {
         String monthStr = ctx.queryParam("month");
         java.time.YearMonth ym = (monthStr == null || monthStr.isBlank())
                 ? java.time.YearMonth.now() : java.time.YearMonth.parse(monthStr);
-        BigDecimal salesTotal = appState.getSalesTotal(ym);
+        // Satışlar rollup'tan tek sorgu — gün başına sorgu yok
+        model.SalesSummary sales = appState.getSalesSummary(ym.atDay(1), ym.atEndOfMonth());
+        BigDecimal salesTotal = sales.amount();
         BigDecimal expenseTotal = appState.getExpenseTotal(ym);
         BigDecimal netProfit = salesTotal.subtract(expenseTotal)
                 .setScale(2, java.math.RoundingMode.HALF_UP);
-        // Sipariş sayısı
-        java.time.LocalDate from = ym.atDay(1);
-        int salesCount = 0, expCount = 0;
-        int days = ym.lengthOfMonth();
-        for (int i = 0; i < days; i++) {
-            java.time.LocalDate d = from.plusDays(i);
-            salesCount += appState.getSalesOn(d).size();
-            expCount += appState.getExpensesOn(d).size();
-        }
+        int salesCount = sales.count();
+        int expCount = appState.getExpenseCount(ym);
         ctx.json(Map.of(
                 "month", ym.toString(),
                 "salesTotal", salesTotal,
@@ -1315,21 +1450,17 @@ public class ApiServer {
         Map<String, Object> out = new java.util.HashMap<>();
         switch (type) {
             case "today-sales" -> {
-                BigDecimal total = appState.getSalesTotal(today);
-                int count = appState.getSalesOn(today).size();
+                model.SalesSummary sales = appState.getSalesSummary(today, today);
+                BigDecimal total = sales.amount();
+                int count = sales.count();
                 out.put("title", "Bugün Satış");
                 out.put("value", "₺" + total.toPlainString());
                 out.put("detail", count + " satış");
             }
             case "week-sales" -> {
-                java.time.LocalDate from = today.minusDays(6);
-                BigDecimal sum = BigDecimal.ZERO;
-                int count = 0;
-                for (int i = 0; i < 7; i++) {
-                    java.time.LocalDate d = from.plusDays(i);
-                    sum = sum.add(appState.getSalesTotal(d));
-                    count += appState.getSalesOn(d).size();
-                }
+                model.SalesSummary sales = appState.getSalesSummary(today.minusDays(6), today);
+                BigDecimal sum = sales.amount();
+                int count = sales.count();
                 out.put("title", "Son 7 Gün");
                 out.put("value", "₺" + sum.toPlainString());
                 out.put("detail", count + " satış");
@@ -1380,16 +1511,12 @@ public class ApiServer {
         }
         // Son 30 günün her saati için ortalama sipariş adedi
         java.time.LocalDate today = java.time.LocalDate.now();
-        int[][] dayHourCount = new int[7][24];  // [hafta günü 0=Pzt..6=Pzr][saat]
+        // [hafta günü 0=Pzt..6=Pzr][saat] — rollup'tan tek sorgu (ham ödeme satırı okunmaz)
+        int[][] dayHourCount = appState.getWeekdayHourSalesCounts(today.minusDays(29), today);
         int[][] dayHourTotal = new int[7][24];
         for (int d = 0; d < 30; d++) {
             java.time.LocalDate day = today.minusDays(d);
             int dow = (day.getDayOfWeek().getValue() - 1) % 7;
-            for (state.SaleRecord s : appState.getSalesOn(day)) {
-                if (s.getTimestamp() == null) continue;
-                int h = s.getTimestamp().getHour();
-                dayHourCount[dow][h]++;
-            }
             for (int h = 0; h < 24; h++) {
                 dayHourTotal[dow][h] += 1;  // gün sayısı
             }
@@ -1413,6 +1540,33 @@ public class ApiServer {
         ctx.json(suggestions);
     }
 
+    /**
+     * POST /api/reports/rollup/rebuild?from=YYYY-MM-DD&to=YYYY-MM-DD — satış
+     * rollup'ını ham tablolardan yeniden hesaplar (geçmiş doldurma / düzeltme).
+     * {@code to} verilmezse {@code from} ile aynı gün.
+     */
+    private void rebuildSalesRollup(Context ctx) {
+        User user = requireUser(ctx);
+        if (user.getRole() != Role.ADMIN) {
+            ctx.status(403).json(Map.of("error", "Sadece Admin")); return;
+        }
+        String fromStr = ctx.queryParam("from");
+        String toStr = ctx.queryParam("to");
+        if (fromStr == null || fromStr.isBlank()) {
+            ctx.status(400).json(Map.of("error", "from gerekli")); return;
+        }
+        java.time.LocalDate from;
+        java.time.LocalDate to;
+        try {
+            from = java.time.LocalDate.parse(fromStr);
+            to = (toStr == null || toStr.isBlank()) ? from : java.time.LocalDate.parse(toStr);
+            appState.rebuildSalesRollups(from, to);
+        } catch (java.time.format.DateTimeParseException | IllegalArgumentException ex) {
+            ctx.status(400).json(Map.of("error", ex.getMessage())); return;
+        }
+        ctx.json(Map.of("ok", true, "from", from.toString(), "to", to.toString()));
+    }
+
     /** GET /api/reports/hourly?date=YYYY-MM-DD — 24 saatlik satış adedi + tutar */
     private void hourlyReport(Context ctx) {
         User user = requireUser(ctx);
@@ -1423,22 +1577,13 @@ public class ApiServer {
         String dateStr = ctx.queryParam("date");
         java.time.LocalDate date = (dateStr == null || dateStr.isBlank())
                 ? java.time.LocalDate.now() : java.time.LocalDate.parse(dateStr);
-        List<state.SaleRecord> sales = appState.getSalesOn(date);
-        int[] counts = new int[24];
-        BigDecimal[] amounts = new BigDecimal[24];
-        for (int i = 0; i < 24; i++) amounts[i] = BigDecimal.ZERO;
-        for (state.SaleRecord s : sales) {
-            if (s.getTimestamp() == null) continue;
-            int h = s.getTimestamp().getHour();
-            counts[h]++;
-            if (s.getTotal() != null) amounts[h] = amounts[h].add(s.getTotal());
-        }
+        List<model.SalesSummary> byHour = appState.getHourlySales(date);
         List<Map<String, Object>> hours = new java.util.ArrayList<>();
         for (int h = 0; h < 24; h++) {
             Map<String, Object> m = new java.util.HashMap<>();
             m.put("hour", h);
-            m.put("count", counts[h]);
-            m.put("amount", amounts[h]);
+            m.put("count", byHour.get(h).count());
+            m.put("amount", byHour.get(h).amount());
             hours.add(m);
         }
         ctx.json(Map.of("date", date.toString(), "hours", hours));
@@ -1456,11 +1601,7 @@ public class ApiServer {
             return;
         }
         List<Product> products = appState.getAllProductsIncludingInactive();
-        service.CategoryService categoryService = new service.CategoryService();
-        java.util.Map<Long, String> categoryNames = new java.util.HashMap<>();
-        for (model.Category c : categoryService.getAllCategories()) {
-            if (c != null && c.getId() != null) categoryNames.put(c.getId(), c.getName());
-        }
+        Map<Long, String> categoryNames = appState.getCategoryNames();
         List<Map<String, Object>> out = new java.util.ArrayList<>();
         for (Product p : products) {
             if (p == null) continue;
@@ -1576,9 +1717,101 @@ public class ApiServer {
         }
     }
 
+    /** GET /api/catalog/stats — katalog önbelleği sürüm + isabet/yükleme sayaçları (admin). */
+    private void catalogCacheStats(Context ctx) {
+        User user = requireUser(ctx);
+        if (user.getRole() != Role.ADMIN) {
+            ctx.status(403).json(Map.of("error", "Sadece Admin")); return;
+        }
+        service.CatalogCache.Stats stats = appState.getCatalogCacheStats();
+        Map<String, Object> resp = new HashMap<>();
+        resp.put("version", stats.version());
+        resp.put("hits", stats.hits());
+        resp.put("misses", stats.misses());
+        resp.put("invalidations", stats.invalidations());
+        resp.put("hitRatio", stats.hitRatio());
+        ctx.json(resp);
+    }
+
+    /** GET /api/print/queue — mutfak fişi yeniden deneme kuyruğu: yazıcı başına derinlik/yaş (admin). */
+    private void printQueueStats(Context ctx) {
+        User user = requireUser(ctx);
+        if (user.getRole() != Role.ADMIN) {
+            ctx.status(403).json(Map.of("error", "Sadece Admin")); return;
+        }
+        service.print.PrintQueueWorker.Stats stats = service.print.PrintingService.shared().retryStats();
+        Map<String, Object> resp = new HashMap<>();
+        resp.put("printed", stats.printed());
+        resp.put("failedAttempts", stats.failedAttempts());
+        resp.put("abandoned", stats.abandoned());
+        resp.put("skipped", stats.skipped());
+        resp.put("depth", stats.totalDepth());
+        resp.put("oldestAgeMs", stats.oldestAgeMillis());
+        List<Map<String, Object>> printers = new java.util.ArrayList<>();
+        for (service.print.PrintQueueWorker.QueueStats q : stats.queues()) {
+            Map<String, Object> m = new HashMap<>();
+            m.put("printerId", q.printerId());
+            m.put("code", q.printerCode());
+            m.put("depth", q.depth());
+            m.put("oldestAgeMs", q.oldestAgeMillis());
+            m.put("consecutiveFailures", q.consecutiveFailures());
+            m.put("nextAttemptInMs", q.nextAttemptInMillis());
+            printers.add(m);
+        }
+        resp.put("printers", printers);
+        ctx.json(resp);
+    }
+
+    /** GET /api/order-logs/stats — sipariş logu yazma kuyruğu: derinlik, gecikme, sayaçlar (admin). */
+    private void orderLogStats(Context ctx) {
+        User user = requireUser(ctx);
+        if (user.getRole() != Role.ADMIN) {
+            ctx.status(403).json(Map.of("error", "Sadece Admin")); return;
+        }
+        service.OrderLogService.Stats stats = appState.getOrderLogStats();
+        Map<String, Object> resp = new HashMap<>();
+        resp.put("depth", stats.depth());
+        resp.put("lagMs", stats.lagMillis());
+        resp.put("maxLagMs", stats.maxLagMillis());
+        resp.put("batches", stats.batches());
+        resp.put("written", stats.written());
+        resp.put("failed", stats.failed());
+        resp.put("blocked", stats.blocked());
+        resp.put("direct", stats.direct());
+        ctx.json(resp);
+    }
+
+    /** GET /api/print/printers — aktif mutfak yazıcılarının canlı durumu (admin). */
+    private void printerStatuses(Context ctx) {
+        User user = requireUser(ctx);
+        if (user.getRole() != Role.ADMIN) {
+            ctx.status(403).json(Map.of("error", "Sadece Admin")); return;
+        }
+        service.print.PrintingService printing = service.print.PrintingService.shared();
+        List<Map<String, Object>> out = new java.util.ArrayList<>();
+        for (model.KitchenPrinter p : appState.getAllKitchenPrinters()) {
+            if (p.getId() == null) continue;
+            service.print.PrinterStatus st = printing.printerStatus(p.getId().intValue());
+            Map<String, Object> m = new HashMap<>();
+            m.put("printerId", p.getId());
+            m.put("code", p.getCode());
+            m.put("name", p.getDisplayName());
+            m.put("host", p.getHost() + ":" + p.getPort());
+            m.put("fallbackPrinterId", p.getFallbackPrinterId());
+            m.put("keepAliveMs", p.getKeepAliveMs());
+            m.put("state", st.state().name());
+            m.put("label", st.state().label());
+            m.put("detail", st.detail());
+            m.put("checkedAt", st.checkedAt() == null ? null : st.checkedAt().toString());
+            out.add(m);
+        }
+        ctx.json(out);
+    }
+
     /** GET /api/categories — tüm kategoriler */
     private void listCategories(Context ctx) {
         requireUser(ctx);
+        if (conditionalGet.notModified(ctx, "c" + appState.getCatalogVersion())) return;
         List<model.Category> cats = appState.getAllCategories();
         List<Map<String, Object>> out = new java.util.ArrayList<>();
         for (model.Category c : cats) {
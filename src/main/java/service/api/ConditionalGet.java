@@ -0,0 +1,67 @@
+package service.api;
+
+import io.javalin.http.Context;
+
+/**
+ * Sürüm tabanlı koşullu GET (ETag / {@code If-None-Match} → 304).
+ *
+ * <p>Sürüm sayaçları bellekte tutulur (AppState masa sürümleri, katalog
+ * önbelleği); ETag'e süreç başlangıcına özgü bir önek eklenir ki yeniden
+ * başlatmadan önceki bir ETag yanlışlıkla eşleşmesin.
+ *
+ * <p>Sürüm, yanıt gövdesi üretilmeden ÖNCE okunmalıdır: arada bir değişiklik
+ * olursa gövde yeni, ETag eski olur ve sonraki istek tekrar indirir (tersi —
+ * eski gövde, yeni ETag — olamaz).
+ */
+public final class ConditionalGet {
+
+    private final String epoch;
+
+    public ConditionalGet() {
+        this(Long.toString(System.currentTimeMillis(), 36));
+    }
+
+    public ConditionalGet(String epoch) {
+        this.epoch = epoch;
+    }
+
+    /** Zayıf ETag: gövde JSON serileştirmesi bayt bayt garanti edilmez. */
+    public String etag(String version) {
+        return "W/\"" + epoch + "-" + version + "\"";
+    }
+
+    /**
+     * ETag ve Cache-Control başlıklarını yazar.
+     *
+     * @return {@code If-None-Match} eşleştiyse 304 yazılmıştır, handler dönmeli.
+     */
+    public boolean notModified(Context ctx, String version) {
+        String etag = etag(version);
+        ctx.header("ETag", etag);
+        ctx.header("Cache-Control", "private, no-cache");
+        if (matches(ctx.header("If-None-Match"), etag)) {
+            ctx.status(304);
+            return true;
+        }
+        return false;
+    }
+
+    /** {@code If-None-Match} listesi (virgülle ayrık ya da {@code *}) ETag'i içeriyor mu? */
+    public static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null || ifNoneMatch.isBlank()) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.equals("*") || weak(tag).equals(weak(etag))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** Zayıf karşılaştırma (RFC 9110 §8.8.3.2): {@code W/} öneki yok sayılır. */
+    private static String weak(String tag) {
+        return tag.startsWith("W/") ? tag.substring(2) : tag;
+    }
+}
@@ -0,0 +1,205 @@
+package service.api;
+
+import io.javalin.http.sse.SseClient;
+import model.Role;
+import model.User;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import state.AppState;
+
+import java.beans.PropertyChangeEvent;
+import java.beans.PropertyChangeListener;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code GET /api/events} SSE yayını.
+ *
+ * <p>AppState'in {@code PropertyChangeSupport} olaylarını ({@code tables},
+ * {@code sales}, {@code products}, {@code categories}) bağlı istemcilere
+ * iletir. Olaylar yalnızca "şu değişti" bilgisidir (masa no + sürüm); istemci
+ * ilgili GET'i ETag ile yeniden ister.
+ *
+ * <p>Filtreleme:
+ * <ul>
+ *   <li>Masa olayları yalnızca masanın alanına erişimi olan kullanıcıya gider.</li>
+ *   <li>Satış olayları yalnızca ADMIN/KASIYER'e gider ({@code /api/sales} ile aynı).</li>
+ * </ul>
+ *
+ * <p>Gönderim tek bir dispatcher thread'inde yapılır — mutasyonu yapan istek
+ * thread'i yavaş bir tablet yüzünden beklemez. Heartbeat, proxy zaman aşımını
+ * engeller ve süresi dolmuş/iptal edilmiş oturumların akışını kapatır.
+ */
+public final class EventHub implements PropertyChangeListener {
+
+    private static final Logger LOG = LoggerFactory.getLogger(EventHub.class);
+
+    private static final long HEARTBEAT_SECONDS = 15;
+    private static final int MAX_SUBSCRIBERS = 256;
+
+    private final AppState appState;
+    private final SessionStore sessions;
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+    private ExecutorService dispatcher;
+    private ScheduledExecutorService heartbeat;
+
+    public EventHub(AppState appState, SessionStore sessions) {
+        this.appState = appState;
+        this.sessions = sessions;
+    }
+
+    public synchronized void start() {
+        if (dispatcher != null) return;
+        dispatcher = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "sse-dispatch");
+            t.setDaemon(true);
+            return t;
+        });
+        heartbeat = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "sse-heartbeat");
+            t.setDaemon(true);
+            return t;
+        });
+        heartbeat.scheduleAtFixedRate(() -> dispatcher.execute(this::sendHeartbeats),
+                HEARTBEAT_SECONDS, HEARTBEAT_SECONDS, TimeUnit.SECONDS);
+        appState.addPropertyChangeListener(this);
+    }
+
+    public synchronized void shutdown() {
+        appState.removePropertyChangeListener(this);
+        if (heartbeat != null) {
+            heartbeat.shutdownNow();
+            heartbeat = null;
+        }
+        if (dispatcher != null) {
+            dispatcher.shutdownNow();
+            dispatcher = null;
+        }
+        for (Subscriber s : subscribers) {
+            s.client.close();
+        }
+        subscribers.clear();
+    }
+
+    /**
+     * Yeni akışı kaydeder. Limit aşılırsa akış hemen kapatılır; istemci
+     * polling'e düşer ve daha sonra yeniden bağlanır.
+     *
+     * @param token Bearer token (Basic auth ile bağlanıldıysa {@code null})
+     */
+    public void subscribe(SseClient client, User user, String token) {
+        if (subscribers.size() >= MAX_SUBSCRIBERS) {
+            LOG.warn("SSE abone limiti ({}) dolu, bağlantı reddedildi: user={}",
+                    MAX_SUBSCRIBERS, user.getUsername());
+            client.close();
+            return;
+        }
+        Subscriber subscriber = new Subscriber(client, user, token, accessibleTables(user));
+        client.keepAlive();
+        client.onClose(() -> subscribers.remove(subscriber));
+        subscribers.add(subscriber);
+        client.sendEvent("hello", "{\"floorVersion\":" + appState.getFloorVersion() + "}");
+    }
+
+    public int subscriberCount() {
+        return subscribers.size();
+    }
+
+    @Override
+    public void propertyChange(PropertyChangeEvent evt) {
+        ExecutorService d = dispatcher;
+        if (d == null || subscribers.isEmpty()) return;
+        String name = evt.getPropertyName();
+        Object value = evt.getNewValue();
+        try {
+            d.execute(() -> broadcast(name, value));
+        } catch (java.util.concurrent.RejectedExecutionException ignore) {
+            // kapanıyor
+        }
+    }
+
+    private void broadcast(String name, Object value) {
+        switch (name) {
+            case AppState.EVENT_TABLES -> {
+                int tableNo = value instanceof Integer n ? n : -1;
+                if (tableNo < 0) {
+                    // Tüm masalar / yetki değişimi — erişim kümelerini tazele
+                    for (Subscriber s : subscribers) {
+                        s.tables = accessibleTables(s.user);
+                    }
+                    send(s -> true, "tables", "{\"tableNo\":-1,\"version\":" + appState.getFloorVersion() + "}");
+                } else {
+                    send(s -> s.tables == null || s.tables.contains(tableNo), "tables",
+                            "{\"tableNo\":" + tableNo + ",\"version\":" + appState.getTableVersion(tableNo) + "}");
+                }
+            }
+            case AppState.EVENT_SALES -> send(Subscriber::seesSales, "sales", "{}");
+            case AppState.EVENT_PRODUCTS -> send(s -> true, "products",
+                    "{\"version\":" + appState.getCatalogVersion() + "}");
+            case AppState.EVENT_CATEGORIES -> send(s -> true, "categories",
+                    "{\"version\":" + appState.getCatalogVersion() + "}");
+            default -> { }
+        }
+    }
+
+    private void send(java.util.function.Predicate<Subscriber> filter, String event, String data) {
+        for (Subscriber s : subscribers) {
+            if (!filter.test(s)) continue;
+            if (s.client.terminated()) {
+                subscribers.remove(s);
+                continue;
+            }
+            s.client.sendEvent(event, data);
+        }
+    }
+
+    private void sendHeartbeats() {
+        for (Subscriber s : subscribers) {
+            if (s.client.terminated()) {
+                subscribers.remove(s);
+            } else if (s.token != null && !sessions.isActive(s.token)) {
+                // Oturum bitti (logout/idle) — akış da kapanır, istemci 401 alıp login'e döner
+                subscribers.remove(s);
+                s.client.close();
+            } else {
+                s.client.sendComment("ping");
+            }
+        }
+    }
+
+    /** {@code null} → tüm masalar (ADMIN/KASIYER). */
+    private Set<Integer> accessibleTables(User user) {
+        if (user.getRole() == Role.ADMIN || user.getRole() == Role.KASIYER) {
+            return null;
+        }
+        Set<Integer> out = new HashSet<>();
+        for (AppState.AreaDefinition area : appState.getAccessibleAreas(user)) {
+            out.addAll(area.getTableNumbers());
+        }
+        return out;
+    }
+
+    private static final class Subscriber {
+        final SseClient client;
+        final User user;
+        final String token;
+        volatile Set<Integer> tables;
+
+        Subscriber(SseClient client, User user, String token, Set<Integer> tables) {
+            this.client = client;
+            this.user = user;
+            this.token = token;
+            this.tables = tables;
+        }
+
+        boolean seesSales() {
+            return user.getRole() == Role.ADMIN || user.getRole() == Role.KASIYER;
+        }
+    }
+}
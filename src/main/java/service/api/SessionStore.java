@@ -110,6 +110,20 @@ public final class SessionStore {
         return java.util.Optional.of(s.user);
     }
 
+    /**
+     * Token hâlâ geçerli mi? {@link #lookup(String)}'tan farkı: idle sayacını
+     * SIFIRLAMAZ — açık bir SSE akışı oturumu yapay olarak canlı tutmasın diye
+     * periyodik kontrollerde kullanılır.
+     */
+    public boolean isActive(String token) {
+        if (token == null || token.isEmpty()) return false;
+        Session s = sessions.get(token);
+        if (s == null) return false;
+        long now = System.currentTimeMillis();
+        if (s.expiresAt < now) return false;
+        return idleTtlMillis <= 0 || (now - s.lastAccessAt) <= idleTtlMillis;
+    }
+
     /** Token'ı iptal et (logout). */
     public void revoke(String token) {
         if (token == null || token.isEmpty()) return;
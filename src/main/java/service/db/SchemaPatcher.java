@@ -37,6 +37,12 @@ public final class SchemaPatcher {
             dropProductsCheckConstraints(c);
             normalizeNegativeStock(c);
             ensureReservationsTable(c);
+            ensureChangeSeqTable(c);
+            ensureSalesRollupTables(c);
+            ensureReportingIndexes(c);
+            ensureOrderItemsUpsertKey(c);
+            ensureKitchenPrinterFallback(c);
+            ensureKitchenPrinterKeepAlive(c);
         } catch (SQLException ex) {
             LOG.warn("Schema patcher: bağlantı kurulamadı — {}", ex.getMessage());
         }
@@ -85,6 +91,262 @@ public final class SchemaPatcher {
         }
     }
 
+    /**
+     * AppState poller'ının artımlı okuduğu değişiklik günlüğü.
+     * <pre>
+     * CREATE TABLE IF NOT EXISTS change_seq (
+     *   seq         BIGINT      AUTO_INCREMENT PRIMARY KEY,
+     *   topic       VARCHAR(16) NOT NULL,   -- TABLE | SALE | EXPENSE
+     *   table_id    BIGINT,
+     *   entity_id   BIGINT,
+     *   origin      VARCHAR(40),            -- yazan uygulama örneği
+     *   created_at  DATETIME    DEFAULT CURRENT_TIMESTAMP
+     * )
+     * </pre>
+     * Günlük sadece "ne değişti" sinyalidir; 2 günden eski satırlar her
+     * açılışta budanır.
+     */
+    private static void ensureChangeSeqTable(Connection c) {
+        final String ddl =
+                "CREATE TABLE IF NOT EXISTS change_seq (" +
+                "  seq         BIGINT      AUTO_INCREMENT PRIMARY KEY," +
+                "  topic       VARCHAR(16) NOT NULL," +
+                "  table_id    BIGINT," +
+                "  entity_id   BIGINT," +
+                "  origin      VARCHAR(40)," +
+                "  created_at  DATETIME    DEFAULT CURRENT_TIMESTAMP," +
+                "  INDEX idx_change_seq_created (created_at)" +
+                ") ENGINE=InnoDB DEFAULT CHARSET=utf8mb4";
+        try (Statement st = c.createStatement()) {
+            st.executeUpdate(ddl);
+            int pruned = st.executeUpdate(
+                    "DELETE FROM change_seq WHERE created_at < NOW() - INTERVAL 2 DAY");
+            if (pruned > 0) {
+                LOG.info("Schema patch: change_seq tablosundan {} eski kayıt budandı", pruned);
+            }
+            LOG.info("Schema patch: change_seq tablosu hazır");
+            dao.jdbc.ChangeFeedJdbcDAO.resetAvailability();
+        } catch (SQLException ex) {
+            LOG.warn("change_seq tablosu oluşturulamadı: {}", ex.getMessage());
+        }
+    }
+
+    /**
+     * Raporların okuduğu önceden toplanmış satış tabloları.
+     * <pre>
+     * CREATE TABLE IF NOT EXISTS daily_sales_rollup (
+     *   sale_date   DATE          NOT NULL,
+     *   sale_hour   TINYINT       NOT NULL,   -- 0..23
+     *   method      VARCHAR(16)   NOT NULL,   -- payments.method ('' = bilinmiyor)
+     *   sale_count  INT           NOT NULL,   -- ödeme adedi
+     *   amount      DECIMAL(14,2) NOT NULL,
+     *   PRIMARY KEY (sale_date, sale_hour, method)
+     * )
+     * CREATE TABLE IF NOT EXISTS daily_product_rollup (
+     *   sale_date           DATE          NOT NULL,
+     *   product_name        VARCHAR(255)  NOT NULL,
+     *   unit_label          VARCHAR(32)   NOT NULL,
+     *   pieces_per_portion  INT           NOT NULL,
+     *   quantity            INT           NOT NULL,
+     *   amount              DECIMAL(14,2) NOT NULL,
+     *   PRIMARY KEY (sale_date, product_name, unit_label)
+     * )
+     * </pre>
+     * Satış kapanışında artımlı güncellenir; boşsa veya sapma şüphesi varsa
+     * {@code ReportsService.rebuildRollups} ile yeniden hesaplanır.
+     */
+    private static void ensureSalesRollupTables(Connection c) {
+        final String sales =
+                "CREATE TABLE IF NOT EXISTS daily_sales_rollup (" +
+                "  sale_date   DATE          NOT NULL," +
+                "  sale_hour   TINYINT       NOT NULL," +
+                "  method      VARCHAR(16)   NOT NULL DEFAULT ''," +
+                "  sale_count  INT           NOT NULL DEFAULT 0," +
+                "  amount      DECIMAL(14,2) NOT NULL DEFAULT 0," +
+                "  PRIMARY KEY (sale_date, sale_hour, method)" +
+                ") ENGINE=InnoDB DEFAULT CHARSET=utf8mb4";
+        final String products =
+                "CREATE TABLE IF NOT EXISTS daily_product_rollup (" +
+                "  sale_date           DATE          NOT NULL," +
+                "  product_name        VARCHAR(255)  NOT NULL," +
+                "  unit_label          VARCHAR(32)   NOT NULL DEFAULT ''," +
+                "  pieces_per_portion  INT           NOT NULL DEFAULT 0," +
+                "  quantity            INT           NOT NULL DEFAULT 0," +
+                "  amount              DECIMAL(14,2) NOT NULL DEFAULT 0," +
+                "  PRIMARY KEY (sale_date, product_name, unit_label)" +
+                ") ENGINE=InnoDB DEFAULT CHARSET=utf8mb4";
+        try (Statement st = c.createStatement()) {
+            st.executeUpdate(sales);
+            st.executeUpdate(products);
+            LOG.info("Schema patch: satış rollup tabloları hazır");
+        } catch (SQLException ex) {
+            LOG.warn("Satış rollup tabloları oluşturulamadı: {}", ex.getMessage());
+        }
+    }
+
+    /**
+     * Rapor ve masa sorgularının tarih/sipariş filtreleri için indeksler.
+     * Sorgular {@code DATE(col)} yerine yarı açık aralık ({@code col >= ? AND col < ?})
+     * kullanır; bu indeksler olmadan her gün sonu raporu tüm geçmişi tarar.
+     *
+     * <p>Aynı sütunlarla başlayan bir indeks zaten varsa (ör. FK indeksi)
+     * yenisi eklenmez.
+     */
+    private static void ensureReportingIndexes(Connection c) {
+        ensureIndex(c, "payments", "idx_payments_paid_at", "paid_at");
+        ensureIndex(c, "order_items", "idx_order_items_order", "order_id");
+        ensureIndex(c, "orders", "idx_orders_table_status", "table_id", "status");
+        ensureIndex(c, "expenses", "idx_expenses_date", "expense_date");
+        ensureIndex(c, "order_logs", "idx_order_logs_order_time", "order_id", "event_time");
+    }
+
+    /**
+     * {@code OrderItemsJdbcDAO.addOrIncrement}'in tek ifadelik upsert'i için
+     * kalem anahtarı.
+     * <pre>
+     * ALTER TABLE order_items
+     *   ADD COLUMN note_hash CHAR(32) AS (IF(note IS NULL OR note = '', '', MD5(note))) STORED NOT NULL;
+     * ALTER TABLE order_items
+     *   ADD UNIQUE KEY uk_order_items_line (order_id, product_id, note_hash);
+     * </pre>
+     * {@code note} sütunu yoksa {@code note_hash} sabit {@code ''} olur (her
+     * ürün tek satır — eski davranış). Aynı anahtarlı satırlar zaten varsa
+     * (eşzamanlı eklemeden kalan çift satırlar) anahtar eklenmez, uyarı
+     * loglanır; DAO anahtarsız yolda çalışmaya devam eder.
+     */
+    private static void ensureOrderItemsUpsertKey(Connection c) {
+        if (findExistingColumn(c, "order_items", new String[]{"id"}) == null) {
+            return;
+        }
+        if (findExistingColumn(c, "order_items", new String[]{"note_hash"}) == null) {
+            String column = findExistingColumn(c, "order_items", new String[]{"note"}) != null
+                    ? "note_hash CHAR(32) AS (IF(note IS NULL OR note = '', '', MD5(note))) STORED NOT NULL"
+                    : "note_hash CHAR(32) NOT NULL DEFAULT ''";
+            try (Statement st = c.createStatement()) {
+                st.executeUpdate("ALTER TABLE order_items ADD COLUMN " + column);
+                LOG.info("Schema patch: order_items.note_hash sütunu eklendi");
+            } catch (SQLException ex) {
+                LOG.warn("order_items.note_hash eklenemedi: {}", ex.getMessage());
+                return;
+            }
+        }
+        final String existing =
+                "SELECT COUNT(*) FROM information_schema.STATISTICS " +
+                "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'order_items' " +
+                "AND INDEX_NAME = 'uk_order_items_line'";
+        final String duplicates =
+                "SELECT COUNT(*) FROM (SELECT 1 FROM order_items " +
+                "GROUP BY order_id, product_id, note_hash HAVING COUNT(*) > 1) d";
+        try (Statement st = c.createStatement()) {
+            try (ResultSet rs = st.executeQuery(existing)) {
+                if (rs.next() && rs.getInt(1) > 0) return;
+            }
+            try (ResultSet rs = st.executeQuery(duplicates)) {
+                if (rs.next() && rs.getInt(1) > 0) {
+                    LOG.warn("order_items: {} ürün/not grubunda çift satır var — uk_order_items_line " +
+                            "eklenmedi, kalem ekleme UPDATE/INSERT yolunda kalır", rs.getInt(1));
+                    return;
+                }
+            }
+            st.executeUpdate("ALTER TABLE order_items ADD UNIQUE KEY uk_order_items_line " +
+                    "(order_id, product_id, note_hash)");
+            LOG.info("Schema patch: order_items(order_id, product_id, note_hash) UNIQUE anahtarı eklendi");
+        } catch (SQLException ex) {
+            LOG.warn("uk_order_items_line eklenemedi: {}", ex.getMessage());
+        }
+    }
+
+    /**
+     * Mutfak yazıcısı için yedek yazıcı sütunu.
+     * <pre>
+     * ALTER TABLE kitchen_printers
+     *   ADD COLUMN fallback_printer_id INT NULL,
+     *   ADD CONSTRAINT fk_kitchen_printers_fallback
+     *       FOREIGN KEY (fallback_printer_id) REFERENCES kitchen_printers(id) ON DELETE SET NULL
+     * </pre>
+     * Yedeğin de yedeği tanımlanabilir; {@code KitchenRouter} zinciri sırayla izler.
+     */
+    private static void ensureKitchenPrinterFallback(Connection c) {
+        if (findExistingColumn(c, "kitchen_printers", new String[]{"id"}) == null) {
+            return;   // tablo yok (mutfak yazıcısı kurulmamış)
+        }
+        if (findExistingColumn(c, "kitchen_printers", new String[]{"fallback_printer_id"}) != null) {
+            return;
+        }
+        try (Statement st = c.createStatement()) {
+            st.executeUpdate("ALTER TABLE kitchen_printers ADD COLUMN fallback_printer_id INT NULL");
+            LOG.info("Schema patch: kitchen_printers.fallback_printer_id sütunu eklendi");
+        } catch (SQLException ex) {
+            LOG.warn("kitchen_printers.fallback_printer_id eklenemedi: {}", ex.getMessage());
+            return;
+        }
+        try (Statement st = c.createStatement()) {
+            st.executeUpdate("ALTER TABLE kitchen_printers ADD CONSTRAINT fk_kitchen_printers_fallback " +
+                    "FOREIGN KEY (fallback_printer_id) REFERENCES kitchen_printers(id) ON DELETE SET NULL");
+        } catch (SQLException ex) {
+            LOG.debug("fk_kitchen_printers_fallback eklenemedi: {}", ex.getMessage());
+        }
+    }
+
+    /**
+     * Mutfak yazıcısı bağlantısını açık tutma süresi (opt-in).
+     * <pre>
+     * ALTER TABLE kitchen_printers ADD COLUMN keep_alive_ms INT NULL
+     * </pre>
+     * NULL → bağlantı her fişten sonra kapatılır ({@code TcpEscPosPrinter}).
+     */
+    private static void ensureKitchenPrinterKeepAlive(Connection c) {
+        if (findExistingColumn(c, "kitchen_printers", new String[]{"id"}) == null) {
+            return;
+        }
+        if (findExistingColumn(c, "kitchen_printers", new String[]{"keep_alive_ms"}) != null) {
+            return;
+        }
+        try (Statement st = c.createStatement()) {
+            st.executeUpdate("ALTER TABLE kitchen_printers ADD COLUMN keep_alive_ms INT NULL");
+            LOG.info("Schema patch: kitchen_printers.keep_alive_ms sütunu eklendi");
+        } catch (SQLException ex) {
+            LOG.warn("kitchen_printers.keep_alive_ms eklenemedi: {}", ex.getMessage());
+        }
+    }
+
+    private static void ensureIndex(Connection c, String table, String indexName, String... columns) {
+        final String sql =
+                "SELECT INDEX_NAME, SEQ_IN_INDEX, COLUMN_NAME FROM information_schema.STATISTICS " +
+                "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ? " +
+                "ORDER BY INDEX_NAME, SEQ_IN_INDEX";
+        java.util.Map<String, List<String>> indexes = new java.util.HashMap<>();
+        try (java.sql.PreparedStatement ps = c.prepareStatement(sql)) {
+            ps.setString(1, table);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    indexes.computeIfAbsent(rs.getString(1), k -> new ArrayList<>())
+                            .add(rs.getString(3).toLowerCase());
+                }
+            }
+        } catch (SQLException ex) {
+            LOG.debug("{} indeksleri okunamadı: {}", table, ex.getMessage());
+            return;
+        }
+        if (indexes.isEmpty()) {
+            // Tablo yok (veya hiç indeksi yok — PK'sız tablo beklemiyoruz)
+            return;
+        }
+        List<String> wanted = List.of(columns);
+        for (List<String> existing : indexes.values()) {
+            if (existing.size() >= wanted.size() && existing.subList(0, wanted.size()).equals(wanted)) {
+                return;
+            }
+        }
+        try (Statement st = c.createStatement()) {
+            st.executeUpdate("CREATE INDEX " + indexName + " ON " + table
+                    + " (" + String.join(", ", columns) + ")");
+            LOG.info("Schema patch: {}({}) indeksi eklendi", table, String.join(", ", columns));
+        } catch (SQLException ex) {
+            LOG.warn("{} indeksi eklenemedi: {}", indexName, ex.getMessage());
+        }
+    }
+
     /**
      * DB'de eski siparişlerden dolayı negatif kalmış stok değerlerini 0'a çeker.
      * Önce information_schema'dan mevcut sütun adını bulur (stock / stock_qty / quantity).
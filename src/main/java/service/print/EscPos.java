@@ -78,6 +78,19 @@ public final class EscPos {
     public static final byte[] CMD_CUT_FULL    = { GS, 'V', 0 };
     public static final byte[] CMD_CUT_PARTIAL = { GS, 'V', 1 };
 
+    // --- Gerçek zamanlı durum (DLE EOT n). Yazıcı tek bayt ile cevaplar. ---
+    public static final byte DLE = 0x10;
+    public static final byte EOT = 0x04;
+    /** n=1 yazıcı durumu (bit 3: çevrimdışı). */
+    public static final byte[] CMD_STATUS_PRINTER = { DLE, EOT, 1 };
+    /** n=4 kağıt sensörü (bit 2-3: kağıt azaldı, bit 5-6: kağıt bitti). */
+    public static final byte[] CMD_STATUS_PAPER   = { DLE, EOT, 4 };
+
+    /** Durum baytında sabit bitler: 0 ve 7 sıfır, 1 ve 4 bir. */
+    public static boolean isStatusByte(int b) {
+        return (b & 0x93) == 0x12;
+    }
+
     // --- Beeper (ESC B n t) — bazı modellerde ---
     public static byte[] beep(int count, int duration) {
         return new byte[] { ESC, 'B', (byte) count, (byte) duration };
@@ -2,22 +2,28 @@ package service.print;
 
 import dao.CategoryPrinterRouteDAO;
 import dao.KitchenPrinterDAO;
-import dao.ProductDAO;
 import dao.jdbc.CategoryPrinterRouteJdbcDAO;
 import dao.jdbc.KitchenPrinterJdbcDAO;
-import dao.jdbc.ProductJdbcDAO;
+import model.CategoryPrinterRoute;
 import model.KitchenPrinter;
 import model.OrderItem;
-import model.Product;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import service.CatalogCache;
 
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
 
 /**
  * Bir siparişin kalemlerini ürün kategorilerine göre gruplayıp,
@@ -31,47 +37,135 @@ import java.util.Optional;
  *
  * <p>Çoklu yönlendirme destekli: aynı kategori birden fazla yazıcıya
  * düşebilir (örn. hem hazırlık hem servis için).
+ *
+ * <p>Yedek yazıcı: hedef yazıcı pasifse ya da sağlık kontrolünü geçemiyorsa
+ * {@code fallback_printer_id} zinciri sırayla izlenir ve ilk sağlıklı yazıcı
+ * seçilir ({@link Route#reroutedFrom()} asıl yazıcıyı taşır). Zincirde
+ * sağlıklı yazıcı yoksa ilk aktif yazıcıda kalınır — fiş orada kuyruğa düşer.
+ *
+ * <p>Yönlendirme tablosu (kategori → yazıcı id'leri, yazıcılar) tek seferde
+ * {@code findAll} ile okunan değişmez bir görüntüdür; ürün → kategori
+ * {@link CatalogCache}'ten gelir. Böylece {@link #route} DB'ye gitmez.
+ * Eşleştirme ya da yazıcı tanımı değişince {@link #invalidate()} çağrılır;
+ * yeni görüntü sonraki yönlendirmede yüklenip tek atamayla yerine konur.
+ * Başka terminalde yapılan değişiklikler en geç {@link #DEFAULT_MAX_AGE}
+ * sonra görülür.
  */
 public class KitchenRouter {
 
     private static final Logger LOG = LoggerFactory.getLogger(KitchenRouter.class);
 
+    /** Zincirde izlenecek en fazla yedek (yanlış tanımlı döngülere karşı). */
+    private static final int MAX_FALLBACK_HOPS = 8;
+
+    /** Yönlendirme görüntüsünün en fazla yaşı (çoklu terminal). */
+    public static final Duration DEFAULT_MAX_AGE = Duration.ofSeconds(60);
+
+    private static class Holder {
+        private static final KitchenRouter INSTANCE = new KitchenRouter();
+    }
+
+    /** Uygulama genelinde paylaşılan örnek (PrintingService, AppState). */
+    public static KitchenRouter getInstance() {
+        return Holder.INSTANCE;
+    }
+
     private final KitchenPrinterDAO printerDAO;
     private final CategoryPrinterRouteDAO routeDAO;
-    private final ProductDAO productDAO;
+    private final CatalogCache catalog;
+    private final long maxAgeNanos;
+    private final AtomicLong version = new AtomicLong(1);
+    private final Object loadLock = new Object();
+    private volatile RoutingTable table;
 
     public KitchenRouter() {
-        this(new KitchenPrinterJdbcDAO(), new CategoryPrinterRouteJdbcDAO(), new ProductJdbcDAO());
+        this(new KitchenPrinterJdbcDAO(), new CategoryPrinterRouteJdbcDAO(), CatalogCache.getInstance());
     }
 
     public KitchenRouter(KitchenPrinterDAO printerDAO,
                          CategoryPrinterRouteDAO routeDAO,
-                         ProductDAO productDAO) {
-        this.printerDAO = printerDAO;
-        this.routeDAO = routeDAO;
-        this.productDAO = productDAO;
+                         CatalogCache catalog) {
+        this(printerDAO, routeDAO, catalog, DEFAULT_MAX_AGE);
+    }
+
+    public KitchenRouter(KitchenPrinterDAO printerDAO,
+                         CategoryPrinterRouteDAO routeDAO,
+                         CatalogCache catalog,
+                         Duration maxAge) {
+        this.printerDAO = Objects.requireNonNull(printerDAO, "printerDAO");
+        this.routeDAO = Objects.requireNonNull(routeDAO, "routeDAO");
+        this.catalog = Objects.requireNonNull(catalog, "catalog");
+        this.maxAgeNanos = Objects.requireNonNull(maxAge, "maxAge").toNanos();
+    }
+
+    /** Sonraki yönlendirme tabloyu DB'den yeniden yükler. */
+    public void invalidate() {
+        version.incrementAndGet();
+    }
+
+    public long version() {
+        return version.get();
+    }
+
+    /**
+     * Bir fişin gideceği yazıcı.
+     *
+     * @param target       fişin basılacağı yazıcı
+     * @param reroutedFrom yedeğe düşüldüyse asıl yazıcı; aksi halde {@code null}
+     */
+    public record Route(KitchenPrinter target, KitchenPrinter reroutedFrom) {
+        public boolean isRerouted() {
+            return reroutedFrom != null;
+        }
     }
 
     /**
-     * Verilen sipariş kalemlerini yazıcı bazında gruplar.
+     * Verilen sipariş kalemlerini yazıcı bazında gruplar. Sağlık bilgisi
+     * kullanılmaz; yalnız pasif yazıcılar yedeğe düşer.
      *
      * @return  yazıcı → o yazıcıya basılacak kalemler (LinkedHashMap — sıra korunur)
      */
     public Map<KitchenPrinter, List<OrderItem>> routeItems(List<OrderItem> items) {
         Map<KitchenPrinter, List<OrderItem>> grouped = new LinkedHashMap<>();
+        for (Map.Entry<Route, List<OrderItem>> e : route(items, p -> true).entrySet()) {
+            List<OrderItem> list = grouped.get(e.getKey().target());
+            if (list == null) {
+                grouped.put(e.getKey().target(), e.getValue());
+                continue;
+            }
+            for (OrderItem item : e.getValue()) {
+                // asıl ve yedek rota aynı yazıcıya düşebilir — kalem bir kez
+                if (list.stream().noneMatch(x -> x == item)) list.add(item);
+            }
+        }
+        return grouped;
+    }
+
+    /**
+     * Kalemleri fiş bazında gruplar; {@code healthy} kontrolünü geçemeyen
+     * yazıcının kalemleri yedek zincirindeki ilk sağlıklı yazıcıya ayrı bir
+     * fiş olarak yönlendirilir.
+     *
+     * @param healthy yazıcı şu an fiş basabilir mi (ör. son yoklama sonucu)
+     * @return  rota → o fişe basılacak kalemler (LinkedHashMap — sıra korunur)
+     */
+    public Map<Route, List<OrderItem>> route(List<OrderItem> items, Predicate<KitchenPrinter> healthy) {
+        Map<Route, List<OrderItem>> grouped = new LinkedHashMap<>();
         if (items == null || items.isEmpty()) return grouped;
 
-        // Cache'ler: aynı kategori/yazıcı tekrar tekrar sorulmasın
-        Map<Long, List<KitchenPrinter>> catCache = new HashMap<>();
-        Map<Integer, KitchenPrinter> printerCache = new HashMap<>();
+        RoutingTable t = current();
+        // Çağrı içi: sağlık kontrolü her yazıcı için bir kez
+        Map<Long, List<Route>> catCache = new HashMap<>();
+        Map<Integer, Optional<Route>> routeCache = new HashMap<>();
 
         for (OrderItem item : items) {
             // 1) ÖNCELİK: Garson manuel mutfak seçtiyse onu kullan.
             if (item.getKitchenOverrideId() != null) {
                 Integer pid = item.getKitchenOverrideId();
-                KitchenPrinter pr = resolveActivePrinter(pid, printerCache);
-                if (pr != null) {
-                    grouped.computeIfAbsent(pr, k -> new ArrayList<>()).add(item);
+                Route r = routeCache.computeIfAbsent(pid,
+                        id -> resolveRoute(t, id, healthy)).orElse(null);
+                if (r != null) {
+                    grouped.computeIfAbsent(r, k -> new ArrayList<>()).add(item);
                     continue;
                 }
                 LOG.warn("Override yazıcı {} pasif/bulunamadı; kategori default'una düşülüyor", pid);
@@ -84,45 +178,140 @@ public class KitchenRouter {
                 continue;
             }
 
-            List<KitchenPrinter> targets = catCache.computeIfAbsent(categoryId,
-                    cid -> resolvePrintersForCategory(cid, printerCache));
+            List<Route> targets = catCache.computeIfAbsent(categoryId,
+                    cid -> resolveRoutesForCategory(t, cid, healthy, routeCache));
 
             if (targets.isEmpty()) {
                 LOG.warn("Kategori {} için aktif yazıcı yok, kalem atlandı: item={}", categoryId, item);
                 continue;
             }
 
-            for (KitchenPrinter p : targets) {
-                grouped.computeIfAbsent(p, k -> new ArrayList<>()).add(item);
+            for (Route r : targets) {
+                grouped.computeIfAbsent(r, k -> new ArrayList<>()).add(item);
             }
         }
         return grouped;
     }
 
-    private List<KitchenPrinter> resolvePrintersForCategory(
-            Long categoryId, Map<Integer, KitchenPrinter> printerCache) {
-        List<Integer> ids = routeDAO.findPrinterIdsByCategory(categoryId);
-        List<KitchenPrinter> printers = new ArrayList<>(ids.size());
+    private List<Route> resolveRoutesForCategory(RoutingTable t,
+                                                 Long categoryId,
+                                                 Predicate<KitchenPrinter> healthy,
+                                                 Map<Integer, Optional<Route>> routeCache) {
+        List<Integer> ids = t.printerIdsByCategory.getOrDefault(categoryId, List.of());
+        Set<Route> routes = new LinkedHashSet<>(ids.size());
         for (Integer pid : ids) {
-            KitchenPrinter pr = resolveActivePrinter(pid, printerCache);
-            if (pr != null) printers.add(pr);
+            routeCache.computeIfAbsent(pid, id -> resolveRoute(t, id, healthy))
+                    .ifPresent(routes::add);
+        }
+        return new ArrayList<>(routes);
+    }
+
+    /**
+     * Tek bir yazıcının güncel rotası (yedek zinciri dahil) — gönderim
+     * sırasında yazıcı düşünce ve yeniden denemelerde kullanılır.
+     *
+     * @return yazıcı tanımsızsa ya da zincirde aktif yazıcı yoksa boş
+     */
+    public Optional<Route> resolveRoute(Integer printerId, Predicate<KitchenPrinter> healthy) {
+        if (printerId == null) return Optional.empty();
+        return resolveRoute(current(), printerId, healthy);
+    }
+
+    /**
+     * Yazıcıdan başlayıp yedek zincirini izler: ilk aktif ve sağlıklı yazıcı;
+     * hiçbiri sağlıklı değilse ilk aktif yazıcı; hiç aktif yoksa boş.
+     */
+    private Optional<Route> resolveRoute(RoutingTable t,
+                                         Integer printerId,
+                                         Predicate<KitchenPrinter> healthy) {
+        KitchenPrinter primary = t.printersById.get(printerId);
+        if (primary == null) return Optional.empty();
+
+        KitchenPrinter firstActive = null;
+        Set<Integer> visited = new HashSet<>();
+        KitchenPrinter current = primary;
+        Integer currentId = printerId;
+        for (int hop = 0; current != null && hop <= MAX_FALLBACK_HOPS && visited.add(currentId); hop++) {
+            if (current.isActive()) {
+                if (healthy.test(current)) {
+                    if (current != primary) {
+                        LOG.warn("Yazıcı {} kullanılamıyor, fiş yedek yazıcı {}'e yönlendirildi", primary, current);
+                    }
+                    return Optional.of(new Route(current, current == primary ? null : primary));
+                }
+                if (firstActive == null) firstActive = current;
+            }
+            currentId = current.getFallbackPrinterId();
+            current = currentId == null ? null : t.printersById.get(currentId);
         }
-        return printers;
+        if (firstActive == null) return Optional.empty();
+        return Optional.of(new Route(firstActive, firstActive == primary ? null : primary));
     }
 
-    private KitchenPrinter resolveActivePrinter(Integer printerId,
-                                                 Map<Integer, KitchenPrinter> printerCache) {
-        if (!printerCache.containsKey(printerId)) {
-            printerCache.put(printerId, printerDAO.findById(printerId).orElse(null));
+    private RoutingTable current() {
+        RoutingTable t = table;
+        if (isFresh(t)) return t;
+        synchronized (loadLock) {
+            t = table;
+            if (isFresh(t)) return t;
+            // Sürüm yüklemeden ÖNCE okunur (bkz. CatalogCache)
+            long v = version.get();
+            RoutingTable loaded;
+            try {
+                loaded = new RoutingTable(v, System.nanoTime(),
+                        routeDAO.findAll(), printerDAO.findAll(0, Integer.MAX_VALUE));
+            } catch (RuntimeException e) {
+                if (t == null) throw e;
+                LOG.warn("Yönlendirme tablosu yenilenemedi, önceki görüntü kullanılıyor: {}", e.getMessage());
+                return t;
+            }
+            table = loaded;
+            LOG.debug("Yönlendirme tablosu yüklendi: sürüm={}, {} kategori, {} yazıcı",
+                    v, loaded.printerIdsByCategory.size(), loaded.printersById.size());
+            return loaded;
         }
-        KitchenPrinter printer = printerCache.get(printerId);
-        return printer != null && printer.isActive() ? printer : null;
     }
 
-    /** Order kaleminden kategori ID'sini çözer (Product tablosu üzerinden). */
+    private boolean isFresh(RoutingTable t) {
+        return t != null
+                && t.version == version.get()
+                && System.nanoTime() - t.loadedAtNanos < maxAgeNanos;
+    }
+
+    /** Order kaleminden kategori ID'sini çözer (katalog önbelleği üzerinden). */
     private Long resolveCategoryId(OrderItem item) {
-        if (item.getProductId() == null) return null;
-        Optional<Product> prod = productDAO.findById(item.getProductId());
-        return prod.map(Product::getCategoryId).orElse(null);
+        return catalog.findCategoryIdOfProduct(item.getProductId());
+    }
+
+    /** Bir yüklemenin değişmez yönlendirme görüntüsü. */
+    private static final class RoutingTable {
+        final long version;
+        final long loadedAtNanos;
+        /** Kategori → yazıcı id'leri (eşleştirme sırasıyla). */
+        final Map<Long, List<Integer>> printerIdsByCategory;
+        /** Tüm yazıcılar (pasif dahil — yedek zinciri pasiften geçebilir). */
+        final Map<Integer, KitchenPrinter> printersById;
+
+        RoutingTable(long version, long loadedAtNanos,
+                     List<CategoryPrinterRoute> routes, List<KitchenPrinter> printers) {
+            this.version = version;
+            this.loadedAtNanos = loadedAtNanos;
+
+            Map<Long, List<Integer>> byCategory = new HashMap<>();
+            for (CategoryPrinterRoute r : routes) {
+                if (r == null || r.getCategoryId() == null || r.getPrinterId() == null) continue;
+                List<Integer> ids = byCategory.computeIfAbsent(r.getCategoryId(), k -> new ArrayList<>());
+                if (!ids.contains(r.getPrinterId())) ids.add(r.getPrinterId());
+            }
+            Map<Long, List<Integer>> frozen = new HashMap<>(byCategory.size());
+            byCategory.forEach((k, v) -> frozen.put(k, List.copyOf(v)));
+            this.printerIdsByCategory = Map.copyOf(frozen);
+
+            Map<Integer, KitchenPrinter> byId = new HashMap<>();
+            for (KitchenPrinter p : printers) {
+                if (p != null && p.getId() != null) byId.put(Math.toIntExact(p.getId()), p);
+            }
+            this.printersById = Map.copyOf(byId);
+        }
     }
 }
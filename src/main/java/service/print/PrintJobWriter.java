@@ -0,0 +1,158 @@
+package service.print;
+
+import dao.PrintJobDAO;
+import model.PrintJob;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * {@code print_jobs} kayıtlarını arka planda toplu yazar.
+ *
+ * <p>Tek bir arka plan thread'i kuyruğu boşaltır: o an bekleyen tüm işler
+ * (bir siparişin bütün mutfak fişleri, aynı anda gelen başka masaların
+ * fişleri) tek {@link PrintJobDAO#enqueueAll} çağrısıyla, tek transaction'da
+ * yazılır. Her iş için dönen future, kayıt DB'ye düştüğünde id ile tamamlanır.
+ *
+ * <p>Çağıran fişi ancak future tamamlandıktan sonra basar — "önce kayıt,
+ * sonra baskı" garantisi korunur; değişen yalnız kaydın çağıran thread'de
+ * değil, toplu ve paralel yazılmasıdır.
+ *
+ * <p>Çağıran beklemeyi bırakıp future'ı iptal edebilir; iptal edilen iş
+ * yazılmaz. Yazıcı thread'i işi batch'e aldıktan sonra iptal başarısız olur
+ * ({@code cancel} {@code false} döner): kayıt yazılacaktır ve future'ı
+ * bekleyen baskı görevi fişi yine basar. Böylece "kaydedilemedi" denen fiş
+ * sonradan basılmaz, kaydedilen fiş de kaybolmaz.
+ */
+final class PrintJobWriter {
+
+    private static final Logger LOG = LoggerFactory.getLogger(PrintJobWriter.class);
+
+    /** Tek batch'e alınacak en fazla gönderim (her biri bir siparişin fişleri). */
+    static final int MAX_GROUPS = 32;
+
+    private final PrintJobDAO printJobDAO;
+    private final BlockingQueue<List<Pending>> queue = new LinkedBlockingQueue<>();
+    private Thread thread;   // this ile korunur
+
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder written = new LongAdder();
+
+    PrintJobWriter(PrintJobDAO printJobDAO) {
+        this.printJobDAO = Objects.requireNonNull(printJobDAO, "printJobDAO");
+    }
+
+    /**
+     * İşleri yazma kuyruğuna ekler; aynı çağrının işleri aynı batch'e düşer.
+     *
+     * @return her iş için, kayıt yazılınca {@code job} (id atanmış) ile,
+     *         yazılamazsa hatayla tamamlanan future — verilen sırayla
+     */
+    List<CompletableFuture<PrintJob>> submitAll(List<PrintJob> jobs) {
+        List<Pending> group = new ArrayList<>(jobs.size());
+        List<CompletableFuture<PrintJob>> futures = new ArrayList<>(jobs.size());
+        for (PrintJob job : jobs) {
+            Pending p = new Pending(job, new RecordFuture());
+            group.add(p);
+            futures.add(p.future);
+        }
+        if (!group.isEmpty()) {
+            queue.add(group);
+            ensureStarted();
+        }
+        return futures;
+    }
+
+    /** Toplam batch ve yazılan iş sayısı (teşhis için). */
+    long batchCount()   { return batches.sum(); }
+    long writtenCount() { return written.sum(); }
+
+    synchronized void shutdown() {
+        if (thread != null) {
+            thread.interrupt();
+            thread = null;
+        }
+    }
+
+    private synchronized void ensureStarted() {
+        if (thread != null) return;
+        thread = new Thread(this::run, "print-job-writer");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private void run() {
+        List<List<Pending>> groups = new ArrayList<>(MAX_GROUPS);
+        List<Pending> batch = new ArrayList<>();
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                groups.add(queue.take());
+                queue.drainTo(groups, MAX_GROUPS - 1);
+                for (List<Pending> g : groups) batch.addAll(g);
+                groups.clear();
+                write(batch);
+                batch.clear();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            // Kapanırken bekleyenleri asılı bırakma
+            queue.drainTo(groups);
+            for (List<Pending> g : groups) batch.addAll(g);
+            for (Pending p : batch) {
+                p.future.completeExceptionally(new IllegalStateException("Baskı kaydı yazıcısı kapandı"));
+            }
+        }
+    }
+
+    private void write(List<Pending> batch) {
+        batch.removeIf(p -> !p.future.claim());
+        if (batch.isEmpty()) return;
+        List<PrintJob> jobs = new ArrayList<>(batch.size());
+        for (Pending p : batch) jobs.add(p.job);
+        List<Long> ids;
+        try {
+            ids = printJobDAO.enqueueAll(jobs);
+        } catch (RuntimeException e) {
+            LOG.error("{} baskı işi kaydedilemedi", batch.size(), e);
+            for (Pending p : batch) p.future.completeExceptionally(e);
+            return;
+        }
+        batches.increment();
+        written.add(batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+            Pending p = batch.get(i);
+            p.job.setId(ids.get(i));
+            p.future.complete(p.job);
+        }
+    }
+
+    private record Pending(PrintJob job, RecordFuture future) {}
+
+    /** Yazıcı thread'i işi üstlendikten ({@link #claim}) sonra iptal edilemeyen kayıt future'ı. */
+    private static final class RecordFuture extends CompletableFuture<PrintJob> {
+        private static final int OPEN = 0, CLAIMED = 1, WITHDRAWN = 2;
+        private final AtomicInteger state = new AtomicInteger(OPEN);
+
+        /** Yazıcı thread'i: iş iptal edilmediyse üstlenir. */
+        boolean claim() {
+            return state.compareAndSet(OPEN, CLAIMED);
+        }
+
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            if (!state.compareAndSet(OPEN, WITHDRAWN)) {
+                return isCancelled();
+            }
+            return super.cancel(mayInterruptIfRunning);
+        }
+    }
+}
@@ -0,0 +1,473 @@
+package service.print;
+
+import dao.KitchenPrinterDAO;
+import dao.PrintJobDAO;
+import model.KitchenPrinter;
+import model.PrintJob;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * {@code print_jobs} tablosunda kalan mutfak fişlerini arka planda yeniden basar.
+ *
+ * <p>Her {@link KitchenPrinter} için ayrı, sıralı bir kuyruk tutulur: aynı
+ * yazıcının fişleri gönderim sırasıyla basılır, kapalı bir yazıcı diğerlerini
+ * bekletmez. Başarısız denemeden sonra o yazıcının kuyruğu üstel geri çekilme
+ * ile bekler ({@code baseDelay·2^n}, üst sınır {@code maxDelay}); yazıcı geri
+ * geldiğinde kuyruk kendiliğinden boşalır.
+ *
+ * <p>Kuyruk asıl mutfak yazıcısına aittir; her denemede rota yeniden çözülür
+ * ({@code routes}) — asıl yazıcı hâlâ kapalıysa fiş o anki sağlıklı yedeğe
+ * "YEDEK" başlığıyla basılır, geri geldiyse asıl yazıcıya.
+ *
+ * <p>Kurallar:
+ * <ul>
+ *   <li>Her başarısız deneme {@code markFailed} ile {@code attempts}'i artırır;
+ *       {@code maxAttempts}'e ulaşan iş bırakılır (FAILED kalır, elle yeniden basılabilir).</li>
+ *   <li>Basmadan önce kayıt tekrar okunur — başka bir yoldan PRINTED olduysa
+ *       tekrar basılmaz. {@code markPrinted} de idempotenttir.</li>
+ *   <li>{@link #start()} bir kurtarma turu çalıştırır: uygulama kapanmadan önce
+ *       basılamamış işler {@code findPending} ile kuyruğa geri döner.</li>
+ * </ul>
+ *
+ * <p>NOT: Kurtarma turu tek terminal varsayar; aynı DB'ye bağlı birden fazla
+ * kasada worker açıksa açılışta aynı FAILED iş iki kez basılabilir.
+ */
+public class PrintQueueWorker {
+
+    private static final Logger LOG = LoggerFactory.getLogger(PrintQueueWorker.class);
+
+    public static final int DEFAULT_MAX_ATTEMPTS = 15;
+    public static final Duration DEFAULT_BASE_DELAY = Duration.ofSeconds(2);
+    public static final Duration DEFAULT_MAX_DELAY = Duration.ofSeconds(60);
+
+    /** Açılıştaki kurtarma turunda okunacak en fazla iş. */
+    private static final int RECOVERY_BATCH = 500;
+
+    private final PrintJobDAO printJobDAO;
+    private final KitchenPrinterDAO printerDAO;
+    private final Function<KitchenPrinter, ReceiptPrinter> printers;
+    private final Function<KitchenPrinter, KitchenRouter.Route> routes;
+    private final int maxAttempts;
+    private final long baseDelayMs;
+    private final long maxDelayMs;
+
+    private final Map<Integer, PrinterQueue> queues = new ConcurrentHashMap<>();
+    private final Set<Long> queuedJobIds = ConcurrentHashMap.newKeySet();
+    private volatile ScheduledExecutorService scheduler;
+    private volatile LocalDateTime startedAt;
+
+    private final LongAdder printed = new LongAdder();
+    private final LongAdder failedAttempts = new LongAdder();
+    private final LongAdder abandoned = new LongAdder();
+    private final LongAdder skipped = new LongAdder();
+
+    public PrintQueueWorker(PrintJobDAO printJobDAO,
+                            KitchenPrinterDAO printerDAO,
+                            Function<KitchenPrinter, ReceiptPrinter> printers) {
+        this(printJobDAO, printerDAO, printers, p -> new KitchenRouter.Route(p, null));
+    }
+
+    public PrintQueueWorker(PrintJobDAO printJobDAO,
+                            KitchenPrinterDAO printerDAO,
+                            Function<KitchenPrinter, ReceiptPrinter> printers,
+                            Function<KitchenPrinter, KitchenRouter.Route> routes) {
+        this(printJobDAO, printerDAO, printers, routes,
+                DEFAULT_MAX_ATTEMPTS, DEFAULT_BASE_DELAY, DEFAULT_MAX_DELAY);
+    }
+
+    public PrintQueueWorker(PrintJobDAO printJobDAO,
+                            KitchenPrinterDAO printerDAO,
+                            Function<KitchenPrinter, ReceiptPrinter> printers,
+                            int maxAttempts,
+                            Duration baseDelay,
+                            Duration maxDelay) {
+        this(printJobDAO, printerDAO, printers, p -> new KitchenRouter.Route(p, null),
+                maxAttempts, baseDelay, maxDelay);
+    }
+
+    public PrintQueueWorker(PrintJobDAO printJobDAO,
+                            KitchenPrinterDAO printerDAO,
+                            Function<KitchenPrinter, ReceiptPrinter> printers,
+                            Function<KitchenPrinter, KitchenRouter.Route> routes,
+                            int maxAttempts,
+                            Duration baseDelay,
+                            Duration maxDelay) {
+        if (maxAttempts < 1) {
+            throw new IllegalArgumentException("maxAttempts >= 1 olmalı");
+        }
+        this.printJobDAO = Objects.requireNonNull(printJobDAO, "printJobDAO");
+        this.printerDAO = Objects.requireNonNull(printerDAO, "printerDAO");
+        this.printers = Objects.requireNonNull(printers, "printers");
+        this.routes = Objects.requireNonNull(routes, "routes");
+        this.maxAttempts = maxAttempts;
+        this.baseDelayMs = Math.max(1, Objects.requireNonNull(baseDelay, "baseDelay").toMillis());
+        this.maxDelayMs = Math.max(baseDelayMs, Objects.requireNonNull(maxDelay, "maxDelay").toMillis());
+    }
+
+    /** Worker thread'lerini açar ve kurtarma turunu arka planda başlatır. */
+    public synchronized void start() {
+        if (scheduler != null) return;
+        startedAt = LocalDateTime.now();
+        scheduler = Executors.newScheduledThreadPool(2, r -> {
+            Thread t = new Thread(r, "print-retry");
+            t.setDaemon(true);
+            return t;
+        });
+        // start'tan önce kuyruğa düşmüş işler
+        for (PrinterQueue q : queues.values()) {
+            kick(q);
+        }
+        scheduler.execute(this::recoverPending);
+    }
+
+    public synchronized void shutdown() {
+        ScheduledExecutorService s = scheduler;
+        scheduler = null;
+        if (s != null) {
+            s.shutdownNow();
+        }
+        for (PrinterQueue q : queues.values()) {
+            synchronized (q) {
+                q.draining = false;
+            }
+        }
+    }
+
+    /**
+     * Başarısız bir işi yazıcısının kuyruğuna ekler.
+     *
+     * @return iş kuyruğa alındıysa {@code true}; zaten kuyruktaysa, deneme
+     *         hakkı bittiyse veya yazıcı bilinmiyorsa {@code false}
+     */
+    public boolean submit(PrintJob job, KitchenPrinter target) {
+        if (job == null || job.getId() == null || target == null || target.getId() == null) {
+            return false;
+        }
+        if (job.getAttempts() >= maxAttempts) {
+            LOG.warn("İş {} deneme hakkını doldurmuş ({}), kuyruğa alınmadı", job.getId(), job.getAttempts());
+            return false;
+        }
+        if (!queuedJobIds.add(job.getId())) {
+            return false;
+        }
+        PrinterQueue q = queues.computeIfAbsent(Math.toIntExact(target.getId()), PrinterQueue::new);
+        synchronized (q) {
+            q.printer = target;
+            q.jobs.addLast(new QueuedJob(job.getId(), job.getPayload(), enqueuedAtMillis(job), job.getAttempts()));
+        }
+        kick(q);
+        return true;
+    }
+
+    /**
+     * {@code findPending} ile kalıcı kuyruğu tarar; bellekte olmayan ve
+     * deneme hakkı kalan işleri yazıcı kuyruklarına ekler. Worker
+     * başladıktan sonra oluşan işler atlanır — onlar hâlâ ilk gönderimdedir.
+     *
+     * @return kuyruğa alınan iş sayısı
+     */
+    public int recoverPending() {
+        List<PrintJob> pending;
+        try {
+            pending = printJobDAO.findPending(RECOVERY_BATCH);
+        } catch (RuntimeException e) {
+            LOG.warn("Bekleyen baskı işleri okunamadı, kurtarma atlandı: {}", e.getMessage());
+            return 0;
+        }
+        LocalDateTime cutoff = startedAt;
+        Map<Integer, Optional<KitchenPrinter>> printerCache = new HashMap<>();
+        int recovered = 0;
+        for (PrintJob job : pending) {
+            if (job.getPrinterId() == null || job.getAttempts() >= maxAttempts) continue;
+            if (cutoff != null && job.getCreatedAt() != null && job.getCreatedAt().isAfter(cutoff)) continue;
+            KitchenPrinter printer = printerCache
+                    .computeIfAbsent(job.getPrinterId(), this::lookupPrinter)
+                    .orElse(null);
+            if (printer == null || !printer.isActive()) {
+                LOG.warn("İş {} için yazıcı {} pasif/bulunamadı, kurtarılmadı", job.getId(), job.getPrinterId());
+                continue;
+            }
+            if (submit(job, printer)) recovered++;
+        }
+        if (recovered > 0) {
+            LOG.info("{} bekleyen baskı işi yeniden kuyruğa alındı", recovered);
+        }
+        return recovered;
+    }
+
+    /** Tüm kuyruklardaki toplam iş sayısı. */
+    public int depth() {
+        int total = 0;
+        for (PrinterQueue q : queues.values()) {
+            synchronized (q) {
+                total += q.jobs.size();
+            }
+        }
+        return total;
+    }
+
+    public Stats stats() {
+        long now = System.currentTimeMillis();
+        List<QueueStats> perPrinter = new ArrayList<>();
+        for (PrinterQueue q : queues.values()) {
+            synchronized (q) {
+                QueuedJob head = q.jobs.peekFirst();
+                perPrinter.add(new QueueStats(
+                        q.printerId,
+                        q.printer == null ? null : q.printer.getCode(),
+                        q.jobs.size(),
+                        head == null ? 0 : Math.max(0, now - head.enqueuedAtMillis),
+                        q.consecutiveFailures,
+                        q.jobs.isEmpty() ? 0 : Math.max(0, q.nextAttemptAtMillis - now)));
+            }
+        }
+        perPrinter.sort((a, b) -> Integer.compare(a.printerId(), b.printerId()));
+        return new Stats(printed.sum(), failedAttempts.sum(), abandoned.sum(), skipped.sum(), perPrinter);
+    }
+
+    // ---- kuyruk işleme ----
+
+    /** Kuyrukta iş varsa ve işleyen yoksa, geri çekilme süresi sonunda drain zamanlar. */
+    private void kick(PrinterQueue q) {
+        long delay;
+        synchronized (q) {
+            if (q.draining || q.jobs.isEmpty()) return;
+            q.draining = true;
+            // İlk gönderim az önce başarısız oldu — hemen tekrar denemenin anlamı yok
+            delay = Math.max(baseDelayMs, q.nextAttemptAtMillis - System.currentTimeMillis());
+        }
+        schedule(q, delay);
+    }
+
+    private void schedule(PrinterQueue q, long delayMs) {
+        ScheduledExecutorService s = scheduler;
+        if (s != null) {
+            try {
+                s.schedule(() -> drain(q), delayMs, TimeUnit.MILLISECONDS);
+                return;
+            } catch (RejectedExecutionException ignore) {
+                // kapanıyor
+            }
+        }
+        synchronized (q) {
+            q.draining = false;   // start() tekrar zamanlar
+        }
+    }
+
+    private void drain(PrinterQueue q) {
+        while (scheduler != null) {
+            QueuedJob head;
+            KitchenPrinter target;
+            synchronized (q) {
+                head = q.jobs.peekFirst();
+                if (head == null) {
+                    q.draining = false;
+                    return;
+                }
+                target = q.printer;
+            }
+
+            Outcome outcome = attempt(head, target);
+
+            long delay;
+            synchronized (q) {
+                if (outcome == Outcome.DONE || outcome == Outcome.DROPPED) {
+                    removeHead(q, head);
+                    if (outcome == Outcome.DONE) {
+                        q.consecutiveFailures = 0;
+                        q.nextAttemptAtMillis = 0;
+                    }
+                    continue;
+                }
+                if (outcome == Outcome.FAILED) {
+                    head.attempts++;
+                    if (head.attempts >= maxAttempts) {
+                        removeHead(q, head);
+                        abandoned.increment();
+                        LOG.error("Baskı işi {} {} denemede basılamadı, bırakıldı (yazıcı {})",
+                                head.jobId, head.attempts, q.printerId);
+                    }
+                }
+                q.consecutiveFailures++;
+                delay = backoffMillis(q.consecutiveFailures);
+                q.nextAttemptAtMillis = System.currentTimeMillis() + delay;
+                if (q.jobs.isEmpty()) {
+                    q.draining = false;
+                    return;
+                }
+            }
+            schedule(q, delay);
+            return;
+        }
+        synchronized (q) {
+            q.draining = false;
+        }
+    }
+
+    private Outcome attempt(QueuedJob job, KitchenPrinter target) {
+        Optional<PrintJob> current;
+        try {
+            current = printJobDAO.findById(job.jobId);
+        } catch (RuntimeException e) {
+            LOG.warn("Baskı işi {} okunamadı, sonra denenecek: {}", job.jobId, e.getMessage());
+            return Outcome.DEFERRED;
+        }
+        if (current.isEmpty() || current.get().getStatus() == PrintJob.PrintJobStatus.PRINTED) {
+            skipped.increment();
+            return Outcome.DONE;
+        }
+
+        Receipt receipt;
+        try {
+            receipt = ReceiptCodec.decode(job.payload);
+        } catch (RuntimeException e) {
+            LOG.error("Baskı işi {} payload'ı çözülemedi, bırakıldı", job.jobId, e);
+            markFailedQuietly(job.jobId, "Bozuk payload: " + e.getMessage());
+            abandoned.increment();
+            return Outcome.DROPPED;
+        }
+
+        KitchenPrinter printTo = target;
+        try {
+            KitchenRouter.Route route = routes.apply(target);
+            if (route != null && route.isRerouted()) {
+                printTo = route.target();
+                receipt = PrintingService.asBackup(receipt, target);
+            }
+        } catch (RuntimeException e) {
+            LOG.warn("İş {} için rota çözülemedi, asıl yazıcı denenecek: {}", job.jobId, e.getMessage());
+        }
+
+        try {
+            printers.apply(printTo).print(receipt);
+        } catch (PrinterException | RuntimeException e) {
+            failedAttempts.increment();
+            LOG.warn("Yeniden deneme başarısız: iş={}, yazıcı={} — {}", job.jobId, printTo, e.getMessage());
+            markFailedQuietly(job.jobId, e.getMessage());
+            return Outcome.FAILED;
+        }
+
+        printed.increment();
+        try {
+            printJobDAO.markPrinted(job.jobId);
+        } catch (RuntimeException e) {
+            // Fiş çıktı; tekrar basmak mükerrer sipariş demek — kuyruktan düş
+            LOG.warn("Baskı işi {} basıldı ama PRINTED işaretlenemedi: {}", job.jobId, e.getMessage());
+        }
+        LOG.info("Baskı işi {} yeniden denemede basıldı ({})", job.jobId, printTo);
+        return Outcome.DONE;
+    }
+
+    private void removeHead(PrinterQueue q, QueuedJob head) {
+        q.jobs.pollFirst();
+        queuedJobIds.remove(head.jobId);
+    }
+
+    private void markFailedQuietly(long jobId, String message) {
+        try {
+            printJobDAO.markFailed(jobId, message);
+        } catch (RuntimeException e) {
+            LOG.warn("Baskı işi {} FAILED işaretlenemedi: {}", jobId, e.getMessage());
+        }
+    }
+
+    private long backoffMillis(int failures) {
+        int shift = Math.min(Math.max(failures - 1, 0), 20);
+        return Math.min(maxDelayMs, baseDelayMs << shift);
+    }
+
+    private Optional<KitchenPrinter> lookupPrinter(Integer printerId) {
+        try {
+            return printerDAO.findById(printerId);
+        } catch (RuntimeException e) {
+            LOG.warn("Yazıcı {} okunamadı: {}", printerId, e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    private static long enqueuedAtMillis(PrintJob job) {
+        LocalDateTime created = job.getCreatedAt();
+        return created == null
+                ? System.currentTimeMillis()
+                : created.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private enum Outcome {
+        /** Basıldı ya da artık gerekmiyor. */
+        DONE,
+        /** Yazıcı hatası — deneme sayıldı. */
+        FAILED,
+        /** DB okunamadı — deneme sayılmadan geri çekil. */
+        DEFERRED,
+        /** Basılamaz iş (bozuk payload) — kuyruktan düş. */
+        DROPPED
+    }
+
+    private static final class PrinterQueue {
+        final int printerId;
+        final Deque<QueuedJob> jobs = new ArrayDeque<>();
+        KitchenPrinter printer;
+        boolean draining;            // drain zamanlanmış ya da çalışıyor
+        int consecutiveFailures;
+        long nextAttemptAtMillis;
+
+        PrinterQueue(int printerId) {
+            this.printerId = printerId;
+        }
+    }
+
+    private static final class QueuedJob {
+        final long jobId;
+        final String payload;
+        final long enqueuedAtMillis;
+        int attempts;
+
+        QueuedJob(long jobId, String payload, long enqueuedAtMillis, int attempts) {
+            this.jobId = jobId;
+            this.payload = payload;
+            this.enqueuedAtMillis = enqueuedAtMillis;
+            this.attempts = attempts;
+        }
+    }
+
+    /** Yazıcı başına kuyruk durumu: derinlik, en eski işin yaşı, ardışık hata sayısı. */
+    public record QueueStats(int printerId, String printerCode, int depth, long oldestAgeMillis,
+                             int consecutiveFailures, long nextAttemptInMillis) {}
+
+    /** Worker sayaçları + yazıcı bazında kuyruklar. */
+    public record Stats(long printed, long failedAttempts, long abandoned, long skipped,
+                        List<QueueStats> queues) {
+        public int totalDepth() {
+            int total = 0;
+            for (QueueStats q : queues) total += q.depth();
+            return total;
+        }
+
+        public long oldestAgeMillis() {
+            long max = 0;
+            for (QueueStats q : queues) max = Math.max(max, q.oldestAgeMillis());
+            return max;
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package service.print;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Bir mutfak yazıcısının son bilinen durumu.
+ *
+ * <p>Sağlık yoklaması (ESC/POS {@code DLE EOT}) ve her baskının sonucu ile
+ * güncellenir. {@link State#OFFLINE} yazıcıya yeni fiş doğrudan gönderilmez;
+ * yeniden deneme kuyruğuna bırakılır.
+ *
+ * @param state     durum
+ * @param detail    kullanıcıya gösterilecek açıklama (opsiyonel)
+ * @param checkedAt durumun tespit edildiği an; {@link State#UNKNOWN} için {@code null}
+ */
+public record PrinterStatus(State state, String detail, LocalDateTime checkedAt) {
+
+    public enum State {
+        UNKNOWN("Bilinmiyor"),
+        ONLINE("Çevrimiçi"),
+        PAPER_LOW("Kağıt azaldı"),
+        NEEDS_ATTENTION("Müdahale gerekli"),
+        OFFLINE("Çevrimdışı");
+
+        private final String label;
+
+        State(String label) {
+            this.label = label;
+        }
+
+        public String label() {
+            return label;
+        }
+    }
+
+    private static final PrinterStatus UNKNOWN = new PrinterStatus(State.UNKNOWN, null, null);
+
+    public static PrinterStatus unknown() {
+        return UNKNOWN;
+    }
+
+    public static PrinterStatus of(State state, String detail) {
+        return new PrinterStatus(state, detail, LocalDateTime.now());
+    }
+
+    /**
+     * {@code DLE EOT 1} (yazıcı) ve {@code DLE EOT 4} (kağıt sensörü)
+     * cevaplarından durumu çıkarır.
+     */
+    static PrinterStatus fromStatusBytes(int printerByte, int paperByte) {
+        if ((paperByte & 0x60) != 0) {
+            return of(State.NEEDS_ATTENTION, "Kağıt bitti");
+        }
+        if ((printerByte & 0x08) != 0) {
+            return of(State.NEEDS_ATTENTION, "Yazıcı hazır değil (kapak açık / hata)");
+        }
+        if ((paperByte & 0x0C) != 0) {
+            return of(State.PAPER_LOW, "Kağıt azaldı");
+        }
+        return of(State.ONLINE, null);
+    }
+
+    public boolean isOffline() {
+        return state == State.OFFLINE;
+    }
+
+    /** Durum {@code maxAge}'den eski değilse {@code true}. */
+    public boolean isFresh(Duration maxAge) {
+        return checkedAt != null && checkedAt.isAfter(LocalDateTime.now().minus(maxAge));
+    }
+
+    @Override
+    public String toString() {
+        return detail == null ? state.label() : state.label() + " — " + detail;
+    }
+}
@@ -1,8 +1,8 @@
 package service.print;
 
-import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
+import dao.KitchenPrinterDAO;
 import dao.PrintJobDAO;
+import dao.jdbc.KitchenPrinterJdbcDAO;
 import dao.jdbc.PrintJobJdbcDAO;
 import model.KitchenPrinter;
 import model.OrderItem;
@@ -10,13 +10,28 @@ import model.PrintJob;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionService;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 /**
  * Mutfak fişi gönderiminin yüksek seviye orkestrasyonu.
@@ -24,37 +39,209 @@ import java.util.concurrent.ConcurrentHashMap;
  * <p>Akış:
  * <ol>
  *   <li>{@link KitchenRouter} ile kalemler yazıcı bazında gruplanır.</li>
- *   <li>Her grup için {@link Receipt} hazırlanır.</li>
- *   <li>Yazıcının {@code host}/{@code port}'una göre runtime'da
- *       {@link TcpEscPosPrinter} cache'lenip çağrılır.</li>
- *   <li>Başarısız her gönderim {@code print_jobs} tablosuna düşer
- *       (yeniden deneme için).</li>
+ *   <li>Her grup için {@link Receipt} hazırlanır; {@code print_jobs} kaydı
+ *       ({@link ReceiptCodec}) arka planda toplu yazılır, fiş kaydı düştükten
+ *       sonra basılır.</li>
+ *   <li>Yazıcılara <b>paralel</b> (sanal thread başına bir yazıcı) gönderilir;
+ *       çağıran en fazla {@link #DEFAULT_FAN_OUT_DEADLINE} kadar bekler.
+ *       Süreyi aşan yazıcının gönderimi arka planda sürer.</li>
+ *   <li>Başarısız her gönderim {@code print_jobs} tablosunda FAILED kalır ve
+ *       {@link PrintQueueWorker} kuyruğuna verilir (arka planda yeniden deneme).</li>
  * </ol>
  *
+ * <p>Sağlık izleme: aktif yazıcılar {@link #HEALTH_PROBE_INTERVAL} aralıkla
+ * yoklanır ({@link ReceiptPrinter#probe()}); son durum {@link #printerStatus(int)}
+ * ile okunur. Çevrimdışı ya da müdahale bekleyen yazıcının fişleri yedek
+ * yazıcısına ({@link KitchenPrinter#getFallbackPrinterId()}) "YEDEK" başlığıyla
+ * yönlendirilir; sağlıklı yedek yoksa çevrimdışı yazıcıya fiş doğrudan
+ * gönderilmez, yeniden deneme kuyruğuna bırakılır. Yazıcı gönderim sırasında
+ * hata verirse aynı gönderimde zincirdeki sıradaki sağlıklı yedek denenir.
+ *
+ * <p>{@code print_jobs} kaydı asıl mutfak yazıcısına ve asıl başlıkla yazılır;
+ * "YEDEK" başlığı basım anında eklenir. Yeniden denemeler de rotayı her
+ * seferinde yeniden çözer — asıl yazıcı geri geldiyse fiş oraya basılır.
+ *
  * <p>Bu sınıf <b>thread-safe</b>: yazıcı önbelleği {@code ConcurrentHashMap}.
  */
 public class PrintingService {
 
     private static final Logger LOG = LoggerFactory.getLogger(PrintingService.class);
-    private static final Gson GSON = new GsonBuilder().setPrettyPrinting().create();
+
+    /** Tüm mutfaklara gönderimde çağıranın en fazla bekleyeceği süre. */
+    public static final Duration DEFAULT_FAN_OUT_DEADLINE = Duration.ofSeconds(2);
+
+    /** Aktif yazıcıların yoklanma aralığı. */
+    public static final Duration HEALTH_PROBE_INTERVAL = Duration.ofSeconds(15);
+    /** Bundan eski "çevrimdışı" bilgisi yönlendirmede dikkate alınmaz. */
+    private static final Duration OFFLINE_STATUS_MAX_AGE = HEALTH_PROBE_INTERVAL.multipliedBy(2);
+    /** Bir yoklama turunun en fazla süresi (bağlantı zaman aşımı + iki durum okuma). */
+    private static final long PROBE_ROUND_TIMEOUT_MS = TcpEscPosPrinter.DEFAULT_CONNECT_TIMEOUT_MS
+            + 2L * TcpEscPosPrinter.STATUS_TIMEOUT_MS + 500;
+
+    private static volatile PrintingService shared;
 
     private final KitchenRouter router;
     private final PrintJobDAO printJobDAO;
+    /** Sağlık yoklaması için aktif yazıcı listesi; {@code null} → izleme yok. */
+    private final KitchenPrinterDAO printerDAO;
     private final Map<Integer, ReceiptPrinter> printerCache = new ConcurrentHashMap<>();
+    private final Map<Integer, PrinterStatus> printerStatuses = new ConcurrentHashMap<>();
+    private ScheduledExecutorService healthMonitor;   // this ile korunur
 
     /** Test/DI için: önceden hazırlanmış yazıcı ataması. */
     private final Map<Integer, ReceiptPrinter> printerOverride;
 
+    /** Başarısız fişlerin yeniden deneme kuyruğu; {@code null} → yeniden deneme yok. */
+    private final PrintQueueWorker retryQueue;
+
+    /** {@code print_jobs} kayıtlarını toplu yazar. */
+    private final PrintJobWriter jobWriter;
+
+    /** Yazıcı başına bir sanal thread — yavaş/kapalı yazıcı diğerlerini bekletmez. */
+    private final ExecutorService fanOut =
+            Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("kitchen-print-", 0).factory());
+    private volatile Duration fanOutDeadline = DEFAULT_FAN_OUT_DEADLINE;
+
+    /**
+     * Uygulama genelinde tek örnek; ilk çağrıda yeniden deneme worker'ı
+     * (açılışta kalan FAILED işler kurtarılır) ve sağlık izleme de başlar.
+     */
+    public static PrintingService shared() {
+        PrintingService local = shared;
+        if (local == null) {
+            synchronized (PrintingService.class) {
+                local = shared;
+                if (local == null) {
+                    local = new PrintingService();
+                    local.startRetryWorker();
+                    local.startHealthMonitor();
+                    shared = local;
+                }
+            }
+        }
+        return local;
+    }
+
     public PrintingService() {
-        this(new KitchenRouter(), new PrintJobJdbcDAO(), null);
+        this(KitchenRouter.getInstance(), new PrintJobJdbcDAO(), new KitchenPrinterJdbcDAO(), null);
+    }
+
+    public PrintingService(KitchenRouter router,
+                           PrintJobDAO printJobDAO,
+                           Map<Integer, ReceiptPrinter> printerOverride) {
+        this.router = router;
+        this.printJobDAO = printJobDAO;
+        this.printerOverride = printerOverride;
+        this.printerDAO = null;
+        this.retryQueue = null;
+        this.jobWriter = new PrintJobWriter(printJobDAO);
     }
 
     public PrintingService(KitchenRouter router,
                            PrintJobDAO printJobDAO,
+                           KitchenPrinterDAO printerDAO,
                            Map<Integer, ReceiptPrinter> printerOverride) {
         this.router = router;
         this.printJobDAO = printJobDAO;
         this.printerOverride = printerOverride;
+        this.printerDAO = printerDAO;
+        this.retryQueue = new PrintQueueWorker(printJobDAO, printerDAO, this::resolvePrinter, this::currentRoute);
+        this.jobWriter = new PrintJobWriter(printJobDAO);
+    }
+
+    /** Yeniden deneme worker'ını başlatır (varsa). */
+    public void startRetryWorker() {
+        if (retryQueue != null) retryQueue.start();
+    }
+
+    public void stopRetryWorker() {
+        if (retryQueue != null) retryQueue.shutdown();
+    }
+
+    /** Aktif yazıcıları periyodik yoklamaya başlar (yazıcı DAO'su yoksa no-op). */
+    public synchronized void startHealthMonitor() {
+        if (printerDAO == null || healthMonitor != null) return;
+        healthMonitor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "printer-health");
+            t.setDaemon(true);
+            return t;
+        });
+        healthMonitor.scheduleWithFixedDelay(this::refreshPrinterStatuses,
+                1_000, HEALTH_PROBE_INTERVAL.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    public synchronized void stopHealthMonitor() {
+        if (healthMonitor != null) {
+            healthMonitor.shutdownNow();
+            healthMonitor = null;
+        }
+    }
+
+    /**
+     * Aktif yazıcıların hepsini paralel yoklar ve durumlarını yayınlar.
+     * Kapalı bir yazıcının bağlantı zaman aşımı diğerlerini geciktirmez.
+     */
+    public void refreshPrinterStatuses() {
+        if (printerDAO == null) return;
+        List<KitchenPrinter> active;
+        try {
+            active = printerDAO.findActive();
+        } catch (RuntimeException e) {
+            LOG.warn("Yazıcı listesi okunamadı, yoklama atlandı: {}", e.getMessage());
+            return;
+        }
+        Set<Integer> activeIds = new HashSet<>();
+        List<Future<?>> probes = new ArrayList<>(active.size());
+        for (KitchenPrinter target : active) {
+            if (target.getId() == null) continue;
+            activeIds.add(printerId(target));
+            probes.add(fanOut.submit(() -> publishStatus(target, resolvePrinter(target).probe())));
+        }
+        printerStatuses.keySet().retainAll(activeIds);
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(PROBE_ROUND_TIMEOUT_MS);
+        for (Future<?> probe : probes) {
+            try {
+                probe.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (ExecutionException | TimeoutException e) {
+                // tek yazıcının yoklaması diğerlerini bekletmez
+            }
+        }
+    }
+
+    /** Yazıcının son bilinen durumu; hiç yoklanmadıysa UNKNOWN. */
+    public PrinterStatus printerStatus(int printerId) {
+        return printerStatuses.getOrDefault(printerId, PrinterStatus.unknown());
+    }
+
+    /** Yazıcı id → son bilinen durum (kopya). */
+    public Map<Integer, PrinterStatus> printerStatuses() {
+        return Map.copyOf(printerStatuses);
+    }
+
+    /**
+     * Yönlendirmede kullanılan sağlık kontrolü: son yoklamada çevrimdışı ya da
+     * müdahale gerektiren yazıcı (kağıt bitti, kapak açık) sağlıksız sayılır.
+     * Eski ya da hiç alınmamış durum engel değildir.
+     */
+    boolean isHealthy(KitchenPrinter target) {
+        if (target.getId() == null) return true;
+        PrinterStatus status = printerStatus(printerId(target));
+        if (!status.isFresh(OFFLINE_STATUS_MAX_AGE)) return true;
+        return status.state() != PrinterStatus.State.OFFLINE
+                && status.state() != PrinterStatus.State.NEEDS_ATTENTION;
+    }
+
+    /** Paralel gönderimde çağıranın bekleyeceği en uzun süre. */
+    public void setFanOutDeadline(Duration deadline) {
+        this.fanOutDeadline = Objects.requireNonNull(deadline, "deadline");
+    }
+
+    /** Yeniden deneme kuyruğunun durumu; worker yoksa {@code null}. */
+    public PrintQueueWorker.Stats retryStats() {
+        return retryQueue == null ? null : retryQueue.stats();
     }
 
     /**
@@ -68,7 +255,11 @@ public class PrintingService {
      * </ul>
      * Bu sayede her mutfak müşterinin tüm siparişini görüp koordine olabilir.
      *
-     * @return  raporlanmak üzere her hedef için sonuç (başarılı/başarısız).
+     * <p>Yazıcılar paralel çağrılır; süre ({@link #setFanOutDeadline}) dolduğunda
+     * yanıt vermeyen yazıcılar {@link PrintResult#queued} olarak döner — gönderim
+     * arka planda sürer, başarısız olursa yeniden deneme kuyruğuna düşer.
+     *
+     * @return  raporlanmak üzere her hedef için sonuç, yönlendirme sırasıyla.
      */
     public List<PrintResult> sendOrderToKitchens(long orderId,
                                                  String salonName,
@@ -76,17 +267,19 @@ public class PrintingService {
                                                  String waiterName,
                                                  String orderNote,
                                                  List<OrderItem> items) {
-        Map<KitchenPrinter, List<OrderItem>> grouped = router.routeItems(items);
+        Map<KitchenRouter.Route, List<OrderItem>> grouped = router.route(items, this::isHealthy);
         if (grouped.isEmpty()) {
             LOG.warn("Sipariş {} için hiçbir yazıcı yönlendirmesi bulunamadı", orderId);
             return List.of();
         }
 
-        List<PrintResult> results = new ArrayList<>();
+        List<KitchenRouter.Route> routes = new ArrayList<>(grouped.size());
+        List<Receipt> receipts = new ArrayList<>(grouped.size());
         LocalDateTime now = LocalDateTime.now();
 
-        for (Map.Entry<KitchenPrinter, List<OrderItem>> entry : grouped.entrySet()) {
-            KitchenPrinter target = entry.getKey();
+        for (Map.Entry<KitchenRouter.Route, List<OrderItem>> entry : grouped.entrySet()) {
+            KitchenRouter.Route route = entry.getKey();
+            KitchenPrinter kitchen = primaryOf(route);
             List<OrderItem> myItems = entry.getValue();
 
             // O mutfağın yapacağı productId kümesi → hızlı kontrol
@@ -107,8 +300,9 @@ public class PrintingService {
                 ));
             }
 
+            // Fiş asıl mutfağın başlığıyla kaydedilir; yedeğe düşerse basımda işaretlenir
             Receipt receipt = new Receipt(
-                    "*** " + safe(target.getDisplayName()).toUpperCase() + " ***",
+                    "*** " + safe(kitchen.getDisplayName()).toUpperCase() + " ***",
                     salonName,
                     tableNo,
                     waiterName,
@@ -118,40 +312,245 @@ public class PrintingService {
                     orderId
             );
 
-            PrintResult result = printOne(target, receipt);
-            results.add(result);
+            routes.add(route);
+            receipts.add(receipt);
+        }
+        return fanOut(routes, receipts);
+    }
+
+    /**
+     * İşleri toplu kayıt kuyruğuna verir ({@link PrintJobWriter}), baskıları
+     * paralel başlatıp sonuçları bitiş sırasıyla toplar. Her görev fişi kendi
+     * kaydı DB'ye düştükten sonra basar. Süre dolunca bekleyenler için
+     * {@link PrintResult#queued} döner; o görevler kendi sonuçlarını DB'ye yazar.
+     * Kaydı hâlâ düşmemiş fiş için en fazla bir süre daha beklenir; o da
+     * dolarsa kayıt iptal edilir ve fiş basılmaz. Kayıt o an yazılıyorsa iptal
+     * edilemez: fiş kayıt düşünce basılır ve kuyrukta sayılır. Çağıran toplamda
+     * en fazla iki {@link #setFanOutDeadline süre} bekler.
+     */
+    private List<PrintResult> fanOut(List<KitchenRouter.Route> routes, List<Receipt> receipts) {
+        int n = routes.size();
+        PrintResult[] results = new PrintResult[n];
+        CompletionService<Slot> completion = new ExecutorCompletionService<>(fanOut);
+        List<PrintJob> jobs = new ArrayList<>(n);
+        List<CompletableFuture<PrintJob>> writes = new ArrayList<>(n);
+        try {
+            for (int i = 0; i < n; i++) {
+                jobs.add(newJob(primaryOf(routes.get(i)), receipts.get(i)));
+            }
+            writes.addAll(jobWriter.submitAll(jobs));    // tüm fişler tek batch'te
+        } catch (RuntimeException e) {
+            LOG.error("Baskı işleri hazırlanamadı", e);
+            for (int i = 0; i < n; i++) results[i] = PrintResult.fail(routes.get(i).target(), null, e.getMessage());
+            return Arrays.asList(results);
+        }
+        int running = 0;
+        for (int i = 0; i < n; i++) {
+            KitchenRouter.Route route = routes.get(i);
+            Receipt receipt = receipts.get(i);
+            CompletableFuture<PrintJob> write = writes.get(i);
+            int index = i;
+            completion.submit(() -> new Slot(index, sendWhenRecorded(route, receipt, write)));
+            running++;
+        }
+
+        long deadline = System.nanoTime() + fanOutDeadline.toNanos();
+        try {
+            while (running > 0) {
+                long left = deadline - System.nanoTime();
+                Future<Slot> next = left > 0 ? completion.poll(left, TimeUnit.NANOSECONDS) : null;
+                if (next == null) break;
+                running--;
+                try {
+                    Slot slot = next.get();
+                    results[slot.index] = slot.result;
+                } catch (ExecutionException e) {
+                    LOG.error("Mutfak gönderimi beklenmedik şekilde sonlandı", e.getCause());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        long recordDeadline = System.nanoTime() + fanOutDeadline.toNanos();
+        for (int i = 0; i < n; i++) {
+            if (results[i] != null) continue;
+            KitchenPrinter target = routes.get(i).target();
+            CompletableFuture<PrintJob> write = writes.get(i);
+            // Kayıt henüz düşmediyse onu bekle — baskı değil — ama sınırlı.
+            // Kaydı olmayan fiş "kuyrukta" sayılmaz.
+            PrintJob job = awaitRecord(write, recordDeadline);
+            if (job == null && !write.isCompletedExceptionally()) {
+                // İptal edilemedi: kayıt yazılıyor, baskı görevi kayıt düşünce basar
+                LOG.warn("Yazıcı {} için baskı işi kaydı gecikiyor, fiş kayıttan sonra basılacak", target);
+                results[i] = PrintResult.queued(target, null, "Kayıt gecikiyor — fiş kaydedilince basılacak");
+                continue;
+            }
+            if (job == null) {
+                LOG.warn("Yazıcı {} için baskı işi kaydedilemedi, fiş gönderilmedi", target);
+                results[i] = PrintResult.fail(target, null, "Baskı işi kaydedilemedi");
+                continue;
+            }
+            LOG.warn("Yazıcı {} {} ms içinde yanıt vermedi, gönderim arka planda sürüyor (iş {})",
+                    target, fanOutDeadline.toMillis(), job.getId());
+            results[i] = PrintResult.queued(target, job.getId(),
+                    "Yazıcı yanıt vermedi — arka planda deneniyor");
+        }
+        return Arrays.asList(results);
+    }
+
+    /**
+     * Kaydı en fazla {@code deadlineNanos}'a kadar bekler; süre dolarsa (ya da
+     * çağıran kesilirse) kaydı iptal etmeyi dener — iptal edilen işi yazıcı
+     * thread'i yazmaz, baskı görevi de basmaz (bkz. {@link PrintJobWriter}).
+     *
+     * @return kaydedilmiş iş; henüz yoksa {@code null} — iptal edildiyse ya da
+     *         yazılamadıysa {@code write} hatayla, o an yazılıyorsa hiç tamamlanmamış
+     */
+    private static PrintJob awaitRecord(CompletableFuture<PrintJob> write, long deadlineNanos) {
+        try {
+            return write.get(Math.max(0, deadlineNanos - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException | InterruptedException e) {
+            if (e instanceof InterruptedException) Thread.currentThread().interrupt();
+            if (write.cancel(false) || !write.isDone()) return null;
+            // iptalden hemen önce tamamlandı
+            return write.isCompletedExceptionally() ? null : write.join();
+        } catch (ExecutionException | CancellationException e) {
+            return null;
         }
-        return results;
     }
 
-    private PrintResult printOne(KitchenPrinter target, Receipt receipt) {
-        ReceiptPrinter printer = resolvePrinter(target);
-        Long jobId = null;
+    /**
+     * Kayıt DB'ye düşünce fişi basar; kayıt yazılamazsa basmaz. Hedef yazıcı
+     * basamazsa (ya da bilinen çevrimdışıysa) asıl yazıcının yedek zinciri bu
+     * gönderimde izlenir; denenmemiş sağlıklı yedek kalmayınca iş kuyruğa düşer.
+     */
+    private PrintResult sendWhenRecorded(KitchenRouter.Route route, Receipt receipt,
+                                         CompletableFuture<PrintJob> write) {
+        PrintJob job;
+        try {
+            job = write.join();
+        } catch (CompletionException | CancellationException e) {
+            Throwable cause = e.getCause() != null ? e.getCause() : e;
+            return PrintResult.fail(route.target(), null, "Baskı işi kaydedilemedi: " + cause.getMessage());
+        }
+        KitchenPrinter primary = primaryOf(route);
+        KitchenPrinter target = route.target();
+        Set<Integer> tried = new HashSet<>();
+        String failure;
+        while (true) {
+            tried.add(printerId(target));
+            PrinterStatus known = printerStatus(printerId(target));
+            if (known.isOffline() && known.isFresh(OFFLINE_STATUS_MAX_AGE)) {
+                // Bilinen kapalı yazıcıya bağlanmayı deneme
+                LOG.warn("Yazıcı {} çevrimdışı ({}), fiş gönderilmedi", target, known.detail());
+                failure = "Yazıcı çevrimdışı";
+            } else {
+                failure = printOne(target, target == primary ? receipt : asBackup(receipt, primary), job);
+                if (failure == null) return PrintResult.ok(target, job.getId());
+            }
+            KitchenPrinter next = nextFallback(primary, tried);
+            if (next == null) break;
+            LOG.warn("Yazıcı {} basamadı, fiş yedek yazıcı {}'e gönderiliyor (iş {})", target, next, job.getId());
+            target = next;
+        }
+        return handlePrintFailure(primary, job, failure);
+    }
+
+    /**
+     * Fişi basar.
+     *
+     * @return basıldıysa {@code null}; aksi halde hata mesajı
+     */
+    private String printOne(KitchenPrinter target, Receipt receipt, PrintJob job) {
+        ReceiptPrinter printer = null;
         try {
-            jobId = enqueueJob(target, receipt);          // önce kuyruğa düş (idempotency)
+            printer = resolvePrinter(target);
             printer.print(receipt);
-            printJobDAO.markPrinted(jobId);
-            return PrintResult.ok(target, jobId);
         } catch (PrinterException e) {
             LOG.error("Yazıcı hatası: {}", target, e);
-            return handlePrintFailure(target, jobId, e.getMessage());
+            return e.getMessage();
         } catch (RuntimeException e) {
             LOG.error("Beklenmeyen hata: {}", target, e);
-            return handlePrintFailure(target, jobId, e.getMessage());
+            return e.getMessage();
+        } finally {
+            if (printer != null) publishStatus(target, printer.status());
+        }
+        try {
+            printJobDAO.markPrinted(job.getId());
+        } catch (RuntimeException e) {
+            // Fiş çıktı; yedeğe ya da kuyruğa vermek mükerrer sipariş demek
+            LOG.warn("Baskı işi {} basıldı ama PRINTED işaretlenemedi: {}", job.getId(), e.getMessage());
+        }
+        return null;
+    }
+
+    /** Asıl yazıcının zincirinde henüz denenmemiş ilk sağlıklı yazıcı; yoksa {@code null}. */
+    private KitchenPrinter nextFallback(KitchenPrinter primary, Set<Integer> tried) {
+        try {
+            return router.resolveRoute(printerId(primary), p -> !tried.contains(printerId(p)) && isHealthy(p))
+                    .map(KitchenRouter.Route::target)
+                    .filter(p -> !tried.contains(printerId(p)))
+                    .orElse(null);
+        } catch (RuntimeException e) {
+            LOG.warn("Yedek yazıcı çözülemedi: {}", e.getMessage());
+            return null;
         }
     }
 
-    private PrintResult handlePrintFailure(KitchenPrinter target, Long jobId, String message) {
-        if (jobId != null) printJobDAO.markFailed(jobId, message);
-        return PrintResult.fail(target, jobId, message);
+    /** Yeniden deneme anındaki rota; çözülemezse asıl yazıcıda kalınır. */
+    private KitchenRouter.Route currentRoute(KitchenPrinter primary) {
+        return router.resolveRoute(printerId(primary), this::isHealthy)
+                .orElseGet(() -> new KitchenRouter.Route(primary, null));
     }
 
-    private Long enqueueJob(KitchenPrinter target, Receipt receipt) {
+    /** Asıl mutfağın fişini yedek yazıcıda basılacak hâle getirir ("YEDEK" başlığı + not). */
+    static Receipt asBackup(Receipt receipt, KitchenPrinter primary) {
+        String from = safe(primary.getDisplayName()).toUpperCase();
+        String reroute = from + " yazıcısı yerine basıldı";
+        String orderNote = receipt.getOrderNote();
+        String note = orderNote == null || orderNote.isBlank() ? reroute : reroute + " / " + orderNote;
+        return new Receipt("*** YEDEK: " + from + " ***", receipt.getSalonName(), receipt.getTableNo(),
+                receipt.getWaiterName(), receipt.getTime(), receipt.getLines(), note, receipt.getOrderId());
+    }
+
+    private static KitchenPrinter primaryOf(KitchenRouter.Route route) {
+        return route.isRerouted() ? route.reroutedFrom() : route.target();
+    }
+
+    private void publishStatus(KitchenPrinter target, PrinterStatus status) {
+        if (status == null || status.state() == PrinterStatus.State.UNKNOWN) return;
+        PrinterStatus previous = printerStatuses.put(printerId(target), status);
+        if (previous == null || previous.state() != status.state()) {
+            if (status.state() == PrinterStatus.State.ONLINE) {
+                LOG.info("Yazıcı {} durumu: {}", target, status);
+            } else {
+                LOG.warn("Yazıcı {} durumu: {}", target, status);
+            }
+        }
+    }
+
+    private PrintResult handlePrintFailure(KitchenPrinter target, PrintJob job, String message) {
+        try {
+            printJobDAO.markFailed(job.getId(), message);
+        } catch (RuntimeException e) {
+            LOG.warn("Baskı işi {} FAILED işaretlenemedi: {}", job.getId(), e.getMessage());
+        }
+        if (retryQueue != null) {
+            job.setAttempts(job.getAttempts() + 1);
+            if (retryQueue.submit(job, target)) {
+                return PrintResult.queued(target, job.getId(), message);
+            }
+        }
+        return PrintResult.fail(target, job.getId(), message);
+    }
+
+    private static PrintJob newJob(KitchenPrinter target, Receipt receipt) {
         PrintJob job = new PrintJob();
         job.setOrderId(receipt.getOrderId());
         job.setPrinterId(printerId(target));
-        job.setPayload(GSON.toJson(receipt));
-        return printJobDAO.enqueue(job);
+        job.setPayload(ReceiptCodec.encode(receipt));
+        return job;
     }
 
     private ReceiptPrinter resolvePrinter(KitchenPrinter target) {
@@ -167,13 +566,22 @@ public class PrintingService {
                 target.getPort(),
                 target.getCharPerLine(),
                 TcpEscPosPrinter.DEFAULT_CONNECT_TIMEOUT_MS,
-                TcpEscPosPrinter.DEFAULT_WRITE_TIMEOUT_MS
+                TcpEscPosPrinter.DEFAULT_WRITE_TIMEOUT_MS,
+                target.getKeepAliveMs() == null ? TcpEscPosPrinter.DEFAULT_IDLE_KEEP_MS : target.getKeepAliveMs()
         ));
     }
 
-    /** Önbelleği boşaltır (yazıcı IP'si değiştirildiyse Admin panelden tetiklenir). */
+    /**
+     * Önbelleği boşaltır (yazıcı IP'si / yedeği değiştirildiyse Admin panelden
+     * tetiklenir); yönlendirme tablosu da yeniden yüklenir.
+     */
     public void invalidateCache() {
+        router.invalidate();
+        for (ReceiptPrinter printer : printerCache.values()) {
+            printer.close();
+        }
         printerCache.clear();
+        printerStatuses.clear();
     }
 
     private static int printerId(KitchenPrinter target) {
@@ -184,31 +592,41 @@ public class PrintingService {
         return s == null ? "" : s;
     }
 
+    private record Slot(int index, PrintResult result) {}
+
     // ---- sonuç tipi ----
     public static final class PrintResult {
         public final KitchenPrinter target;
         public final Long jobId;
         public final boolean success;
+        /** Henüz basılmadı ama arka planda gönderiliyor / yeniden denenecek. */
+        public final boolean queued;
         public final String errorMessage;
 
-        private PrintResult(KitchenPrinter t, Long jobId, boolean ok, String err) {
+        private PrintResult(KitchenPrinter t, Long jobId, boolean ok, boolean queued, String err) {
             this.target = t;
             this.jobId = jobId;
             this.success = ok;
+            this.queued = queued;
             this.errorMessage = err;
         }
 
         public static PrintResult ok(KitchenPrinter t, Long jobId) {
-            return new PrintResult(t, jobId, true, null);
+            return new PrintResult(t, jobId, true, false, null);
         }
 
         public static PrintResult fail(KitchenPrinter t, Long jobId, String err) {
-            return new PrintResult(t, jobId, false, err);
+            return new PrintResult(t, jobId, false, false, err);
+        }
+
+        public static PrintResult queued(KitchenPrinter t, Long jobId, String err) {
+            return new PrintResult(t, jobId, false, true, err);
         }
 
         @Override
         public String toString() {
-            return (success ? "OK" : "FAIL") + " " + target + (errorMessage != null ? " - " + errorMessage : "");
+            return (success ? "OK" : queued ? "QUEUED" : "FAIL") + " " + target
+                    + (errorMessage != null ? " - " + errorMessage : "");
         }
     }
 }
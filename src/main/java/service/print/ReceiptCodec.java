@@ -0,0 +1,115 @@
+package service.print;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * {@code print_jobs.payload} kolonundaki fiş kodlaması.
+ *
+ * <p>Sürümlü: yeni kayıtlar {@value #V2_PREFIX} ön ekiyle sıkı ikili biçimde
+ * (Base64) yazılır — satır başına birkaç bayt, yansıma ve ara JSON ağacı
+ * yok. Ön eki olmayan payload eski (Gson JSON) kayıttır ve
+ * {@link ReceiptJson} ile okunur; yükseltme öncesi kalan işler de yeniden
+ * basılabilir.
+ *
+ * <p>Biçim değişirse yeni ön ek ({@code R3:}) eklenir, eskisi okunmaya
+ * devam eder.
+ */
+final class ReceiptCodec {
+
+    static final String V2_PREFIX = "R2:";
+
+    private ReceiptCodec() {}
+
+    static String encode(Receipt r) {
+        if (r.getLines().size() > 0xFFFF) {
+            throw new IllegalArgumentException("fişte çok fazla satır: " + r.getLines().size());
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 + r.getLines().size() * 32);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeUTF(r.getHeader());
+            out.writeUTF(r.getSalonName());
+            out.writeUTF(r.getTableNo());
+            out.writeUTF(r.getWaiterName());
+            out.writeLong(r.getTime().toEpochSecond(ZoneOffset.UTC));
+            out.writeInt(r.getTime().getNano());
+            writeNullable(out, r.getOrderNote());
+            out.writeBoolean(r.getOrderId() != null);
+            if (r.getOrderId() != null) out.writeLong(r.getOrderId());
+            out.writeShort(r.getLines().size());
+            for (Receipt.Line l : r.getLines()) {
+                out.writeInt(l.getQuantity());
+                out.writeUTF(l.getProductName());
+                writeNullable(out, l.getNote());
+                out.writeBoolean(l.isHighlighted());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);   // bellek akışı — olmaz
+        }
+        return V2_PREFIX + Base64.getEncoder().encodeToString(bytes.toByteArray());
+    }
+
+    /**
+     * Payload'dan fişi geri kurar; satırlar kurucudan geçer ki doğrulama
+     * tekrar uygulansın.
+     *
+     * @throws IllegalArgumentException payload boş ya da bozuksa
+     *         (eski JSON kayıtta {@code JsonParseException})
+     */
+    static Receipt decode(String payload) {
+        if (payload == null || payload.isBlank()) {
+            throw new IllegalArgumentException("payload boş");
+        }
+        if (!payload.startsWith(V2_PREFIX)) {
+            return ReceiptJson.decode(payload);   // eski kayıt
+        }
+        byte[] bytes;
+        try {
+            bytes = Base64.getDecoder().decode(payload.substring(V2_PREFIX.length()));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("payload Base64 değil", e);
+        }
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes))) {
+            String header = in.readUTF();
+            String salon = in.readUTF();
+            String tableNo = in.readUTF();
+            String waiter = in.readUTF();
+            LocalDateTime time = LocalDateTime.ofEpochSecond(in.readLong(), in.readInt(), ZoneOffset.UTC);
+            String orderNote = readNullable(in);
+            Long orderId = in.readBoolean() ? in.readLong() : null;
+            int count = in.readUnsignedShort();
+            List<Receipt.Line> lines = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                int qty = in.readInt();
+                String name = in.readUTF();
+                String note = readNullable(in);
+                lines.add(new Receipt.Line(qty, name, note, in.readBoolean()));
+            }
+            if (in.available() > 0) {
+                throw new IllegalArgumentException("payload sonunda fazla bayt");
+            }
+            return new Receipt(header, salon, tableNo, waiter, time, lines, orderNote, orderId);
+        } catch (IOException | RuntimeException e) {
+            if (e instanceof IllegalArgumentException iae) throw iae;
+            throw new IllegalArgumentException("payload bozuk: " + e.getMessage(), e);
+        }
+    }
+
+    private static void writeNullable(DataOutputStream out, String s) throws IOException {
+        out.writeBoolean(s != null);
+        if (s != null) out.writeUTF(s);
+    }
+
+    private static String readNullable(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+}
@@ -0,0 +1,68 @@
+package service.print;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonParseException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * {@code print_jobs.payload} kolonundaki <b>eski</b> fiş JSON'u.
+ *
+ * <p>Yeni işler {@link ReceiptCodec} ile yazılır; bu sınıf yalnız
+ * yükseltmeden önce kuyruğa düşmüş kayıtları okumak için kalır.
+ * {@link LocalDateTime} için ISO-8601 adaptörü şart — Gson java.time
+ * alanlarına reflection ile erişemez (JDK 17+).
+ */
+final class ReceiptJson {
+
+    private static final Gson GSON = new GsonBuilder()
+            .registerTypeAdapter(LocalDateTime.class, new LocalDateTimeAdapter().nullSafe())
+            .create();
+
+    private ReceiptJson() {}
+
+    /**
+     * Payload'dan fişi geri kurar; kurucu üzerinden geçirilir ki boş alan
+     * varsayılanları ve satır doğrulaması tekrar uygulansın.
+     *
+     * @throws JsonParseException payload bozuksa
+     */
+    static Receipt decode(String payload) {
+        if (payload == null || payload.isBlank()) {
+            throw new JsonParseException("payload boş");
+        }
+        Receipt raw = GSON.fromJson(payload, Receipt.class);
+        if (raw == null || raw.getLines() == null) {
+            throw new JsonParseException("payload fiş değil");
+        }
+        List<Receipt.Line> lines = new ArrayList<>(raw.getLines().size());
+        try {
+            for (Receipt.Line l : raw.getLines()) {
+                lines.add(new Receipt.Line(l.getQuantity(), l.getProductName(), l.getNote(), l.isHighlighted()));
+            }
+        } catch (IllegalArgumentException e) {
+            throw new JsonParseException("geçersiz fiş satırı: " + e.getMessage(), e);
+        }
+        return new Receipt(raw.getHeader(), raw.getSalonName(), raw.getTableNo(), raw.getWaiterName(),
+                raw.getTime(), lines, raw.getOrderNote(), raw.getOrderId());
+    }
+
+    private static final class LocalDateTimeAdapter extends TypeAdapter<LocalDateTime> {
+        @Override
+        public void write(JsonWriter out, LocalDateTime value) throws IOException {
+            out.value(value.toString());
+        }
+
+        @Override
+        public LocalDateTime read(JsonReader in) throws IOException {
+            return LocalDateTime.parse(in.nextString());
+        }
+    }
+}
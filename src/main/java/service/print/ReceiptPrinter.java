@@ -28,4 +28,21 @@ public interface ReceiptPrinter {
     default String displayName() {
         return code();
     }
+
+    /** Son bilinen durum (yoklama ya da son baskı). Durum bildirmeyen yazıcılar için UNKNOWN. */
+    default PrinterStatus status() {
+        return PrinterStatus.unknown();
+    }
+
+    /**
+     * Yazıcıyı yoklayıp güncel durumu döner. Kısa sürmeli; baskı sürüyorsa
+     * beklemeden son bilinen durumu dönebilir.
+     */
+    default PrinterStatus probe() {
+        return status();
+    }
+
+    /** Açık bağlantı varsa kapatır. */
+    default void close() {
+    }
 }
@@ -4,12 +4,17 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.OutputStream;
 import java.net.InetSocketAddress;
 import java.net.Socket;
 import java.net.SocketException;
+import java.net.SocketTimeoutException;
 import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * Ağ (LAN/Wi-Fi) üstünden ESC/POS uyumlu termal fiş yazıcılarına basar.
@@ -23,14 +28,35 @@ import java.util.Objects;
  * <p>Yazıcının LAN/Wi-Fi modülü TCP 9100 portunda dinler (de facto standart).
  * Sürücü kurulumuna gerek yoktur — raw byte gönderiyoruz.
  *
- * <p>Bu sınıf <b>thread-safe değildir</b> ama her çağrıda kısa ömürlü Socket açar.
- * Aynı anda farklı thread'lerden çağrı güvenlidir.
+ * <p><b>Bağlantı:</b> Varsayılan olarak her fiş (ve yoklama) için bağlantı
+ * açılır, iş bitince kapatılır — çoğu yazıcı 9100'de tek bağlantı kabul eder,
+ * açık tutulan soket başka terminalin fişini bekletir. {@code idleKeepMs > 0}
+ * verilen yazıcıda (opt-in, {@code kitchen_printers.keep_alive_ms}) socket
+ * fişler arasında açık tutulur: tekrar kullanmadan önce karşı tarafın
+ * kapatıp kapatmadığına bakılır, bir süredir doğrulanmamış bağlantı
+ * {@code DLE EOT} ile yoklanır; süre boyunca fiş gelmezse bırakılır.
+ *
+ * <p><b>Durum:</b> {@link #probe()} {@code DLE EOT 1/4} ile yazıcı ve kağıt
+ * durumunu okur. Baskı sürüyorsa ya da az önce fiş basıldıysa yazıcıya
+ * gitmez, son bilinen durumu döner.
+ *
+ * <p>Thread-safe: tüm soket erişimi tek kilit altında (sanal thread'i
+ * pinlememek için {@code synchronized} yerine {@link ReentrantLock}).
  */
 public class TcpEscPosPrinter implements ReceiptPrinter {
 
     private static final Logger LOG = LoggerFactory.getLogger(TcpEscPosPrinter.class);
     static final int DEFAULT_CONNECT_TIMEOUT_MS = 3000;
     static final int DEFAULT_WRITE_TIMEOUT_MS = 5000;
+    /** Son fişten bu kadar sonra bağlantı kapatılır; 0 → fiş biter bitmez. */
+    static final long DEFAULT_IDLE_KEEP_MS = 0;
+    /**
+     * Bu süreden uzun doğrulanmamış bağlantı, baskıdan önce yoklanır; bu
+     * süre içinde fiş basmış yazıcı {@link #probe()} ile yoklanmaz.
+     */
+    static final long REVALIDATE_AFTER_MS = 5_000;
+    /** {@code DLE EOT} cevabı için bekleme süresi. */
+    static final int STATUS_TIMEOUT_MS = 500;
 
     private final String code;
     private final String displayName;
@@ -39,6 +65,14 @@ public class TcpEscPosPrinter implements ReceiptPrinter {
     private final int charsPerLine;
     private final int connectTimeoutMs;
     private final int writeTimeoutMs;
+    private final long idleKeepNanos;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private Socket socket;                    // lock altında
+    private long lastPrintNanos;              // lock altında
+    private long lastVerifiedNanos;           // lock altında — son bağlantı / durum cevabı
+    private volatile Boolean statusSupported; // null → henüz bilinmiyor
+    private volatile PrinterStatus status = PrinterStatus.unknown();
 
     public TcpEscPosPrinter(String code, String host, int port, int charsPerLine) {
         this(code, code, host, port, charsPerLine, DEFAULT_CONNECT_TIMEOUT_MS, DEFAULT_WRITE_TIMEOUT_MS);
@@ -51,6 +85,17 @@ public class TcpEscPosPrinter implements ReceiptPrinter {
                             int charsPerLine,
                             int connectTimeoutMs,
                             int writeTimeoutMs) {
+        this(code, displayName, host, port, charsPerLine, connectTimeoutMs, writeTimeoutMs, DEFAULT_IDLE_KEEP_MS);
+    }
+
+    public TcpEscPosPrinter(String code,
+                            String displayName,
+                            String host,
+                            int port,
+                            int charsPerLine,
+                            int connectTimeoutMs,
+                            int writeTimeoutMs,
+                            long idleKeepMs) {
         this.code = Objects.requireNonNull(code, "code");
         this.displayName = Objects.requireNonNullElse(displayName, code);
         this.host = Objects.requireNonNull(host, "host");
@@ -62,30 +107,258 @@ public class TcpEscPosPrinter implements ReceiptPrinter {
         this.charsPerLine = charsPerLine;
         this.connectTimeoutMs = connectTimeoutMs;
         this.writeTimeoutMs = writeTimeoutMs;
+        this.idleKeepNanos = TimeUnit.MILLISECONDS.toNanos(idleKeepMs);
+        this.lastPrintNanos = System.nanoTime() - TimeUnit.DAYS.toNanos(1);   // hiç basılmadı
     }
 
-    @Override public String code()         { return code; }
-    @Override public String displayName()  { return displayName; }
+    @Override public String code()          { return code; }
+    @Override public String displayName()   { return displayName; }
+    @Override public PrinterStatus status() { return status; }
 
     @Override
     public void print(Receipt receipt) throws PrinterException {
         Objects.requireNonNull(receipt, "receipt");
         byte[] payload = buildPayload(receipt);
 
-        try (Socket socket = new Socket()) {
-            socket.connect(new InetSocketAddress(host, port), connectTimeoutMs);
-            socket.setSoTimeout(writeTimeoutMs);
-            try (OutputStream out = socket.getOutputStream()) {
-                out.write(payload);
-                out.flush();
+        lock.lock();
+        try {
+            Socket s = reusableSocket();
+            boolean reused = s != null;
+            if (!reused) s = connect();
+            try {
+                send(s, payload);
+            } catch (IOException e) {
+                closeSocket();
+                if (!reused) throw unreachable(e);
+                // Bayat bağlantı — bir kez taze bağlantıyla dene
+                LOG.debug("Bağlantı kopmuş, yeniden bağlanılıyor: printer={}", code);
+                s = connect();
+                try {
+                    send(s, payload);
+                } catch (IOException e2) {
+                    closeSocket();
+                    throw unreachable(e2);
+                }
             }
-            LOG.info("Fiş basıldı  printer={}  order={}  bytes={}", code, receipt.getOrderId(), payload.length);
-        } catch (SocketException e) {
-            throw new PrinterException("Yazıcıya erişilemiyor (kapalı, kağıt sıkışmış veya ağ dışı): "
-                    + host + ":" + port, e);
+            lastPrintNanos = System.nanoTime();
+            if (idleKeepNanos == 0) closeAfterJob();
+            PrinterStatus.State st = status.state();
+            if (st == PrinterStatus.State.OFFLINE || st == PrinterStatus.State.UNKNOWN) {
+                status = PrinterStatus.of(PrinterStatus.State.ONLINE, null);
+            }
+            LOG.info("Fiş basıldı  printer={}  order={}  bytes={}  reused={}",
+                    code, receipt.getOrderId(), payload.length, reused);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Yazıcının durumunu {@code DLE EOT} ile okur. Bağlantı yoksa açar; açık
+     * tutma süresi geçtiyse (varsayılan: hemen) yoklamadan sonra kapatır.
+     * Baskı sürüyorsa ya da son {@link #REVALIDATE_AFTER_MS} içinde fiş
+     * basıldıysa beklemeden son bilinen durumu döner.
+     */
+    @Override
+    public PrinterStatus probe() {
+        if (!lock.tryLock()) {
+            return status;
+        }
+        try {
+            if (status.state() != PrinterStatus.State.UNKNOWN
+                    && System.nanoTime() - lastPrintNanos < TimeUnit.MILLISECONDS.toNanos(REVALIDATE_AFTER_MS)) {
+                return status;            // az önce fiş aldı — bağlantıyı meşgul etme
+            }
+            for (int attempt = 0; attempt < 2; attempt++) {
+                Socket s = socket;
+                boolean fresh = false;
+                if (s == null || s.isClosed() || peerClosed(s)) {
+                    closeSocket();
+                    try {
+                        s = connect();
+                    } catch (PrinterException e) {
+                        return status;            // connect() OFFLINE yazdı
+                    }
+                    fresh = true;
+                }
+                if (Boolean.FALSE.equals(statusSupported)) {
+                    // DLE EOT desteklemeyen model: TCP bağlantısı kurulabiliyorsa çevrimiçi say
+                    status = PrinterStatus.of(PrinterStatus.State.ONLINE, "Durum bildirmiyor");
+                    return status;
+                }
+                try {
+                    int printerByte = readStatus(s, EscPos.CMD_STATUS_PRINTER);
+                    int paperByte = readStatus(s, EscPos.CMD_STATUS_PAPER);
+                    status = PrinterStatus.fromStatusBytes(printerByte, paperByte);
+                    return status;
+                } catch (SocketTimeoutException e) {
+                    closeSocket();
+                    if (fresh && statusSupported == null) {
+                        statusSupported = false;
+                        status = PrinterStatus.of(PrinterStatus.State.ONLINE, "Durum bildirmiyor");
+                        return status;
+                    }
+                    if (fresh) {
+                        status = PrinterStatus.of(PrinterStatus.State.OFFLINE, "Yanıt vermiyor");
+                        return status;
+                    }
+                } catch (IOException e) {
+                    closeSocket();
+                    if (fresh) {
+                        status = PrinterStatus.of(PrinterStatus.State.OFFLINE, e.getMessage());
+                        return status;
+                    }
+                }
+                // Eski bağlantı bozukmuş — bir kez taze bağlantıyla dene
+            }
+            return status;
+        } finally {
+            if (socket != null && System.nanoTime() - lastPrintNanos > idleKeepNanos) {
+                closeSocket();
+            }
+            lock.unlock();
+        }
+    }
+
+    /** Açık bağlantıyı kapatır; sonraki fiş yeniden bağlanır. */
+    @Override
+    public void close() {
+        lock.lock();
+        try {
+            closeSocket();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // -------- bağlantı yönetimi (lock altında) --------
+
+    /** Tekrar kullanılabilir bağlantı; yoksa {@code null}. */
+    private Socket reusableSocket() {
+        Socket s = socket;
+        if (s == null) return null;
+        long now = System.nanoTime();
+        if (s.isClosed() || now - lastPrintNanos > idleKeepNanos || peerClosed(s)) {
+            closeSocket();
+            return null;
+        }
+        if (now - lastVerifiedNanos > TimeUnit.MILLISECONDS.toNanos(REVALIDATE_AFTER_MS)) {
+            // Güç kesilip gelen yazıcı FIN göndermez; yazılan fiş sessizce kaybolur.
+            // Yoklanamıyorsa taze bağlantı aç.
+            if (!Boolean.TRUE.equals(statusSupported)) {
+                closeSocket();
+                return null;
+            }
+            try {
+                readStatus(s, EscPos.CMD_STATUS_PRINTER);
+            } catch (IOException e) {
+                closeSocket();
+                return null;
+            }
+        }
+        return s;
+    }
+
+    private Socket connect() throws PrinterException {
+        Socket s = new Socket();
+        try {
+            s.connect(new InetSocketAddress(host, port), connectTimeoutMs);
+            s.setSoTimeout(writeTimeoutMs);
+            s.setTcpNoDelay(true);
+            s.setKeepAlive(true);
+        } catch (IOException e) {
+            try { s.close(); } catch (IOException ignored) {}
+            throw unreachable(e);
+        }
+        socket = s;
+        lastVerifiedNanos = System.nanoTime();
+        return s;
+    }
+
+    private static void send(Socket s, byte[] payload) throws IOException {
+        OutputStream out = s.getOutputStream();
+        out.write(payload);
+        out.flush();
+    }
+
+    /** Durum komutunu gönderip tek baytlık cevabı okur. */
+    private int readStatus(Socket s, byte[] command) throws IOException {
+        InputStream in = s.getInputStream();
+        int stale = in.available();
+        if (stale > 0) in.skipNBytes(stale);
+        OutputStream out = s.getOutputStream();
+        out.write(command);
+        out.flush();
+        s.setSoTimeout(STATUS_TIMEOUT_MS);
+        try {
+            int b = in.read();
+            if (b < 0) throw new EOFException("Yazıcı bağlantıyı kapattı");
+            if (!EscPos.isStatusByte(b)) throw new IOException("Geçersiz durum baytı: " + b);
+            statusSupported = true;
+            lastVerifiedNanos = System.nanoTime();
+            return b;
+        } finally {
+            s.setSoTimeout(writeTimeoutMs);
+        }
+    }
+
+    /** Karşı taraf bağlantıyı kapattı mı? (FIN → read -1). En fazla 1 ms bekler. */
+    private boolean peerClosed(Socket s) {
+        try {
+            InputStream in = s.getInputStream();
+            int stale = in.available();
+            if (stale > 0) {
+                in.skipNBytes(stale);
+                return false;
+            }
+            s.setSoTimeout(1);
+            try {
+                return in.read() < 0;
+            } finally {
+                s.setSoTimeout(writeTimeoutMs);
+            }
+        } catch (SocketTimeoutException e) {
+            return false;
         } catch (IOException e) {
-            throw new PrinterException("Yazıcı G/Ç hatası: " + host + ":" + port, e);
+            return true;
+        }
+    }
+
+    /**
+     * Fişten sonra bağlantıyı bırakır: önce yazma yönü kapatılır (FIN veriden
+     * sonra gider), okunmamış durum baytları atılır — okunmamış veriyle
+     * kapatılan soket RST gönderir, yazıcı fişin sonunu kaybedebilir.
+     */
+    private void closeAfterJob() {
+        Socket s = socket;
+        if (s != null) {
+            try {
+                s.shutdownOutput();
+                InputStream in = s.getInputStream();
+                int stale = in.available();
+                if (stale > 0) in.skipNBytes(stale);
+            } catch (IOException ignored) {
+                // kapatılıyor
+            }
+        }
+        closeSocket();
+    }
+
+    private void closeSocket() {
+        Socket s = socket;
+        socket = null;
+        if (s != null) {
+            try { s.close(); } catch (IOException ignored) {}
+        }
+    }
+
+    private PrinterException unreachable(IOException e) {
+        status = PrinterStatus.of(PrinterStatus.State.OFFLINE, e.getMessage());
+        if (e instanceof SocketException || e instanceof SocketTimeoutException) {
+            return new PrinterException("Yazıcıya erişilemiyor (kapalı, kağıt sıkışmış veya ağ dışı): "
+                    + host + ":" + port, e);
         }
+        return new PrinterException("Yazıcı G/Ç hatası: " + host + ":" + port, e);
     }
 
     /**
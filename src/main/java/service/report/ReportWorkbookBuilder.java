@@ -4,13 +4,9 @@ import DataConnection.Db;
 import model.MoneyUtil;
 import model.Payment;
 import model.PaymentMethod;
-import org.apache.poi.ss.usermodel.Cell;
 import org.apache.poi.ss.usermodel.CellStyle;
 import org.apache.poi.ss.usermodel.Font;
 import org.apache.poi.ss.usermodel.Row;
-import org.apache.poi.ss.usermodel.Sheet;
-import org.apache.poi.ss.usermodel.Workbook;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import service.PaymentService;
@@ -30,8 +26,10 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.YearMonth;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.EnumMap;
 import java.util.List;
+import java.util.function.Consumer;
 
 import static model.MoneyUtil.formatTl;
 
@@ -77,9 +75,13 @@ public final class ReportWorkbookBuilder {
     //   Veri toplama
     // ============================================================
 
+    /**
+     * Gün sonu verisi. Ödemeler liste olarak yüklenmez; cursor'dan okundukça
+     * {@link PaymentTally}'ye eklenir.
+     */
     public static ReportData collectDaily(AppState appState, LocalDate date) {
-        PaymentService paymentService = new PaymentService();
-        List<Payment> payments = paymentService.getPaymentsOn(date);
+        PaymentTally payments = new PaymentTally();
+        new PaymentService().forEachPaymentBetween(date, date.plusDays(1), payments);
         BigDecimal totalExpense = appState.getExpenseTotal(date);
 
         List<ProductSummaryRow> products = loadProductSummary(date.atStartOfDay(),
@@ -90,12 +92,12 @@ public final class ReportWorkbookBuilder {
     }
 
     public static ReportData collectMonthly(AppState appState, YearMonth ym) {
-        PaymentService paymentService = new PaymentService();
-        List<Payment> payments = paymentService.getPaymentsInMonth(ym.getYear(), ym.getMonthValue());
-        BigDecimal totalExpense = appState.getExpenseTotal(ym);
-
         LocalDate first = ym.atDay(1);
         LocalDate firstOfNext = first.plusMonths(1);
+        PaymentTally payments = new PaymentTally();
+        new PaymentService().forEachPaymentBetween(first, firstOfNext, payments);
+        BigDecimal totalExpense = appState.getExpenseTotal(ym);
+
         List<ProductSummaryRow> products = loadProductSummary(first.atStartOfDay(),
                 firstOfNext.atStartOfDay());
 
@@ -113,108 +115,88 @@ public final class ReportWorkbookBuilder {
     //   Workbook yazımı
     // ============================================================
 
+    /**
+     * Raporu SXSSF ile yazar: bellekte yalnız {@link StreamingSheet#ROW_WINDOW}
+     * satır, sütun genişlikleri {@code autoSizeColumn} yerine önceden hesaplanır.
+     */
     public static byte[] write(ReportData data) throws IOException {
-        try (Workbook wb = new XSSFWorkbook();
+        try (StreamingSheet sheet = new StreamingSheet(data.monthly() ? "Ay Sonu" : "Gün Sonu", 4);
              ByteArrayOutputStream out = new ByteArrayOutputStream()) {
-            Sheet sheet = wb.createSheet(data.monthly() ? "Ay Sonu" : "Gün Sonu");
-
-            CellStyle bold = wb.createCellStyle();
-            Font boldFont = wb.createFont();
+            CellStyle bold = sheet.workbook().createCellStyle();
+            Font boldFont = sheet.workbook().createFont();
             boldFont.setBold(true);
             bold.setFont(boldFont);
 
-            int r = 0;
-            Row title = sheet.createRow(r++);
-            Cell tc = title.createCell(0);
-            tc.setCellValue((data.monthly() ? "AY SONU RAPORU - " : "GÜN SONU RAPORU - ")
-                    + data.periodLabel());
-            tc.setCellStyle(bold);
+            sheet.text(sheet.row(), 0, (data.monthly() ? "AY SONU RAPORU - " : "GÜN SONU RAPORU - ")
+                    + data.periodLabel(), bold);
 
-            r++;
-            writeSummaryRow(sheet, r++, "Toplam Ciro: " + formatTl(data.totalSales()));
-            writeSummaryRow(sheet, r++, "Toplam Gider: " + formatTl(data.totalExpense()));
-            writeSummaryRow(sheet, r++, "Net Kar: " + formatTl(data.netProfit()));
-            writeSummaryRow(sheet, r++, "Sipariş Sayısı: " + data.payments().size());
+            sheet.skip();
+            PaymentTally payments = data.payments();
+            writeSummaryRow(sheet, "Toplam Ciro: " + formatTl(data.totalSales()));
+            writeSummaryRow(sheet, "Toplam Gider: " + formatTl(data.totalExpense()));
+            writeSummaryRow(sheet, "Net Kar: " + formatTl(data.netProfit()));
+            writeSummaryRow(sheet, "Sipariş Sayısı: " + payments.count());
 
             // Ödeme yöntemi
-            r++;
-            createBoldSectionHeader(sheet, r++, "ÖDEME YÖNTEMİ DAĞILIMI", bold);
-            EnumMap<PaymentMethod, int[]> countByMethod = new EnumMap<>(PaymentMethod.class);
-            EnumMap<PaymentMethod, BigDecimal> sumByMethod = new EnumMap<>(PaymentMethod.class);
-            for (Payment p : data.payments()) {
-                PaymentMethod m = p.getMethod() == null ? PaymentMethod.CASH : p.getMethod();
-                countByMethod.computeIfAbsent(m, k -> new int[]{0})[0]++;
-                sumByMethod.merge(m, p.getAmount() == null ? BigDecimal.ZERO : p.getAmount(), BigDecimal::add);
-            }
+            sheet.skip();
+            sheet.text(sheet.row(), 0, "ÖDEME YÖNTEMİ DAĞILIMI", bold);
             for (PaymentMethod m : PaymentMethod.values()) {
-                int[] c = countByMethod.get(m);
-                BigDecimal s = sumByMethod.getOrDefault(m, BigDecimal.ZERO);
-                if (c == null && s.signum() == 0) continue;
-                writeDistributionRow(sheet, r++, m.getDisplayName(), c == null ? 0 : c[0], s);
+                int c = payments.countFor(m);
+                BigDecimal s = payments.sumFor(m);
+                if (c == 0 && s.signum() == 0) continue;
+                writeDistributionRow(sheet, m.getDisplayName(), c, s);
             }
 
             // Saatlik dağılım
-            r++;
-            createBoldSectionHeader(sheet, r++, "SAATLİK İŞLEM DAĞILIMI", bold);
-            int[] perHour = new int[24];
-            BigDecimal[] sumPerHour = new BigDecimal[24];
-            for (int i = 0; i < 24; i++) sumPerHour[i] = BigDecimal.ZERO;
-            for (Payment p : data.payments()) {
-                LocalDateTime at = p.getPaidAt();
-                if (at == null) continue;
-                int h = at.getHour();
-                perHour[h]++;
-                sumPerHour[h] = sumPerHour[h].add(p.getAmount() == null ? BigDecimal.ZERO : p.getAmount());
-            }
+            sheet.skip();
+            sheet.text(sheet.row(), 0, "SAATLİK İŞLEM DAĞILIMI", bold);
             for (int h = 0; h < 24; h++) {
-                if (perHour[h] == 0 && sumPerHour[h].signum() == 0) continue;
-                writeDistributionRow(sheet, r++, String.format("%02d:00", h),
-                        perHour[h], sumPerHour[h]);
+                if (payments.countAt(h) == 0 && payments.sumAt(h).signum() == 0) continue;
+                writeDistributionRow(sheet, String.format("%02d:00", h),
+                        payments.countAt(h), payments.sumAt(h));
             }
 
             // Ürün satış özeti
-            r++;
-            createBoldSectionHeader(sheet, r++, "ÜRÜN SATIŞ ÖZETİ", bold);
-            Row psHdr = sheet.createRow(r++);
-            psHdr.createCell(0).setCellValue("Ürün");
-            psHdr.createCell(1).setCellValue("Birim");
-            psHdr.createCell(2).setCellValue("Satılan");
-            psHdr.createCell(3).setCellValue("Porsiyon Karşılığı");
+            sheet.skip();
+            sheet.text(sheet.row(), 0, "ÜRÜN SATIŞ ÖZETİ", bold);
+            Row psHdr = sheet.row();
+            sheet.text(psHdr, 0, "Ürün");
+            sheet.text(psHdr, 1, "Birim");
+            sheet.text(psHdr, 2, "Satılan");
+            sheet.text(psHdr, 3, "Porsiyon Karşılığı");
             for (ProductSummaryRow ps : data.products()) {
                 String unit = (ps.unitLabel() == null || ps.unitLabel().isBlank())
                         ? (ps.piecesPerPortion() > 0 ? "şiş" : "porsiyon")
                         : ps.unitLabel();
-                Row row = sheet.createRow(r++);
-                row.createCell(0).setCellValue(ps.productName());
-                row.createCell(1).setCellValue(unit);
-                row.createCell(2).setCellValue(ps.totalQty() + " " + unit);
+                Row row = sheet.row();
+                sheet.text(row, 0, ps.productName());
+                sheet.text(row, 1, unit);
+                sheet.text(row, 2, ps.totalQty() + " " + unit);
                 if (ps.piecesPerPortion() > 0) {
                     double portions = ps.totalQty() / (double) ps.piecesPerPortion();
-                    row.createCell(3).setCellValue(String.format(MoneyUtil.TURKISH_LOCALE,
+                    sheet.text(row, 3, String.format(MoneyUtil.TURKISH_LOCALE,
                             "%.2f porsiyon  (1 porsiyon = %d %s)",
                             portions, ps.piecesPerPortion(), unit));
                 } else {
-                    row.createCell(3).setCellValue(ps.totalQty() + " porsiyon");
+                    sheet.text(row, 3, ps.totalQty() + " porsiyon");
                 }
             }
 
             // Giderler
-            r++;
-            createBoldSectionHeader(sheet, r++, "GİDERLER", bold);
-            Row hdr = sheet.createRow(r++);
-            hdr.createCell(0).setCellValue("Tarih");
-            hdr.createCell(1).setCellValue("Açıklama");
-            hdr.createCell(2).setCellValue("Tutar");
+            sheet.skip();
+            sheet.text(sheet.row(), 0, "GİDERLER", bold);
+            Row hdr = sheet.row();
+            sheet.text(hdr, 0, "Tarih");
+            sheet.text(hdr, 1, "Açıklama");
+            sheet.text(hdr, 2, "Tutar");
             for (ExpenseRecord e : data.expenses()) {
-                Row row = sheet.createRow(r++);
-                row.createCell(0).setCellValue(e.getExpenseDate() == null ? "" : e.getExpenseDate().toString());
-                row.createCell(1).setCellValue(e.getDescription() == null ? "" : e.getDescription());
-                row.createCell(2).setCellValue(e.getAmount() == null ? 0.0 : e.getAmount().doubleValue());
+                Row row = sheet.row();
+                sheet.text(row, 0, e.getExpenseDate() == null ? "" : e.getExpenseDate().toString());
+                sheet.text(row, 1, e.getDescription());
+                sheet.number(row, 2, e.getAmount() == null ? 0.0 : e.getAmount().doubleValue());
             }
 
-            for (int i = 0; i < 4; i++) sheet.autoSizeColumn(i);
-
-            wb.write(out);
+            sheet.write(out);
             return out.toByteArray();
         }
     }
@@ -223,38 +205,24 @@ public final class ReportWorkbookBuilder {
     //   Yardımcılar
     // ============================================================
 
-    private static void writeSummaryRow(Sheet sheet, int rowIndex, String text) {
-        sheet.createRow(rowIndex).createCell(0).setCellValue(text);
-    }
-
-    private static void writeDistributionRow(Sheet sheet, int rowIndex,
-                                             String label, int count, BigDecimal amount) {
-        Row row = sheet.createRow(rowIndex);
-        row.createCell(0).setCellValue(label);
-        row.createCell(1).setCellValue(count);
-        row.createCell(2).setCellValue(formatTl(amount));
-    }
-
-    private static void createBoldSectionHeader(Sheet sheet, int rowIndex,
-                                                String title, CellStyle bold) {
-        Row sectionHeader = sheet.createRow(rowIndex);
-        Cell cell = sectionHeader.createCell(0);
-        cell.setCellValue(title);
-        cell.setCellStyle(bold);
+    private static void writeSummaryRow(StreamingSheet sheet, String text) {
+        sheet.text(sheet.row(), 0, text);
     }
 
-    private static BigDecimal sumPayments(List<Payment> payments) {
-        return MoneyUtil.sumAmounts(payments, Payment::getAmount)
-                .setScale(2, RoundingMode.HALF_UP);
+    private static void writeDistributionRow(StreamingSheet sheet, String label, int count, BigDecimal amount) {
+        Row row = sheet.row();
+        sheet.text(row, 0, label);
+        sheet.number(row, 1, count);
+        sheet.text(row, 2, formatTl(amount));
     }
 
     private static ReportData createReportData(boolean monthly,
                                                String periodLabel,
-                                               List<Payment> payments,
+                                               PaymentTally payments,
                                                BigDecimal totalExpense,
                                                List<ProductSummaryRow> products,
                                                List<ExpenseRecord> expenses) {
-        BigDecimal totalSales = sumPayments(payments);
+        BigDecimal totalSales = payments.total().setScale(2, RoundingMode.HALF_UP);
         BigDecimal netProfit = totalSales.subtract(totalExpense).setScale(2, RoundingMode.HALF_UP);
         return new ReportData(monthly, periodLabel, payments, totalSales,
                 totalExpense, netProfit, products, expenses);
@@ -324,7 +292,7 @@ public final class ReportWorkbookBuilder {
     public record ReportData(
             boolean monthly,
             String periodLabel,
-            List<Payment> payments,
+            PaymentTally payments,
             BigDecimal totalSales,
             BigDecimal totalExpense,
             BigDecimal netProfit,
@@ -332,6 +300,53 @@ public final class ReportWorkbookBuilder {
             List<ExpenseRecord> expenses
     ) {}
 
+    /**
+     * Ödemelerin rapor için gereken özeti — satırlar tutulmaz, okundukça
+     * sayılır. Yöntemi olmayan ödeme nakit sayılır; saati olmayan saatlik
+     * dağılıma girmez.
+     */
+    public static final class PaymentTally implements Consumer<Payment> {
+
+        private final EnumMap<PaymentMethod, int[]> countByMethod = new EnumMap<>(PaymentMethod.class);
+        private final EnumMap<PaymentMethod, BigDecimal> sumByMethod = new EnumMap<>(PaymentMethod.class);
+        private final int[] perHour = new int[24];
+        private final BigDecimal[] sumPerHour = new BigDecimal[24];
+        private BigDecimal total = BigDecimal.ZERO;
+        private int count;
+
+        public PaymentTally() {
+            Arrays.fill(sumPerHour, BigDecimal.ZERO);
+        }
+
+        @Override
+        public void accept(Payment p) {
+            BigDecimal amount = p.getAmount() == null ? BigDecimal.ZERO : p.getAmount();
+            count++;
+            total = total.add(amount);
+            PaymentMethod m = p.getMethod() == null ? PaymentMethod.CASH : p.getMethod();
+            countByMethod.computeIfAbsent(m, k -> new int[]{0})[0]++;
+            sumByMethod.merge(m, amount, BigDecimal::add);
+            LocalDateTime at = p.getPaidAt();
+            if (at != null) {
+                int h = at.getHour();
+                perHour[h]++;
+                sumPerHour[h] = sumPerHour[h].add(amount);
+            }
+        }
+
+        public int count() { return count; }
+        public BigDecimal total() { return total; }
+
+        public int countFor(PaymentMethod m) {
+            int[] c = countByMethod.get(m);
+            return c == null ? 0 : c[0];
+        }
+
+        public BigDecimal sumFor(PaymentMethod m) { return sumByMethod.getOrDefault(m, BigDecimal.ZERO); }
+        public int countAt(int hour) { return perHour[hour]; }
+        public BigDecimal sumAt(int hour) { return sumPerHour[hour]; }
+    }
+
     public record ProductSummaryRow(
             String productName,
             String unitLabel,
@@ -0,0 +1,105 @@
+package service.report;
+
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * SXSSF üzerinde satır satır yazılan tek sayfalık Excel.
+ *
+ * <p>Bellekte yalnız son {@link #ROW_WINDOW} satır tutulur; öncekiler geçici
+ * dosyaya akar. {@code autoSizeColumn} (her hücreyi font metrikleriyle yeniden
+ * ölçer, akan satırları göremez) yerine sütun genişlikleri yazarken karakter
+ * sayısından hesaplanır ve {@link #write} öncesi uygulanır.
+ */
+public final class StreamingSheet implements AutoCloseable {
+
+    /** Bellekte tutulan satır sayısı. */
+    public static final int ROW_WINDOW = 200;
+
+    /** Excel genişlik birimi: karakterin 1/256'sı. */
+    private static final int CHAR_WIDTH = 256;
+    private static final int MIN_CHARS = 6;
+    private static final int MAX_CHARS = 80;
+    /** Kalın başlık/metin için pay. */
+    private static final int PADDING_CHARS = 2;
+
+    private final SXSSFWorkbook workbook;
+    private final Sheet sheet;
+    private final int[] widths;
+    private int nextRow;
+
+    public StreamingSheet(String sheetName, int columns) {
+        // Metinler satır içi yazılır; paylaşılan string tablosu bellekte büyürdü
+        this.workbook = new SXSSFWorkbook(ROW_WINDOW);
+        this.sheet = workbook.createSheet(sheetName);
+        this.widths = new int[columns];
+    }
+
+    public SXSSFWorkbook workbook() {
+        return workbook;
+    }
+
+    /** Sonraki satırı açar. */
+    public Row row() {
+        return sheet.createRow(nextRow++);
+    }
+
+    /** Boş satır bırakır. */
+    public void skip() {
+        nextRow++;
+    }
+
+    public Cell text(Row row, int column, String value) {
+        Cell cell = row.createCell(column);
+        String v = value == null ? "" : value;
+        cell.setCellValue(v);
+        measure(column, v.length());
+        return cell;
+    }
+
+    public Cell text(Row row, int column, String value, CellStyle style) {
+        Cell cell = text(row, column, value);
+        cell.setCellStyle(style);
+        return cell;
+    }
+
+    public Cell number(Row row, int column, double value) {
+        Cell cell = row.createCell(column);
+        cell.setCellValue(value);
+        measure(column, numberWidth(value));
+        return cell;
+    }
+
+    /** Sütun genişliklerini uygular ve yazar; geçici dosyalar {@link #close}'da silinir. */
+    public void write(OutputStream out) throws IOException {
+        for (int i = 0; i < widths.length; i++) {
+            int chars = Math.max(MIN_CHARS, Math.min(MAX_CHARS, widths[i] + PADDING_CHARS));
+            sheet.setColumnWidth(i, chars * CHAR_WIDTH);
+        }
+        workbook.write(out);
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            workbook.close();
+        } finally {
+            workbook.dispose();
+        }
+    }
+
+    private void measure(int column, int chars) {
+        if (column < widths.length && chars > widths[column]) widths[column] = chars;
+    }
+
+    private static int numberWidth(double value) {
+        if (value == Math.rint(value) && Math.abs(value) < 1e15) return Long.toString((long) value).length();
+        return Double.toString(value).length();
+    }
+}
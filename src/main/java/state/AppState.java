@@ -1,6 +1,7 @@
 package state;
 
 import model.Category;
+import model.ChangeEvent;
 import model.Expense;
 import model.ItemAddWithNoteResult;
 import model.ItemNoteUpdateResult;
@@ -10,10 +11,14 @@ import model.OrderStatus;
 import model.Payment;
 import model.PaymentMethod;
 import model.Product;
+import model.ProductRollupRow;
 import model.ProductSalesRow;
 import model.RestaurantTable;
+import model.SalesSummary;
+import model.TableOrderState;
 import model.TableStatus;
 import model.User;
+import service.CatalogCache;
 import service.CategoryService;
 import service.ExpenseService;
 import service.OrderLogService;
@@ -23,8 +28,11 @@ import service.ProductService;
 import service.ReportsService;
 import service.RestaurantTableService;
 import service.UserService;
+import service.print.KitchenRouter;
 import service.print.PrintingService;
+import dao.ChangeFeedDAO;
 import dao.UserAreaPermissionDAO;
+import dao.jdbc.ChangeFeedJdbcDAO;
 import dao.jdbc.UserAreaPermissionJdbcDAO;
 import dao.KitchenPrinterDAO;
 import dao.CategoryPrinterRouteDAO;
@@ -53,15 +61,19 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
 
@@ -75,6 +87,10 @@ public class AppState {
     public static final String EVENT_PRODUCTS = "products";
     public static final String EVENT_CATEGORIES = "categories";
     private static final int HISTORY_LIMIT = 50;
+    /** Bir poll turunda change_seq'ten okunacak en fazla satır. */
+    private static final int CHANGE_FEED_BATCH = 500;
+    /** Bir turda bu kadar masadan fazlası değiştiyse tek tek değil toplu sorguyla yenile. */
+    private static final int BULK_TABLE_REFRESH_THRESHOLD = 4;
     private static final String DEFAULT_CATEGORY_NAME = "Genel";
 
     /**
@@ -155,6 +171,11 @@ public class AppState {
     private final KitchenPrinterDAO kitchenPrinterDAO = new KitchenPrinterJdbcDAO();
     private final CategoryPrinterRouteDAO categoryRouteDAO = new CategoryPrinterRouteJdbcDAO();
     private final dao.RefundLogDAO refundLogDAO = new dao.jdbc.RefundLogJdbcDAO();
+    private final ChangeFeedDAO changeFeedDAO = new ChangeFeedJdbcDAO();
+    private final CatalogCache catalogCache = CatalogCache.getInstance();
+    private final KitchenRouter kitchenRouter = KitchenRouter.getInstance();
+    /** Yalnızca poller thread'i okur/yazar; ilk turda günlüğün sonuna konumlanır. */
+    private ChangeFeedCursor changeCursor;
 
     private final Map<Integer, TableLayout> layouts = new LinkedHashMap<>();
     private final Map<Integer, Long> tableIds = new ConcurrentHashMap<>();
@@ -166,8 +187,26 @@ public class AppState {
     private final AtomicReference<ExpensesSignature> expensesSignature = new AtomicReference<>(ExpensesSignature.empty());
     private final AtomicReference<Long> defaultCategoryId = new AtomicReference<>();
     private final Object categoryLock = new Object();
+    /**
+     * Sipariş mutasyonları masa bazında şeritli kilitle korunur; farklı masalardaki
+     * garsonlar birbirini beklemez. Rapor/ürün/kategori okumaları kilitsizdir
+     * (durum DB'dedir, servisler durumsuzdur).
+     */
+    private final TableStripes tableStripes = new TableStripes();
+    /**
+     * Masa görüntüsü sürümleri (HTTP ETag için). {@link #notifyTableChanged}
+     * her çağrıda genel sayacı artırır ve masaya yazar; {@code -1} (tüm masalar)
+     * {@code allTablesVersion}'ı günceller. Yalnızca bellekte — DB okunmaz.
+     */
+    private final AtomicLong tableVersionSeq = new AtomicLong();
+    private final AtomicLong allTablesVersion = new AtomicLong();
+    private final Map<Integer, Long> tableVersions = new ConcurrentHashMap<>();
+    /** Ürün/kategori/rota yazımlarını kendi aralarında sıralar; masa kilitlerinden sonra alınır. */
+    private final Object catalogLock = new Object();
+    /** Alan yetkisi yazımlarını sıralar — singleton monitörü kullanılmaz. */
+    private final Object permissionLock = new Object();
     private final ScheduledExecutorService poller;
-    private boolean tableReserveUnsupported;
+    private volatile boolean tableReserveUnsupported;
 
     private AppState() {
         this.tableService = new RestaurantTableService();
@@ -189,6 +228,22 @@ public class AppState {
         });
         this.poller.scheduleAtFixedRate(this::pollChanges, 2, 2, TimeUnit.SECONDS);
         Runtime.getRuntime().addShutdownHook(new Thread(() -> poller.shutdownNow(), "app-state-poller-shutdown"));
+        // Bekleyen sipariş logları DB havuzu kapanmadan yazılır
+        DataConnection.Db.beforeClose(orderLogService::shutdown);
+        startRollupRefresh();
+    }
+
+    /** Satış rollup'ını arka planda doldurur/tazeler — açılışı bekletmez. */
+    private void startRollupRefresh() {
+        Thread t = new Thread(() -> {
+            try {
+                reportsService.refreshRollupsOnStartup();
+            } catch (Exception ex) {
+                LOG.warn("Satış rollup'ı açılışta yenilenemedi: {}", ex.getMessage(), ex);
+            }
+        }, "sales-rollup-refresh");
+        t.setDaemon(true);
+        t.start();
     }
 
     /**
@@ -327,6 +382,13 @@ public class AppState {
     }
 
     private void initializeTables() {
+        try {
+            // Mevcut masaların id'lerini ve imzalarını tek sorguda al; sadece
+            // DB'de olmayan masalar için tek tek INSERT gerekir.
+            tableSignatures.putAll(captureAllSignatures());
+        } catch (RuntimeException ex) {
+            LOG.warn("Toplu masa durumu okunamadı: " + ex.getMessage());
+        }
         for (Integer tableNo : layouts.keySet()) {
             try {
                 ensureTableExists(tableNo);
@@ -340,8 +402,8 @@ public class AppState {
         return areas;
     }
 
-    public synchronized List<Product> getAvailableProducts() {
-        return filterAndSortProducts(productService.getAllProducts());
+    public List<Product> getAvailableProducts() {
+        return filterAndSortProducts(catalogCache.getAllProducts());
     }
 
     /**
@@ -349,42 +411,48 @@ public class AppState {
      * Garson menüsü (ProductPicker) bunu kullanır — pasifler gri görünüp
      * sipariş edilemese de ekranda yer alır.
      */
-    public synchronized List<Product> getAllProductsIncludingInactive() {
-        return filterAndSortProductsAll(productService.getAllProducts());
+    public List<Product> getAllProductsIncludingInactive() {
+        return filterAndSortProductsAll(catalogCache.getAllProducts());
     }
 
-    public synchronized List<Product> getProductsByCategoryName(String categoryName) {
+    public List<Product> getProductsByCategoryName(String categoryName) {
         if (categoryName == null || categoryName.isBlank()) {
             return getAvailableProducts();
         }
-        return filterAndSortProducts(productService.getProductsByCategoryName(categoryName));
+        return filterAndSortProducts(catalogCache.getProductsByCategoryName(categoryName));
     }
 
     /** Kategoriye göre tüm ürünler (pasif dahil) — ProductPicker için. */
-    public synchronized List<Product> getProductsByCategoryNameIncludingInactive(String categoryName) {
+    public List<Product> getProductsByCategoryNameIncludingInactive(String categoryName) {
         if (categoryName == null || categoryName.isBlank()) {
             return getAllProductsIncludingInactive();
         }
-        return filterAndSortProductsAll(productService.getProductsByCategoryName(categoryName));
+        return filterAndSortProductsAll(catalogCache.getProductsByCategoryName(categoryName));
     }
 
-    public synchronized Long createProduct(Product product) {
-        Long id = productService.createProduct(product);
-        notifyProductsChanged();
-        return id;
+    public Long createProduct(Product product) {
+        synchronized (catalogLock) {
+            Long id = productService.createProduct(product);
+            catalogChanged(id);
+            return id;
+        }
     }
 
-    public synchronized void updateProduct(Product product) {
-        productService.updateProduct(product);
-        notifyProductsChanged();
+    public void updateProduct(Product product) {
+        synchronized (catalogLock) {
+            productService.updateProduct(product);
+            catalogChanged(product == null ? null : product.getId());
+        }
     }
 
-    public synchronized void deleteProduct(Long productId) {
-        if (productId == null || productId <= 0) {
-            throw new IllegalArgumentException("Geçersiz ürün ID");
+    public void deleteProduct(Long productId) {
+        synchronized (catalogLock) {
+            if (productId == null || productId <= 0) {
+                throw new IllegalArgumentException("Geçersiz ürün ID");
+            }
+            productService.deleteProduct(productId);
+            catalogChanged(productId);
         }
-        productService.deleteProduct(productId);
-        notifyProductsChanged();
     }
 
     /**
@@ -392,21 +460,63 @@ public class AppState {
      * <p>Pasif (active=false) ürünler garson menüsünde gri/disabled görünür
      * ve sipariş edilemez. Admin/Aşçı menüden tek tıkla "tükendi" diyebilir.
      */
-    public synchronized void setProductActive(Long productId, boolean active) {
-        if (productId == null || productId <= 0) {
-            throw new IllegalArgumentException("Geçersiz ürün ID");
-        }
-        Product product = productService.getProductById(productId);
-        if (product == null) {
-            throw new IllegalArgumentException("Ürün bulunamadı: " + productId);
+    public void setProductActive(Long productId, boolean active) {
+        synchronized (catalogLock) {
+            if (productId == null || productId <= 0) {
+                throw new IllegalArgumentException("Geçersiz ürün ID");
+            }
+            Product product = productService.getProductById(productId);
+            if (product == null) {
+                throw new IllegalArgumentException("Ürün bulunamadı: " + productId);
+            }
+            product.setActive(active);
+            productService.updateProduct(product);
+            catalogChanged(productId);
         }
-        product.setActive(active);
-        productService.updateProduct(product);
-        notifyProductsChanged();
     }
 
-    public synchronized List<Category> getAllCategories() {
-        return categoryService.getAllCategories();
+    public List<Category> getAllCategories() {
+        return catalogCache.getAllCategories();
+    }
+
+    /** Kategori id → ad; ürün listelerini zenginleştirmek için (önbellekten). */
+    public Map<Long, String> getCategoryNames() {
+        return catalogCache.getCategoryNames();
+    }
+
+    public CatalogCache.Stats getCatalogCacheStats() {
+        return catalogCache.stats();
+    }
+
+    public OrderLogService.Stats getOrderLogStats() {
+        return orderLogService.stats();
+    }
+
+    /** Katalog içerik kimliği — değişmediyse ürün/kategori yanıtları da aynıdır. */
+    public long getCatalogVersion() {
+        return catalogCache.generation();
+    }
+
+    /**
+     * Masa görüntüsünün sürümü. Sürüm okunduktan SONRA üretilen görüntü en az
+     * bu sürüm kadar yenidir; çağıran sürümü görüntüden önce okumalıdır.
+     */
+    public long getTableVersion(int tableNo) {
+        return Math.max(tableVersions.getOrDefault(tableNo, 0L), allTablesVersion.get());
+    }
+
+    /**
+     * Masa sürümleri diğer terminallerin her masa mutasyonuyla da ilerliyor mu?
+     * {@code change_seq} varsa evet (her uzak olay sürümü artırır); yoksa poller
+     * yalnız imza farkını görür — not ve mutfak işareti değişiklikleri kaçar.
+     */
+    public boolean isTableVersionJournaled() {
+        return changeFeedDAO.isAvailable();
+    }
+
+    /** Herhangi bir masada değişiklik olduğunda artan kat planı sürümü. */
+    public long getFloorVersion() {
+        return tableVersionSeq.get();
     }
 
     // ============================================================
@@ -428,15 +538,21 @@ public class AppState {
      * Bir kategorinin yazıcı atamalarını yeniler. Eski tüm atamalar silinir,
      * verilen yazıcı id'lerinin tümü eklenir.
      */
-    public synchronized void replaceCategoryRoutes(Long categoryId, java.util.Set<Integer> printerIds) {
-        if (categoryId == null) {
-            throw new IllegalArgumentException("Kategori boş olamaz");
-        }
-        categoryRouteDAO.deleteByCategory(categoryId);
-        if (printerIds == null || printerIds.isEmpty()) return;
-        for (Integer pid : printerIds) {
-            if (pid == null || pid <= 0) continue;
-            categoryRouteDAO.link(categoryId, pid);
+    public void replaceCategoryRoutes(Long categoryId, java.util.Set<Integer> printerIds) {
+        synchronized (catalogLock) {
+            if (categoryId == null) {
+                throw new IllegalArgumentException("Kategori boş olamaz");
+            }
+            try {
+                categoryRouteDAO.deleteByCategory(categoryId);
+                if (printerIds == null || printerIds.isEmpty()) return;
+                for (Integer pid : printerIds) {
+                    if (pid == null || pid <= 0) continue;
+                    categoryRouteDAO.link(categoryId, pid);
+                }
+            } finally {
+                kitchenRouter.invalidate();
+            }
         }
     }
 
@@ -508,19 +624,21 @@ public class AppState {
      * Bir garsonun yetkilerini yeniler. Önce tüm eskileri siler, sonra
      * verilen anahtarları ekler. Anahtar format: {@code "Bina||Salon"}.
      */
-    public synchronized void replaceAreaPermissions(Long userId, java.util.Set<String> areaKeys) {
+    public void replaceAreaPermissions(Long userId, java.util.Set<String> areaKeys) {
         if (userId == null || userId <= 0) {
             throw new IllegalArgumentException("Geçersiz userId");
         }
-        areaPermissionDAO.deleteAllForUser(userId);
-        if (areaKeys == null || areaKeys.isEmpty()) return;
-        for (String key : areaKeys) {
-            if (key == null) continue;
-            int idx = key.indexOf("||");
-            if (idx < 0) continue;
-            String building = key.substring(0, idx);
-            String section  = key.substring(idx + 2);
-            areaPermissionDAO.grant(userId, building, section);
+        synchronized (permissionLock) {
+            areaPermissionDAO.deleteAllForUser(userId);
+            if (areaKeys == null || areaKeys.isEmpty()) return;
+            for (String key : areaKeys) {
+                if (key == null) continue;
+                int idx = key.indexOf("||");
+                if (idx < 0) continue;
+                String building = key.substring(0, idx);
+                String section  = key.substring(idx + 2);
+                areaPermissionDAO.grant(userId, building, section);
+            }
         }
         notifyTableChanged(-1); // tüm masalar yeniden değerlendirilsin
     }
@@ -550,45 +668,130 @@ public class AppState {
         pcs.removePropertyChangeListener(listener);
     }
 
-    public synchronized TableSnapshot snapshot(int tableNo) {
-        TableLayout layout = requireLayout(tableNo);
-        Long tableId = ensureTableExists(tableNo);
-        Optional<Order> optOrder = orderService.getOpenOrderByTable(tableId);
+    public TableSnapshot snapshot(int tableNo) {
+        tableStripes.lock(tableNo);
+        try {
+            TableLayout layout = requireLayout(tableNo);
+            Long tableId = ensureTableExists(tableNo);
+            Optional<Order> optOrder = orderService.getOpenOrderByTable(tableId);
 
-        TableOrderStatus status = TableOrderStatus.EMPTY;
-        List<OrderLine> lines = List.of();
-        List<OrderLogEntry> history = List.of();
-        BigDecimal total = BigDecimal.ZERO.setScale(2, RoundingMode.HALF_UP);
+            TableOrderStatus status = TableOrderStatus.EMPTY;
+            List<OrderLine> lines = List.of();
+            List<OrderLogEntry> history = List.of();
+            BigDecimal total = BigDecimal.ZERO.setScale(2, RoundingMode.HALF_UP);
 
-        if (optOrder.isPresent()) {
-            Order order = optOrder.get();
-            List<OrderItem> items = orderService.getItemsForOrder(order.getId());
-            lines = items.stream()
-                    .map(this::toOrderLine)
-                    .collect(Collectors.toUnmodifiableList());
-            total = lines.stream()
-                    .map(OrderLine::getLineTotal)
-                    .reduce(BigDecimal.ZERO, BigDecimal::add)
-                    .setScale(2, RoundingMode.HALF_UP);
-            status = mapOrderStatus(order.getStatus());
-            List<OrderLogEntry> persisted = orderLogService.getRecentLogs(order.getId(), HISTORY_LIMIT);
-            history = resolveHistorySnapshot(tableNo, persisted);
-        } else {
-            TableStatus tableStatus = tableService.getByTableNo(tableNo)
-                    .map(RestaurantTable::getStatus)
-                    .orElse(TableStatus.EMPTY);
-            status = mapTableStatus(tableStatus);
-            history = resolveHistorySnapshot(tableNo, List.of());
+            if (optOrder.isPresent()) {
+                Order order = optOrder.get();
+                List<OrderItem> items = orderService.getItemsForOrder(order.getId());
+                lines = items.stream()
+                        .map(this::toOrderLine)
+                        .collect(Collectors.toUnmodifiableList());
+                total = lines.stream()
+                        .map(OrderLine::getLineTotal)
+                        .reduce(BigDecimal.ZERO, BigDecimal::add)
+                        .setScale(2, RoundingMode.HALF_UP);
+                status = mapOrderStatus(order.getStatus());
+                List<OrderLogEntry> persisted = orderLogService.getRecentLogs(order.getId(), HISTORY_LIMIT);
+                history = resolveHistorySnapshot(tableNo, persisted);
+            } else {
+                TableStatus tableStatus = tableService.getByTableNo(tableNo)
+                        .map(RestaurantTable::getStatus)
+                        .orElse(TableStatus.EMPTY);
+                status = mapTableStatus(tableStatus);
+                history = resolveHistorySnapshot(tableNo, List.of());
+            }
+
+            return new TableSnapshot(tableNo, layout.building(), layout.section(), status, lines, history, total);
+        } finally {
+            tableStripes.unlock(tableNo);
+        }
+    }
+
+    /**
+     * Birden çok masanın anlık görüntüsü, kat planı sırasıyla.
+     *
+     * <p>{@link SnapshotDetail#SUMMARY}: tek {@code dining_tables LEFT JOIN orders}
+     * sorgusu (kalem toplamı dahil) — masa kilidi alınmaz, sipariş kalemleri ve
+     * {@code order_logs} okunmaz; {@code lines}/{@code history} boştur.
+     * {@link SnapshotDetail#FULL}: her masa için {@link #snapshot(int)}.
+     *
+     * <p>Kat planında olmayan masa numaraları atlanır.
+     */
+    public Map<Integer, TableSnapshot> snapshotAll(java.util.Set<Integer> tableNos, SnapshotDetail detail) {
+        Map<Integer, TableSnapshot> out = new LinkedHashMap<>();
+        if (tableNos == null || tableNos.isEmpty()) {
+            return out;
+        }
+        if (detail == SnapshotDetail.FULL) {
+            for (Integer tableNo : layouts.keySet()) {
+                if (tableNos.contains(tableNo)) {
+                    out.put(tableNo, snapshot(tableNo));
+                }
+            }
+            return out;
+        }
+
+        if (tableNos.size() == 1) {
+            Integer only = tableNos.iterator().next();
+            TableSnapshot one = summary(only);
+            if (one != null) out.put(only, one);
+            return out;
+        }
+
+        Map<Integer, TableOrderState> states = new HashMap<>();
+        for (TableOrderState state : orderService.getAllTableStates()) {
+            states.putIfAbsent(state.tableNo(), state);
+        }
+        for (TableLayout layout : layouts.values()) {
+            int tableNo = layout.tableNo();
+            if (!tableNos.contains(tableNo)) {
+                continue;
+            }
+            out.put(tableNo, summarize(layout, states.get(tableNo)));
+        }
+        return out;
+    }
+
+    /**
+     * Tek masanın {@link SnapshotDetail#SUMMARY} görüntüsü — yalnız o masanın
+     * satırı ve açık siparişi okunur (tek masa butonu yenilemesi için).
+     *
+     * @return kat planında olmayan masa için {@code null}
+     */
+    public TableSnapshot summary(int tableNo) {
+        TableLayout layout = layouts.get(tableNo);
+        if (layout == null) {
+            return null;
         }
+        return summarize(layout, orderService.getTableState(tableNo).orElse(null));
+    }
 
-        return new TableSnapshot(tableNo, layout.building(), layout.section(), status, lines, history, total);
+    private TableSnapshot summarize(TableLayout layout, TableOrderState state) {
+        int tableNo = layout.tableNo();
+        TableOrderStatus status;
+        BigDecimal total = BigDecimal.ZERO;
+        if (state == null) {
+            // DB'de henüz satırı olmayan masa — satırı oluştur, boş göster.
+            ensureTableExists(tableNo);
+            status = TableOrderStatus.EMPTY;
+        } else {
+            tableIds.putIfAbsent(tableNo, state.tableId());
+            if (state.openOrder() != null) {
+                status = mapOrderStatus(state.openOrder().getStatus());
+                total = state.openTotal();
+            } else {
+                status = mapTableStatus(state.tableStatus());
+            }
+        }
+        return new TableSnapshot(tableNo, layout.building(), layout.section(), status,
+                List.of(), List.of(), total.setScale(2, RoundingMode.HALF_UP));
     }
 
-    public synchronized BigDecimal getTableTotal(int tableNo) {
+    public BigDecimal getTableTotal(int tableNo) {
         return snapshot(tableNo).getTotal();
     }
 
-    public synchronized TableOrderStatus getTableStatus(int tableNo) {
+    public TableOrderStatus getTableStatus(int tableNo) {
         return snapshot(tableNo).getStatus();
     }
 
@@ -596,20 +799,30 @@ public class AppState {
     //   Sipariş İşlemleri (ürün ekle / azalt / sil / temizle)
     // ============================================================
 
-    public synchronized void addItem(int tableNo, Long productId, int quantity, User user) {
-        if (productId == null || productId <= 0) {
-            throw new IllegalArgumentException("Geçersiz ürün");
-        }
-        Product product = productService.getProductById(productId);
-        if (product == null) {
-            throw new IllegalArgumentException("Ürün bulunamadı: " + productId);
+    public void addItem(int tableNo, Long productId, int quantity, User user) {
+        tableStripes.lock(tableNo);
+        try {
+            if (productId == null || productId <= 0) {
+                throw new IllegalArgumentException("Geçersiz ürün");
+            }
+            Product product = productService.getProductById(productId);
+            if (product == null) {
+                throw new IllegalArgumentException("Ürün bulunamadı: " + productId);
+            }
+            addItemInternal(tableNo, product, quantity, user);
+        } finally {
+            tableStripes.unlock(tableNo);
         }
-        addItemInternal(tableNo, product, quantity, user);
     }
 
-    public synchronized void addItem(int tableNo, String productName, BigDecimal price, int quantity, User user) {
-        Product product = ensureProduct(productName, price);
-        addItemInternal(tableNo, product, quantity, user);
+    public void addItem(int tableNo, String productName, BigDecimal price, int quantity, User user) {
+        tableStripes.lock(tableNo);
+        try {
+            Product product = ensureProduct(productName, price);
+            addItemInternal(tableNo, product, quantity, user);
+        } finally {
+            tableStripes.unlock(tableNo);
+        }
     }
 
     /**
@@ -619,23 +832,28 @@ public class AppState {
      *
      * @param pieces toplam şiş/birim sayısı (örn. 5)
      */
-    public synchronized void addItemByPieces(int tableNo, Long productId, int pieces, User user) {
-        if (productId == null || productId <= 0) {
-            throw new IllegalArgumentException("Geçersiz ürün");
-        }
-        if (pieces <= 0) {
-            throw new IllegalArgumentException("Şiş/birim sayısı 1 veya üzeri olmalı");
-        }
-        Product product = productService.getProductById(productId);
-        if (product == null) {
-            throw new IllegalArgumentException("Ürün bulunamadı: " + productId);
-        }
-        if (!product.isPieceBased()) {
-            // Şiş bazlı değilse normal akış (pieces = quantity)
-            addItemInternal(tableNo, product, pieces, user);
-            return;
+    public void addItemByPieces(int tableNo, Long productId, int pieces, User user) {
+        tableStripes.lock(tableNo);
+        try {
+            if (productId == null || productId <= 0) {
+                throw new IllegalArgumentException("Geçersiz ürün");
+            }
+            if (pieces <= 0) {
+                throw new IllegalArgumentException("Şiş/birim sayısı 1 veya üzeri olmalı");
+            }
+            Product product = productService.getProductById(productId);
+            if (product == null) {
+                throw new IllegalArgumentException("Ürün bulunamadı: " + productId);
+            }
+            if (!product.isPieceBased()) {
+                // Şiş bazlı değilse normal akış (pieces = quantity)
+                addItemInternal(tableNo, product, pieces, user);
+                return;
+            }
+            addItemInternalPieces(tableNo, product, pieces, user);
+        } finally {
+            tableStripes.unlock(tableNo);
         }
-        addItemInternalPieces(tableNo, product, pieces, user);
     }
 
     /** Not çakışma karşılaştırmasında Türkçe case-folding için (İ/ı doğru katlansın). */
@@ -646,68 +864,140 @@ public class AppState {
      *
      * <p>Aynı ürün için mevcut satırın notu ile yeni notun normalize edilmiş halleri
      * farklıysa ürün HİÇ eklenmez ({@code itemAdded=false}): quantity artmaz,
-     * history/orderLog yazılmaz, UI event yayınlanmaz. Çakışma yoksa mevcut
-     * {@link #addItem(int, Long, int, User)} / {@link #addItemByPieces} ve not
-     * istendiyse {@link #setItemNote} davranışları aynen kullanılır (intrinsic
-     * monitor reentrant olduğundan iç çağrılar güvenlidir).
+     * history/orderLog yazılmaz, UI event yayınlanmaz. Çakışma yoksa ürün ve
+     * not tek transaction'da yazılır — tek kalemlik {@link #addItems}.
      *
-     * <p>Guard + add + not tek synchronized blokta çalıştığı için in-process
+     * <p>Guard + add + not aynı masa kilidi altında çalıştığı için in-process
      * yarışlara kapalıdır; DB-level tutarlılık garantisi DEĞİLDİR (Stage 0G
      * safety mitigation).
      *
      * @param pieces {@code null} → porsiyon bazlı ekleme ({@code quantity} kullanılır);
-     *               non-null → mevcut şiş bazlı {@code addItemByPieces} yolu.
+     *               non-null → şiş bazlı ekleme ({@link #addItemByPieces} kuralları).
+     */
+    public ItemAddWithNoteResult addItemWithNote(int tableNo, Long productId,
+                                                 int quantity, Integer pieces,
+                                                 String note, User user) {
+        return addItems(tableNo, List.of(new ItemRequest(productId, quantity, pieces, note)), user).get(0);
+    }
+
+    /**
+     * Sepet satırı — {@link #addItems} için.
+     *
+     * @param pieces {@code null} → porsiyon bazlı ({@code quantity}); dolu → toplam şiş
+     * @param note   opsiyonel kalem notu
+     */
+    public record ItemRequest(Long productId, int quantity, Integer pieces, String note) {}
+
+    /**
+     * Bir sepeti (ürün seçici, PWA toplu ekleme) tek seferde ekler: tek
+     * transaction ({@link OrderService#addItemsInOneTransaction}), tek
+     * history/{@code order_logs} satırı ("2 x Adana, 5 şiş Ciğer ekledi"),
+     * tek {@link #notifyTableChanged}.
+     *
+     * <p>Her satıra {@link #addItemWithNote}'un not çakışma koruması uygulanır
+     * (mevcut kalemler bir kez okunur; aynı sepette aynı ürün farklı notla
+     * iki kez gelirse ikincisi çakışır). Çakışan satır atlanır, diğerleri
+     * eklenir. Geçersiz satır (ürün yok, adet ≤ 0) tüm sepeti reddeder —
+     * hiçbir şey yazılmaz.
+     *
+     * @return her istek için sonuç, istek sırasıyla
      */
-    public synchronized ItemAddWithNoteResult addItemWithNote(int tableNo, Long productId,
-                                                              int quantity, Integer pieces,
-                                                              String note, User user) {
-        // --- Guard: quantity artmadan ÖNCE not kimliği karşılaştırması ---
-        if (productId != null && productId > 0) {
+    public List<ItemAddWithNoteResult> addItems(int tableNo, List<ItemRequest> requests, User user) {
+        tableStripes.lock(tableNo);
+        try {
+            if (requests == null || requests.isEmpty()) {
+                return List.of();
+            }
             Long tableId = ensureTableExists(tableNo);
-            Order order = orderService.getOpenOrderByTable(tableId).orElse(null);
-            if (order != null) {
-                for (OrderItem item : orderService.getItemsForOrder(order.getId())) {
-                    if (item != null && productId.equals(item.getProductId())) {
-                        boolean notesDiffer = !normalizeNoteForCompare(item.getNote())
-                                .equals(normalizeNoteForCompare(note));
-                        // Capability YALNIZ potansiyel conflict anında doğrulanır.
-                        // Doğrulanamadıysa (unsupported VEYA geçici hata) guard atlanır:
-                        // note kolonu okunamayan şemada "note=null" görünümü gerçek bir
-                        // çakışma değildir — davranışı B1/B2 zinciri belirler.
-                        if (notesDiffer && orderService.isNoteColumnConfirmedAvailable()) {
-                            return new ItemAddWithNoteResult(false, null);
+            // Guard: mevcut kalemlerin notları (ürün → ilk satırın notu)
+            Map<Long, String> lineNotes = new HashMap<>();
+            Order open = orderService.getOpenOrderByTable(tableId).orElse(null);
+            if (open != null) {
+                for (OrderItem item : orderService.getItemsForOrder(open.getId())) {
+                    if (item != null && item.getProductId() != null) {
+                        lineNotes.putIfAbsent(item.getProductId(), item.getNote() == null ? "" : item.getNote());
+                    }
+                }
+            }
+            Boolean noteGuard = null;   // capability yalnız potansiyel çakışmada sorulur
+
+            ItemAddWithNoteResult[] results = new ItemAddWithNoteResult[requests.size()];
+            List<Integer> accepted = new ArrayList<>();
+            List<OrderService.LineRequest> lines = new ArrayList<>();
+            List<String> labels = new ArrayList<>();
+            for (int i = 0; i < requests.size(); i++) {
+                ItemRequest req = requests.get(i);
+                Product product = resolveForAdd(req);
+                Integer pieces = req.pieces() != null && product.isPieceBased() ? req.pieces() : null;
+                int quantity = req.pieces() != null ? req.pieces() : req.quantity();
+                String note = req.note() == null || req.note().isBlank() ? null : req.note().trim();
+
+                String existing = lineNotes.get(product.getId());
+                if (existing != null) {
+                    boolean notesDiffer = !normalizeNoteForCompare(existing).equals(normalizeNoteForCompare(note));
+                    if (notesDiffer) {
+                        if (noteGuard == null) noteGuard = orderService.isNoteColumnConfirmedAvailable();
+                        if (noteGuard) {
+                            results[i] = new ItemAddWithNoteResult(false, null);
+                            continue;
                         }
-                        break; // mevcut modelde order+product için tek satır varsayımı
+                    } else if (note != null) {
+                        note = existing;   // aynı satıra düşsün: note_hash birebir metinden
                     }
+                } else {
+                    lineNotes.put(product.getId(), note == null ? "" : note);
                 }
+                accepted.add(i);
+                lines.add(new OrderService.LineRequest(product, quantity, pieces, note));
+                labels.add(addLabel(product, quantity, pieces, note));
+            }
+            if (lines.isEmpty()) {
+                return List.of(results);
             }
+            String msg = String.join(", ", labels) + " ekledi";
+            OrderService.AddItemsResult result = orderService.addItemsInOneTransaction(tableId,
+                    user == null ? null : user.getId(), lines, historyEntry(user, msg));
+            for (int k = 0; k < accepted.size(); k++) {
+                results[accepted.get(k)] = new ItemAddWithNoteResult(true, result.noteResults().get(k));
+            }
+            Order order = result.order();
+            // order_logs satırı ekleme transaction'ında yazıldı
+            rememberHistory(tableNo, historyEntry(user, msg));
+            tableSignatures.put(tableNo, signatureOf(order, TableStatus.OCCUPIED));
+            notifyTableChanged(tableNo);
+            return List.of(results);
+        } finally {
+            tableStripes.unlock(tableNo);
         }
-        // --- Çakışma yok: mevcut add davranışı aynen ---
-        if (pieces != null) {
-            addItemByPieces(tableNo, productId, pieces, user);
-        } else {
-            addItem(tableNo, productId, quantity, user);
+    }
+
+    /** {@link #addItems} satırı için ürün + adet doğrulaması ({@link #addItem}/{@link #addItemByPieces} kuralları). */
+    private Product resolveForAdd(ItemRequest req) {
+        if (req == null || req.productId() == null || req.productId() <= 0) {
+            throw new IllegalArgumentException("Geçersiz ürün");
         }
-        // --- Not istendiyse mevcut setItemNote davranışı aynen ---
-        ItemNoteUpdateResult noteResult = null;
-        if (note != null && !note.isBlank()) {
-            try {
-                Product p = productService.getProductById(productId);
-                String productName = (p == null) ? null : p.getName();
-                noteResult = (productName == null)
-                        ? ItemNoteUpdateResult.NOT_FOUND
-                        : setItemNote(tableNo, productName, note, user);
-            } catch (RuntimeException ex) {
-                // Ürün eklendi; not aşaması hatası ekleme başarısını bozmamalı.
-                // Güvenli log: yalnız exception sınıf adı (DB diagnostic/SQL metni sızmasın).
-                LOG.warn(
-                        "Item note application failed after add ({})",
-                        ex.getClass().getSimpleName()
-                );
-                noteResult = ItemNoteUpdateResult.FAILED;
+        if (req.pieces() != null) {
+            if (req.pieces() <= 0) {
+                throw new IllegalArgumentException("Şiş/birim sayısı 1 veya üzeri olmalı");
             }
+        } else if (req.quantity() <= 0) {
+            throw new IllegalArgumentException("Adet sıfır olamaz");
+        }
+        Product product = productService.getProductById(req.productId());
+        if (product == null) {
+            throw new IllegalArgumentException("Ürün bulunamadı: " + req.productId());
         }
-        return new ItemAddWithNoteResult(true, noteResult);
+        return product;
+    }
+
+    /** "2 x Adana", "5 şiş Ciğer", not varsa {@code (acısız)} eki. */
+    private String addLabel(Product product, int quantity, Integer pieces, String note) {
+        String name = safeProductName(product);
+        if (name.isEmpty()) name = "Ürün";
+        String label = pieces != null
+                ? quantity + " " + (product.getUnitLabel() == null ? "şiş" : product.getUnitLabel()) + " " + name
+                : quantity + " x " + name;
+        return note == null ? label : label + " (" + note + ")";
     }
 
     /**
@@ -726,20 +1016,10 @@ public class AppState {
             throw new IllegalStateException("Ürün kaydedilmemiş: " + safeProductName(product));
         }
         Long tableId = ensureTableExists(tableNo);
-        Order order = orderService.getOpenOrderByTable(tableId)
-                .orElseGet(() -> orderService.createOrder(tableId, user == null ? null : user.getId()));
-        // Stok yönetimi UI'dan kaldırıldı → virtual restock'a gerek yok.
-        // OrderService overload'ı pieces parametresiyle çağrılır → şiş bazlı fiyat
-        orderService.addItemToOrder(order.getId(), productId, pieces, pieces);
-        orderService.updateOrderStatus(order.getId(), OrderStatus.IN_PROGRESS);
-        orderService.recomputeTotals(order.getId());
-        tableService.markTableOccupied(tableId, true);
         String label = product.getUnitLabel() == null ? "şiş" : product.getUnitLabel();
         String msg = pieces + " " + label + " " + safeProductName(product) + " ekledi";
-        recordHistory(tableNo, order.getId(), historyEntry(user, msg));
-        orderLogService.append(order.getId(), historyEntry(user, msg));
-        refreshTableSignature(tableNo);
-        notifyTableChanged(tableNo);
+        // pieces parametresiyle → şiş bazlı fiyat
+        commitAddItem(tableNo, tableId, product, pieces, pieces, user, msg);
     }
 
     private void addItemInternal(int tableNo, Product product, int quantity, User user) {
@@ -759,28 +1039,38 @@ public class AppState {
             throw new IllegalStateException("Ürün kaydedilemedi: " + safeProductName(resolved));
         }
         Long tableId = ensureTableExists(tableNo);
-        Order order = orderService.getOpenOrderByTable(tableId)
-                .orElseGet(() -> orderService.createOrder(tableId, user == null ? null : user.getId()));
-        // Stok yönetimi UI'dan kaldırıldı → virtual restock'a gerek yok.
-        // OrderService.addItemToOrder içinde stok azaltması zaten yapılıyor;
-        // CHECK constraint patlarsa ProductJdbcDAO.updateStock clamp ile geçer.
-        orderService.addItemToOrder(order.getId(), productId, quantity);
-        orderService.updateOrderStatus(order.getId(), OrderStatus.IN_PROGRESS);
-        orderService.recomputeTotals(order.getId());
-        tableService.markTableOccupied(tableId, true);
         String productLabel = safeProductName(resolved);
         if (productLabel.isEmpty()) {
             productLabel = "Ürün";
         }
         String msg = quantity + " x " + productLabel + " ekledi";
-        recordHistory(tableNo, order.getId(), historyEntry(user, msg));
-        orderLogService.append(order.getId(), historyEntry(user, msg));
-        refreshTableSignature(tableNo);
+        commitAddItem(tableNo, tableId, resolved, quantity, null, user, msg);
+    }
+
+    /**
+     * Ekleme komutunu tek transaction'da uygular
+     * ({@link OrderService#addItemInOneTransaction}); masa imzası dönen
+     * siparişten kurulur — ayrı SELECT yok. Stok yönetimi UI'dan kaldırıldı;
+     * CHECK constraint patlarsa ProductJdbcDAO.updateStock clamp ile geçer.
+     */
+    private void commitAddItem(int tableNo, Long tableId, Product product, int quantity, Integer pieces,
+                               User user, String msg) {
+        OrderService.AddItemResult result = orderService.addItemInOneTransaction(tableId,
+                user == null ? null : user.getId(), product, quantity, pieces, historyEntry(user, msg));
+        Order order = result.order();
+        // order_logs satırı ekleme transaction'ında yazıldı
+        rememberHistory(tableNo, historyEntry(user, msg));
+        tableSignatures.put(tableNo, signatureOf(order, TableStatus.OCCUPIED));
         notifyTableChanged(tableNo);
     }
 
-    public synchronized void decreaseItem(int tableNo, String productName, int quantity, User user) {
-        decreaseItem(tableNo, productName, quantity, user, null);
+    public void decreaseItem(int tableNo, String productName, int quantity, User user) {
+        tableStripes.lock(tableNo);
+        try {
+            decreaseItem(tableNo, productName, quantity, user, null);
+        } finally {
+            tableStripes.unlock(tableNo);
+        }
     }
 
     /**
@@ -796,18 +1086,23 @@ public class AppState {
      * @param reason iade nedeni — null/boş ise garson için OK, kalem pending ise
      *               opsiyonel; admin/kasiyer her durumda yazmaya zorlanmalı (UI'da kontrol).
      */
-    public synchronized void decreaseItem(int tableNo, String productName, int quantity, User user, String reason) {
-        if (quantity <= 0) {
-            throw new IllegalArgumentException("Adet sıfır olamaz");
-        }
-        Long tableId = ensureTableExists(tableNo);
-        Order order = orderService.getOpenOrderByTable(tableId)
-                .orElseThrow(() -> new IllegalArgumentException("Aktif sipariş bulunamadı: " + tableNo));
-        OrderItem item = findOrderItem(order.getId(), productName);
-        if (item == null) {
-            return;
+    public void decreaseItem(int tableNo, String productName, int quantity, User user, String reason) {
+        tableStripes.lock(tableNo);
+        try {
+            if (quantity <= 0) {
+                throw new IllegalArgumentException("Adet sıfır olamaz");
+            }
+            Long tableId = ensureTableExists(tableNo);
+            Order order = orderService.getOpenOrderByTable(tableId)
+                    .orElseThrow(() -> new IllegalArgumentException("Aktif sipariş bulunamadı: " + tableNo));
+            OrderItem item = findOrderItem(order.getId(), productName);
+            if (item == null) {
+                return;
+            }
+            decreaseItemInternal(tableNo, tableId, order, item, productName, quantity, user, reason);
+        } finally {
+            tableStripes.unlock(tableNo);
         }
-        decreaseItemInternal(tableNo, tableId, order, item, productName, quantity, user, reason);
     }
 
     /**
@@ -821,22 +1116,27 @@ public class AppState {
      * @return {@code true} = mutasyon uygulandı; {@code false} = açık sipariş yok
      *         veya kalem bu siparişte bulunamadı (mutasyon yapılmadı).
      */
-    public synchronized boolean decreaseItemById(int tableNo, long orderItemId, int quantity,
+    public boolean decreaseItemById(int tableNo, long orderItemId, int quantity,
                                                  User user, String reason) {
-        if (quantity <= 0) {
-            throw new IllegalArgumentException("Adet sıfır olamaz");
-        }
-        Long tableId = ensureTableExists(tableNo);
-        Order order = orderService.getOpenOrderByTable(tableId).orElse(null);
-        if (order == null) {
-            return false;
-        }
-        OrderItem item = findOrderItemById(order.getId(), orderItemId);
-        if (item == null) {
-            return false; // bu masanın açık siparişinde yok (cross-table id dahil) — mutasyon YOK
+        tableStripes.lock(tableNo);
+        try {
+            if (quantity <= 0) {
+                throw new IllegalArgumentException("Adet sıfır olamaz");
+            }
+            Long tableId = ensureTableExists(tableNo);
+            Order order = orderService.getOpenOrderByTable(tableId).orElse(null);
+            if (order == null) {
+                return false;
+            }
+            OrderItem item = findOrderItemById(order.getId(), orderItemId);
+            if (item == null) {
+                return false; // bu masanın açık siparişinde yok (cross-table id dahil) — mutasyon YOK
+            }
+            decreaseItemInternal(tableNo, tableId, order, item, displayName(item), quantity, user, reason);
+            return true;
+        } finally {
+            tableStripes.unlock(tableNo);
         }
-        decreaseItemInternal(tableNo, tableId, order, item, displayName(item), quantity, user, reason);
-        return true;
     }
 
     /**
@@ -852,10 +1152,8 @@ public class AppState {
         if (item.getProductId() != null) {
             productService.decreaseProductStock(item.getProductId(), quantity);
         }
-        orderService.recomputeTotals(order.getId());
         String msg = quantity + " x " + productLabel + " azalttı";
         recordHistory(tableNo, order.getId(), historyEntry(user, msg));
-        orderLogService.append(order.getId(), historyEntry(user, msg));
 
         // Audit log — iade kaydı tut
         java.math.BigDecimal lineRefund = resolveUnitPrice(item)
@@ -872,8 +1170,13 @@ public class AppState {
         notifyTableChanged(tableNo);
     }
 
-    public synchronized void removeItem(int tableNo, String productName, User user) {
-        removeItem(tableNo, productName, user, null);
+    public void removeItem(int tableNo, String productName, User user) {
+        tableStripes.lock(tableNo);
+        try {
+            removeItem(tableNo, productName, user, null);
+        } finally {
+            tableStripes.unlock(tableNo);
+        }
     }
 
     /**
@@ -885,17 +1188,22 @@ public class AppState {
      *   <li>Admin/Kasiyer: Her zaman izinli. UI'da reason girilmesi zorunlu.</li>
      * </ul>
      */
-    public synchronized void removeItem(int tableNo, String productName, User user, String reason) {
-        Long tableId = ensureTableExists(tableNo);
-        Order order = orderService.getOpenOrderByTable(tableId).orElse(null);
-        if (order == null) {
-            return;
-        }
-        OrderItem item = findOrderItem(order.getId(), productName);
-        if (item == null) {
-            return;
+    public void removeItem(int tableNo, String productName, User user, String reason) {
+        tableStripes.lock(tableNo);
+        try {
+            Long tableId = ensureTableExists(tableNo);
+            Order order = orderService.getOpenOrderByTable(tableId).orElse(null);
+            if (order == null) {
+                return;
+            }
+            OrderItem item = findOrderItem(order.getId(), productName);
+            if (item == null) {
+                return;
+            }
+            removeItemInternal(tableNo, tableId, order, item, productName, user, reason);
+        } finally {
+            tableStripes.unlock(tableNo);
         }
-        removeItemInternal(tableNo, tableId, order, item, productName, user, reason);
     }
 
     /**
@@ -908,18 +1216,23 @@ public class AppState {
      * @return {@code true} = silindi; {@code false} = açık sipariş yok veya kalem
      *         bu siparişte bulunamadı (mutasyon yapılmadı).
      */
-    public synchronized boolean removeItemById(int tableNo, long orderItemId, User user, String reason) {
-        Long tableId = ensureTableExists(tableNo);
-        Order order = orderService.getOpenOrderByTable(tableId).orElse(null);
-        if (order == null) {
-            return false;
-        }
-        OrderItem item = findOrderItemById(order.getId(), orderItemId);
-        if (item == null) {
-            return false; // bu masanın açık siparişinde yok (cross-table id dahil) — mutasyon YOK
+    public boolean removeItemById(int tableNo, long orderItemId, User user, String reason) {
+        tableStripes.lock(tableNo);
+        try {
+            Long tableId = ensureTableExists(tableNo);
+            Order order = orderService.getOpenOrderByTable(tableId).orElse(null);
+            if (order == null) {
+                return false;
+            }
+            OrderItem item = findOrderItemById(order.getId(), orderItemId);
+            if (item == null) {
+                return false; // bu masanın açık siparişinde yok (cross-table id dahil) — mutasyon YOK
+            }
+            removeItemInternal(tableNo, tableId, order, item, displayName(item), user, reason);
+            return true;
+        } finally {
+            tableStripes.unlock(tableNo);
         }
-        removeItemInternal(tableNo, tableId, order, item, displayName(item), user, reason);
-        return true;
     }
 
     /**
@@ -934,10 +1247,8 @@ public class AppState {
         if (item.getProductId() != null && qty > 0) {
             productService.decreaseProductStock(item.getProductId(), qty);
         }
-        orderService.recomputeTotals(order.getId());
         String msg = productLabel + " ürününü sildi";
         recordHistory(tableNo, order.getId(), historyEntry(user, msg));
-        orderLogService.append(order.getId(), historyEntry(user, msg));
 
         // Audit log
         java.math.BigDecimal refundAmount = resolveUnitPrice(item)
@@ -1049,62 +1360,66 @@ public class AppState {
      *   <li>Admin/Kasiyer her zaman izinli.</li>
      * </ul>
      */
-    public synchronized void transferTable(int fromTableNo, int toTableNo, User user) {
-        if (fromTableNo == toTableNo) {
-            throw new IllegalArgumentException("Kaynak ve hedef masa aynı");
-        }
-        if (user == null) {
-            throw new SecurityException("Kullanıcı bilinmiyor — masa transferi yapılamaz");
-        }
-        // Yetki kontrolü — garson hem kaynak hem hedef masaya erişebilmeli
-        if (!canAccessTable(fromTableNo, user) || !canAccessTable(toTableNo, user)) {
-            throw new SecurityException(
-                    "Bu masalardan en az birinin yetkisi yok (Masa " + fromTableNo
-                    + " → Masa " + toTableNo + ")");
-        }
+    public void transferTable(int fromTableNo, int toTableNo, User user) {
+        tableStripes.lockBoth(fromTableNo, toTableNo);
+        try {
+            if (fromTableNo == toTableNo) {
+                throw new IllegalArgumentException("Kaynak ve hedef masa aynı");
+            }
+            if (user == null) {
+                throw new SecurityException("Kullanıcı bilinmiyor — masa transferi yapılamaz");
+            }
+            // Yetki kontrolü — garson hem kaynak hem hedef masaya erişebilmeli
+            if (!canAccessTable(fromTableNo, user) || !canAccessTable(toTableNo, user)) {
+                throw new SecurityException(
+                        "Bu masalardan en az birinin yetkisi yok (Masa " + fromTableNo
+                        + " → Masa " + toTableNo + ")");
+            }
 
-        Long fromTableId = ensureTableExists(fromTableNo);
-        Long toTableId   = ensureTableExists(toTableNo);
+            Long fromTableId = ensureTableExists(fromTableNo);
+            Long toTableId   = ensureTableExists(toTableNo);
 
-        Order fromOrder = orderService.getOpenOrderByTable(fromTableId).orElse(null);
-        if (fromOrder == null) {
-            throw new IllegalArgumentException("Masa " + fromTableNo + " boş — taşınacak sipariş yok");
-        }
-        Order toOrder = orderService.getOpenOrderByTable(toTableId).orElse(null);
-        if (toOrder != null) {
-            throw new IllegalArgumentException("Masa " + toTableNo + " dolu — önce hedef masayı boşaltın");
-        }
+            Order fromOrder = orderService.getOpenOrderByTable(fromTableId).orElse(null);
+            if (fromOrder == null) {
+                throw new IllegalArgumentException("Masa " + fromTableNo + " boş — taşınacak sipariş yok");
+            }
+            Order toOrder = orderService.getOpenOrderByTable(toTableId).orElse(null);
+            if (toOrder != null) {
+                throw new IllegalArgumentException("Masa " + toTableNo + " dolu — önce hedef masayı boşaltın");
+            }
 
-        // Order'ın table_id'sini değiştir
-        orderService.reassignTable(fromOrder.getId(), toTableId);
-        // Eski masayı boşalt, yenisini dolu yap
-        try {
-            tableService.markTableOccupied(fromTableId, false);
-        } catch (RuntimeException e) {
-            LOG.debug("Source table occupancy cleanup failed after transfer; ignored: {}", e.toString());
-        }
-        try {
-            tableService.markTableOccupied(toTableId, true);
-        } catch (RuntimeException e) {
-            LOG.debug("Target table occupancy update failed after transfer; ignored: {}", e.toString());
-        }
+            // Order'ın table_id'sini değiştir
+            orderService.reassignTable(fromOrder.getId(), toTableId);
+            // Eski masayı boşalt, yenisini dolu yap
+            try {
+                tableService.markTableOccupied(fromTableId, false);
+            } catch (RuntimeException e) {
+                LOG.debug("Source table occupancy cleanup failed after transfer; ignored: {}", e.toString());
+            }
+            try {
+                tableService.markTableOccupied(toTableId, true);
+            } catch (RuntimeException e) {
+                LOG.debug("Target table occupancy update failed after transfer; ignored: {}", e.toString());
+            }
 
-        String msg = "siparişi Masa " + fromTableNo + " → Masa " + toTableNo + " taşıdı";
-        recordHistory(fromTableNo, fromOrder.getId(), historyEntry(user, msg));
-        recordHistory(toTableNo, fromOrder.getId(), historyEntry(user, msg));
-        orderLogService.append(fromOrder.getId(), historyEntry(user, msg));
+            String msg = "siparişi Masa " + fromTableNo + " → Masa " + toTableNo + " taşıdı";
+            recordHistory(fromTableNo, fromOrder.getId(), historyEntry(user, msg));
+            rememberHistory(toTableNo, historyEntry(user, msg));
 
-        refreshTableSignature(fromTableNo);
-        refreshTableSignature(toTableNo);
-        notifyTableChanged(fromTableNo);
-        notifyTableChanged(toTableNo);
+            refreshTableSignature(fromTableNo);
+            refreshTableSignature(toTableNo);
+            notifyTableChanged(fromTableNo);
+            notifyTableChanged(toTableNo);
+        } finally {
+            tableStripes.unlockBoth(fromTableNo, toTableNo);
+        }
     }
 
     /**
      * Garson/Admin için "boş hedef masa" listesini döner.
      * Kaynak masa hariç, kullanıcının erişebildiği ve şu an siparişsiz olan masalar.
      */
-    public synchronized List<Integer> getAvailableTransferTargets(int fromTableNo, User user) {
+    public List<Integer> getAvailableTransferTargets(int fromTableNo, User user) {
         if (user == null) return List.of();
         List<Integer> result = new ArrayList<>();
         for (Integer tableNo : layouts.keySet()) {
@@ -1196,7 +1511,7 @@ public class AppState {
     }
 
     /** İşlem geçmişi panelinde gösterilecek tüm refund kayıtları (en yeni üstte). */
-    public synchronized List<RefundLog> getAllRefundLogs() {
+    public List<RefundLog> getAllRefundLogs() {
         try {
             return refundLogDAO.findAll();
         } catch (RuntimeException ex) {
@@ -1206,7 +1521,7 @@ public class AppState {
     }
 
     /** Tarih aralığına göre refund log filtresi. */
-    public synchronized List<RefundLog> getRefundLogsByDateRange(LocalDate from, LocalDate to) {
+    public List<RefundLog> getRefundLogsByDateRange(LocalDate from, LocalDate to) {
         try {
             return refundLogDAO.findByDateRange(from, to);
         } catch (RuntimeException ex) {
@@ -1242,30 +1557,39 @@ public class AppState {
      * @param productName kalemin ürün adı (snapshot)
      * @param note  boş string → notu temizle; null → işlem iptal
      */
-    public synchronized ItemNoteUpdateResult setItemNote(int tableNo, String productName, String note, User user) {
-        Long tableId = ensureTableExists(tableNo);
-        Order order = orderService.getOpenOrderByTable(tableId).orElse(null);
-        if (order == null) return ItemNoteUpdateResult.NOT_FOUND;
-        OrderItem item = findOrderItem(order.getId(), productName);
-        if (item == null) return ItemNoteUpdateResult.NOT_FOUND;
-
-        ItemNoteUpdateResult result = orderService.updateItemNote(item.getId(), note);
-        if (result != ItemNoteUpdateResult.APPLIED) {
-            // Not gerçekten uygulanmadı — history/orderLog yazma, UI event yayma.
-            return result;
-        }
-        String summary = (note == null || note.isBlank())
-                ? productName + " notu temizlendi"
-                : productName + " notu: \"" + note + "\"";
-        recordHistory(tableNo, order.getId(), historyEntry(user, summary));
-        orderLogService.append(order.getId(), historyEntry(user, summary));
-        refreshTableSignature(tableNo);
-        notifyTableChanged(tableNo);
-        return ItemNoteUpdateResult.APPLIED;
+    public ItemNoteUpdateResult setItemNote(int tableNo, String productName, String note, User user) {
+        tableStripes.lock(tableNo);
+        try {
+            Long tableId = ensureTableExists(tableNo);
+            Order order = orderService.getOpenOrderByTable(tableId).orElse(null);
+            if (order == null) return ItemNoteUpdateResult.NOT_FOUND;
+            OrderItem item = findOrderItem(order.getId(), productName);
+            if (item == null) return ItemNoteUpdateResult.NOT_FOUND;
+
+            ItemNoteUpdateResult result = orderService.updateItemNote(item.getId(), note);
+            if (result != ItemNoteUpdateResult.APPLIED) {
+                // Not gerçekten uygulanmadı — history/orderLog yazma, UI event yayma.
+                return result;
+            }
+            String summary = (note == null || note.isBlank())
+                    ? productName + " notu temizlendi"
+                    : productName + " notu: \"" + note + "\"";
+            recordHistory(tableNo, order.getId(), historyEntry(user, summary));
+            refreshTableSignature(tableNo);
+            notifyTableChanged(tableNo);
+            return ItemNoteUpdateResult.APPLIED;
+        } finally {
+            tableStripes.unlock(tableNo);
+        }
     }
 
-    public synchronized void clearTable(int tableNo, User user) {
-        clearTable(tableNo, user, null);
+    public void clearTable(int tableNo, User user) {
+        tableStripes.lock(tableNo);
+        try {
+            clearTable(tableNo, user, null);
+        } finally {
+            tableStripes.unlock(tableNo);
+        }
     }
 
     /**
@@ -1276,81 +1600,90 @@ public class AppState {
      *
      * @param reason iade nedeni — null/boş olabilir ama UI'da zorunlu tutulmalı.
      */
-    public synchronized void clearTable(int tableNo, User user, String reason) {
-        // Yetki kontrolü — garson masayı temizleyemez
-        ensureRefundPrivilege(user, "masa temizle");
-
-        Long tableId = ensureTableExists(tableNo);
-        Order order = orderService.getOpenOrderByTable(tableId).orElse(null);
-        if (order == null) {
-            tableService.markTableOccupied(tableId, false);
-            refreshTableSignature(tableNo);
-            notifyTableChanged(tableNo);
-            return;
-        }
-        List<OrderItem> items = orderService.getItemsForOrder(order.getId());
+    public void clearTable(int tableNo, User user, String reason) {
+        tableStripes.lock(tableNo);
+        try {
+            // Yetki kontrolü — garson masayı temizleyemez
+            ensureRefundPrivilege(user, "masa temizle");
 
-        // Toplam iade tutarı (audit için)
-        java.math.BigDecimal totalRefund = items.stream()
-                .filter(i -> i != null && i.getQuantity() > 0)
-                .map(this::lineTotal)
-                .reduce(java.math.BigDecimal.ZERO, java.math.BigDecimal::add)
-                .setScale(2, java.math.RoundingMode.HALF_UP);
+            Long tableId = ensureTableExists(tableNo);
+            Order order = orderService.getOpenOrderByTable(tableId).orElse(null);
+            if (order == null) {
+                tableService.markTableOccupied(tableId, false);
+                refreshTableSignature(tableNo);
+                notifyTableChanged(tableNo);
+                return;
+            }
+            List<OrderItem> items = orderService.getItemsForOrder(order.getId());
 
-        orderService.clearItems(order.getId());
-        for (OrderItem item : items) {
-            if (item.getProductId() != null && item.getQuantity() > 0) {
-                productService.decreaseProductStock(item.getProductId(), item.getQuantity());
+            // Toplam iade tutarı (audit için)
+            java.math.BigDecimal totalRefund = items.stream()
+                    .filter(i -> i != null && i.getQuantity() > 0)
+                    .map(this::lineTotal)
+                    .reduce(java.math.BigDecimal.ZERO, java.math.BigDecimal::add)
+                    .setScale(2, java.math.RoundingMode.HALF_UP);
+
+            orderService.clearItems(order.getId());
+            for (OrderItem item : items) {
+                if (item.getProductId() != null && item.getQuantity() > 0) {
+                    productService.decreaseProductStock(item.getProductId(), item.getQuantity());
+                }
             }
-        }
-        orderService.updateOrderStatus(order.getId(), OrderStatus.CANCELLED);
-        orderService.reassignTable(order.getId(), null);
-        // Masa durumunu EMPTY yap
-        try {
-            tableService.markTableOccupied(tableId, false);
-        } catch (RuntimeException e) {
-            LOG.debug("Table cleanup state sync failed; ignored: {}", e.toString());
-        }
-        recordHistory(tableNo, order.getId(), historyEntry(user, "masayı temizledi"));
+            orderService.updateOrderStatus(order.getId(), OrderStatus.CANCELLED);
+            orderService.reassignTable(order.getId(), null);
+            // Masa durumunu EMPTY yap
+            try {
+                tableService.markTableOccupied(tableId, false);
+            } catch (RuntimeException e) {
+                LOG.debug("Table cleanup state sync failed; ignored: {}", e.toString());
+            }
+            recordHistory(tableNo, order.getId(), historyEntry(user, "masayı temizledi"));
 
-        // Audit log
-        writeRefundLog(user, RefundLog.ActionType.CLEAR_TABLE,
-                tableNo, order.getId(), null, items.size(), totalRefund, reason);
+            // Audit log
+            writeRefundLog(user, RefundLog.ActionType.CLEAR_TABLE,
+                    tableNo, order.getId(), null, items.size(), totalRefund, reason);
 
-        refreshTableSignature(tableNo);
-        notifyTableChanged(tableNo);
+            refreshTableSignature(tableNo);
+            notifyTableChanged(tableNo);
+        } finally {
+            tableStripes.unlock(tableNo);
+        }
     }
 
-    public synchronized void markServed(int tableNo, User user) {
-        Long tableId = ensureTableExists(tableNo);
-        Order order = orderService.getOpenOrderByTable(tableId).orElse(null);
-        if (order == null) {
-            return;
-        }
-        orderService.updateOrderStatus(order.getId(), OrderStatus.READY);
-        // "Sipariş hazır" denince bütün pending kalemleri "mutfakta" olarak işaretle
-        // (kullanıcı zaten mutfağa gönderme adımını yapmış varsayılıyor)
+    public void markServed(int tableNo, User user) {
+        tableStripes.lock(tableNo);
         try {
-            orderService.markAllItemsPrinted(order.getId());
-        } catch (RuntimeException ignored) {
-            // print_count sütunu yoksa sessiz geç
-        }
-        if (tableReserveUnsupported) {
-            tableService.markTableOccupied(tableId, true);
-        } else {
+            Long tableId = ensureTableExists(tableNo);
+            Order order = orderService.getOpenOrderByTable(tableId).orElse(null);
+            if (order == null) {
+                return;
+            }
+            orderService.updateOrderStatus(order.getId(), OrderStatus.READY);
+            // "Sipariş hazır" denince bütün pending kalemleri "mutfakta" olarak işaretle
+            // (kullanıcı zaten mutfağa gönderme adımını yapmış varsayılıyor)
             try {
-                tableService.markTableReserved(tableId);
-            } catch (RuntimeException ex) {
-                tableReserveUnsupported = true;
-                LOG.warn("Masa durumu 'RESERVED' olarak işaretlenemedi. 'OCCUPIED' kullanılacak. Ayrıntı: "
-                        + ex.getMessage());
+                orderService.markAllItemsPrinted(order.getId());
+            } catch (RuntimeException ignored) {
+                // print_count sütunu yoksa sessiz geç
+            }
+            if (tableReserveUnsupported) {
                 tableService.markTableOccupied(tableId, true);
+            } else {
+                try {
+                    tableService.markTableReserved(tableId);
+                } catch (RuntimeException ex) {
+                    tableReserveUnsupported = true;
+                    LOG.warn("Masa durumu 'RESERVED' olarak işaretlenemedi. 'OCCUPIED' kullanılacak. Ayrıntı: "
+                            + ex.getMessage());
+                    tableService.markTableOccupied(tableId, true);
+                }
             }
+            recordHistory(tableNo, order.getId(), historyEntry(user, "siparişi servis etti"));
+            refreshTableSignature(tableNo);
+            notifyTableChanged(tableNo);
+        } finally {
+            tableStripes.unlock(tableNo);
         }
-        recordHistory(tableNo, order.getId(), historyEntry(user, "siparişi servis etti"));
-        orderLogService.append(order.getId(), historyEntry(user, "siparişi servis etti"));
-        refreshTableSignature(tableNo);
-        notifyTableChanged(tableNo);
     }
 
     /**
@@ -1387,11 +1720,17 @@ public class AppState {
         List<PrintingService.PrintResult> results =
                 orderService.sendToKitchens(open.getId(), salonName, printing);
 
-        // Log: her mutfak için bir kayıt
-        for (PrintingService.PrintResult r : results) {
-            String msg = "Mutfağa gönderildi (" + (r.target == null ? "?" : r.target.getDisplayName()) + ")"
-                    + (r.success ? "" : " — HATA: " + r.errorMessage);
-            recordHistory(tableNo, open.getId(), historyEntry(user, msg));
+        // Log: her mutfak için bir kayıt. Baskı kilitsiz yapıldı (yavaş yazıcı masayı
+        // bekletmesin); masa geçmişi (ArrayDeque) yalnız masa kilidi altında yazılır.
+        tableStripes.lock(tableNo);
+        try {
+            for (PrintingService.PrintResult r : results) {
+                String msg = "Mutfağa gönderildi (" + (r.target == null ? "?" : r.target.getDisplayName()) + ")"
+                        + (r.success ? "" : r.queued ? " — KUYRUKTA: " + r.errorMessage : " — HATA: " + r.errorMessage);
+                recordHistory(tableNo, open.getId(), historyEntry(user, msg));
+            }
+        } finally {
+            tableStripes.unlock(tableNo);
         }
         // Sesli bildirim — sadece "mutfağa sipariş geldi" tonu
         boolean anySuccess = results.stream().anyMatch(r -> r.success);
@@ -1417,116 +1756,152 @@ public class AppState {
      *
      * <p><b>Yetki:</b> ADMIN veya KASIYER. Garson çağıramaz.
      */
-    public synchronized void recordSplitSale(int tableNo, User user, List<SplitPart> parts) {
-        ensureRefundPrivilege(user, "hesap böl");
-        if (parts == null || parts.isEmpty()) {
-            throw new IllegalArgumentException("En az 1 ödeme parçası olmalı");
-        }
-        Long tableId = ensureTableExists(tableNo);
-        Order order = orderService.getOpenOrderByTable(tableId).orElse(null);
-        if (order == null) {
-            throw new IllegalArgumentException("Masa " + tableNo + " açık siparişi yok");
-        }
-        // Toplam tutarı hesapla — sipariş kalemlerinden
-        List<OrderItem> items = orderService.getItemsForOrder(order.getId());
-        java.math.BigDecimal expectedTotal = items.stream()
-                .map(this::lineTotal)
-                .reduce(java.math.BigDecimal.ZERO, java.math.BigDecimal::add)
-                .setScale(2, java.math.RoundingMode.HALF_UP);
+    public void recordSplitSale(int tableNo, User user, List<SplitPart> parts) {
+        tableStripes.lock(tableNo);
+        try {
+            ensureRefundPrivilege(user, "hesap böl");
+            if (parts == null || parts.isEmpty()) {
+                throw new IllegalArgumentException("En az 1 ödeme parçası olmalı");
+            }
+            Long tableId = ensureTableExists(tableNo);
+            Order order = orderService.getOpenOrderByTable(tableId).orElse(null);
+            if (order == null) {
+                throw new IllegalArgumentException("Masa " + tableNo + " açık siparişi yok");
+            }
+            // Toplam tutarı hesapla — sipariş kalemlerinden
+            List<OrderItem> items = orderService.getItemsForOrder(order.getId());
+            java.math.BigDecimal expectedTotal = items.stream()
+                    .map(this::lineTotal)
+                    .reduce(java.math.BigDecimal.ZERO, java.math.BigDecimal::add)
+                    .setScale(2, java.math.RoundingMode.HALF_UP);
+
+            // Parça toplamı = sipariş toplamı kontrolü
+            java.math.BigDecimal sumParts = parts.stream()
+                    .map(SplitPart::amount)
+                    .filter(java.util.Objects::nonNull)
+                    .reduce(java.math.BigDecimal.ZERO, java.math.BigDecimal::add)
+                    .setScale(2, java.math.RoundingMode.HALF_UP);
+            if (sumParts.subtract(expectedTotal).abs()
+                    .compareTo(new java.math.BigDecimal("0.10")) > 0) {
+                throw new IllegalArgumentException(
+                        "Parça toplamları (" + sumParts + ") sipariş toplamına ("
+                        + expectedTotal + ") eşit değil");
+            }
 
-        // Parça toplamı = sipariş toplamı kontrolü
-        java.math.BigDecimal sumParts = parts.stream()
-                .map(SplitPart::amount)
-                .filter(java.util.Objects::nonNull)
-                .reduce(java.math.BigDecimal.ZERO, java.math.BigDecimal::add)
-                .setScale(2, java.math.RoundingMode.HALF_UP);
-        if (sumParts.subtract(expectedTotal).abs()
-                .compareTo(new java.math.BigDecimal("0.10")) > 0) {
-            throw new IllegalArgumentException(
-                    "Parça toplamları (" + sumParts + ") sipariş toplamına ("
-                    + expectedTotal + ") eşit değil");
-        }
+            // Her parça için ayrı Payment kaydı; ödemeler + sipariş kapanışı + masa
+            // boşaltma tek transaction'da yazılır (yarım kalmış bölme olmaz).
+            List<Payment> payments = new ArrayList<>();
+            for (SplitPart part : parts) {
+                if (part == null || part.amount() == null || part.method() == null) continue;
+                if (part.amount().signum() <= 0) {
+                    throw new IllegalArgumentException("Tutar > 0 olmalı");
+                }
+                Payment payment = new Payment();
+                payment.setAmount(model.MoneyUtil.two(part.amount()));
+                payment.setMethod(part.method());
+                payment.setPaidAt(LocalDateTime.now());
+                payments.add(payment);
+            }
+            orderService.checkoutSplitAndClose(order.getId(), user.getId(), payments);
 
-        // Her parça için ayrı Payment kaydı
-        Long cashierId = user.getId();
-        for (SplitPart part : parts) {
-            if (part == null || part.amount() == null || part.method() == null) continue;
-            paymentService.recordPayment(order.getId(), cashierId, part.amount(), part.method());
-        }
-        // Siparişi kapat ve masayı boşalt
-        orderService.updateOrderStatus(order.getId(), OrderStatus.COMPLETED);
-        try {
-            tableService.markTableOccupied(tableId, false);
-        } catch (RuntimeException e) {
-            LOG.debug("Split-payment table occupancy cleanup failed; ignored: {}", e.toString());
+            StringBuilder summary = new StringBuilder("hesabı ").append(parts.size())
+                    .append(" parça olarak böldü (toplam ").append(formatCurrency(expectedTotal)).append(")");
+            recordHistory(tableNo, order.getId(), historyEntry(user, summary.toString()));
+            flushOrderLog();
+            refreshTableSignature(tableNo);
+            notifyTableChanged(tableNo);
+            notifySalesChanged();
+        } finally {
+            tableStripes.unlock(tableNo);
         }
-
-        StringBuilder summary = new StringBuilder("hesabı ").append(parts.size())
-                .append(" parça olarak böldü (toplam ").append(formatCurrency(expectedTotal)).append(")");
-        recordHistory(tableNo, order.getId(), historyEntry(user, summary.toString()));
-        refreshTableSignature(tableNo);
-        notifyTableChanged(tableNo);
-        notifySalesChanged();
     }
 
     /** Tek hesap parçası — tutar + ödeme yöntemi. */
     public record SplitPart(java.math.BigDecimal amount, PaymentMethod method) {}
 
-    public synchronized void recordSale(int tableNo, PaymentMethod method, User user) {
-        Long tableId = ensureTableExists(tableNo);
-        Order order = orderService.getOpenOrderByTable(tableId).orElse(null);
-        if (order == null) {
-            return;
+    public void recordSale(int tableNo, PaymentMethod method, User user) {
+        tableStripes.lock(tableNo);
+        try {
+            Long tableId = ensureTableExists(tableNo);
+            Order order = orderService.getOpenOrderByTable(tableId).orElse(null);
+            if (order == null) {
+                return;
+            }
+            List<OrderItem> items = orderService.getItemsForOrder(order.getId());
+            BigDecimal total = items.stream()
+                    .map(this::lineTotal)
+                    .reduce(BigDecimal.ZERO, BigDecimal::add)
+                    .setScale(2, RoundingMode.HALF_UP);
+            Long cashierId = user == null ? null : user.getId();
+            orderService.checkoutAndClose(order.getId(), cashierId, method);
+            recordHistory(tableNo, order.getId(), historyEntry(user, "satış yaptı. Tutar: "
+                    + formatCurrency(total) + ", Yöntem: " + (method == null ? "Belirtilmedi" : method.name())));
+            flushOrderLog();
+            refreshTableSignature(tableNo);
+            notifyTableChanged(tableNo);
+            notifySalesChanged();
+        } finally {
+            tableStripes.unlock(tableNo);
         }
-        List<OrderItem> items = orderService.getItemsForOrder(order.getId());
-        BigDecimal total = items.stream()
-                .map(this::lineTotal)
-                .reduce(BigDecimal.ZERO, BigDecimal::add)
-                .setScale(2, RoundingMode.HALF_UP);
-        Long cashierId = user == null ? null : user.getId();
-        orderService.checkoutAndClose(order.getId(), cashierId, method);
-        recordHistory(tableNo, order.getId(), historyEntry(user, "satış yaptı. Tutar: "
-                + formatCurrency(total) + ", Yöntem: " + (method == null ? "Belirtilmedi" : method.name())));
-        refreshTableSignature(tableNo);
-        notifyTableChanged(tableNo);
-        notifySalesChanged();
     }
 
-    public synchronized List<SaleRecord> getSalesOn(LocalDate date) {
+    public List<SaleRecord> getSalesOn(LocalDate date) {
         return paymentService.getPaymentsOn(date).stream()
                 .map(this::toSaleRecord)
                 .collect(Collectors.toUnmodifiableList());
     }
 
-    public synchronized List<SaleRecord> getSales() {
+    public List<SaleRecord> getSales() {
         return paymentService.getAllPayments().stream()
                 .map(this::toSaleRecord)
                 .collect(Collectors.toUnmodifiableList());
     }
 
-    public synchronized List<ProductSalesRow> getProductSalesBefore(LocalDateTime threshold) {
+    public List<ProductSalesRow> getProductSalesBefore(LocalDateTime threshold) {
         return reportsService.getProductSalesBefore(threshold);
     }
 
-    public synchronized BigDecimal getSalesTotal(LocalDate date) {
-        List<BigDecimal> amounts = paymentService.getPaymentsOn(date).stream()
-                .map(Payment::getAmount)
-                .collect(Collectors.toList());
-        return sumAmounts(amounts);
+    public BigDecimal getSalesTotal(LocalDate date) {
+        return reportsService.getSalesSummary(date, date).amount();
     }
 
-    public synchronized BigDecimal getSalesTotal(YearMonth yearMonth) {
-        List<BigDecimal> amounts = paymentService.getPaymentsInMonth(yearMonth.getYear(), yearMonth.getMonthValue()).stream()
-                .map(Payment::getAmount)
-                .collect(Collectors.toList());
-        return sumAmounts(amounts);
+    public BigDecimal getSalesTotal(YearMonth yearMonth) {
+        return reportsService.getSalesSummary(yearMonth.atDay(1), yearMonth.atEndOfMonth()).amount();
+    }
+
+    /** Ödeme adedi + toplam, satış rollup'ından (gün sayısından bağımsız tek sorgu). */
+    public SalesSummary getSalesSummary(LocalDate from, LocalDate toInclusive) {
+        return reportsService.getSalesSummary(from, toInclusive);
+    }
+
+    /** 24 elemanlı saatlik satış dağılımı (index = saat). */
+    public List<SalesSummary> getHourlySales(LocalDate date) {
+        return reportsService.getHourlySales(date);
+    }
+
+    /** Haftanın günü × saat ödeme adetleri ({@code [0=Pzt..6=Pzr][0..23]}). */
+    public int[][] getWeekdayHourSalesCounts(LocalDate from, LocalDate toInclusive) {
+        return reportsService.getWeekdayHourCounts(from, toInclusive);
+    }
+
+    /** Ürün satış özeti; rollup yoksa boş liste ({@link #isSalesRollupAvailable()}). */
+    public List<ProductRollupRow> getProductSummary(LocalDate from, LocalDate toInclusive) {
+        return reportsService.getProductSummary(from, toInclusive);
+    }
+
+    public boolean isSalesRollupAvailable() {
+        return reportsService.isRollupAvailable();
+    }
+
+    public void rebuildSalesRollups(LocalDate from, LocalDate toInclusive) {
+        reportsService.rebuildRollups(from, toInclusive);
     }
 
     // ============================================================
     //   Gider İşlemleri
     // ============================================================
 
-    public synchronized void addExpense(BigDecimal amount, String description, LocalDate date, User user) {
+    public void addExpense(BigDecimal amount, String description, LocalDate date, User user) {
         Expense expense = new Expense();
         BigDecimal safeAmount = amount == null ? BigDecimal.ZERO : amount.setScale(2, RoundingMode.HALF_UP);
         expense.setAmount(safeAmount);
@@ -1541,7 +1916,7 @@ public class AppState {
      * Kg-bazlı gider ekleme. Toplam tutar = kilo × kgFiyat olarak hesaplanır.
      * Verilen description'a kg detayı eklenir (örn. "Domates (3 kg × 25 TL/kg)").
      */
-    public synchronized void addKgBasedExpense(String description,
+    public void addKgBasedExpense(String description,
                                                BigDecimal quantityKg,
                                                BigDecimal unitPricePerKg,
                                                LocalDate date,
@@ -1569,7 +1944,7 @@ public class AppState {
         notifyExpensesChanged();
     }
 
-    public synchronized void deleteExpense(Long expenseId) {
+    public void deleteExpense(Long expenseId) {
         if (expenseId == null || expenseId <= 0) {
             throw new IllegalArgumentException("Geçersiz gider ID");
         }
@@ -1577,37 +1952,41 @@ public class AppState {
         notifyExpensesChanged();
     }
 
-    public synchronized List<ExpenseRecord> getExpensesOn(LocalDate date) {
+    public List<ExpenseRecord> getExpensesOn(LocalDate date) {
         return expenseService.getExpensesOn(date).stream()
                 .map(this::toExpenseRecord)
                 .collect(Collectors.toUnmodifiableList());
     }
 
-    public synchronized List<ExpenseRecord> getExpenses() {
+    public List<ExpenseRecord> getExpenses() {
         return expenseService.getAllExpenses().stream()
                 .map(this::toExpenseRecord)
                 .collect(Collectors.toUnmodifiableList());
     }
 
-    public synchronized BigDecimal getExpenseTotal(LocalDate date) {
+    public BigDecimal getExpenseTotal(LocalDate date) {
         List<BigDecimal> amounts = expenseService.getExpensesOn(date).stream()
                 .map(Expense::getAmount)
                 .collect(Collectors.toList());
         return sumAmounts(amounts);
     }
 
-    public synchronized BigDecimal getExpenseTotal(YearMonth yearMonth) {
+    public int getExpenseCount(YearMonth yearMonth) {
+        return expenseService.getExpensesInMonth(yearMonth).size();
+    }
+
+    public BigDecimal getExpenseTotal(YearMonth yearMonth) {
         List<BigDecimal> amounts = expenseService.getExpensesInMonth(yearMonth).stream()
                 .map(Expense::getAmount)
                 .collect(Collectors.toList());
         return sumAmounts(amounts);
     }
 
-    public synchronized BigDecimal getNetProfit(LocalDate date) {
+    public BigDecimal getNetProfit(LocalDate date) {
         return getSalesTotal(date).subtract(getExpenseTotal(date)).setScale(2, RoundingMode.HALF_UP);
     }
 
-    public synchronized BigDecimal getNetProfit(YearMonth yearMonth) {
+    public BigDecimal getNetProfit(YearMonth yearMonth) {
         return getSalesTotal(yearMonth).subtract(getExpenseTotal(yearMonth)).setScale(2, RoundingMode.HALF_UP);
     }
 
@@ -1632,44 +2011,46 @@ public class AppState {
     }
 
     private Product ensureProduct(String name, BigDecimal price) {
-        String trimmed = name == null ? "" : name.trim();
-        if (trimmed.isEmpty()) {
-            throw new IllegalArgumentException("Ürün adı boş");
-        }
-        BigDecimal unitPrice = price == null ? BigDecimal.ZERO : price.setScale(2, RoundingMode.HALF_UP);
-        Long categoryId = ensureDefaultCategoryId();
-        Optional<Product> existing = productService.findByName(trimmed);
-        if (existing.isPresent()) {
-            Product product = existing.get();
-            boolean dirty = false;
-            if (product.getUnitPrice() == null || product.getUnitPrice().compareTo(unitPrice) != 0) {
-                product.setUnitPrice(unitPrice);
-                dirty = true;
-            }
-            if ((product.getCategoryId() == null || product.getCategoryId() <= 0) && categoryId != null) {
-                product.setCategoryId(categoryId);
-                dirty = true;
-            }
-            if (product.getStock() == null) {
-                product.setStock(0);
-                dirty = true;
-            }
-            if (dirty) {
-                productService.updateProduct(product);
-                notifyProductsChanged();
+        synchronized (catalogLock) {
+            String trimmed = name == null ? "" : name.trim();
+            if (trimmed.isEmpty()) {
+                throw new IllegalArgumentException("Ürün adı boş");
+            }
+            BigDecimal unitPrice = price == null ? BigDecimal.ZERO : price.setScale(2, RoundingMode.HALF_UP);
+            Long categoryId = ensureDefaultCategoryId();
+            Optional<Product> existing = productService.findByName(trimmed);
+            if (existing.isPresent()) {
+                Product product = existing.get();
+                boolean dirty = false;
+                if (product.getUnitPrice() == null || product.getUnitPrice().compareTo(unitPrice) != 0) {
+                    product.setUnitPrice(unitPrice);
+                    dirty = true;
+                }
+                if ((product.getCategoryId() == null || product.getCategoryId() <= 0) && categoryId != null) {
+                    product.setCategoryId(categoryId);
+                    dirty = true;
+                }
+                if (product.getStock() == null) {
+                    product.setStock(0);
+                    dirty = true;
+                }
+                if (dirty) {
+                    productService.updateProduct(product);
+                    catalogChanged(product.getId());
+                }
+                return product;
             }
+            Product product = new Product();
+            product.setName(trimmed);
+            product.setUnitPrice(unitPrice);
+            product.setVatRate(Product.DEFAULT_VAT);
+            product.setStock(0);
+            product.setCategoryId(categoryId);
+            Long id = productService.createProduct(product);
+            product.setId(id);
+            catalogChanged(id);
             return product;
         }
-        Product product = new Product();
-        product.setName(trimmed);
-        product.setUnitPrice(unitPrice);
-        product.setVatRate(Product.DEFAULT_VAT);
-        product.setStock(0);
-        product.setCategoryId(categoryId);
-        Long id = productService.createProduct(product);
-        product.setId(id);
-        notifyProductsChanged();
-        return product;
     }
 
     private Long ensureDefaultCategoryId() {
@@ -1707,6 +2088,8 @@ public class AppState {
         category.setActive(true);
         Long id = categoryService.createCategory(category);
         category.setId(id);
+        catalogChanged(null);
+        notifyCategoriesChanged();
         return category;
     }
 
@@ -1883,6 +2266,12 @@ public class AppState {
     }
 
     private void notifyTableChanged(int tableNo) {
+        long version = tableVersionSeq.incrementAndGet();
+        if (tableNo < 0) {
+            allTablesVersion.set(version);
+        } else {
+            tableVersions.put(tableNo, version);
+        }
         pcs.firePropertyChange(EVENT_TABLES, null, tableNo);
     }
 
@@ -1898,6 +2287,24 @@ public class AppState {
         pcs.firePropertyChange(EVENT_PRODUCTS, null, null);
     }
 
+    private void notifyCategoriesChanged() {
+        pcs.firePropertyChange(EVENT_CATEGORIES, null, null);
+    }
+
+    /**
+     * Katalog yazımı sonrası: önbelleği geçersizleştirir, diğer terminaller
+     * için change feed'e yazar ve yerel dinleyicileri uyarır.
+     */
+    private void catalogChanged(Long entityId) {
+        catalogCache.invalidate();
+        try {
+            changeFeedDAO.append(ChangeEvent.TOPIC_CATALOG, null, entityId);
+        } catch (RuntimeException ex) {
+            LOG.warn("Katalog değişikliği günlüğe yazılamadı: {}", ex.getMessage());
+        }
+        notifyProductsChanged();
+    }
+
     private BigDecimal sumAmounts(List<BigDecimal> amounts) {
         BigDecimal total = BigDecimal.ZERO;
         for (BigDecimal amount : amounts) {
@@ -1923,16 +2330,12 @@ public class AppState {
         return List.copyOf(local);
     }
 
+    /**
+     * Masa geçmişine yazar ve {@code order_logs}'a kuyruklar — INSERT arka planda
+     * toplu yapılır ({@link OrderLogService#append}).
+     */
     private void recordHistory(int tableNo, Long orderId, String message) {
-        if (message == null || message.isBlank()) {
-            return;
-        }
-        Deque<OrderLogEntry> local = historyDeque(tableNo);
-        local.addFirst(new OrderLogEntry(LocalDateTime.now(), message));
-        while (local.size() > HISTORY_LIMIT) {
-            local.removeLast();
-        }
-        if (orderId == null) {
+        if (!rememberHistory(tableNo, message) || orderId == null) {
             return;
         }
         try {
@@ -1942,6 +2345,26 @@ public class AppState {
         }
     }
 
+    /** Satış kapanışı: siparişin logları, raporlar ve diğer kasalar okumadan önce DB'de olsun. */
+    private void flushOrderLog() {
+        if (!orderLogService.flush()) {
+            LOG.warn("Sipariş logu kuyruğu satış kapanışında boşaltılamadı");
+        }
+    }
+
+    /** Yalnız bellekteki masa geçmişi; DB satırı başka yerde (ör. transaction içinde) yazılır. */
+    private boolean rememberHistory(int tableNo, String message) {
+        if (message == null || message.isBlank()) {
+            return false;
+        }
+        Deque<OrderLogEntry> local = historyDeque(tableNo);
+        local.addFirst(new OrderLogEntry(LocalDateTime.now(), message));
+        while (local.size() > HISTORY_LIMIT) {
+            local.removeLast();
+        }
+        return true;
+    }
+
     private String historyEntry(User user, String action) {
         return historyEntry(actor(user), action);
     }
@@ -1989,7 +2412,103 @@ public class AppState {
         }
     }
 
+    /**
+     * Poller girişi. {@code change_seq} günlüğü varsa yalnızca son turdan beri
+     * yazılan satırlar okunur (maliyet değişiklik sayısıyla orantılı); günlük
+     * tablosu yoksa eski tam tarama yoluna düşülür.
+     */
     private void pollChanges() {
+        if (changeFeedDAO.isAvailable()) {
+            try {
+                if (pollChangeFeed()) {
+                    return;
+                }
+            } catch (Exception ex) {
+                LOG.warn("pollChangeFeed hatası: {}", ex.getMessage(), ex);
+                return;
+            }
+        }
+        pollFullScan();
+    }
+
+    /**
+     * @return günlük kullanılabildiyse {@code true}; tablo yoksa {@code false}
+     *         (çağıran tam taramaya düşer).
+     */
+    private boolean pollChangeFeed() {
+        if (changeCursor == null) {
+            long latest = changeFeedDAO.latestSeq();
+            if (!changeFeedDAO.isAvailable()) {
+                return false;
+            }
+            changeCursor = new ChangeFeedCursor(latest);
+            return true;
+        }
+        List<ChangeEvent> events = changeFeedDAO.findSince(changeCursor.position(), CHANGE_FEED_BATCH);
+        if (!changeFeedDAO.isAvailable()) {
+            return false;
+        }
+        Set<Long> changedTableIds = new HashSet<>();
+        // Diğer terminalin masa mutasyonu: imza (sipariş id/updated_at/durum) not
+        // ve mutfak işaretini, ya da aynı saniyedeki iki değişikliği göremez —
+        // bu masalar imza farkına bakılmadan yayınlanır.
+        Set<Long> remoteTableIds = new HashSet<>();
+        boolean salesChanged = false;
+        boolean expensesChanged = false;
+        boolean catalogChanged = false;
+        for (ChangeEvent event : events) {
+            if (!changeCursor.accept(event.seq())) {
+                continue;
+            }
+            if (event.tableId() != null) {
+                changedTableIds.add(event.tableId());
+                if (!event.isLocal()) {
+                    remoteTableIds.add(event.tableId());
+                }
+            }
+            // Yerel mutasyonlar olayı zaten yayınladı; sadece diğer terminallerinkini yayınla.
+            if (ChangeEvent.TOPIC_SALE.equals(event.topic()) && !event.isLocal()) {
+                salesChanged = true;
+            } else if (ChangeEvent.TOPIC_EXPENSE.equals(event.topic()) && !event.isLocal()) {
+                expensesChanged = true;
+            } else if (ChangeEvent.TOPIC_CATALOG.equals(event.topic()) && !event.isLocal()) {
+                catalogChanged = true;
+            }
+        }
+        changeCursor.advance();
+
+        if (changedTableIds.size() > BULK_TABLE_REFRESH_THRESHOLD) {
+            Set<Integer> notified = pollTables();
+            for (Map.Entry<Integer, Long> entry : tableIds.entrySet()) {
+                if (remoteTableIds.contains(entry.getValue()) && !notified.contains(entry.getKey())) {
+                    notifyTableChanged(entry.getKey());
+                }
+            }
+        } else if (!changedTableIds.isEmpty()) {
+            for (Map.Entry<Integer, Long> entry : tableIds.entrySet()) {
+                if (changedTableIds.contains(entry.getValue())) {
+                    boolean notified = pollTable(entry.getKey());
+                    if (!notified && remoteTableIds.contains(entry.getValue())) {
+                        notifyTableChanged(entry.getKey());
+                    }
+                }
+            }
+        }
+        if (salesChanged) {
+            notifySalesChanged();
+        }
+        if (expensesChanged) {
+            notifyExpensesChanged();
+        }
+        if (catalogChanged) {
+            catalogCache.invalidate();
+            notifyProductsChanged();
+            notifyCategoriesChanged();
+        }
+        return true;
+    }
+
+    private void pollFullScan() {
         try {
             pollTables();
         } catch (Exception ex) {
@@ -2007,14 +2526,57 @@ public class AppState {
         }
     }
 
-    private void pollTables() {
+    /**
+     * Tüm kat planını tek round-trip ile yeniler; imzası değişen masalar için olay yayınlar.
+     *
+     * @return olay yayınlanan masa numaraları
+     */
+    private Set<Integer> pollTables() {
+        Map<Integer, TableSignature> fresh = captureAllSignatures();
+        Set<Integer> notified = new HashSet<>();
         for (Integer tableNo : layouts.keySet()) {
-            TableSignature newSignature = captureSignature(tableNo);
+            TableSignature newSignature = fresh.get(tableNo);
+            if (newSignature == null) {
+                // DB'de henüz satırı olmayan masa — tekil yol satırı oluşturur.
+                if (pollTable(tableNo)) {
+                    notified.add(tableNo);
+                }
+                continue;
+            }
             TableSignature old = tableSignatures.put(tableNo, newSignature);
             if (!Objects.equals(old, newSignature)) {
                 notifyTableChanged(tableNo);
+                notified.add(tableNo);
+            }
+        }
+        return notified;
+    }
+
+    /**
+     * {@code dining_tables LEFT JOIN orders} sonucundan masa no → imza haritası.
+     * Yan etki olarak {@code tableIds} önbelleğini de doldurur.
+     */
+    private Map<Integer, TableSignature> captureAllSignatures() {
+        Map<Integer, TableSignature> signatures = new HashMap<>();
+        for (TableOrderState state : orderService.getAllTableStates()) {
+            if (!layouts.containsKey(state.tableNo()) || signatures.containsKey(state.tableNo())) {
+                continue;
             }
+            tableIds.putIfAbsent(state.tableNo(), state.tableId());
+            signatures.put(state.tableNo(), signatureOf(state.openOrder(), state.tableStatus()));
+        }
+        return signatures;
+    }
+
+    /** @return imza değiştiyse (olay yayınlandıysa) {@code true} */
+    private boolean pollTable(int tableNo) {
+        TableSignature newSignature = captureSignature(tableNo);
+        TableSignature old = tableSignatures.put(tableNo, newSignature);
+        if (!Objects.equals(old, newSignature)) {
+            notifyTableChanged(tableNo);
+            return true;
         }
+        return false;
     }
 
     private TableSignature captureSignature(int tableNo) {
@@ -2022,16 +2584,19 @@ public class AppState {
         TableStatus status = tableService.getByTableNo(tableNo)
                 .map(RestaurantTable::getStatus)
                 .orElse(TableStatus.EMPTY);
-        Optional<Order> opt = orderService.getOpenOrderByTable(tableId);
-        if (opt.isPresent()) {
-            Order order = opt.get();
-            LocalDateTime updated = order.getUpdatedAt();
-            if (updated == null) {
-                updated = order.getCreatedAt();
-            }
-            return new TableSignature(order.getId(), updated, status);
+        return signatureOf(orderService.getOpenOrderByTable(tableId).orElse(null), status);
+    }
+
+    private static TableSignature signatureOf(@Nullable Order order, TableStatus status) {
+        TableStatus safeStatus = status == null ? TableStatus.EMPTY : status;
+        if (order == null) {
+            return new TableSignature(null, null, safeStatus);
+        }
+        LocalDateTime updated = order.getUpdatedAt();
+        if (updated == null) {
+            updated = order.getCreatedAt();
         }
-        return new TableSignature(null, null, status);
+        return new TableSignature(order.getId(), updated, safeStatus);
     }
 
     private void pollSales() {
@@ -0,0 +1,76 @@
+package state;
+
+import java.util.NavigableSet;
+import java.util.TreeSet;
+import java.util.function.LongSupplier;
+
+/**
+ * {@code change_seq} okuma imleci.
+ *
+ * <p>InnoDB AUTO_INCREMENT değerleri commit sırasıyla değil INSERT sırasıyla
+ * dağıtılır: seq=10'u alan transaction, seq=11'i alandan sonra commit
+ * olabilir. İmleç bu yüzden "son görülen" yerine "kesintisiz işlenen son"
+ * seq'i tutar; ileride görülen satırlar {@code seenAhead} içinde bekler ve
+ * tekrar işlenmez. Boşluk (rollback edilmiş ya da hiç gelmeyecek seq)
+ * {@link #GAP_TIMEOUT_MILLIS} boyunca kapanmazsa atlanır.
+ *
+ * <p>Thread-safe değildir — yalnızca poller thread'i kullanır.
+ */
+final class ChangeFeedCursor {
+
+    static final long GAP_TIMEOUT_MILLIS = 10_000L;
+
+    private final NavigableSet<Long> seenAhead = new TreeSet<>();
+    private final LongSupplier clock;
+    private long position;
+    private long gapSince;
+
+    ChangeFeedCursor(long startSeq) {
+        this(startSeq, System::currentTimeMillis);
+    }
+
+    ChangeFeedCursor(long startSeq, LongSupplier clock) {
+        this.position = startSeq;
+        this.clock = clock;
+    }
+
+    /** Bir sonraki sorgunun {@code seq > ?} parametresi. */
+    long position() {
+        return position;
+    }
+
+    /**
+     * @return satır daha önce işlenmediyse {@code true} — çağıran işlemeli.
+     */
+    boolean accept(long seq) {
+        if (seq <= position) {
+            return false;
+        }
+        return seenAhead.add(seq);
+    }
+
+    /** Bir okuma turunun sonunda çağrılır; kesintisiz ilerleyen kısmı kaydırır. */
+    void advance() {
+        drainContiguous();
+        if (seenAhead.isEmpty()) {
+            gapSince = 0L;
+            return;
+        }
+        long now = clock.getAsLong();
+        if (gapSince == 0L) {
+            gapSince = now;
+            return;
+        }
+        if (now - gapSince >= GAP_TIMEOUT_MILLIS) {
+            position = seenAhead.first() - 1;
+            drainContiguous();
+            gapSince = seenAhead.isEmpty() ? 0L : now;
+        }
+    }
+
+    private void drainContiguous() {
+        while (!seenAhead.isEmpty() && seenAhead.first() == position + 1) {
+            position = seenAhead.pollFirst();
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package state;
+
+/**
+ * {@link AppState#snapshotAll(java.util.Set, SnapshotDetail)} için ayrıntı seviyesi.
+ */
+public enum SnapshotDetail {
+    /**
+     * Yalnızca durum + toplam. Tüm masalar tek toplu sorguyla okunur;
+     * kalemler ve geçmiş boş döner (kat planı / PWA masa listesi).
+     */
+    SUMMARY,
+    /** Masa başına tam {@link AppState#snapshot(int)} — kalemler ve geçmiş dahil. */
+    FULL
+}
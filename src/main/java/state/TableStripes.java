@@ -0,0 +1,73 @@
+package state;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Masa numarasına göre şeritlenmiş (striped) kilitler.
+ *
+ * <p>AppState'teki sipariş mutasyonları eskiden singleton'ın monitörünü
+ * kullanıyordu; bir masadaki yavaş işlem (veya bir rapor sorgusu) tüm
+ * garsonları bekletiyordu. Artık yalnızca aynı şeride düşen masalar
+ * birbirini bekler.
+ *
+ * <p>Kilitler reentrant'tır — {@code clearTable(..)} gibi overload'ların
+ * birbirini çağırması güvenlidir. İki masalı işlemler ({@code transferTable})
+ * {@link #lockBoth(int, int)} ile şerit indeksi sırasına göre kilitler;
+ * böylece A→B ve B→A transferleri aynı anda gelse de deadlock olmaz.
+ */
+public final class TableStripes {
+
+    /** Varsayılan şerit sayısı — tipik kat planı (~65 masa) için yeterli dağılım. */
+    public static final int DEFAULT_STRIPES = 32;
+
+    private final ReentrantLock[] locks;
+
+    public TableStripes() {
+        this(DEFAULT_STRIPES);
+    }
+
+    public TableStripes(int stripes) {
+        if (stripes <= 0) {
+            throw new IllegalArgumentException("stripes > 0 olmalı");
+        }
+        this.locks = new ReentrantLock[stripes];
+        for (int i = 0; i < stripes; i++) {
+            locks[i] = new ReentrantLock();
+        }
+    }
+
+    int stripeOf(int tableNo) {
+        return Math.floorMod(tableNo, locks.length);
+    }
+
+    public void lock(int tableNo) {
+        locks[stripeOf(tableNo)].lock();
+    }
+
+    public void unlock(int tableNo) {
+        locks[stripeOf(tableNo)].unlock();
+    }
+
+    /** İki masanın şeridini sabit sırada (küçük indeks önce) kilitler. */
+    public void lockBoth(int firstTableNo, int secondTableNo) {
+        int a = stripeOf(firstTableNo);
+        int b = stripeOf(secondTableNo);
+        if (a == b) {
+            locks[a].lock();
+            return;
+        }
+        locks[Math.min(a, b)].lock();
+        locks[Math.max(a, b)].lock();
+    }
+
+    public void unlockBoth(int firstTableNo, int secondTableNo) {
+        int a = stripeOf(firstTableNo);
+        int b = stripeOf(secondTableNo);
+        if (a == b) {
+            locks[a].unlock();
+            return;
+        }
+        locks[Math.max(a, b)].unlock();
+        locks[Math.min(a, b)].unlock();
+    }
+}
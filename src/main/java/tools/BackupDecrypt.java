@@ -1,10 +1,24 @@
 package tools;
 
+import service.BackupChain;
+import service.BackupCipher;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
 import java.io.Console;
+import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.zip.GZIPInputStream;
 
 import javax.crypto.Cipher;
 import javax.crypto.CipherInputStream;
@@ -15,105 +29,220 @@ import javax.crypto.spec.PBEKeySpec;
 import javax.crypto.spec.SecretKeySpec;
 
 /**
- * Şifreli yedek (.sql.enc) çözücü CLI.
+ * Yedek çözücü CLI — akış halinde çözer ve açar, sabit bellekle çalışır.
  *
- * <p>{@link service.BackupService#encryptFile} ile aynı format:
- * <pre>16 byte salt | 12 byte IV | ciphertext (AES-256-GCM, 128-bit tag)</pre>
+ * <p>Tanıdığı biçimler (dosyanın başından ayırt edilir):
+ * <ul>
+ *   <li>{@code .sql.gz.enc} — {@link service.BackupCipher} segmentli
+ *       AES-256-GCM + gzip (güncel {@link service.BackupService}).</li>
+ *   <li>{@code .sql.gz} — şifresiz gzip.</li>
+ *   <li>{@code .sql.enc} — eski tek parça format:
+ *       {@code 16 byte salt | 12 byte IV | ciphertext (AES-256-GCM, 128-bit tag)}.
+ *       JDK bu formatı çözerken tüm dosyayı bellekte tutar.</li>
+ * </ul>
  * Anahtar: PBKDF2-HMAC-SHA256(passphrase, salt, 600 000 iter, 256-bit).
  *
+ * <p>Yanında {@code <kaynak>.sha256} manifesti varsa çözmeden ÖNCE doğrulanır;
+ * uyuşmazsa hiçbir şey yazılmaz. {@code .chain} verilirse zincirin sürekliliği
+ * ve her parçanın SHA-256'sı aynı şekilde önce kontrol edilir.
+ *
  * <p><b>Kullanım:</b>
  * <pre>
  * # Çevre değişkeniyle parola (önerilen — bash history'de görünmez)
  * BACKUP_PASS=...&lt;parola&gt;... \
  *     java -cp target/budgetController-*.jar tools.BackupDecrypt \
- *          budget-20260101-120000.sql.enc restored.sql
+ *          budget-20260101-120000.sql.gz.enc restored.sql
  *
- * # Veya parola interaktif sorulur
- * java -cp target/budgetController-*.jar tools.BackupDecrypt \
- *      budget-20260101-120000.sql.enc restored.sql
- * </pre>
+ * # Düz metni diske hiç yazmadan doğrudan restore (hedef "-" → stdout)
+ * BACKUP_PASS=... java -cp target/budgetController-*.jar tools.BackupDecrypt \
+ *      budget-20260101-120000.sql.gz.enc - | mysql -u root -p posdb
  *
- * <p><b>Sonra restore:</b>
- * <pre>mysql -u root -p posdb &lt; restored.sql</pre>
+ * # Artımlı zincir: tam dump + tüm delta'lar sırayla (bkz. service.BackupChain)
+ * BACKUP_PASS=... java -cp target/budgetController-*.jar tools.BackupDecrypt \
+ *      budget-20260101-040000.chain - | mysql -u root -p posdb
+ * </pre>
+ * Parola env'de yoksa interaktif sorulur (şifresiz {@code .sql.gz} için sorulmaz).
  *
- * <p><b>Güvenlik notu:</b> Çözülen {@code .sql} dosyası DÜZ METİN'dir; restore
+ * <p><b>Güvenlik notu:</b> Dosyaya çözülen {@code .sql} DÜZ METİN'dir; restore
  * sonrası mutlaka silin (Windows: {@code del /F restored.sql}).
  */
 public final class BackupDecrypt {
 
     private static final int PBKDF2_ITERATIONS = 600_000;
+    private static final int IO_BUFFER = 64 * 1024;
 
     public static void main(String[] args) throws Exception {
         if (args.length != 2) {
-            System.err.println("Kullanım: BackupDecrypt <kaynak.sql.enc> <hedef.sql>");
+            System.err.println("Kullanım: BackupDecrypt <kaynak.sql.gz.enc|.sql.enc|.sql.gz|.chain> <hedef.sql | ->");
             System.exit(1);
         }
         Path in = Path.of(args[0]);
-        Path out = Path.of(args[1]);
+        boolean toStdout = "-".equals(args[1]);
+        Path out = toStdout ? null : Path.of(args[1]);
         if (!Files.exists(in)) {
             System.err.println("Kaynak yok: " + in);
             System.exit(1);
         }
-        if (Files.exists(out)) {
+        if (out != null && Files.exists(out)) {
             System.err.println("Hedef zaten var (üzerine yazmıyoruz): " + out);
             System.exit(1);
         }
 
-        // Parola: önce env, sonra interaktif
-        String pass = System.getenv("BACKUP_PASS");
-        if (pass == null || pass.isBlank()) {
-            Console c = System.console();
-            if (c == null) {
-                System.err.println("Parola için ya BACKUP_PASS env değişkenini ayarlayın "
-                        + "ya da TTY'den çalıştırın.");
-                System.exit(2);
+        // Zincir: tam dump + delta'lar sırayla; önce süreklilik ve SHA-256 kontrolü
+        List<Path> parts = List.of(in);
+        try {
+            if (in.getFileName().toString().endsWith(BackupChain.SUFFIX)) {
+                BackupChain chain = BackupChain.read(in);
+                chain.verifyFiles();
+                parts = chain.files();
+                System.err.println("Zincir: " + parts.size() + " parça, son konum " + chain.head());
+            } else {
+                verifyManifest(in);
             }
-            char[] arr = c.readPassword("BACKUP_PASS: ");
-            if (arr == null || arr.length == 0) {
-                System.err.println("Parola boş olamaz");
-                System.exit(2);
+        } catch (Exception ex) {
+            System.err.println("Doğrulama hatası: " + ex.getMessage());
+            System.exit(3);
+        }
+
+        String pass = null;
+        if (needsPassphrase(parts)) {
+            // Parola: önce env, sonra interaktif
+            pass = System.getenv("BACKUP_PASS");
+            if (pass == null || pass.isBlank()) {
+                Console c = System.console();
+                if (c == null) {
+                    System.err.println("Parola için ya BACKUP_PASS env değişkenini ayarlayın "
+                            + "ya da TTY'den çalıştırın.");
+                    System.exit(2);
+                }
+                char[] arr = c.readPassword("BACKUP_PASS: ");
+                if (arr == null || arr.length == 0) {
+                    System.err.println("Parola boş olamaz");
+                    System.exit(2);
+                }
+                pass = new String(arr);
             }
-            pass = new String(arr);
         }
 
         try {
-            decrypt(in, out, pass);
-            System.out.println("OK: " + out + " (" + Files.size(out) + " byte)");
-            System.out.println("UYARI: Restore sonrası bu düz metin dosyayı silin.");
+            if (toStdout) {
+                long n = decryptAll(parts, System.out, pass);
+                System.out.flush();
+                System.err.println("OK: " + n + " byte stdout'a yazıldı");
+            } else {
+                try (OutputStream os = new BufferedOutputStream(Files.newOutputStream(out), IO_BUFFER)) {
+                    decryptAll(parts, os, pass);
+                }
+                System.out.println("OK: " + out + " (" + Files.size(out) + " byte)");
+                System.out.println("UYARI: Restore sonrası bu düz metin dosyayı silin.");
+            }
         } catch (Exception ex) {
             // Yarım kalmış dosyayı sil
-            Files.deleteIfExists(out);
+            if (out != null) Files.deleteIfExists(out);
             System.err.println("Çözme hatası: " + ex.getMessage());
             System.exit(3);
         }
     }
 
     /**
-     * Verilen şifreli dosyayı çözüp düz {@code .sql} olarak yazar.
-     * Yanlış parola → {@link javax.crypto.AEADBadTagException} fırlar (GCM tag uyuşmaz).
+     * Verilen yedeği çözüp düz {@code .sql} olarak yazar.
+     * Yanlış parola → {@link java.io.IOException} (segment etiketi uyuşmaz);
+     * eski formatta {@link javax.crypto.AEADBadTagException}.
      */
     public static void decrypt(Path in, Path out, String passphrase) throws Exception {
-        try (InputStream is = Files.newInputStream(in);
-             OutputStream os = Files.newOutputStream(out)) {
+        try (OutputStream os = new BufferedOutputStream(Files.newOutputStream(out), IO_BUFFER)) {
+            decrypt(in, os, passphrase);
+        }
+    }
 
-            byte[] salt = readN(is, 16);
-            byte[] iv = readN(is, 12);
+    /** Parçaları sırayla aynı akışa yazar — zincir restore'u tek {@code mysql} oturumu. */
+    public static long decryptAll(List<Path> parts, OutputStream out, String passphrase) throws Exception {
+        long n = 0;
+        for (Path part : parts) n += decrypt(part, out, passphrase);
+        return n;
+    }
 
-            PBEKeySpec spec = new PBEKeySpec(passphrase.toCharArray(), salt, PBKDF2_ITERATIONS, 256);
-            SecretKey tmp = SecretKeyFactory.getInstance("PBKDF2WithHmacSHA256").generateSecret(spec);
-            SecretKey key = new SecretKeySpec(tmp.getEncoded(), "AES");
+    /** Yedeği {@code out}'a akıtır ({@code out} kapatılmaz); yazılan bayt sayısını döner. */
+    public static long decrypt(Path in, OutputStream out, String passphrase) throws Exception {
+        try (InputStream raw = new BufferedInputStream(Files.newInputStream(in), IO_BUFFER)) {
+            switch (detect(raw)) {
+                case SEGMENTED -> {
+                    try (InputStream sql = new GZIPInputStream(BackupCipher.decrypt(raw, passphrase), IO_BUFFER)) {
+                        return sql.transferTo(out);
+                    }
+                }
+                case GZIP -> {
+                    try (InputStream sql = new GZIPInputStream(raw, IO_BUFFER)) {
+                        return sql.transferTo(out);
+                    }
+                }
+                default -> {
+                    return decryptLegacy(raw, out, passphrase);
+                }
+            }
+        }
+    }
 
-            Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
-            cipher.init(Cipher.DECRYPT_MODE, key, new GCMParameterSpec(128, iv));
+    /**
+     * {@code <kaynak>.sha256} varsa dosyanın özetini karşılaştırır; yoksa
+     * sessizce geçer (eski yedeklerde manifest yok).
+     */
+    static void verifyManifest(Path in) throws IOException {
+        Path manifest = in.resolveSibling(in.getFileName() + ".sha256");
+        if (!Files.exists(manifest)) return;
+        String line = Files.readString(manifest, StandardCharsets.US_ASCII).trim();
+        String expected = line.split("\\s+", 2)[0].toLowerCase(Locale.ROOT);
+        MessageDigest sha;
+        try {
+            sha = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        try (InputStream is = new DigestInputStream(Files.newInputStream(in), sha)) {
+            is.transferTo(OutputStream.nullOutputStream());
+        }
+        String actual = HexFormat.of().formatHex(sha.digest());
+        if (!actual.equals(expected)) {
+            throw new IOException("SHA-256 uyuşmuyor: manifest " + expected + ", dosya " + actual);
+        }
+    }
 
-            try (CipherInputStream cis = new CipherInputStream(is, cipher)) {
-                byte[] buf = new byte[8192];
-                int n;
-                while ((n = cis.read(buf)) > 0) {
-                    os.write(buf, 0, n);
-                }
+    private enum Format { SEGMENTED, GZIP, LEGACY }
+
+    private static boolean needsPassphrase(List<Path> parts) throws IOException {
+        for (Path p : parts) {
+            try (InputStream raw = new BufferedInputStream(Files.newInputStream(p))) {
+                if (detect(raw) != Format.GZIP) return true;
             }
         }
+        return false;
+    }
+
+    /** İlk baytlara bakar; akışı başa sarar. */
+    private static Format detect(InputStream raw) throws IOException {
+        int n = Math.max(BackupCipher.magicLength(), 2);
+        raw.mark(n);
+        byte[] head = raw.readNBytes(n);
+        raw.reset();
+        if (BackupCipher.hasMagic(head)) return Format.SEGMENTED;
+        if (head.length >= 2 && (head[0] & 0xFF) == 0x1F && (head[1] & 0xFF) == 0x8B) return Format.GZIP;
+        return Format.LEGACY;
+    }
+
+    private static long decryptLegacy(InputStream is, OutputStream os, String passphrase) throws Exception {
+        byte[] salt = readN(is, 16);
+        byte[] iv = readN(is, 12);
+
+        PBEKeySpec spec = new PBEKeySpec(passphrase.toCharArray(), salt, PBKDF2_ITERATIONS, 256);
+        SecretKey tmp = SecretKeyFactory.getInstance("PBKDF2WithHmacSHA256").generateSecret(spec);
+        SecretKey key = new SecretKeySpec(tmp.getEncoded(), "AES");
+
+        Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
+        cipher.init(Cipher.DECRYPT_MODE, key, new GCMParameterSpec(128, iv));
+
+        try (CipherInputStream cis = new CipherInputStream(is, cipher)) {
+            return cis.transferTo(os);
+        }
     }
 
     private static byte[] readN(InputStream is, int n) throws Exception {
@@ -0,0 +1,78 @@
+package tools;
+
+import DataConnection.Db;
+import service.JdbcBackupImporter;
+
+import java.io.Console;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+/**
+ * JDBC yedeği ({@code budget-*.jdump/} klasörü) geri yükleme CLI'ı.
+ *
+ * <p>Hedef: {@code db.properties}'teki veritabanı (bkz. {@link Db}); şema BOŞ
+ * olmalı — dolu şemaya yükleme reddedilir. Dosyalar yüklemeden önce
+ * manifestteki SHA-256'larla doğrulanır; veri dosyaları paralel yüklenir.
+ *
+ * <p><b>Kullanım:</b>
+ * <pre>
+ * BACKUP_PASS=... java -cp target/budgetController-*.jar tools.BackupRestore \
+ *      ~/Backups/budget-20260101-120000.jdump [işçi=4]
+ * </pre>
+ * Parola env'de yoksa interaktif sorulur (şifresiz yedek için sorulmaz).
+ */
+public final class BackupRestore {
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 1 || args.length > 2) {
+            System.err.println("Kullanım: BackupRestore <budget-*.jdump> [işçi]");
+            System.exit(1);
+        }
+        Path dir = Path.of(args[0]);
+        if (!Files.isDirectory(dir)) {
+            System.err.println("Yedek klasörü yok: " + dir);
+            System.exit(1);
+        }
+        int workers = args.length == 2 ? Integer.parseInt(args[1]) : 4;
+
+        String pass = null;
+        if (encrypted(dir)) {
+            pass = System.getenv("BACKUP_PASS");
+            if (pass == null || pass.isBlank()) {
+                Console c = System.console();
+                if (c == null) {
+                    System.err.println("Parola için ya BACKUP_PASS env değişkenini ayarlayın "
+                            + "ya da TTY'den çalıştırın.");
+                    System.exit(2);
+                }
+                char[] arr = c.readPassword("BACKUP_PASS: ");
+                if (arr == null || arr.length == 0) {
+                    System.err.println("Parola boş olamaz");
+                    System.exit(2);
+                }
+                pass = new String(arr);
+            }
+        }
+
+        long started = System.nanoTime();
+        try {
+            long rows = new JdbcBackupImporter(Db.getDataSource(), pass, workers).restore(dir);
+            System.out.printf("OK: %d satır, %d işçi, %.1f sn%n", rows, workers,
+                    (System.nanoTime() - started) / 1e9);
+        } catch (Exception ex) {
+            System.err.println("Geri yükleme hatası: " + ex.getMessage());
+            System.exit(3);
+        }
+    }
+
+    private static boolean encrypted(Path dir) throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.anyMatch(p -> p.getFileName().toString().endsWith(".enc"));
+        }
+    }
+
+    private BackupRestore() {
+    }
+}
@@ -0,0 +1,215 @@
+package tools;
+
+import dao.CategoryDAO;
+import dao.CategoryPrinterRouteDAO;
+import dao.KitchenPrinterDAO;
+import dao.ProductDAO;
+import model.CategoryPrinterRoute;
+import model.KitchenPrinter;
+import model.OrderItem;
+import model.Product;
+import service.CatalogCache;
+import service.print.KitchenRouter;
+
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Function;
+
+/**
+ * {@link KitchenRouter} için mikro ölçüm: 30 kalemlik bir siparişin
+ * yazıcılara yönlendirilmesi.
+ *
+ * <p>İki yol karşılaştırılır:
+ * <ul>
+ *   <li><b>legacy</b> — eski algoritma: her kalem için ürün sorgusu, her
+ *       kategori için {@code findPrinterIdsByCategory}, her yazıcı için
+ *       {@code findById}.</li>
+ *   <li><b>snapshot</b> — yönlendirme tablosu + katalog önbelleği; ısınmadan
+ *       sonra sorgu yapılmaz.</li>
+ * </ul>
+ * DB gerekmez: DAO'lar bellekte, her sorgu {@code queryMicros} kadar bekletilir.
+ *
+ * <p>Kullanım (proje root'unda):
+ * <pre>{@code
+ *   mvn -q -DskipTests package
+ *   java -cp target/budgetController-1.0-SNAPSHOT.jar \
+ *        tools.KitchenRouteBench 30 20000 300
+ * }</pre>
+ *
+ * <p>Argümanlar (hepsi opsiyonel): sipariş kalem sayısı (30), tekrar (20000),
+ * sorgu başına gecikme µs (300; 0 → saf CPU).
+ */
+public final class KitchenRouteBench {
+
+    private static final int CATEGORY_COUNT = 8;
+    private static final int PRINTER_COUNT = 4;
+    private static final int PRODUCT_COUNT = 60;
+
+    public static void main(String[] args) {
+        int itemCount = args.length > 0 ? Integer.parseInt(args[0]) : 30;
+        int iterations = args.length > 1 ? Integer.parseInt(args[1]) : 20_000;
+        long queryMicros = args.length > 2 ? Long.parseLong(args[2]) : 300;
+
+        Fixture f = new Fixture(queryMicros);
+        List<OrderItem> order = f.order(itemCount, new Random(42));
+        KitchenRouter router = new KitchenRouter(f.printerDAO, f.routeDAO,
+                new CatalogCache(f.productDAO, f.categoryDAO, Duration.ofHours(1)), Duration.ofHours(1));
+
+        // Aynı sonucu verdiklerini doğrula
+        Map<Long, Integer> expected = countByPrinter(legacyRoute(f, order));
+        Map<Long, Integer> actual = countByPrinter(router.routeItems(order));
+        if (!expected.equals(actual)) {
+            throw new IllegalStateException("Sonuçlar farklı: legacy=" + expected + " snapshot=" + actual);
+        }
+
+        System.out.println("Kalem=" + itemCount + ", tekrar=" + iterations
+                + ", sorgu gecikmesi=" + queryMicros + "µs");
+
+        // Gecikmeli sorgularda legacy yavaş — tekrar sayısını sınırla
+        int legacyIterations = queryMicros > 0 ? Math.max(1, Math.min(iterations, 200)) : iterations;
+        Result legacy = measure("legacy", legacyIterations, f, () -> legacyRoute(f, order));
+        Result snapshot = measure("snapshot", iterations, f, () -> router.routeItems(order));
+
+        legacy.print();
+        snapshot.print();
+        System.out.printf("Hızlanma: %.1fx%n", legacy.microsPerOrder / Math.max(snapshot.microsPerOrder, 0.001));
+    }
+
+    /** Ölçümden önceki algoritma — karşılaştırma için birebir. */
+    private static Map<KitchenPrinter, List<OrderItem>> legacyRoute(Fixture f, List<OrderItem> items) {
+        Map<KitchenPrinter, List<OrderItem>> grouped = new LinkedHashMap<>();
+        Map<Long, List<KitchenPrinter>> catCache = new HashMap<>();
+        Map<Integer, KitchenPrinter> printerCache = new HashMap<>();
+        for (OrderItem item : items) {
+            Long categoryId = f.productDAO.findById(item.getProductId())
+                    .map(Product::getCategoryId).orElse(null);
+            if (categoryId == null) continue;
+            List<KitchenPrinter> targets = catCache.computeIfAbsent(categoryId, cid -> {
+                List<KitchenPrinter> out = new ArrayList<>();
+                for (Integer pid : f.routeDAO.findPrinterIdsByCategory(cid)) {
+                    KitchenPrinter p = printerCache.computeIfAbsent(pid,
+                            id -> f.printerDAO.findById(id).orElse(null));
+                    if (p != null && p.isActive()) out.add(p);
+                }
+                return out;
+            });
+            for (KitchenPrinter p : targets) {
+                grouped.computeIfAbsent(p, k -> new ArrayList<>()).add(item);
+            }
+        }
+        return grouped;
+    }
+
+    private static Result measure(String name, int iterations, Fixture f, Runnable op) {
+        int warmup = Math.min(iterations, 1_000);
+        for (int i = 0; i < warmup; i++) op.run();
+        f.queries.reset();
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) op.run();
+        long elapsed = System.nanoTime() - start;
+        return new Result(name, elapsed / 1_000.0 / iterations, f.queries.sum() / (double) iterations);
+    }
+
+    private static Map<Long, Integer> countByPrinter(Map<KitchenPrinter, List<OrderItem>> grouped) {
+        Map<Long, Integer> out = new HashMap<>();
+        grouped.forEach((p, items) -> out.put(p.getId(), items.size()));
+        return out;
+    }
+
+    private record Result(String name, double microsPerOrder, double queriesPerOrder) {
+        void print() {
+            System.out.printf("%-9s: %10.2f µs/sipariş, %6.1f sorgu/sipariş%n",
+                    name, microsPerOrder, queriesPerOrder);
+        }
+    }
+
+    /** Bellekte katalog + yönlendirme; her DAO çağrısı bir "sorgu" sayılır. */
+    private static final class Fixture {
+        final LongAdder queries = new LongAdder();
+        final long queryNanos;
+        final Map<Long, Product> products = new HashMap<>();
+        final Map<Integer, KitchenPrinter> printers = new HashMap<>();
+        final List<CategoryPrinterRoute> routes = new ArrayList<>();
+
+        final ProductDAO productDAO;
+        final CategoryDAO categoryDAO;
+        final KitchenPrinterDAO printerDAO;
+        final CategoryPrinterRouteDAO routeDAO;
+
+        Fixture(long queryMicros) {
+            this.queryNanos = TimeUnit.MICROSECONDS.toNanos(queryMicros);
+            for (int i = 1; i <= PRINTER_COUNT; i++) {
+                KitchenPrinter p = new KitchenPrinter("K" + i, "Mutfak " + i, "127.0.0.1");
+                p.setId((long) i);
+                printers.put(i, p);
+            }
+            for (long c = 1; c <= CATEGORY_COUNT; c++) {
+                routes.add(new CategoryPrinterRoute(c, (int) (c % PRINTER_COUNT) + 1));
+                if (c % 3 == 0) routes.add(new CategoryPrinterRoute(c, 1));   // çoklu yönlendirme
+            }
+            for (long id = 1; id <= PRODUCT_COUNT; id++) {
+                Product p = new Product();
+                p.setId(id);
+                p.setName("Ürün " + id);
+                p.setCategoryId(id % CATEGORY_COUNT + 1);
+                p.setUnitPrice(new BigDecimal("10.00"));
+                products.put(id, p);
+            }
+
+            productDAO = dao(ProductDAO.class, Map.of(
+                    "findById", a -> Optional.ofNullable(products.get((Long) a[0])),
+                    "findAll", a -> new ArrayList<>(products.values())));
+            categoryDAO = dao(CategoryDAO.class, Map.of(
+                    "findAll", a -> List.of()));
+            printerDAO = dao(KitchenPrinterDAO.class, Map.of(
+                    "findById", a -> Optional.ofNullable(printers.get((Integer) a[0])),
+                    "findAll", a -> new ArrayList<>(printers.values())));
+            routeDAO = dao(CategoryPrinterRouteDAO.class, Map.of(
+                    "findAll", a -> new ArrayList<>(routes),
+                    "findPrinterIdsByCategory", a -> routes.stream()
+                            .filter(r -> r.getCategoryId().equals(a[0]))
+                            .map(CategoryPrinterRoute::getPrinterId)
+                            .toList()));
+        }
+
+        List<OrderItem> order(int itemCount, Random random) {
+            List<OrderItem> items = new ArrayList<>(itemCount);
+            for (int i = 0; i < itemCount; i++) {
+                Product p = products.get((long) random.nextInt(PRODUCT_COUNT) + 1);
+                OrderItem item = new OrderItem();
+                item.setProductId(p.getId());
+                item.setProductName(p.getName());
+                item.setQuantity(1);
+                item.setUnitPrice(p.getUnitPrice());
+                items.add(item);
+            }
+            return items;
+        }
+
+        /** Yalnız verilen metotları destekleyen, gecikmeli sahte DAO. */
+        @SuppressWarnings("unchecked")
+        private <T> T dao(Class<T> type, Map<String, Function<Object[], Object>> handlers) {
+            return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, m, a) -> {
+                Function<Object[], Object> h = handlers.get(m.getName());
+                if (h == null) {
+                    if (m.getName().equals("toString")) return type.getSimpleName();
+                    throw new UnsupportedOperationException(m.getName());
+                }
+                queries.increment();
+                if (queryNanos > 0) LockSupport.parkNanos(queryNanos);
+                return h.apply(a);
+            });
+        }
+    }
+}
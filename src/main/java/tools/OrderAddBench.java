@@ -0,0 +1,261 @@
+package tools;
+
+import DataConnection.TransactionExecutor;
+import dao.ChangeFeedDAO;
+import dao.OrderDAO;
+import dao.OrderItemsDAO;
+import dao.OrderLogDAO;
+import dao.PaymentDAO;
+import dao.ProductDAO;
+import dao.RestaurantTableDAO;
+import dao.SalesRollupDAO;
+import model.ChangeEvent;
+import model.Order;
+import model.OrderItem;
+import model.OrderStatus;
+import model.Product;
+import model.RestaurantTable;
+import model.TableStatus;
+import service.OrderService;
+
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Function;
+
+/**
+ * Garson yolunda tek "ürün ekle" için round-trip ve gecikme ölçümü.
+ *
+ * <p>İki yol karşılaştırılır:
+ * <ul>
+ *   <li><b>legacy</b> — eski {@code AppState.addItemInternal} zinciri: açık
+ *       sipariş SELECT, {@code addItemToOrder} (tx), {@code updateOrderStatus}
+ *       (tx), kalemleri okuyan {@code recomputeTotals} (tx), masa durumu ve
+ *       sipariş logu (autocommit), imza için iki SELECT.</li>
+ *   <li><b>pipeline</b> — {@link OrderService#addItemInOneTransaction}.</li>
+ * </ul>
+ * DB gerekmez: DAO'lar bellekte. Gecikme modeli: her DAO çağrısı bir
+ * round-trip ({@code rttMicros}, üstel kuyruklu sapmayla); her transaction
+ * ek iki round-trip (autocommit kapat + commit) ve bir commit (fsync,
+ * {@code commitMicros}); transaction dışındaki her yazma da bir commit.
+ * Sayılar modelin çıktısıdır — gerçek DB'de oran benzer, mutlak değer değil.
+ *
+ * <p>Kullanım (proje root'unda):
+ * <pre>{@code
+ *   mvn -q -DskipTests package
+ *   java -cp target/budgetController-1.0-SNAPSHOT.jar tools.OrderAddBench 2000 250 800
+ * }</pre>
+ *
+ * <p>Argümanlar (hepsi opsiyonel): ekleme sayısı (2000), round-trip µs (250),
+ * commit µs (800).
+ */
+public final class OrderAddBench {
+
+    private static final long TABLE_ID = 7L;
+    private static final int TABLE_NO = 7;
+
+    public static void main(String[] args) {
+        int adds = args.length > 0 ? Integer.parseInt(args[0]) : 2_000;
+        long rttMicros = args.length > 1 ? Long.parseLong(args[1]) : 250;
+        long commitMicros = args.length > 2 ? Long.parseLong(args[2]) : 800;
+
+        System.out.println("Ekleme=" + adds + ", round-trip=" + rttMicros + "µs, commit=" + commitMicros + "µs");
+
+        Fixture legacyDb = new Fixture(rttMicros, commitMicros);
+        Result legacy = measure("legacy", adds, legacyDb, () -> legacyAdd(legacyDb));
+        Fixture pipelineDb = new Fixture(rttMicros, commitMicros);
+        Result pipeline = measure("pipeline", adds, pipelineDb, () -> pipelineDb.service.addItemInOneTransaction(
+                TABLE_ID, 1L, pipelineDb.product, 1, null, "1 x Adana ekledi"));
+
+        if (legacyDb.quantity() != pipelineDb.quantity()) {
+            throw new IllegalStateException("Sonuçlar farklı: legacy=" + legacyDb.quantity()
+                    + " pipeline=" + pipelineDb.quantity());
+        }
+        legacy.print();
+        pipeline.print();
+        System.out.printf("p99 iyileşme: %.1fx, round-trip: %.1f → %.1f%n",
+                legacy.p99 / Math.max(pipeline.p99, 0.001), legacy.roundTrips, pipeline.roundTrips);
+    }
+
+    /** Eski {@code addItemInternal} gövdesi — karşılaştırma için birebir. */
+    private static void legacyAdd(Fixture f) {
+        OrderService s = f.service;
+        Order order = s.getOpenOrderByTable(TABLE_ID)
+                .orElseGet(() -> s.createOrder(TABLE_ID, 1L));
+        // Eski addItemToOrder: ürün SELECT + kalem + stok + değişiklik günlüğü
+        f.tx.execute(conn -> {
+            Product product = f.productDAO.findById(f.product.getId()).orElseThrow();
+            f.itemsDAO.addOrIncrement(order.getId(), product.getId(), product.getName(), 1,
+                    product.getUnitPrice(), null, null);
+            f.productDAO.updateStock(product.getId(), -1);
+            f.feedDAO.appendForOrder(ChangeEvent.TOPIC_TABLE, order.getId());
+            return null;
+        });
+        s.updateOrderStatus(order.getId(), OrderStatus.IN_PROGRESS);
+        // Eski recomputeTotals: kalemleri okuyup uygulamada toplar
+        f.tx.execute(conn -> {
+            BigDecimal total = BigDecimal.ZERO;
+            for (OrderItem it : f.itemsDAO.findByOrderId(order.getId())) total = total.add(it.getLineTotal());
+            f.orderDAO.updateTotals(order.getId(), total, BigDecimal.ZERO, BigDecimal.ZERO, total);
+            return null;
+        });
+        f.tableDAO.updateStatus(TABLE_ID, TableStatus.OCCUPIED);        // markTableOccupied
+        f.orderLogDAO.append(order.getId(), "1 x Adana ekledi");        // orderLogService.append
+        f.tableDAO.findByTableNo(TABLE_NO);                               // refreshTableSignature
+        f.orderDAO.findOpenOrderByTable(TABLE_ID);
+    }
+
+    private static Result measure(String name, int adds, Fixture f, Runnable op) {
+        int warmup = Math.min(adds, 200);
+        for (int i = 0; i < warmup; i++) op.run();
+        f.roundTrips.reset();
+        f.transactions.reset();
+        long[] nanos = new long[adds];
+        for (int i = 0; i < adds; i++) {
+            long t0 = System.nanoTime();
+            op.run();
+            nanos[i] = System.nanoTime() - t0;
+        }
+        Arrays.sort(nanos);
+        return new Result(name,
+                nanos[adds / 2] / 1_000.0,
+                nanos[Math.min(adds - 1, (int) Math.ceil(adds * 0.99) - 1)] / 1_000.0,
+                f.roundTrips.sum() / (double) adds,
+                f.transactions.sum() / (double) adds);
+    }
+
+    private record Result(String name, double p50, double p99, double roundTrips, double transactions) {
+        void print() {
+            System.out.printf("%-9s: p50 %8.0f µs, p99 %8.0f µs, %5.1f round-trip/ekleme, %4.1f tx/ekleme%n",
+                    name, p50, p99, roundTrips, transactions);
+        }
+    }
+
+    /** Bellekte tek masa, tek açık sipariş, tek ürün. */
+    private static final class Fixture {
+        final LongAdder roundTrips = new LongAdder();
+        final LongAdder transactions = new LongAdder();
+        final long rttNanos;
+        final long commitNanos;
+        final ThreadLocal<Boolean> inTx = ThreadLocal.withInitial(() -> false);
+
+        final Product product = new Product();
+        final Order order = new Order(TABLE_ID, 1L, OrderStatus.IN_PROGRESS);
+        final OrderItem item = new OrderItem();
+
+        final OrderDAO orderDAO;
+        final OrderItemsDAO itemsDAO;
+        final ProductDAO productDAO;
+        final RestaurantTableDAO tableDAO;
+        final OrderLogDAO orderLogDAO;
+        final ChangeFeedDAO feedDAO;
+        final TransactionExecutor tx;
+        final OrderService service;
+
+        Fixture(long rttMicros, long commitMicros) {
+            this.rttNanos = TimeUnit.MICROSECONDS.toNanos(rttMicros);
+            this.commitNanos = TimeUnit.MICROSECONDS.toNanos(commitMicros);
+            product.setId(1L);
+            product.setName("Adana");
+            product.setUnitPrice(new BigDecimal("250.00"));
+            order.setId(100L);
+            item.setId(1_000L);
+            item.setOrderId(100L);
+            item.setProductId(1L);
+            item.setQuantity(1);
+            item.setLineTotal(product.getUnitPrice());
+            RestaurantTable table = new RestaurantTable();
+            table.setId(TABLE_ID);
+
+            orderDAO = dao(OrderDAO.class, Map.of(
+                    "findOpenOrderByTable", a -> Optional.of(order),
+                    "findById", a -> Optional.of(order),
+                    "updateStatus", a -> null,
+                    "updateTotals", a -> null,
+                    "adjustTotalsForProduct", a -> null));
+            itemsDAO = dao(OrderItemsDAO.class, Map.of(
+                    "findByOrderId", a -> List.of(item),
+                    "addOrIncrement", a -> {
+                        item.setQuantity(item.getQuantity() + (Integer) a[3]);
+                        item.setLineTotal(((BigDecimal) a[4]).multiply(BigDecimal.valueOf(item.getQuantity())));
+                        return null;
+                    }));
+            productDAO = dao(ProductDAO.class, Map.of(
+                    "findById", a -> Optional.of(product),
+                    "updateStock", a -> null));
+            tableDAO = dao(RestaurantTableDAO.class, Map.of(
+                    "updateStatus", a -> null,
+                    "findByTableNo", a -> Optional.of(table)));
+            orderLogDAO = dao(OrderLogDAO.class, Map.of("append", a -> null));
+            feedDAO = dao(ChangeFeedDAO.class, Map.of(
+                    "append", a -> null,
+                    "appendForOrder", a -> null));
+            tx = new TransactionExecutor() {
+                @Override
+                public <T> T execute(Function<Connection, T> work) {
+                    transactions.increment();
+                    roundTrip();                  // setAutoCommit(false)
+                    inTx.set(true);
+                    try {
+                        return work.apply(null);
+                    } finally {
+                        inTx.set(false);
+                        roundTrip();              // commit
+                        park(commitNanos);
+                    }
+                }
+            };
+            service = new OrderService(orderDAO, itemsDAO, productDAO, dao(PaymentDAO.class, Map.of()), tableDAO,
+                    OrderService.TxDaos.jdbc()
+                            .orders(c -> orderDAO).orderItems(c -> itemsDAO).products(c -> productDAO)
+                            .payments(c -> dao(PaymentDAO.class, Map.of())).tables(c -> tableDAO)
+                            .changeFeed(c -> feedDAO).rollups(c -> dao(SalesRollupDAO.class, Map.of()))
+                            .orderLogs(c -> orderLogDAO),
+                    tx);
+        }
+
+        int quantity() {
+            return item.getQuantity();
+        }
+
+        void roundTrip() {
+            roundTrips.increment();
+            // Üstel kuyruk: çoğu çağrı ~rtt, arada bir birkaç katı (ağ/kilit beklemesi)
+            double jitter = -Math.log(1 - ThreadLocalRandom.current().nextDouble()) * 0.25;
+            park((long) (rttNanos * (1 + jitter)));
+        }
+
+        static void park(long nanos) {
+            if (nanos > 0) LockSupport.parkNanos(nanos);
+        }
+
+        /** Yalnız verilen metotları destekleyen, gecikmeli sahte DAO. */
+        @SuppressWarnings("unchecked")
+        private <T> T dao(Class<T> type, Map<String, Function<Object[], Object>> handlers) {
+            Map<String, Function<Object[], Object>> h = new HashMap<>(handlers);
+            return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, m, a) -> {
+                Function<Object[], Object> fn = h.get(m.getName());
+                if (fn == null) {
+                    if (m.getName().equals("toString")) return type.getSimpleName();
+                    throw new UnsupportedOperationException(type.getSimpleName() + "." + m.getName());
+                }
+                roundTrip();
+                // Transaction dışındaki yazma kendi commit'ini öder (autocommit)
+                if (!inTx.get() && !m.getName().startsWith("find")) park(commitNanos);
+                return fn.apply(a);
+            });
+        }
+    }
+
+    private OrderAddBench() {
+    }
+}
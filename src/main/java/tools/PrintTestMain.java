@@ -61,6 +61,7 @@ public final class PrintTestMain {
         try {
             printer.print(sample);
             System.out.println("OK — fiş basıldı.");
+            System.out.println("Durum (DLE EOT): " + printer.probe());
         } catch (PrinterException e) {
             System.err.println("HATA: " + e.getMessage());
             if (e.getCause() != null) {
@@ -68,6 +69,8 @@ public final class PrintTestMain {
                         + ": " + e.getCause().getMessage());
             }
             System.exit(2);
+        } finally {
+            printer.close();
         }
     }
 }
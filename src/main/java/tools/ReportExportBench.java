@@ -0,0 +1,190 @@
+package tools;
+
+import dao.PaymentDAO;
+import model.Payment;
+import model.PaymentMethod;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.xssf.usermodel.XSSFSheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import service.PaymentService;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Consumer;
+
+/**
+ * Ay sonu ödeme export'u için süre + tepe heap ölçümü.
+ *
+ * <p>İki yol karşılaştırılır:
+ * <ul>
+ *   <li><b>legacy</b> — eski yol: ödemeler listeye yüklenir, {@code XSSFWorkbook}
+ *       bütün sayfayı bellekte kurar, sonunda {@code autoSizeColumn}.</li>
+ *   <li><b>stream</b> — {@link PaymentService#exportPaymentsToExcel(LocalDate, LocalDate, String)}:
+ *       cursor'dan okunan ödeme SXSSF penceresinden diske akar.</li>
+ * </ul>
+ * DB gerekmez: DAO bellekte, ödemeler tohumlu {@link Random} ile üretilir
+ * (stream yolunda liste hiç kurulmaz).
+ *
+ * <p>Kullanım (proje root'unda; tepe heap'ler birbirini etkilemesin diye her
+ * yolu ayrı JVM'de çalıştırın):
+ * <pre>{@code
+ *   mvn -q -DskipTests package
+ *   java -cp target/budgetController-1.0-SNAPSHOT.jar tools.ReportExportBench legacy 50000
+ *   java -cp target/budgetController-1.0-SNAPSHOT.jar tools.ReportExportBench stream 50000
+ *   # Sabit heap'te sığıp sığmadığı:
+ *   java -Xmx96m -cp ... tools.ReportExportBench legacy 50000
+ * }</pre>
+ *
+ * <p>Argümanlar (hepsi opsiyonel): yol {@code legacy|stream|both} (both),
+ * ödeme sayısı (50000), tekrar (3).
+ */
+public final class ReportExportBench {
+
+    private static final LocalDate MONTH = LocalDate.of(2026, 1, 1);
+
+    public static void main(String[] args) throws IOException {
+        String mode = args.length > 0 ? args[0] : "both";
+        int rows = args.length > 1 ? Integer.parseInt(args[1]) : 50_000;
+        int repeats = args.length > 2 ? Integer.parseInt(args[2]) : 3;
+
+        System.out.println("Ödeme=" + rows + ", tekrar=" + repeats);
+        Path dir = Files.createTempDirectory("report-bench");
+        try {
+            if (mode.equals("legacy") || mode.equals("both")) {
+                run("legacy", repeats, dir.resolve("legacy.xlsx"), out -> legacyExport(generate(rows), out));
+            }
+            if (mode.equals("stream") || mode.equals("both")) {
+                PaymentService service = new PaymentService(generatingDao(rows));
+                run("stream", repeats, dir.resolve("stream.xlsx"), out -> {
+                    if (!service.exportPaymentsToExcel(MONTH, MONTH.plusMonths(1), out.toString())) {
+                        throw new IllegalStateException("export başarısız");
+                    }
+                });
+            }
+        } finally {
+            try (var files = Files.list(dir)) {
+                for (Path p : files.toList()) Files.delete(p);
+            }
+            Files.delete(dir);
+        }
+    }
+
+    private static void run(String name, int repeats, Path out, IoTask task) throws IOException {
+        // Isınma
+        task.run(out);
+        Files.delete(out);
+        long best = Long.MAX_VALUE;
+        long peak = 0;
+        for (int i = 0; i < repeats; i++) {
+            System.gc();
+            long base = resetPeakHeap();
+            long t0 = System.nanoTime();
+            task.run(out);
+            best = Math.min(best, System.nanoTime() - t0);
+            peak = Math.max(peak, peakHeap() - base);
+            if (i < repeats - 1) Files.delete(out);
+        }
+        System.out.printf("%-7s en iyi %,8.1f ms   tepe heap artışı ~%,6d MB   dosya %,d KB%n",
+                name, best / 1e6, peak >> 20, Files.size(out) >> 10);
+        Files.delete(out);
+    }
+
+    /** Eski {@code exportPaymentsToExcel} gövdesi (XSSF + autoSizeColumn). */
+    private static void legacyExport(List<Payment> payments, Path file) throws IOException {
+        try (XSSFWorkbook workbook = new XSSFWorkbook()) {
+            XSSFSheet sheet = workbook.createSheet("Payments");
+            Row header = sheet.createRow(0);
+            String[] columns = {"Payment ID", "Order ID", "Cashier ID", "Amount", "Method", "Paid At"};
+            for (int i = 0; i < columns.length; i++) header.createCell(i).setCellValue(columns[i]);
+            int rowIndex = 1;
+            for (Payment pay : payments) {
+                Row row = sheet.createRow(rowIndex++);
+                row.createCell(0).setCellValue(pay.getId());
+                row.createCell(1).setCellValue(pay.getOrderId());
+                row.createCell(2).setCellValue(pay.getCashierId() == null ? "" : pay.getCashierId().toString());
+                row.createCell(3).setCellValue(pay.getAmount().toPlainString());
+                row.createCell(4).setCellValue(pay.getMethod().toString());
+                row.createCell(5).setCellValue(pay.getPaidAt().toString());
+            }
+            for (int i = 0; i < columns.length; i++) sheet.autoSizeColumn(i);
+            try (FileOutputStream out = new FileOutputStream(file.toFile())) {
+                workbook.write(out);
+            }
+        }
+    }
+
+    private static List<Payment> generate(int rows) {
+        List<Payment> list = new ArrayList<>(rows);
+        forEachGenerated(rows, list::add);
+        return list;
+    }
+
+    private static void forEachGenerated(int rows, Consumer<Payment> sink) {
+        Random rnd = new Random(42);
+        PaymentMethod[] methods = {PaymentMethod.CASH, PaymentMethod.CREDIT_CARD};
+        LocalDateTime start = MONTH.atTime(10, 0);
+        long spanSeconds = 31L * 24 * 3600;
+        for (int i = 0; i < rows; i++) {
+            Payment p = new Payment();
+            p.setId((long) i + 1);
+            p.setOrderId(100_000L + i);
+            p.setCashierId(rnd.nextInt(10) == 0 ? null : (long) (1 + rnd.nextInt(5)));
+            p.setAmount(BigDecimal.valueOf(500 + rnd.nextInt(500_000), 2));
+            p.setMethod(methods[rnd.nextInt(methods.length)]);
+            p.setPaidAt(start.plusSeconds(spanSeconds * i / rows));
+            sink.accept(p);
+        }
+    }
+
+    /** Yalnız {@code forEachInDateRange}'i olan, ödemeleri anında üreten DAO. */
+    @SuppressWarnings("unchecked")
+    private static PaymentDAO generatingDao(int rows) {
+        return (PaymentDAO) Proxy.newProxyInstance(PaymentDAO.class.getClassLoader(),
+                new Class<?>[]{PaymentDAO.class}, (proxy, method, a) -> {
+                    if (method.getName().equals("forEachInDateRange")) {
+                        forEachGenerated(rows, (Consumer<Payment>) a[2]);
+                        return null;
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    private static long resetPeakHeap() {
+        long used = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() != MemoryType.HEAP) continue;
+            pool.resetPeakUsage();
+            used += pool.getUsage().getUsed();
+        }
+        return used;
+    }
+
+    /** Havuz tepelerinin toplamı — aynı anda olmayabilir, üst sınır kabul edin. */
+    private static long peakHeap() {
+        long peak = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) peak += pool.getPeakUsage().getUsed();
+        }
+        return peak;
+    }
+
+    @FunctionalInterface
+    private interface IoTask {
+        void run(Path out) throws IOException;
+    }
+
+    private ReportExportBench() {
+    }
+}
@@ -23,12 +23,22 @@ const App = {
 //   API client
 // ====================================================================
 
+/**
+ * GET yanıtlarının ETag önbelleği: path → { etag, auth, data }.
+ * Sunucu değişiklik yoksa 304 döner; aynı nesne geri verilir, böylece
+ * çağıran `data === önceki` ile yeniden çizimi atlayabilir.
+ */
+const etagCache = new Map();
+
 async function api(method, path, body) {
   const headers = { 'Content-Type': 'application/json' };
   if (App.auth) headers['Authorization'] = App.auth;
+  const cached = method === 'GET' ? etagCache.get(path) : null;
+  if (cached && cached.auth === App.auth) headers['If-None-Match'] = cached.etag;
   const opts = { method, headers };
   if (body !== undefined) opts.body = JSON.stringify(body);
   const resp = await fetch(`/api${path}`, opts);
+  if (resp.status === 304 && cached) return cached.data;
   let data = null;
   try { data = await resp.json(); } catch (e) {}
   if (!resp.ok) {
@@ -37,6 +47,11 @@ async function api(method, path, body) {
     err.status = resp.status;
     throw err;
   }
+  if (method === 'GET') {
+    const etag = resp.headers.get('ETag');
+    if (etag) etagCache.set(path, { etag, auth: App.auth, data });
+    else etagCache.delete(path);
+  }
   return data;
 }
 
@@ -568,35 +583,166 @@ function maybeRenewActiveTableLock(activeViewId) {
     .then(() => { lockHeartbeatInFlight = false; });
 }
 
+/** Aktif görünümü sunucudan yeniler (ETag ile — değişmediyse 304, yeniden çizim yok). */
+function refreshActiveView(activeId) {
+  // 304 → api() aynı nesneyi döner; değişmediyse yeniden çizme
+  if (activeId === 'view-tables') {
+    api('GET', '/tables').then(t => {
+      if (t === App.tables) return;
+      App.tables = t; renderTables();
+    }).catch(() => {});
+  } else if (activeId === 'view-table-detail' && App.currentTable) {
+    api('GET', `/tables/${App.currentTable.tableNo}`)
+      .then(snap => {
+        if (snap === App.currentTable) return;
+        App.currentTable = snap; renderTableDetail(snap);
+      })
+      .catch(() => {});
+  } else if (activeId === 'view-dashboard') {
+    api('GET', '/tables').then(t => {
+      App.tables = t;
+      const occupied = t.filter(x => x.status && x.status !== 'EMPTY').length;
+      document.getElementById('statTableOccupied').textContent = occupied;
+      document.getElementById('statOrderCount').textContent = occupied;
+      if (App.user && App.user.role === 'ADMIN') {
+        const totalSales = t.filter(x => x.total).reduce((s, x) => s + Number(x.total || 0), 0);
+        document.getElementById('statSalesTotal').textContent = '₺' + totalSales.toFixed(2);
+      }
+    }).catch(() => {});
+  }
+}
+
 function startAutoRefresh() {
   stopAutoRefresh();
+  startEventStream();
   refreshTimer = setInterval(() => {
     const active = document.querySelector('.view.active');
     if (!active) return;
     maybeRenewActiveTableLock(active.id);
+    // Push akışı canlıyken değişiklikler /api/events'ten gelir; yine de olay
+    // üretmeyen bir değişiklik (ör. sunucuda değişiklik günlüğü yokken) ekranı
+    // sonsuza dek eski bırakmasın diye seyrek bir güvenlik yenilemesi yapılır.
+    // ETag sayesinde değişmeyen masa 304 döner.
+    if (EventStream.live && Date.now() - EventStream.lastRefreshAt < SAFETY_POLL_MS) return;
     // Sadece masalar listesi veya masa detay açıkken yenile
-    if (active.id === 'view-tables') {
-      api('GET', '/tables').then(t => { App.tables = t; renderTables(); }).catch(() => {});
-    } else if (active.id === 'view-table-detail' && App.currentTable) {
-      api('GET', `/tables/${App.currentTable.tableNo}`)
-        .then(snap => { App.currentTable = snap; renderTableDetail(snap); })
-        .catch(() => {});
-    } else if (active.id === 'view-dashboard') {
-      api('GET', '/tables').then(t => {
-        App.tables = t;
-        const occupied = t.filter(x => x.status && x.status !== 'EMPTY').length;
-        document.getElementById('statTableOccupied').textContent = occupied;
-        document.getElementById('statOrderCount').textContent = occupied;
-        if (App.user && App.user.role === 'ADMIN') {
-          const totalSales = t.filter(x => x.total).reduce((s, x) => s + Number(x.total || 0), 0);
-          document.getElementById('statSalesTotal').textContent = '₺' + totalSales.toFixed(2);
-        }
-      }).catch(() => {});
-    }
+    refreshActiveView(active.id);
+    EventStream.lastRefreshAt = Date.now();
   }, 5000);  // 5 saniyede bir
 }
+/** Akış canlıyken güvenlik yenilemesi aralığı. */
+const SAFETY_POLL_MS = 60000;
 function stopAutoRefresh() {
   if (refreshTimer) { clearInterval(refreshTimer); refreshTimer = null; }
+  stopEventStream();
+}
+
+// ========== Push (SSE) ==========
+// EventSource Authorization header gönderemediği için akış fetch ile okunur
+// (token URL'ye/loglara düşmesin). Akış koparsa `live=false` olur, 5 sn'lik
+// polling devreye girer ve artan beklemeyle yeniden bağlanılır.
+const EventStream = {
+  live: false,
+  controller: null,
+  retryTimer: null,
+  retryMs: 2000,
+  /** Olay patlamalarını tek yenilemeye indirger */
+  pending: null,
+  /** Son görünüm yenilemesi (olay ya da polling) — güvenlik yenilemesi için */
+  lastRefreshAt: 0,
+};
+
+function startEventStream() {
+  stopEventStream();
+  if (!App.auth || !window.ReadableStream) return;
+  const controller = new AbortController();
+  EventStream.controller = controller;
+  fetch('/api/events', {
+    headers: { 'Authorization': App.auth, 'Accept': 'text/event-stream' },
+    signal: controller.signal,
+  }).then(async resp => {
+    if (!resp.ok || !resp.body) throw new Error(`HTTP ${resp.status}`);
+    const reader = resp.body.getReader();
+    const decoder = new TextDecoder();
+    let buffer = '';
+    for (;;) {
+      const { value, done } = await reader.read();
+      if (done) break;
+      buffer += decoder.decode(value, { stream: true });
+      let sep;
+      while ((sep = buffer.indexOf('\n\n')) >= 0) {
+        const block = buffer.slice(0, sep);
+        buffer = buffer.slice(sep + 2);
+        handleStreamBlock(block);
+      }
+    }
+    throw new Error('akış kapandı');
+  }).catch(() => {
+    if (EventStream.controller !== controller) return;  // bilerek durduruldu
+    EventStream.live = false;
+    EventStream.controller = null;
+    // Kopukken kaçırılanları yakala, sonra yeniden bağlan
+    const active = document.querySelector('.view.active');
+    if (active) refreshActiveView(active.id);
+    EventStream.retryTimer = setTimeout(startEventStream, EventStream.retryMs);
+    EventStream.retryMs = Math.min(EventStream.retryMs * 2, 30000);
+  });
+}
+
+function stopEventStream() {
+  const controller = EventStream.controller;
+  EventStream.controller = null;
+  EventStream.live = false;
+  if (EventStream.retryTimer) { clearTimeout(EventStream.retryTimer); EventStream.retryTimer = null; }
+  if (EventStream.pending) { clearTimeout(EventStream.pending); EventStream.pending = null; }
+  if (controller) controller.abort();
+}
+
+function handleStreamBlock(block) {
+  let event = 'message';
+  let data = '';
+  for (const line of block.split('\n')) {
+    if (line.startsWith('event:')) event = line.slice(6).trim();
+    else if (line.startsWith('data:')) data += line.slice(5).trim();
+    // ':' ile başlayan satırlar heartbeat yorumu
+  }
+  if (event === 'message' && !data) return;
+  let payload = {};
+  try { payload = data ? JSON.parse(data) : {}; } catch (e) { /* ignore */ }
+  onServerEvent(event, payload);
+}
+
+function onServerEvent(event, payload) {
+  if (event === 'hello') {
+    EventStream.live = true;
+    EventStream.retryMs = 2000;
+    return;
+  }
+  const active = document.querySelector('.view.active');
+  if (!active) return;
+  if (event === 'tables') {
+    const tn = payload.tableNo;
+    const affectsDetail = active.id === 'view-table-detail' && App.currentTable
+        && (tn === -1 || tn === App.currentTable.tableNo);
+    const affectsList = active.id === 'view-tables' || active.id === 'view-dashboard';
+    if (affectsDetail || affectsList) scheduleViewRefresh();
+  } else if ((event === 'products' || event === 'categories') && active.id === 'view-products') {
+    api('GET', '/products').then(p => {
+      if (p === App.products) return;
+      App.products = p; buildCategoryBar(); renderProducts();
+    }).catch(() => {});
+  } else if (event === 'sales' && active.id === 'view-sales') {
+    loadSales();
+  }
+}
+
+function scheduleViewRefresh() {
+  if (EventStream.pending) return;
+  EventStream.pending = setTimeout(() => {
+    EventStream.pending = null;
+    const active = document.querySelector('.view.active');
+    if (active) refreshActiveView(active.id);
+    EventStream.lastRefreshAt = Date.now();
+  }, 250);
 }
 
 document.getElementById('addProductBtn').addEventListener('click', openProductPicker);
@@ -2071,8 +2217,9 @@ async function openTablePicker() {
       grid.innerHTML = '<p style="text-align:center;color:#999;grid-column:1/-1;">Masa yok</p>';
       return;
     }
-    tables.sort((a, b) => (a.tableNo || 0) - (b.tableNo || 0));
-    grid.innerHTML = tables.map(t => {
+    // Kopya üzerinde sırala — yanıt ETag önbelleğiyle paylaşılıyor
+    const sorted = [...tables].sort((a, b) => (a.tableNo || 0) - (b.tableNo || 0));
+    grid.innerHTML = sorted.map(t => {
       const cls = (t.status && t.status !== 'EMPTY') ? 'occupied' : '';
       return `<button type="button" class="${cls}" data-tn="${t.tableNo}">Masa ${t.tableNo}</button>`;
     }).join('');
@@ -0,0 +1,123 @@
+package dao.jdbc;
+
+import model.ChangeEvent;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ChangeFeedJdbcDAOTest {
+
+    private DataSource dataSource;
+    private ChangeFeedJdbcDAO dao;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        JdbcDataSource ds = new JdbcDataSource();
+        ds.setURL("jdbc:h2:mem:changeFeedTests;MODE=MySQL;DATABASE_TO_UPPER=false;DB_CLOSE_DELAY=-1");
+        ds.setUser("sa");
+        ds.setPassword("");
+        this.dataSource = ds;
+
+        try (Connection connection = dataSource.getConnection();
+             Statement stmt = connection.createStatement()) {
+            stmt.execute("DROP TABLE IF EXISTS change_seq");
+            stmt.execute("DROP TABLE IF EXISTS orders");
+            stmt.execute("CREATE TABLE change_seq (" +
+                    "seq BIGINT AUTO_INCREMENT PRIMARY KEY," +
+                    "topic VARCHAR(16) NOT NULL," +
+                    "table_id BIGINT," +
+                    "entity_id BIGINT," +
+                    "origin VARCHAR(40)," +
+                    "created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP" +
+                    ")");
+            stmt.execute("CREATE TABLE orders (" +
+                    "id BIGINT AUTO_INCREMENT PRIMARY KEY," +
+                    "table_id BIGINT" +
+                    ")");
+            stmt.execute("INSERT INTO orders (id, table_id) VALUES (7, 12)");
+        }
+
+        ChangeFeedJdbcDAO.resetAvailability();
+        this.dao = new ChangeFeedJdbcDAO(dataSource);
+    }
+
+    @Test
+    void findSinceReturnsOnlyRowsAfterCursorInOrder() {
+        assertEquals(0L, dao.latestSeq());
+
+        dao.append(ChangeEvent.TOPIC_TABLE, 3L, 100L);
+        dao.append(ChangeEvent.TOPIC_EXPENSE, null, 55L);
+        dao.append(ChangeEvent.TOPIC_SALE, 4L, 101L);
+
+        List<ChangeEvent> all = dao.findSince(0L, 10);
+        assertEquals(3, all.size());
+        long first = all.get(0).seq();
+        assertNull(all.get(1).tableId(), "gider satırında masa yok");
+        assertTrue(all.get(0).isLocal(), "aynı JVM'in yazdığı satır yerel sayılmalı");
+
+        List<ChangeEvent> tail = dao.findSince(first, 10);
+        assertEquals(2, tail.size());
+        assertEquals(ChangeEvent.TOPIC_EXPENSE, tail.get(0).topic());
+        assertEquals(ChangeEvent.TOPIC_SALE, tail.get(1).topic());
+        assertEquals(all.get(2).seq(), dao.latestSeq());
+        assertEquals(1, dao.findSince(first, 1).size(), "limit uygulanmalı");
+    }
+
+    @Test
+    void appendForOrderResolvesTableFromOrdersInSameConnection() throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            new ChangeFeedJdbcDAO(connection).appendForOrder(ChangeEvent.TOPIC_TABLE, 7L);
+            connection.commit();
+        }
+
+        List<ChangeEvent> events = dao.findSince(0L, 10);
+        assertEquals(1, events.size());
+        assertEquals(12L, events.get(0).tableId());
+        assertEquals(7L, events.get(0).entityId());
+    }
+
+    @Test
+    void rolledBackMutationLeavesNoFeedRow() throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            new ChangeFeedJdbcDAO(connection).append(ChangeEvent.TOPIC_SALE, 1L, 1L);
+            connection.rollback();
+        }
+
+        assertTrue(dao.findSince(0L, 10).isEmpty());
+    }
+
+    @Test
+    void feedComesBackWhenTableIsCreatedAfterStartup() throws SQLException {
+        exec("DROP TABLE change_seq");
+        assertEquals(0L, dao.latestSeq());
+        assertFalse(dao.isAvailable(), "tablo yokken günlük kapalı");
+
+        exec("CREATE TABLE change_seq (seq BIGINT AUTO_INCREMENT PRIMARY KEY, topic VARCHAR(16) NOT NULL," +
+                "table_id BIGINT, entity_id BIGINT, origin VARCHAR(40), created_at TIMESTAMP)");
+        ChangeFeedJdbcDAO.resetAvailability();   // SchemaPatcher tabloyu oluşturunca
+
+        assertTrue(dao.isAvailable());
+        dao.append(ChangeEvent.TOPIC_TABLE, 3L, 100L);
+        assertEquals(1, dao.findSince(0L, 10).size());
+    }
+
+    private void exec(String sql) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             Statement stmt = connection.createStatement()) {
+            stmt.execute(sql);
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package dao.jdbc;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OrderItemsJdbcDAOUpsertTest {
+
+    private static final BigDecimal PRICE = new BigDecimal("250.00");
+
+    @Test
+    void parallelAddsOfSameProductEndOnOneLine() throws Exception {
+        DataSource ds = database("orderItemsUpsertParallel", true);
+        OrderItemsJdbcDAO dao = new OrderItemsJdbcDAO(ds);
+        int threads = 8;
+        int addsPerThread = 50;
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        try {
+            for (int t = 0; t < threads; t++) {
+                futures.add(pool.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < addsPerThread; i++) {
+                        dao.addOrIncrement(1L, 5L, "Adana", 1, PRICE);
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> f : futures) f.get(30, TimeUnit.SECONDS);
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertEquals(List.of(threads * addsPerThread), quantities(ds, 1L, 5L));
+    }
+
+    @Test
+    void snapshotIsWrittenOnInsertAndKeptOnIncrement() throws SQLException {
+        DataSource ds = database("orderItemsUpsertSnapshot", true);
+        OrderItemsJdbcDAO dao = new OrderItemsJdbcDAO(ds);
+
+        dao.addOrIncrement(1L, 5L, "Adana", 4, new BigDecimal("62.50"), 4, "şiş");
+        dao.addOrIncrement(1L, 5L, "Adana", 2, new BigDecimal("65.00"), null, null);
+
+        try (Connection c = ds.getConnection(); Statement st = c.createStatement();
+             ResultSet rs = st.executeQuery("SELECT quantity, unit_price, pieces_per_portion, unit_label " +
+                     "FROM order_items WHERE order_id=1")) {
+            assertTrue(rs.next());
+            assertEquals(6, rs.getInt(1));
+            assertEquals(0, new BigDecimal("65.00").compareTo(rs.getBigDecimal(2)), "fiyat son eklemeden");
+            assertEquals(4, rs.getInt(3));
+            assertEquals("şiş", rs.getString(4));
+            assertTrue(!rs.next(), "tek satır beklenir");
+        }
+    }
+
+    @Test
+    void notedLineIsNotIncremented() throws SQLException {
+        DataSource ds = database("orderItemsUpsertNote", true);
+        try (Connection c = ds.getConnection(); Statement st = c.createStatement()) {
+            st.executeUpdate("INSERT INTO order_items (order_id, product_id, product_name, quantity, unit_price, note_hash) " +
+                    "VALUES (1, 5, 'Adana', 1, 250.00, 'acisiz')");
+        }
+        OrderItemsJdbcDAO dao = new OrderItemsJdbcDAO(ds);
+
+        dao.addOrIncrement(1L, 5L, "Adana", 2, PRICE);
+        dao.addOrIncrement(1L, 5L, "Adana", 1, PRICE);
+
+        assertEquals(List.of(1, 3), quantities(ds, 1L, 5L));
+    }
+
+    @Test
+    void mergeLineMovesQuantityAndDeletesSource() throws SQLException {
+        DataSource ds = database("orderItemsMergeLine", true);
+        try (Connection c = ds.getConnection(); Statement st = c.createStatement()) {
+            st.executeUpdate("INSERT INTO order_items (order_id, product_id, product_name, quantity, unit_price) " +
+                    "VALUES (1, 5, 'Adana', 2, 250.00)");
+            st.executeUpdate("INSERT INTO order_items (order_id, product_id, product_name, quantity, unit_price, note_hash) " +
+                    "VALUES (1, 5, 'Adana', 3, 250.00, 'acisiz')");
+        }
+        OrderItemsJdbcDAO dao = new OrderItemsJdbcDAO(ds);
+
+        assertTrue(dao.mergeLine(2L, 1L));
+        assertEquals(List.of(5), quantities(ds, 1L, 5L));
+        assertFalse(dao.mergeLine(2L, 1L), "kaynak satır artık yok");
+        assertEquals(List.of(5), quantities(ds, 1L, 5L));
+    }
+
+    @Test
+    void schemaWithoutKeyFallsBackToUpdateThenInsert() throws SQLException {
+        DataSource ds = database("orderItemsUpsertFallback", false);
+        OrderItemsJdbcDAO dao = new OrderItemsJdbcDAO(ds);
+
+        dao.addOrIncrement(1L, 5L, "Adana", 1, PRICE, 4, "şiş");
+        dao.addOrIncrement(1L, 5L, "Adana", 2, PRICE);
+        dao.addOrIncrement(1L, 6L, "Ayran", 1, new BigDecimal("40.00"));
+
+        assertEquals(List.of(3), quantities(ds, 1L, 5L));
+        assertEquals(List.of(1), quantities(ds, 1L, 6L));
+    }
+
+    private static DataSource database(String name, boolean withKey) throws SQLException {
+        JdbcDataSource ds = new JdbcDataSource();
+        ds.setURL("jdbc:h2:mem:" + name + ";MODE=MySQL;DATABASE_TO_UPPER=false;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=10000");
+        ds.setUser("sa");
+        ds.setPassword("");
+        try (Connection c = ds.getConnection(); Statement st = c.createStatement()) {
+            st.execute("DROP TABLE IF EXISTS order_items");
+            st.execute("CREATE TABLE order_items (" +
+                    "id BIGINT AUTO_INCREMENT PRIMARY KEY," +
+                    "order_id BIGINT NOT NULL," +
+                    "product_id BIGINT NOT NULL," +
+                    "product_name VARCHAR(255)," +
+                    "quantity INT NOT NULL," +
+                    "unit_price DECIMAL(12,4) NOT NULL," +
+                    "pieces_per_portion INT," +
+                    "unit_label VARCHAR(32)," +
+                    "note_hash CHAR(32) NOT NULL DEFAULT ''" +
+                    (withKey ? ", CONSTRAINT uk_order_items_line UNIQUE (order_id, product_id, note_hash)" : "") +
+                    ")");
+        }
+        return ds;
+    }
+
+    private static List<Integer> quantities(DataSource ds, long orderId, long productId) throws SQLException {
+        List<Integer> list = new ArrayList<>();
+        try (Connection c = ds.getConnection(); Statement st = c.createStatement();
+             ResultSet rs = st.executeQuery("SELECT quantity FROM order_items WHERE order_id=" + orderId
+                     + " AND product_id=" + productId + " ORDER BY id")) {
+            while (rs.next()) list.add(rs.getInt(1));
+        }
+        return list;
+    }
+}
@@ -0,0 +1,130 @@
+package dao.jdbc;
+
+import model.TableOrderState;
+import model.TableStatus;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * {@link OrderJdbcDAO#findAllTableStates()} — tek LEFT JOIN sorgusuyla
+ * masa başına bir satır, en yeni açık sipariş ve kalem toplamı.
+ */
+class OrderJdbcDAOTableStatesTest {
+
+    private OrderJdbcDAO dao;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        JdbcDataSource ds = new JdbcDataSource();
+        ds.setURL("jdbc:h2:mem:tableStateTests;MODE=MySQL;DATABASE_TO_UPPER=false;DB_CLOSE_DELAY=-1");
+        ds.setUser("sa");
+        ds.setPassword("");
+        DataSource dataSource = ds;
+
+        try (Connection connection = dataSource.getConnection();
+             Statement stmt = connection.createStatement()) {
+            stmt.execute("DROP TABLE IF EXISTS order_items");
+            stmt.execute("DROP TABLE IF EXISTS orders");
+            stmt.execute("DROP TABLE IF EXISTS dining_tables");
+            stmt.execute("CREATE TABLE dining_tables (" +
+                    "id BIGINT AUTO_INCREMENT PRIMARY KEY," +
+                    "table_no INT NOT NULL," +
+                    "status VARCHAR(16) NOT NULL," +
+                    "note VARCHAR(255)," +
+                    "created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP," +
+                    "updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP" +
+                    ")");
+            stmt.execute("CREATE TABLE orders (" +
+                    "id BIGINT AUTO_INCREMENT PRIMARY KEY," +
+                    "table_id BIGINT," +
+                    "waiter_id BIGINT," +
+                    "status VARCHAR(16) NOT NULL," +
+                    "order_date TIMESTAMP DEFAULT CURRENT_TIMESTAMP," +
+                    "note VARCHAR(255)," +
+                    "subtotal DECIMAL(12,2)," +
+                    "tax_total DECIMAL(12,2)," +
+                    "discount_total DECIMAL(12,2)," +
+                    "total DECIMAL(12,2)," +
+                    "closed_at TIMESTAMP NULL," +
+                    "created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP," +
+                    "updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP" +
+                    ")");
+            stmt.execute("CREATE TABLE order_items (" +
+                    "id BIGINT AUTO_INCREMENT PRIMARY KEY," +
+                    "order_id BIGINT NOT NULL," +
+                    "product_id BIGINT," +
+                    "quantity INT NOT NULL," +
+                    "unit_price DECIMAL(12,2)" +
+                    ")");
+            stmt.execute("INSERT INTO dining_tables (id, table_no, status) VALUES " +
+                    "(1, 1, 'OCCUPIED'), (2, 2, 'EMPTY'), (3, 3, 'OCCUPIED')");
+            // Masa 1: kapanmış eski sipariş + açık yeni sipariş
+            stmt.execute("INSERT INTO orders (id, table_id, status, updated_at) VALUES " +
+                    "(10, 1, 'COMPLETED', TIMESTAMP '2024-03-01 12:00:00')," +
+                    "(11, 1, 'IN_PROGRESS', TIMESTAMP '2024-03-01 13:30:00')," +
+                    "(12, 3, 'PENDING', TIMESTAMP '2024-03-01 14:00:00')," +
+                    "(13, 3, 'READY', TIMESTAMP '2024-03-01 14:05:00')");
+            // Kapanmış siparişin kalemi toplama girmemeli
+            stmt.execute("INSERT INTO order_items (order_id, product_id, quantity, unit_price) VALUES " +
+                    "(10, 1, 5, 100.00)," +
+                    "(11, 1, 2, 45.50)," +
+                    "(11, 2, 1, 12.25)");
+        }
+
+        this.dao = new OrderJdbcDAO(dataSource);
+    }
+
+    @Test
+    void returnsOneRowPerTableWithLatestOpenOrder() {
+        List<TableOrderState> states = dao.findAllTableStates();
+
+        assertEquals(3, states.size(), "masa başına tek satır");
+
+        TableOrderState first = states.get(0);
+        assertEquals(1, first.tableNo());
+        assertEquals(TableStatus.OCCUPIED, first.tableStatus());
+        assertNotNull(first.openOrder());
+        assertEquals(11L, first.openOrder().getId(), "kapanmış sipariş atlanmalı");
+        assertEquals(1L, first.openOrder().getTableId());
+        assertNotNull(first.openOrder().getUpdatedAt());
+        assertEquals(0, new BigDecimal("103.25").compareTo(first.openTotal()), "yalnızca açık siparişin kalemleri");
+
+        TableOrderState empty = states.get(1);
+        assertEquals(2, empty.tableNo());
+        assertEquals(TableStatus.EMPTY, empty.tableStatus());
+        assertNull(empty.openOrder());
+        assertEquals(0, BigDecimal.ZERO.compareTo(empty.openTotal()));
+
+        assertEquals(13L, states.get(2).openOrder().getId(), "birden fazla açık siparişte en yenisi");
+        assertEquals(0, BigDecimal.ZERO.compareTo(states.get(2).openTotal()), "kalemsiz açık sipariş");
+    }
+
+    @Test
+    void singleTableStateMatchesTheFloorQuery() {
+        TableOrderState one = dao.findTableState(1).orElseThrow();
+        assertEquals(11L, one.openOrder().getId());
+        assertEquals(0, new BigDecimal("103.25").compareTo(one.openTotal()));
+
+        TableOrderState three = dao.findTableState(3).orElseThrow();
+        assertEquals(13L, three.openOrder().getId(), "birden fazla açık siparişte en yenisi");
+
+        TableOrderState empty = dao.findTableState(2).orElseThrow();
+        assertNull(empty.openOrder());
+        assertEquals(TableStatus.EMPTY, empty.tableStatus());
+
+        assertTrue(dao.findTableState(99).isEmpty(), "tanımsız masa");
+    }
+}
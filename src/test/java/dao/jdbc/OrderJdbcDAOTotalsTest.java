@@ -0,0 +1,124 @@
+package dao.jdbc;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class OrderJdbcDAOTotalsTest {
+
+    private DataSource dataSource;
+    private OrderJdbcDAO dao;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        JdbcDataSource ds = new JdbcDataSource();
+        ds.setURL("jdbc:h2:mem:orderTotalsTests;MODE=MySQL;DATABASE_TO_UPPER=false;DB_CLOSE_DELAY=-1");
+        ds.setUser("sa");
+        ds.setPassword("");
+        this.dataSource = ds;
+
+        try (Connection connection = dataSource.getConnection();
+             Statement stmt = connection.createStatement()) {
+            stmt.execute("DROP TABLE IF EXISTS order_items");
+            stmt.execute("DROP TABLE IF EXISTS orders");
+            stmt.execute("CREATE TABLE orders (" +
+                    "id BIGINT PRIMARY KEY," +
+                    "subtotal DECIMAL(12,2) NOT NULL DEFAULT 0," +
+                    "tax_total DECIMAL(12,2) NOT NULL DEFAULT 0," +
+                    "discount_total DECIMAL(12,2) NOT NULL DEFAULT 0," +
+                    "total DECIMAL(12,2) NOT NULL DEFAULT 0," +
+                    "updated_at TIMESTAMP" +
+                    ")");
+            stmt.execute("CREATE TABLE order_items (" +
+                    "id BIGINT AUTO_INCREMENT PRIMARY KEY," +
+                    "order_id BIGINT NOT NULL," +
+                    "product_id BIGINT NOT NULL," +
+                    "quantity INT NOT NULL," +
+                    "unit_price DECIMAL(12,4) NOT NULL," +
+                    "net_amount DECIMAL(12,2) GENERATED ALWAYS AS (ROUND(quantity * unit_price, 2))," +
+                    "tax_amount DECIMAL(12,2) GENERATED ALWAYS AS (ROUND(quantity * unit_price * 0.20, 2))," +
+                    "line_total DECIMAL(12,2) GENERATED ALWAYS AS (ROUND(quantity * unit_price * 1.20, 2))" +
+                    ")");
+            stmt.execute("INSERT INTO orders (id) VALUES (1), (2)");
+            // Başka siparişin kalemi toplamlara karışmamalı
+            stmt.execute("INSERT INTO order_items (order_id, product_id, quantity, unit_price) VALUES (2, 5, 9, 99)");
+        }
+
+        this.dao = new OrderJdbcDAO(dataSource);
+    }
+
+    @Test
+    void productDeltasTrackFullSumAcrossInsertIncrementAndPriceChange() throws SQLException {
+        // Yeni kalem: önce -1 (satır yok → değişmez), sonra +1
+        dao.adjustTotalsForProduct(1L, 5L, -1);
+        exec("INSERT INTO order_items (order_id, product_id, quantity, unit_price) VALUES (1, 5, 2, 10.05)");
+        dao.adjustTotalsForProduct(1L, 5L, 1);
+        dao.adjustTotalsForProduct(1L, 6L, -1);
+        exec("INSERT INTO order_items (order_id, product_id, quantity, unit_price) VALUES (1, 6, 3, 12.3333)");
+        dao.adjustTotalsForProduct(1L, 6L, 1);
+        assertEquals(fullSum(1L), stored(1L));
+
+        // Artırma + fiyat değişimi: saklı tutarlar kullanıldığından yuvarlama kayması yok
+        dao.adjustTotalsForProduct(1L, 5L, -1);
+        exec("UPDATE order_items SET quantity = quantity + 3, unit_price = 11.11 WHERE order_id=1 AND product_id=5");
+        dao.adjustTotalsForProduct(1L, 5L, 1);
+
+        assertEquals(fullSum(1L), stored(1L));
+        assertEquals(List.of(new BigDecimal("92.55"), new BigDecimal("18.51"), new BigDecimal("111.06")), stored(1L));
+    }
+
+    @Test
+    void itemDeltasHandleDecrementAndDelete() throws SQLException {
+        exec("INSERT INTO order_items (id, order_id, product_id, quantity, unit_price) VALUES (10, 1, 5, 4, 7.50)");
+        exec("INSERT INTO order_items (id, order_id, product_id, quantity, unit_price) VALUES (11, 1, 6, 1, 3.00)");
+        dao.recomputeTotalsFromItems(1L);
+
+        dao.adjustTotalsForItem(1L, 10L, -1);
+        exec("UPDATE order_items SET quantity = quantity - 1 WHERE id=10");
+        dao.adjustTotalsForItem(1L, 10L, 1);
+        assertEquals(fullSum(1L), stored(1L));
+
+        // Satır silinince +1 bir şey eklemez
+        dao.adjustTotalsForItem(1L, 11L, -1);
+        exec("DELETE FROM order_items WHERE id=11");
+        dao.adjustTotalsForItem(1L, 11L, 1);
+
+        assertEquals(fullSum(1L), stored(1L));
+        assertEquals(List.of(new BigDecimal("22.50"), new BigDecimal("4.50"), new BigDecimal("27.00")), stored(1L));
+    }
+
+    private void exec(String sql) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             Statement stmt = connection.createStatement()) {
+            stmt.executeUpdate(sql);
+        }
+    }
+
+    private List<BigDecimal> stored(Long orderId) throws SQLException {
+        return amounts("SELECT subtotal, tax_total, total FROM orders WHERE id=" + orderId);
+    }
+
+    private List<BigDecimal> fullSum(Long orderId) throws SQLException {
+        return amounts("SELECT COALESCE(SUM(net_amount),0), COALESCE(SUM(tax_amount),0), COALESCE(SUM(line_total),0) " +
+                "FROM order_items WHERE order_id=" + orderId);
+    }
+
+    private List<BigDecimal> amounts(String sql) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+            rs.next();
+            return List.of(rs.getBigDecimal(1).setScale(2), rs.getBigDecimal(2).setScale(2), rs.getBigDecimal(3).setScale(2));
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package dao.jdbc;
+
+import model.SaleRow;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * {@code DATE(paid_at) BETWEEN ? AND ?} → {@code paid_at >= ? AND paid_at < ?}
+ * dönüşümünün aynı satırları seçtiğini gün sınırlarında (gece yarısı,
+ * kesirli saniye, ay geçişi) doğrular.
+ */
+class PaidAtRangeSemanticsTest {
+
+    private DataSource dataSource;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        JdbcDataSource ds = new JdbcDataSource();
+        ds.setURL("jdbc:h2:mem:paidAtRangeTests;MODE=MySQL;DATABASE_TO_UPPER=false;DB_CLOSE_DELAY=-1");
+        ds.setUser("sa");
+        ds.setPassword("");
+        this.dataSource = ds;
+
+        try (Connection connection = dataSource.getConnection();
+             Statement stmt = connection.createStatement()) {
+            stmt.execute("DROP TABLE IF EXISTS payments");
+            stmt.execute("DROP TABLE IF EXISTS orders");
+            stmt.execute("DROP TABLE IF EXISTS dining_tables");
+            stmt.execute("DROP TABLE IF EXISTS users");
+            stmt.execute("CREATE TABLE users (id BIGINT PRIMARY KEY, username VARCHAR(64), full_name VARCHAR(128))");
+            stmt.execute("CREATE TABLE dining_tables (id BIGINT PRIMARY KEY, table_no INT NOT NULL)");
+            stmt.execute("CREATE TABLE orders (id BIGINT PRIMARY KEY, table_id BIGINT, waiter_id BIGINT, note VARCHAR(255))");
+            stmt.execute("CREATE TABLE payments (" +
+                    "id BIGINT PRIMARY KEY," +
+                    "order_id BIGINT," +
+                    "cashier_id BIGINT," +
+                    "amount DECIMAL(12,2)," +
+                    "method VARCHAR(16)," +
+                    "paid_at TIMESTAMP(6)" +
+                    ")");
+            stmt.execute("CREATE INDEX idx_payments_paid_at ON payments (paid_at)");
+            stmt.execute("INSERT INTO payments (id, amount, method, paid_at) VALUES " +
+                    "(1, 1, 'CASH', TIMESTAMP '2024-02-29 23:59:59.999999')," +
+                    "(2, 1, 'CASH', TIMESTAMP '2024-03-01 00:00:00')," +
+                    "(3, 1, 'CASH', TIMESTAMP '2024-03-01 12:34:56.5')," +
+                    "(4, 1, 'CASH', TIMESTAMP '2024-03-01 23:59:59.999999')," +
+                    "(5, 1, 'CASH', TIMESTAMP '2024-03-02 00:00:00')," +
+                    "(6, 1, 'CASH', TIMESTAMP '2024-03-31 23:59:59')," +
+                    "(7, 1, 'CASH', TIMESTAMP '2024-04-01 00:00:00')," +
+                    "(8, 1, 'CASH', NULL)");
+        }
+    }
+
+    @Test
+    void singleDayMatchesDateFunction() throws SQLException {
+        LocalDate day = LocalDate.of(2024, 3, 1);
+        Set<Long> legacy = legacyIds(day, day);
+        assertEquals(Set.of(2L, 3L, 4L), legacy);
+        assertEquals(legacy, rangeIds(day, day));
+    }
+
+    @Test
+    void multiDayAndMonthRangesMatchDateFunction() throws SQLException {
+        LocalDate from = LocalDate.of(2024, 2, 29);
+        LocalDate to = LocalDate.of(2024, 3, 2);
+        assertEquals(legacyIds(from, to), rangeIds(from, to));
+
+        YearMonth march = YearMonth.of(2024, 3);
+        Set<Long> legacyMonth = legacyIds(march.atDay(1), march.atEndOfMonth());
+        assertFalse(legacyMonth.contains(7L));
+        assertEquals(legacyMonth, rangeIds(march.atDay(1), march.atEndOfMonth()));
+    }
+
+    @Test
+    void salesQueryDaoUsesSameSemantics() throws SQLException {
+        LocalDate day = LocalDate.of(2024, 3, 1);
+        Set<Long> fromDao = new SalesQueryJdbcDAO(dataSource)
+                .findPage(day.atStartOfDay(), day.plusDays(1).atStartOfDay(), null, 0)
+                .rows().stream()
+                .map(SaleRow::paymentId)
+                .collect(Collectors.toCollection(TreeSet::new));
+        assertEquals(legacyIds(day, day), fromDao);
+    }
+
+    private Set<Long> legacyIds(LocalDate from, LocalDate to) throws SQLException {
+        try (Connection c = dataSource.getConnection();
+             PreparedStatement ps = c.prepareStatement(
+                     "SELECT id FROM payments WHERE DATE(paid_at) BETWEEN ? AND ?")) {
+            ps.setDate(1, java.sql.Date.valueOf(from));
+            ps.setDate(2, java.sql.Date.valueOf(to));
+            return ids(ps);
+        }
+    }
+
+    /** Raporların kullandığı bağlama: [from 00:00, to+1 00:00). */
+    private Set<Long> rangeIds(LocalDate from, LocalDate to) throws SQLException {
+        try (Connection c = dataSource.getConnection();
+             PreparedStatement ps = c.prepareStatement(
+                     "SELECT id FROM payments WHERE paid_at >= ? AND paid_at < ?")) {
+            ps.setTimestamp(1, Timestamp.valueOf(from.atStartOfDay()));
+            ps.setTimestamp(2, Timestamp.valueOf(to.plusDays(1).atStartOfDay()));
+            return ids(ps);
+        }
+    }
+
+    private static Set<Long> ids(PreparedStatement ps) throws SQLException {
+        Set<Long> out = new TreeSet<>();
+        try (ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) {
+                out.add(rs.getLong(1));
+            }
+        }
+        return out;
+    }
+}
@@ -0,0 +1,118 @@
+package dao.jdbc;
+
+import model.SaleRow;
+import model.SalesPage;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * {@link SalesQueryJdbcDAO} — tek JOIN ile masa/garson/kasiyer bilgisi ve
+ * keyset sayfalama.
+ */
+class SalesQueryJdbcDAOTest {
+
+    private static final LocalDate DAY = LocalDate.of(2024, 3, 1);
+
+    private SalesQueryJdbcDAO dao;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        JdbcDataSource ds = new JdbcDataSource();
+        ds.setURL("jdbc:h2:mem:salesQueryTests;MODE=MySQL;DATABASE_TO_UPPER=false;DB_CLOSE_DELAY=-1");
+        ds.setUser("sa");
+        ds.setPassword("");
+        DataSource dataSource = ds;
+
+        try (Connection connection = dataSource.getConnection();
+             Statement stmt = connection.createStatement()) {
+            stmt.execute("DROP TABLE IF EXISTS payments");
+            stmt.execute("DROP TABLE IF EXISTS orders");
+            stmt.execute("DROP TABLE IF EXISTS dining_tables");
+            stmt.execute("DROP TABLE IF EXISTS users");
+            stmt.execute("CREATE TABLE users (id BIGINT PRIMARY KEY, username VARCHAR(64), full_name VARCHAR(128))");
+            stmt.execute("CREATE TABLE dining_tables (id BIGINT PRIMARY KEY, table_no INT NOT NULL)");
+            stmt.execute("CREATE TABLE orders (id BIGINT PRIMARY KEY, table_id BIGINT, waiter_id BIGINT, note VARCHAR(255))");
+            stmt.execute("CREATE TABLE payments (" +
+                    "id BIGINT AUTO_INCREMENT PRIMARY KEY," +
+                    "order_id BIGINT," +
+                    "cashier_id BIGINT," +
+                    "amount DECIMAL(12,2)," +
+                    "method VARCHAR(16)," +
+                    "paid_at TIMESTAMP" +
+                    ")");
+            stmt.execute("INSERT INTO users VALUES (1, 'ali', 'Ali Veli'), (2, 'kasa', NULL)");
+            stmt.execute("INSERT INTO dining_tables VALUES (10, 7), (11, 8)");
+            stmt.execute("INSERT INTO orders VALUES (100, 10, 1, 'acele'), (101, 11, NULL, NULL)");
+            stmt.execute("INSERT INTO payments (id, order_id, cashier_id, amount, method, paid_at) VALUES " +
+                    "(1, 100, 2, 50.00, 'CASH', TIMESTAMP '2024-03-01 12:00:00')," +
+                    "(2, 101, 2, 20.00, 'CARD', TIMESTAMP '2024-03-01 12:00:00')," +
+                    "(3, 100, 2, 30.00, 'CARD', TIMESTAMP '2024-03-01 18:30:00')," +
+                    "(4, 101, 2, 99.00, 'CASH', TIMESTAMP '2024-03-02 00:00:00')," +
+                    "(5, 101, 2, 11.00, 'CASH', TIMESTAMP '2024-02-29 23:59:59')");
+        }
+
+        this.dao = new SalesQueryJdbcDAO(dataSource);
+    }
+
+    @Test
+    void joinsTableWaiterAndCashierInOneRow() {
+        SalesPage page = dao.findPage(DAY.atStartOfDay(), DAY.plusDays(1).atStartOfDay(), null, 0);
+
+        assertEquals(3, page.rows().size(), "gün sınırındaki ödemeler hariç");
+        assertEquals(3, page.totalCount());
+        assertEquals(0, new BigDecimal("100.00").compareTo(page.totalAmount()));
+        assertNull(page.nextCursor());
+
+        SaleRow latest = page.rows().get(0);
+        assertEquals(3L, latest.paymentId());
+        assertEquals(7, latest.tableNo());
+        assertEquals("Ali Veli", latest.waiterName());
+        assertEquals("kasa", latest.cashierName(), "tam ad yoksa kullanıcı adı");
+        assertEquals("acele", latest.orderNote());
+        assertEquals(LocalDateTime.of(2024, 3, 1, 18, 30), latest.paidAt());
+
+        SaleRow noWaiter = page.rows().get(1);
+        assertEquals(2L, noWaiter.paymentId(), "aynı saniyede id DESC");
+        assertNull(noWaiter.waiterName());
+    }
+
+    @Test
+    void cursorWalksAllRowsWithoutDuplicates() {
+        LocalDateTime from = DAY.atStartOfDay();
+        LocalDateTime to = DAY.plusDays(1).atStartOfDay();
+        List<Long> ids = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            SalesPage page = dao.findPage(from, to, cursor, 2);
+            page.rows().forEach(r -> ids.add(r.paymentId()));
+            assertEquals(3, page.totalCount(), "toplamlar sayfadan bağımsız");
+            cursor = page.nextCursor();
+            pages++;
+        } while (cursor != null);
+
+        assertEquals(2, pages);
+        assertEquals(List.of(3L, 2L, 1L), ids);
+    }
+
+    @Test
+    void malformedCursorIsRejected() {
+        assertThrows(IllegalArgumentException.class, () ->
+                dao.findPage(DAY.atStartOfDay(), DAY.plusDays(1).atStartOfDay(), "bozuk", 10));
+    }
+}
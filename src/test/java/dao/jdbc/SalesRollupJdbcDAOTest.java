@@ -0,0 +1,140 @@
+package dao.jdbc;
+
+import model.ProductRollupRow;
+import model.SalesRollupRow;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * {@link SalesRollupJdbcDAO} — yeniden hesaplama ile artımlı güncellemenin
+ * aynı toplamları verdiğini ve hesap bölmede kalemlerin tek sayıldığını doğrular.
+ */
+class SalesRollupJdbcDAOTest {
+
+    private static final LocalDate DAY = LocalDate.of(2024, 3, 1);
+
+    private DataSource dataSource;
+    private SalesRollupJdbcDAO dao;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        JdbcDataSource ds = new JdbcDataSource();
+        ds.setURL("jdbc:h2:mem:salesRollupTests;MODE=MySQL;DATABASE_TO_UPPER=false;DB_CLOSE_DELAY=-1");
+        ds.setUser("sa");
+        ds.setPassword("");
+        this.dataSource = ds;
+
+        try (Connection connection = dataSource.getConnection();
+             Statement stmt = connection.createStatement()) {
+            stmt.execute("DROP TABLE IF EXISTS daily_product_rollup");
+            stmt.execute("DROP TABLE IF EXISTS daily_sales_rollup");
+            stmt.execute("DROP TABLE IF EXISTS order_items");
+            stmt.execute("DROP TABLE IF EXISTS payments");
+            stmt.execute("CREATE TABLE payments (" +
+                    "id BIGINT AUTO_INCREMENT PRIMARY KEY," +
+                    "order_id BIGINT," +
+                    "amount DECIMAL(12,2)," +
+                    "method VARCHAR(16)," +
+                    "paid_at TIMESTAMP" +
+                    ")");
+            stmt.execute("CREATE TABLE order_items (" +
+                    "id BIGINT AUTO_INCREMENT PRIMARY KEY," +
+                    "order_id BIGINT," +
+                    "product_name VARCHAR(255)," +
+                    "unit_label VARCHAR(32)," +
+                    "pieces_per_portion INT," +
+                    "quantity INT," +
+                    "unit_price DECIMAL(12,2)," +
+                    "line_total DECIMAL(12,2)" +
+                    ")");
+            stmt.execute("CREATE TABLE daily_sales_rollup (" +
+                    "sale_date DATE NOT NULL," +
+                    "sale_hour TINYINT NOT NULL," +
+                    "method VARCHAR(16) NOT NULL DEFAULT ''," +
+                    "sale_count INT NOT NULL DEFAULT 0," +
+                    "amount DECIMAL(14,2) NOT NULL DEFAULT 0," +
+                    "PRIMARY KEY (sale_date, sale_hour, method)" +
+                    ")");
+            stmt.execute("CREATE TABLE daily_product_rollup (" +
+                    "sale_date DATE NOT NULL," +
+                    "product_name VARCHAR(255) NOT NULL," +
+                    "unit_label VARCHAR(32) NOT NULL DEFAULT ''," +
+                    "pieces_per_portion INT NOT NULL DEFAULT 0," +
+                    "quantity INT NOT NULL DEFAULT 0," +
+                    "amount DECIMAL(14,2) NOT NULL DEFAULT 0," +
+                    "PRIMARY KEY (sale_date, product_name, unit_label)" +
+                    ")");
+            // Sipariş 100: tek ödeme. Sipariş 101: iki ödemeye bölünmüş.
+            stmt.execute("INSERT INTO payments (order_id, amount, method, paid_at) VALUES " +
+                    "(100, 60.00, 'CASH', TIMESTAMP '2024-03-01 12:10:00')," +
+                    "(101, 25.00, 'CASH', TIMESTAMP '2024-03-01 12:40:00')," +
+                    "(101, 15.00, 'CARD', TIMESTAMP '2024-03-01 13:05:00')," +
+                    "(102, 99.00, 'CASH', TIMESTAMP '2024-03-02 00:00:00')");
+            stmt.execute("INSERT INTO order_items (order_id, product_name, unit_label, pieces_per_portion, quantity, unit_price, line_total) VALUES " +
+                    "(100, 'Adana', 'şiş', 4, 8, 5.00, 40.00)," +
+                    "(100, 'Ayran', NULL, 0, 2, 10.00, 20.00)," +
+                    "(101, 'Adana', 'şiş', 4, 4, 5.00, 20.00)," +
+                    "(101, 'Ayran', NULL, 0, 2, 10.00, NULL)," +
+                    "(102, 'Ayran', NULL, 0, 1, 99.00, 99.00)");
+        }
+
+        this.dao = new SalesRollupJdbcDAO(dataSource);
+    }
+
+    @Test
+    void rebuildAggregatesByHourMethodAndProduct() {
+        dao.rebuild(DAY, DAY);
+
+        List<SalesRollupRow> sales = dao.findSales(DAY, DAY);
+        assertEquals(2, sales.size());
+        assertEquals(new SalesRollupRow(DAY, 12, "CASH", 2, new BigDecimal("85.00")), sales.get(0));
+        assertEquals(new SalesRollupRow(DAY, 13, "CARD", 1, new BigDecimal("15.00")), sales.get(1));
+        assertTrue(dao.findSales(DAY.plusDays(1), DAY.plusDays(1)).isEmpty(), "aralık dışı gün yazılmaz");
+
+        List<ProductRollupRow> products = dao.findProducts(DAY, DAY);
+        assertEquals(2, products.size());
+        ProductRollupRow adana = products.get(0);
+        assertEquals("Adana", adana.productName());
+        assertEquals(12, adana.quantity(), "bölünmüş hesabın kalemleri tek sayılır");
+        assertEquals(4, adana.piecesPerPortion());
+        assertEquals(0, new BigDecimal("60.00").compareTo(adana.amount()));
+        ProductRollupRow ayran = products.get(1);
+        assertEquals(4, ayran.quantity());
+        assertEquals(0, new BigDecimal("40.00").compareTo(ayran.amount()), "line_total yoksa adet × fiyat");
+    }
+
+    @Test
+    void incrementalApplyMatchesRebuild() {
+        dao.applyOrder(100L);
+        dao.applyOrder(101L);
+        List<SalesRollupRow> incremental = dao.findSales(DAY, DAY);
+        List<ProductRollupRow> incrementalProducts = dao.findProducts(DAY, DAY);
+
+        dao.rebuild(DAY, DAY);
+        assertEquals(dao.findSales(DAY, DAY), incremental);
+        assertEquals(dao.findProducts(DAY, DAY), incrementalProducts);
+    }
+
+    @Test
+    void rebuildIsIdempotentAndReportsFirstDates() {
+        assertTrue(dao.findFirstRollupDate().isEmpty());
+        dao.rebuild(DAY, DAY.plusDays(1));
+        dao.rebuild(DAY, DAY.plusDays(1));
+
+        assertEquals(4, dao.findSales(DAY, DAY.plusDays(1)).stream().mapToInt(SalesRollupRow::saleCount).sum());
+        assertEquals(DAY, dao.findFirstRollupDate().orElseThrow());
+        assertEquals(DAY, dao.findFirstPaymentDate().orElseThrow());
+    }
+}
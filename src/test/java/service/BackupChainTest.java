@@ -0,0 +1,166 @@
+package service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import service.BackupChain.Entry;
+import service.BackupChain.Kind;
+import service.BackupChain.Position;
+import tools.BackupDecrypt;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BackupChainTest {
+
+    private static final String PASS = "kasa-yedek-parolasi";
+
+    private Path dir;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        dir = Files.createTempDirectory("backup-chain-test");
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(dir)) {
+            for (Path p : files.sorted(Comparator.reverseOrder()).toList()) Files.delete(p);
+        }
+    }
+
+    @Test
+    void binlog_position_is_read_from_dump_header() {
+        assertEquals(new Position("binlog.000012", 157), Position.fromDumpHeader(
+                "-- Position to start replication or point-in-time recovery from\n\n"
+                        + "-- CHANGE REPLICATION SOURCE TO SOURCE_LOG_FILE='binlog.000012', SOURCE_LOG_POS=157;\n"));
+        assertEquals(new Position("mysql-bin.000003", 4711), Position.fromDumpHeader(
+                "-- CHANGE MASTER TO MASTER_LOG_FILE='mysql-bin.000003', MASTER_LOG_POS=4711;"));
+        assertNull(Position.fromDumpHeader("-- MySQL dump 10.13\nCREATE TABLE t (id INT);"));
+    }
+
+    @Test
+    void dump_flag_follows_server_version() {
+        assertEquals("--source-data=2", BackupService.positionFlag("mysqldump  Ver 8.4.3 for Win64 on x86_64"));
+        assertEquals("--source-data=2", BackupService.positionFlag("mysqldump  Ver 8.0.26 for Linux on x86_64"));
+        assertEquals("--master-data=2", BackupService.positionFlag("mysqldump  Ver 8.0.25 for Linux on x86_64"));
+        assertEquals("--master-data=2", BackupService.positionFlag("mysqldump  Ver 10.19 Distrib 10.6.12-MariaDB"));
+    }
+
+    @Test
+    void deltas_must_continue_from_the_chain_head() throws IOException {
+        BackupChain chain = BackupChain.start(dir, "budget-20260101-040000",
+                new Entry(Kind.FULL, "budget-20260101-040000.sql.gz", null, new Position("binlog.000012", 157), "aa"));
+        chain.append(new Entry(Kind.DELTA, "budget-20260101-040000.inc-20260101-050000.sql.gz",
+                new Position("binlog.000012", 157), new Position("binlog.000013", 900), "bb"));
+
+        // Boşluk bırakan delta kabul edilmez
+        assertThrows(IllegalArgumentException.class, () -> chain.append(new Entry(Kind.DELTA, "x.sql.gz",
+                new Position("binlog.000013", 1000), new Position("binlog.000013", 2000), "cc")));
+
+        BackupChain back = BackupChain.read(chain.file());
+        assertEquals("budget-20260101-040000", back.name());
+        assertEquals(2, back.entries().size());
+        assertEquals(new Position("binlog.000013", 900), back.head());
+    }
+
+    @Test
+    void broken_chain_file_is_rejected() throws IOException {
+        Path file = dir.resolve("budget-20260101-040000.chain");
+        Files.writeString(file,
+                "full\tf.sql.gz\t-\tbinlog.000012:157\taa\n"
+                        + "delta\td2.sql.gz\tbinlog.000012:500\tbinlog.000012:900\tbb\n",
+                StandardCharsets.UTF_8);
+
+        IOException ex = assertThrows(IOException.class, () -> BackupChain.read(file));
+        assertTrue(ex.getMessage().contains("kopuk"), ex.getMessage());
+    }
+
+    @Test
+    void chain_restores_full_dump_then_deltas_in_order() throws Exception {
+        String full = "CREATE TABLE orders (id INT);\nINSERT INTO orders VALUES (1);\n";
+        String d1 = "INSERT INTO orders VALUES (2);\n";
+        String d2 = "DELETE FROM orders WHERE id=1;\n";
+        BackupChain chain = BackupChain.start(dir, "budget-20260101-040000", new Entry(Kind.FULL,
+                write("budget-20260101-040000.sql.gz.enc", full), null, new Position("binlog.000001", 100),
+                sha("budget-20260101-040000.sql.gz.enc")));
+        chain.append(new Entry(Kind.DELTA, write("budget-20260101-040000.inc-20260101-050000.sql.gz.enc", d1),
+                new Position("binlog.000001", 100), new Position("binlog.000001", 200),
+                sha("budget-20260101-040000.inc-20260101-050000.sql.gz.enc")));
+        chain.append(new Entry(Kind.DELTA, write("budget-20260101-040000.inc-20260101-060000.sql.gz.enc", d2),
+                new Position("binlog.000001", 200), new Position("binlog.000002", 50),
+                sha("budget-20260101-040000.inc-20260101-060000.sql.gz.enc")));
+
+        BackupChain back = BackupChain.read(chain.file());
+        back.verifyFiles();
+        ByteArrayOutputStream restored = new ByteArrayOutputStream();
+        BackupDecrypt.decryptAll(back.files(), restored, PASS);
+
+        assertEquals(full + d1 + d2, restored.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void tampered_part_fails_verification() throws Exception {
+        BackupChain chain = BackupChain.start(dir, "budget-20260101-040000", new Entry(Kind.FULL,
+                write("budget-20260101-040000.sql.gz", "SELECT 1;\n"), null, new Position("binlog.000001", 4),
+                "0000"));
+
+        IOException ex = assertThrows(IOException.class, chain::verifyFiles);
+        assertTrue(ex.getMessage().contains("SHA-256"), ex.getMessage());
+    }
+
+    @Test
+    void full_dump_is_due_after_configured_interval() throws IOException {
+        BackupChain chain = BackupChain.start(dir, "budget-20260101-040000",
+                new Entry(Kind.FULL, "f.sql.gz", null, new Position("binlog.000001", 4), "aa"));
+        Duration day = Duration.ofHours(24);
+
+        assertFalse(BackupService.isFullDue(chain, day, LocalDateTime.of(2026, 1, 2, 3, 59)));
+        assertTrue(BackupService.isFullDue(chain, day, LocalDateTime.of(2026, 1, 2, 4, 0)));
+    }
+
+    @Test
+    void retention_removes_whole_chains_only() {
+        long cutoff = 1_000;
+        Map<Path, Long> mtimes = new HashMap<>();
+        // Eski zincir: tamamı eski → silinir
+        mtimes.put(dir.resolve("budget-20260101-040000.sql.gz.enc"), 10L);
+        mtimes.put(dir.resolve("budget-20260101-040000.sql.gz.enc.sha256"), 10L);
+        mtimes.put(dir.resolve("budget-20260101-040000.chain"), 20L);
+        // Tam dump'ı eski ama delta'sı yeni → hiçbiri silinmez
+        mtimes.put(dir.resolve("budget-20260102-040000.sql.gz.enc"), 10L);
+        mtimes.put(dir.resolve("budget-20260102-040000.inc-20260102-050000.sql.gz.enc"), 5_000L);
+        // En yeni grup eski olsa da kalır
+        mtimes.put(dir.resolve("budget-20260103-040000.sql.gz.enc"), 10L);
+
+        List<Path> expired = BackupService.selectExpired(mtimes, cutoff);
+
+        assertEquals(List.of(
+                dir.resolve("budget-20260101-040000.chain"),
+                dir.resolve("budget-20260101-040000.sql.gz.enc"),
+                dir.resolve("budget-20260101-040000.sql.gz.enc.sha256")), expired);
+    }
+
+    private String write(String name, String sql) throws IOException {
+        BackupService.writeCompressed(new ByteArrayInputStream(sql.getBytes(StandardCharsets.UTF_8)),
+                dir.resolve(name), PASS);
+        return name;
+    }
+
+    private String sha(String name) throws IOException {
+        return BackupChain.sha256(dir.resolve(name));
+    }
+}
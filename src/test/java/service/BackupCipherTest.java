@@ -0,0 +1,140 @@
+package service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import tools.BackupDecrypt;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BackupCipherTest {
+
+    private static final String PASS = "kasa-yedek-parolasi";
+
+    private Path dir;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        dir = Files.createTempDirectory("backup-test");
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(dir)) {
+            for (Path p : files.sorted(Comparator.reverseOrder()).toList()) Files.delete(p);
+        }
+    }
+
+    @Test
+    void multi_segment_stream_round_trips() throws IOException {
+        // Segment sınırına tam oturan + taşan boyut
+        byte[] plain = randomBytes(BackupCipher.SEGMENT_SIZE * 3 + 123);
+
+        byte[] enc = encrypt(plain);
+
+        assertTrue(BackupCipher.hasMagic(enc));
+        assertArrayEquals(plain, decrypt(enc, PASS));
+    }
+
+    @Test
+    void empty_and_exact_segment_sizes_round_trip() throws IOException {
+        assertArrayEquals(new byte[0], decrypt(encrypt(new byte[0]), PASS));
+        byte[] exact = randomBytes(BackupCipher.SEGMENT_SIZE);
+        assertArrayEquals(exact, decrypt(encrypt(exact), PASS));
+    }
+
+    @Test
+    void wrong_passphrase_is_rejected() throws IOException {
+        byte[] enc = encrypt("SELECT 1;".getBytes(StandardCharsets.UTF_8));
+
+        IOException ex = assertThrows(IOException.class, () -> decrypt(enc, "yanlis"));
+        assertTrue(ex.getMessage().contains("Parola yanlış"));
+    }
+
+    @Test
+    void truncated_or_tampered_backup_is_rejected() throws IOException {
+        byte[] enc = encrypt(randomBytes(BackupCipher.SEGMENT_SIZE * 2 + 10));
+
+        // Son segment tamamen atılmış: sınırda kesilmiş dosya da yakalanmalı
+        int lastSegment = 5 + 4 + 16 + 7 + 2 * (1 + 4 + BackupCipher.SEGMENT_SIZE + 16);
+        byte[] cut = Arrays.copyOf(enc, lastSegment);
+        assertThrows(IOException.class, () -> decrypt(cut, PASS));
+
+        byte[] flipped = enc.clone();
+        flipped[flipped.length / 2] ^= 1;
+        assertThrows(IOException.class, () -> decrypt(flipped, PASS));
+
+        byte[] trailing = Arrays.copyOf(enc, enc.length + 1);
+        assertThrows(IOException.class, () -> decrypt(trailing, PASS));
+    }
+
+    @Test
+    void dump_is_compressed_encrypted_and_restorable_in_one_pass() throws Exception {
+        StringBuilder sql = new StringBuilder();
+        for (int i = 0; i < 20_000; i++) {
+            sql.append("INSERT INTO order_items VALUES (").append(i).append(",'Adana',1,250.00);\n");
+        }
+        byte[] dump = sql.toString().getBytes(StandardCharsets.UTF_8);
+        Path out = dir.resolve("budget-test.sql.gz.enc");
+
+        BackupService.StreamResult r = BackupService.writeCompressed(new ByteArrayInputStream(dump), out, PASS);
+
+        assertEquals(dump.length, r.sourceBytes());
+        assertTrue(Files.size(out) < dump.length / 4, "sıkıştırılmış olmalı: " + Files.size(out));
+        assertEquals(HexFormat.of().formatHex(
+                MessageDigest.getInstance("SHA-256").digest(Files.readAllBytes(out))), r.sha256());
+        ByteArrayOutputStream restored = new ByteArrayOutputStream();
+        BackupDecrypt.decrypt(out, restored, PASS);
+        assertArrayEquals(dump, restored.toByteArray());
+    }
+
+    @Test
+    void plaintext_backup_is_gzip_only() throws Exception {
+        byte[] dump = "CREATE TABLE t (id INT);\n".getBytes(StandardCharsets.UTF_8);
+        Path out = dir.resolve("budget-test.sql.gz");
+
+        BackupService.writeCompressed(new ByteArrayInputStream(dump), out, null);
+
+        ByteArrayOutputStream restored = new ByteArrayOutputStream();
+        BackupDecrypt.decrypt(out, restored, null);
+        assertArrayEquals(dump, restored.toByteArray());
+    }
+
+    private static byte[] encrypt(byte[] plain) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (OutputStream out = BackupCipher.encrypt(bytes, PASS)) {
+            // Küçük parçalarla yaz — tampon sınırları da denensin
+            for (int off = 0; off < plain.length; off += 10_000) {
+                out.write(plain, off, Math.min(10_000, plain.length - off));
+            }
+        }
+        return bytes.toByteArray();
+    }
+
+    private static byte[] decrypt(byte[] enc, String pass) throws IOException {
+        try (InputStream in = BackupCipher.decrypt(new ByteArrayInputStream(enc), pass)) {
+            return in.readAllBytes();
+        }
+    }
+
+    private static byte[] randomBytes(int n) {
+        byte[] b = new byte[n];
+        new Random(7).nextBytes(b);
+        return b;
+    }
+}
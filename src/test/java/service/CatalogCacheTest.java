@@ -0,0 +1,145 @@
+package service;
+
+import dao.CategoryDAO;
+import dao.ProductDAO;
+import model.Category;
+import model.Product;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CatalogCacheTest {
+
+    @Test
+    void repeated_reads_hit_memory_until_invalidated() {
+        FakeProductDAO products = new FakeProductDAO();
+        products.put(newProduct(1L, "Adana", 10L));
+        FakeCategoryDAO categories = new FakeCategoryDAO();
+        categories.put(newCategory(10L, "Kebaplar"));
+        CatalogCache cache = new CatalogCache(products, categories, Duration.ofMinutes(5));
+
+        for (int i = 0; i < 5; i++) {
+            cache.getAllProducts();
+            cache.getCategoryNames();
+        }
+        assertEquals(1, products.findAllCalls);
+        assertEquals(1, categories.findAllCalls);
+        CatalogCache.Stats stats = cache.stats();
+        assertEquals(1, stats.misses());
+        assertEquals(9, stats.hits());
+
+        products.put(newProduct(2L, "Ayran", 20L));
+        assertEquals(1, cache.getAllProducts().size(), "geçersizleştirmeden önce eski görüntü");
+        long before = cache.version();
+        cache.invalidate();
+        assertEquals(before + 1, cache.version());
+        assertEquals(2, cache.getAllProducts().size());
+        assertEquals(2, products.findAllCalls);
+    }
+
+    @Test
+    void expired_snapshot_is_reloaded() {
+        FakeProductDAO products = new FakeProductDAO();
+        CatalogCache cache = new CatalogCache(products, new FakeCategoryDAO(), Duration.ZERO);
+        cache.getAllProducts();
+        cache.getAllProducts();
+        assertEquals(2, products.findAllCalls);
+    }
+
+    @Test
+    void callers_get_copies_so_in_place_edits_do_not_leak() {
+        FakeProductDAO products = new FakeProductDAO();
+        products.put(newProduct(1L, "Adana", 10L));
+        CatalogCache cache = new CatalogCache(products, new FakeCategoryDAO(), Duration.ofMinutes(5));
+
+        Product edited = cache.findProduct(1L).orElseThrow();
+        edited.setName("Değişti");
+        edited.setActive(false);
+
+        Product fresh = cache.findProduct(1L).orElseThrow();
+        assertEquals("Adana", fresh.getName());
+        assertTrue(fresh.isActive());
+    }
+
+    @Test
+    void category_lookups_and_classification_are_precomputed() {
+        FakeProductDAO products = new FakeProductDAO();
+        products.put(newProduct(1L, "Adana", 10L));
+        products.put(newProduct(2L, "Ayran", 20L));
+        products.put(newProduct(3L, "Kola", 20L));
+        FakeCategoryDAO categories = new FakeCategoryDAO();
+        categories.put(newCategory(10L, "Izgara Kebap"));
+        categories.put(newCategory(20L, "İÇECEKLER"));
+        CatalogCache cache = new CatalogCache(products, categories, Duration.ofMinutes(5));
+
+        assertTrue(cache.isDrinkCategory(20L));
+        assertFalse(cache.isFoodCategory(20L));
+        assertTrue(cache.isFoodCategory(10L));
+        assertFalse(cache.isDrinkCategory(10L));
+        assertFalse(cache.isDrinkCategory(null));
+
+        assertEquals(2, cache.getProductsByCategory(20L).size());
+        assertEquals(2, cache.getProductsByCategoryName(" içecekler ").size());
+        assertTrue(cache.getProductsByCategoryName("Yok").isEmpty());
+        assertEquals(3, cache.getProductsByCategoryName("").size());
+        assertEquals(10L, cache.findCategoryIdOfProduct(1L));
+        assertEquals("İÇECEKLER", cache.getCategoryNames().get(20L));
+    }
+
+    // ---- yardımcılar ----
+
+    private static Product newProduct(Long id, String name, Long categoryId) {
+        Product p = new Product();
+        p.setId(id);
+        p.setName(name);
+        p.setCategoryId(categoryId);
+        p.setUnitPrice(new BigDecimal("10.00"));
+        return p;
+    }
+
+    private static Category newCategory(Long id, String name) {
+        Category c = new Category();
+        c.setId(id);
+        c.setName(name);
+        return c;
+    }
+
+    // ---- fakes ----
+
+    static class FakeProductDAO implements ProductDAO {
+        private final Map<Long, Product> store = new LinkedHashMap<>();
+        int findAllCalls;
+        void put(Product p)                                      { store.put(p.getId(), p); }
+        @Override public Long create(Product e)                  { throw new UnsupportedOperationException(); }
+        @Override public void update(Product e)                  { store.put(e.getId(), e); }
+        @Override public void deleteById(Long id)                { store.remove(id); }
+        @Override public Optional<Product> findById(Long id)     { return Optional.ofNullable(store.get(id)); }
+        @Override public List<Product> findAll(int o, int l)     { findAllCalls++; return new ArrayList<>(store.values()); }
+        @Override public List<Product> searchByName(String q, int l)            { return List.of(); }
+        @Override public List<Product> findByCategory(Long c, int o, int l)     { return List.of(); }
+        @Override public List<Product> findByCategoryName(String n)             { return List.of(); }
+        @Override public void updateStock(Long productId, int delta)            { }
+        @Override public Optional<Product> findByName(String name)              { return Optional.empty(); }
+    }
+
+    static class FakeCategoryDAO implements CategoryDAO {
+        private final Map<Long, Category> store = new LinkedHashMap<>();
+        int findAllCalls;
+        void put(Category c)                                            { store.put(c.getId(), c); }
+        @Override public Long create(Category e)                       { throw new UnsupportedOperationException(); }
+        @Override public void update(Category e)                       { store.put(e.getId(), e); }
+        @Override public void deleteById(Long id)                      { store.remove(id); }
+        @Override public Optional<Category> findById(Long id)           { return Optional.ofNullable(store.get(id)); }
+        @Override public List<Category> findAll(int o, int l)           { findAllCalls++; return new ArrayList<>(store.values()); }
+        @Override public List<Category> searchByName(String q, int l)   { return List.of(); }
+        @Override public Optional<Category> findByName(String name)     { return Optional.empty(); }
+    }
+}
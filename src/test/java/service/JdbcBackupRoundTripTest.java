@@ -0,0 +1,177 @@
+package service;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JdbcBackupRoundTripTest {
+
+    private static final String PASS = "kasa-yedek-parolasi";
+
+    private Path dir;
+    private DataSource source;
+    private DataSource target;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        dir = Files.createTempDirectory("jdbc-backup-test");
+        source = h2("jdbcBackupSource");
+        target = h2("jdbcBackupTarget");
+        try (Connection c = source.getConnection(); Statement st = c.createStatement()) {
+            st.execute("CREATE TABLE orders (" +
+                    "id BIGINT AUTO_INCREMENT PRIMARY KEY," +
+                    "note VARCHAR(255)," +
+                    "total DECIMAL(19,2) NOT NULL," +
+                    "paid BOOLEAN," +
+                    "created_at TIMESTAMP," +
+                    "receipt VARBINARY(64))");
+            st.execute("CREATE TABLE order_items (" +
+                    "id BIGINT AUTO_INCREMENT PRIMARY KEY," +
+                    "order_id BIGINT NOT NULL," +
+                    "quantity INT NOT NULL," +
+                    "CONSTRAINT fk_items_order FOREIGN KEY (order_id) REFERENCES orders(id))");
+        }
+        try (Connection c = source.getConnection();
+             PreparedStatement ps = c.prepareStatement(
+                     "INSERT INTO orders (note, total, paid, created_at, receipt) VALUES (?,?,?,?,?)")) {
+            ps.setString(1, "Masa 3; 'acılı' olsun\nçatal yok");
+            ps.setBigDecimal(2, new BigDecimal("1250.50"));
+            ps.setBoolean(3, true);
+            ps.setTimestamp(4, Timestamp.valueOf("2026-01-02 03:04:05"));
+            ps.setBytes(5, new byte[]{0, 1, (byte) 0xff});
+            ps.executeUpdate();
+            for (int i = 0; i < 2_500; i++) {
+                ps.setString(1, i % 7 == 0 ? null : "sipariş " + i);
+                ps.setBigDecimal(2, BigDecimal.valueOf(i, 2));
+                ps.setBoolean(3, i % 2 == 0);
+                ps.setTimestamp(4, null);
+                ps.setBytes(5, null);
+                ps.executeUpdate();
+            }
+        }
+        try (Connection c = source.getConnection(); Statement st = c.createStatement()) {
+            st.executeUpdate("INSERT INTO order_items (order_id, quantity) SELECT id, MOD(id, 5) + 1 FROM orders");
+        }
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        for (DataSource ds : List.of(source, target)) {
+            try (Connection c = ds.getConnection(); Statement st = c.createStatement()) {
+                st.execute("DROP ALL OBJECTS");
+            }
+        }
+        try (Stream<Path> files = Files.walk(dir)) {
+            for (Path p : files.sorted(Comparator.reverseOrder()).toList()) Files.delete(p);
+        }
+    }
+
+    @Test
+    void export_then_import_restores_every_row() throws Exception {
+        Path backup = dir.resolve("budget-20260101-120000.jdump");
+        JdbcBackupExporter.Result r = new JdbcBackupExporter(source, PASS, 2, 1_000).export(backup);
+
+        assertEquals(2, r.tables());
+        assertEquals(Long.valueOf(5_002), Long.valueOf(r.rows()));
+        // 2501 satırlık orders 1000'lik parçalara bölünür
+        assertTrue(Files.exists(backup.resolve("orders.0003.sql.gz.enc")));
+        assertFalse(Files.exists(backup.resolveSibling(backup.getFileName() + ".part")));
+
+        long loaded = new JdbcBackupImporter(target, PASS, 3).restore(backup);
+
+        assertEquals(Long.valueOf(5_002), Long.valueOf(loaded));
+        assertEquals(dump(source, "SELECT * FROM orders ORDER BY id"), dump(target, "SELECT * FROM orders ORDER BY id"));
+        assertEquals(dump(source, "SELECT * FROM order_items ORDER BY id"),
+                dump(target, "SELECT * FROM order_items ORDER BY id"));
+        // Kısıtlar da geri geldi
+        try (Connection c = target.getConnection(); Statement st = c.createStatement()) {
+            assertThrows(SQLException.class,
+                    () -> st.executeUpdate("INSERT INTO order_items (order_id, quantity) VALUES (999999, 1)"));
+        }
+    }
+
+    @Test
+    void tampered_file_is_rejected_before_anything_is_loaded() throws Exception {
+        Path backup = dir.resolve("budget-20260101-120000.jdump");
+        new JdbcBackupExporter(source, null, 1).export(backup);
+        Path data = backup.resolve("orders.0001.sql.gz");
+        byte[] bytes = Files.readAllBytes(data);
+        bytes[bytes.length / 2] ^= 0x5a;
+        Files.write(data, bytes);
+
+        IOException ex = assertThrows(IOException.class, () -> new JdbcBackupImporter(target, null, 2).restore(backup));
+        assertTrue(ex.getMessage().contains("SHA-256"), ex.getMessage());
+        try (Connection c = target.getConnection()) {
+            assertTrue(JdbcBackupDialect.detect(c).tables(c).isEmpty());
+        }
+    }
+
+    @Test
+    void import_into_non_empty_database_is_refused() throws Exception {
+        Path backup = dir.resolve("budget-20260101-120000.jdump");
+        new JdbcBackupExporter(source, PASS, 1).export(backup);
+
+        SQLException ex = assertThrows(SQLException.class,
+                () -> new JdbcBackupImporter(source, PASS, 2).restore(backup));
+        assertTrue(ex.getMessage().contains("boş değil"), ex.getMessage());
+    }
+
+    @Test
+    void statement_reader_ignores_semicolons_inside_quotes() throws IOException {
+        JdbcBackupImporter.StatementReader reader = new JdbcBackupImporter.StatementReader(new StringReader(
+                "INSERT INTO `a;b` VALUES ('x;y', 'it''s; fine');\n"
+                        + "CREATE TABLE \"c;d\" (id INT);\n;\n"));
+
+        assertEquals("INSERT INTO `a;b` VALUES ('x;y', 'it''s; fine')", reader.next());
+        assertEquals("CREATE TABLE \"c;d\" (id INT)", reader.next());
+        assertNull(reader.next());
+
+        JdbcBackupImporter.StatementReader truncated = new JdbcBackupImporter.StatementReader(
+                new StringReader("INSERT INTO t VALUES ('yarım"));
+        assertThrows(IOException.class, truncated::next);
+    }
+
+    private static DataSource h2(String name) {
+        JdbcDataSource ds = new JdbcDataSource();
+        ds.setURL("jdbc:h2:mem:" + name + ";MODE=MySQL;DATABASE_TO_UPPER=false;DB_CLOSE_DELAY=-1");
+        ds.setUser("sa");
+        ds.setPassword("");
+        return ds;
+    }
+
+    private static List<List<Object>> dump(DataSource ds, String sql) throws SQLException {
+        List<List<Object>> rows = new ArrayList<>();
+        try (Connection c = ds.getConnection(); Statement st = c.createStatement(); ResultSet rs = st.executeQuery(sql)) {
+            int cols = rs.getMetaData().getColumnCount();
+            while (rs.next()) {
+                List<Object> row = new ArrayList<>(cols);
+                for (int i = 1; i <= cols; i++) {
+                    Object v = rs.getObject(i);
+                    row.add(v instanceof byte[] b ? java.util.HexFormat.of().formatHex(b) : v);
+                }
+                rows.add(row);
+            }
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,189 @@
+package service;
+
+import dao.OrderLogDAO;
+import model.OrderLogRow;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import state.OrderLogEntry;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OrderLogWriterTest {
+
+    private final MemoryLogDAO dao = new MemoryLogDAO();
+    private OrderLogWriter writer;
+
+    @AfterEach
+    void tearDown() {
+        dao.release();
+        if (writer != null) writer.shutdown(1_000);
+    }
+
+    @Test
+    void appends_are_group_committed_in_order() {
+        writer = new OrderLogWriter(dao, 1_024, 20, 64, 100);
+
+        for (int i = 0; i < 200; i++) {
+            writer.append(row(1L, "satır " + i));
+        }
+        assertTrue(writer.flush(2_000));
+
+        List<String> messages = dao.messages();
+        assertEquals(200, messages.size());
+        for (int i = 0; i < 200; i++) assertEquals("satır " + i, messages.get(i));
+        OrderLogWriter.Stats stats = writer.stats();
+        assertEquals(200, stats.written());
+        assertEquals(0, stats.depth());
+        // 200 satır tek tek değil, en fazla 64'lük batch'lerle
+        assertTrue(dao.batchCount() >= 4 && dao.batchCount() < 20, "batch " + dao.batchCount());
+    }
+
+    @Test
+    void full_queue_blocks_briefly_then_writes_on_caller() throws Exception {
+        writer = new OrderLogWriter(dao, 2, 0, 1, 10);
+        dao.blockWriterThread();
+
+        writer.append(row(1L, "a"));
+        assertTrue(dao.awaitWriterBlocked());
+        writer.append(row(1L, "b"));
+        writer.append(row(1L, "c"));
+        writer.append(row(1L, "d"));   // kuyruk dolu → çağıranda yazılır
+
+        OrderLogWriter.Stats stats = writer.stats();
+        assertEquals(1, stats.direct());
+        assertTrue(stats.blocked() >= 1);
+        assertEquals(List.of("d"), dao.messages());
+        assertEquals(2, stats.depth());
+
+        dao.release();
+        assertTrue(writer.flush(2_000));
+        assertEquals(List.of("a", "b", "c", "d"), dao.messages().stream().sorted().toList());
+    }
+
+    @Test
+    void recent_logs_include_rows_not_yet_written() throws Exception {
+        writer = new OrderLogWriter(dao, 64, 0, 1, 100);
+        OrderLogService service = new OrderLogService(dao, writer);
+        dao.persisted.add(new OrderLogRow(7L, LocalDateTime.now().minusMinutes(5), "eski"));
+        dao.blockWriterThread();
+
+        service.append(7L, "bir");
+        assertTrue(dao.awaitWriterBlocked());
+        service.append(7L, "iki");
+        service.append(8L, "başka masa");
+
+        assertEquals(List.of("iki", "bir", "eski"), messages(service.getRecentLogs(7L, 10)));
+        assertEquals(List.of("iki", "bir"), messages(service.getRecentLogs(7L, 2)));
+
+        dao.release();
+        assertTrue(service.flush());
+        assertEquals(List.of("iki", "bir", "eski"), messages(service.getRecentLogs(7L, 10)));
+    }
+
+    @Test
+    void flush_waits_for_a_row_held_in_the_collect_window() throws Exception {
+        writer = new OrderLogWriter(dao, 64, 2_000, 64, 100);
+        OrderLogService service = new OrderLogService(dao, writer);
+
+        service.append(7L, "satış yaptı");
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(2);
+        while (writer.stats().depth() > 0) {   // yazıcı satırı aldı, pencere açık
+            if (System.nanoTime() > deadline) fail("yazıcı satırı kuyruktan almadı");
+            Thread.sleep(5);
+        }
+        assertEquals(List.of(), dao.messages());
+        assertEquals(List.of("satış yaptı"), messages(service.getRecentLogs(7L, 10)));
+
+        long started = System.nanoTime();
+        assertTrue(writer.flush(5_000));
+        long elapsedMs = (System.nanoTime() - started) / 1_000_000;
+        assertEquals(List.of("satış yaptı"), dao.messages());
+        assertTrue(elapsedMs < 1_500, "flush pencereyi kısa kesmeli: " + elapsedMs + " ms");
+    }
+
+    @Test
+    void shutdown_drains_queue_and_later_appends_are_synchronous() {
+        writer = new OrderLogWriter(dao, 64, 1_000, 64, 100);
+
+        writer.append(row(1L, "kuyrukta"));
+        writer.shutdown(2_000);
+        assertEquals(List.of("kuyrukta"), dao.messages());
+
+        writer.append(row(1L, "kapanıştan sonra"));
+        assertEquals(List.of("kuyrukta", "kapanıştan sonra"), dao.messages());
+        assertEquals(1, writer.stats().direct());
+    }
+
+    private static OrderLogRow row(Long orderId, String message) {
+        return new OrderLogRow(orderId, LocalDateTime.now(), message);
+    }
+
+    private static List<String> messages(List<OrderLogEntry> entries) {
+        return entries.stream().map(OrderLogEntry::getMessage).toList();
+    }
+
+    /** Bellekte order_logs; istenirse yazıcı thread'inin batch'ini bekletir. */
+    private static final class MemoryLogDAO implements OrderLogDAO {
+        final List<OrderLogRow> persisted = new ArrayList<>();
+        private int batches;
+        private volatile CountDownLatch gate = new CountDownLatch(0);
+        private final CountDownLatch writerBlocked = new CountDownLatch(1);
+
+        void blockWriterThread() {
+            gate = new CountDownLatch(1);
+        }
+
+        boolean awaitWriterBlocked() throws InterruptedException {
+            return writerBlocked.await(2, TimeUnit.SECONDS);
+        }
+
+        void release() {
+            gate.countDown();
+        }
+
+        synchronized List<String> messages() {
+            return persisted.stream().map(OrderLogRow::message).toList();
+        }
+
+        synchronized int batchCount() {
+            return batches;
+        }
+
+        @Override
+        public void append(Long orderId, String message) {
+            appendAll(List.of(new OrderLogRow(orderId, LocalDateTime.now(), message)));
+        }
+
+        @Override
+        public void appendAll(List<OrderLogRow> rows) {
+            if (Thread.currentThread().getName().equals("order-log-writer")) {
+                writerBlocked.countDown();
+                try {
+                    gate.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            synchronized (this) {
+                persisted.addAll(rows);
+                batches++;
+            }
+        }
+
+        @Override
+        public synchronized List<OrderLogEntry> findRecentByOrder(Long orderId, int limit) {
+            List<OrderLogEntry> out = new ArrayList<>();
+            for (int i = persisted.size() - 1; i >= 0 && out.size() < limit; i--) {
+                OrderLogRow r = persisted.get(i);
+                if (r.orderId().equals(orderId)) out.add(new OrderLogEntry(r.eventTime(), r.message()));
+            }
+            return out;
+        }
+    }
+}
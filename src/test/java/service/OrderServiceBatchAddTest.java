@@ -0,0 +1,147 @@
+package service;
+
+import DataConnection.TransactionExecutor;
+import dao.ChangeFeedDAO;
+import dao.OrderDAO;
+import dao.OrderItemsDAO;
+import dao.OrderLogDAO;
+import dao.PaymentDAO;
+import dao.ProductDAO;
+import dao.RestaurantTableDAO;
+import dao.SalesRollupDAO;
+import model.ItemNoteUpdateResult;
+import model.Order;
+import model.OrderStatus;
+import model.Product;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OrderServiceBatchAddTest {
+
+    private final List<String> calls = new ArrayList<>();
+    private int transactions;
+
+    @Test
+    void whole_cart_is_one_transaction_with_one_log_and_one_feed_event() {
+        OrderService service = service(false);
+
+        OrderService.AddItemsResult result = service.addItemsInOneTransaction(3L, 9L, List.of(
+                new OrderService.LineRequest(product(1L, "Adana", "250.00", null), 2, null, null),
+                new OrderService.LineRequest(product(2L, "Ciğer", "240.00", 4), 1, 5, "az pişmiş"),
+                new OrderService.LineRequest(product(3L, "Ayran", "40.00", null), 3, null, " ")),
+                "Ali: 2 x Adana, 5 şiş Ciğer (az pişmiş), 3 x Ayran ekledi");
+
+        assertEquals(1, transactions);
+        assertFalse(result.orderCreated());
+        assertEquals(Arrays.asList(null, ItemNoteUpdateResult.APPLIED, null), result.noteResults());
+        assertEquals(List.of(
+                "OrderDAO.findOpenOrderByTable[3]",
+                "OrderItemsDAO.addOrIncrement[50, 1, Adana, 2, 250.00, null, null]",
+                "ProductDAO.updateStock[1, -2]",
+                // Şiş bazlı: adet = şiş, birim fiyat = porsiyon / 4
+                "OrderItemsDAO.addOrIncrementWithNote[50, 2, Ciğer, 5, 60.00, 4, şiş, az pişmiş]",
+                "ProductDAO.updateStock[2, -5]",
+                "OrderItemsDAO.addOrIncrement[50, 3, Ayran, 3, 40.00, null, null]",
+                "ProductDAO.updateStock[3, -3]",
+                "OrderDAO.updateStatus[50, IN_PROGRESS]",
+                "RestaurantTableDAO.updateStatus[3, OCCUPIED]",
+                "OrderLogDAO.append[50, Ali: 2 x Adana, 5 şiş Ciğer (az pişmiş), 3 x Ayran ekledi]",
+                "ChangeFeedDAO.append[TABLE, 3, 50]",
+                "OrderDAO.findById[50]"), withoutTotals(calls));
+        // Toplamlar satır başına önce düşülür, sonra eklenir
+        assertEquals(6, calls.stream().filter(c -> c.startsWith("OrderDAO.adjustTotalsForProduct")).count());
+    }
+
+    @Test
+    void order_is_created_inside_the_same_transaction() {
+        OrderService service = service(true);
+
+        OrderService.AddItemsResult result = service.addItemsInOneTransaction(3L, 9L, List.of(
+                new OrderService.LineRequest(product(1L, "Adana", "250.00", null), 1, null, null)), "log");
+
+        assertEquals(1, transactions);
+        assertTrue(result.orderCreated());
+        assertEquals("OrderDAO.create", calls.get(1).substring(0, "OrderDAO.create".length()));
+    }
+
+    @Test
+    void invalid_line_rejects_cart_before_any_write() {
+        OrderService service = service(false);
+
+        assertThrows(IllegalArgumentException.class, () -> service.addItemsInOneTransaction(3L, 9L, List.of(
+                new OrderService.LineRequest(product(1L, "Adana", "250.00", null), 1, null, null),
+                new OrderService.LineRequest(product(2L, "Ayran", "40.00", null), 0, null, null)), "log"));
+
+        assertEquals(0, transactions);
+        assertTrue(calls.isEmpty(), calls.toString());
+    }
+
+    private static List<String> withoutTotals(List<String> calls) {
+        return calls.stream().filter(c -> !c.startsWith("OrderDAO.adjustTotalsForProduct")).toList();
+    }
+
+    private OrderService service(boolean noOpenOrder) {
+        Order open = new Order(3L, 9L, OrderStatus.IN_PROGRESS);
+        open.setId(50L);
+        OrderDAO orders = recording(OrderDAO.class, (name, args) -> switch (name) {
+            case "findOpenOrderByTable" -> noOpenOrder ? Optional.empty() : Optional.of(open);
+            case "create" -> 50L;
+            case "findById" -> Optional.of(open);
+            default -> null;
+        });
+        OrderItemsDAO items = recording(OrderItemsDAO.class, (name, args) ->
+                name.equals("addOrIncrementWithNote") ? ItemNoteUpdateResult.APPLIED : null);
+        ProductDAO products = recording(ProductDAO.class, (name, args) -> null);
+        RestaurantTableDAO tables = recording(RestaurantTableDAO.class, (name, args) -> null);
+        PaymentDAO payments = recording(PaymentDAO.class, (name, args) -> null);
+        ChangeFeedDAO feed = recording(ChangeFeedDAO.class, (name, args) -> null);
+        SalesRollupDAO rollup = recording(SalesRollupDAO.class, (name, args) -> null);
+        OrderLogDAO logs = recording(OrderLogDAO.class, (name, args) -> null);
+        TransactionExecutor tx = new TransactionExecutor() {
+            @Override
+            public <T> T execute(Function<Connection, T> work) {
+                transactions++;
+                return work.apply(null);
+            }
+        };
+        return new OrderService(orders, items, products, payments, tables,
+                OrderService.TxDaos.jdbc()
+                        .orders(c -> orders).orderItems(c -> items).products(c -> products)
+                        .payments(c -> payments).tables(c -> tables).changeFeed(c -> feed)
+                        .rollups(c -> rollup).orderLogs(c -> logs),
+                tx);
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T recording(Class<T> type, java.util.function.BiFunction<String, Object[], Object> answer) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, m, a) -> {
+            if (m.getDeclaringClass() == Object.class) {
+                return m.getName().equals("toString") ? type.getSimpleName() : m.invoke(this, a);
+            }
+            calls.add(type.getSimpleName() + "." + m.getName() + (a == null ? "[]" : Arrays.toString(a)));
+            return answer.apply(m.getName(), a);
+        });
+    }
+
+    private static Product product(Long id, String name, String price, Integer piecesPerPortion) {
+        Product p = new Product();
+        p.setId(id);
+        p.setName(name);
+        p.setUnitPrice(new BigDecimal(price));
+        if (piecesPerPortion != null) {
+            p.setPiecesPerPortion(piecesPerPortion);
+            p.setUnitLabel("şiş");
+        }
+        return p;
+    }
+}
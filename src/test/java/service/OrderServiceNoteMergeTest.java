@@ -0,0 +1,126 @@
+package service;
+
+import DataConnection.TransactionExecutor;
+import dao.ChangeFeedDAO;
+import dao.OrderDAO;
+import dao.OrderItemsDAO;
+import dao.OrderLogDAO;
+import dao.PaymentDAO;
+import dao.ProductDAO;
+import dao.RestaurantTableDAO;
+import dao.SalesRollupDAO;
+import model.ItemNoteUpdateResult;
+import model.OrderItem;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OrderServiceNoteMergeTest {
+
+    private final List<String> calls = new ArrayList<>();
+    private final List<OrderItem> lines = new ArrayList<>();
+
+    @Test
+    void note_edited_into_existing_line_merges_the_two_lines() {
+        lines.add(item(10L, 5L, 2, null));
+        lines.add(item(11L, 5L, 1, "acısız"));
+        OrderService service = service();
+
+        assertEquals(ItemNoteUpdateResult.APPLIED, service.updateItemNote(11L, " "));
+
+        assertEquals(List.of(
+                "OrderItemsDAO.findById[11]",
+                "OrderItemsDAO.findByOrderId[50]",
+                "OrderDAO.adjustTotalsForItem[50, 11, -1]",
+                "OrderDAO.adjustTotalsForItem[50, 10, -1]",
+                "OrderItemsDAO.mergeLine[11, 10]",
+                "OrderDAO.adjustTotalsForItem[50, 11, 1]",
+                "OrderDAO.adjustTotalsForItem[50, 10, 1]",
+                "ChangeFeedDAO.appendForOrder[TABLE, 50]"), calls);
+    }
+
+    @Test
+    void note_matching_another_noted_line_merges_too() {
+        lines.add(item(10L, 5L, 2, "acısız"));
+        lines.add(item(11L, 5L, 1, null));
+        lines.add(item(12L, 6L, 1, "acısız"));
+        OrderService service = service();
+
+        assertEquals(ItemNoteUpdateResult.APPLIED, service.updateItemNote(11L, "acısız"));
+
+        assertTrue(calls.contains("OrderItemsDAO.mergeLine[11, 10]"), calls.toString());
+        assertFalse(calls.stream().anyMatch(c -> c.startsWith("OrderItemsDAO.updateNote")), calls.toString());
+    }
+
+    @Test
+    void unique_note_is_updated_in_place() {
+        lines.add(item(10L, 5L, 2, null));
+        lines.add(item(11L, 5L, 1, "acısız"));
+        OrderService service = service();
+
+        assertEquals(ItemNoteUpdateResult.APPLIED, service.updateItemNote(11L, "bol soğanlı"));
+
+        assertEquals(List.of(
+                "OrderItemsDAO.findById[11]",
+                "OrderItemsDAO.findByOrderId[50]",
+                "OrderItemsDAO.updateNote[11, bol soğanlı]",
+                "ChangeFeedDAO.appendForOrder[TABLE, 50]"), calls);
+    }
+
+    private OrderService service() {
+        OrderDAO orders = recording(OrderDAO.class, (name, args) -> null);
+        OrderItemsDAO items = recording(OrderItemsDAO.class, (name, args) -> switch (name) {
+            case "findById" -> lines.stream().filter(i -> i.getId().equals(args[0])).findFirst();
+            case "findByOrderId" -> List.copyOf(lines);
+            case "mergeLine" -> true;
+            case "updateNote" -> ItemNoteUpdateResult.APPLIED;
+            default -> null;
+        });
+        ProductDAO products = recording(ProductDAO.class, (name, args) -> null);
+        RestaurantTableDAO tables = recording(RestaurantTableDAO.class, (name, args) -> null);
+        PaymentDAO payments = recording(PaymentDAO.class, (name, args) -> null);
+        ChangeFeedDAO feed = recording(ChangeFeedDAO.class, (name, args) -> null);
+        SalesRollupDAO rollup = recording(SalesRollupDAO.class, (name, args) -> null);
+        OrderLogDAO logs = recording(OrderLogDAO.class, (name, args) -> null);
+        TransactionExecutor tx = new TransactionExecutor() {
+            @Override
+            public <T> T execute(Function<Connection, T> work) {
+                return work.apply(null);
+            }
+        };
+        return new OrderService(orders, items, products, payments, tables,
+                OrderService.TxDaos.jdbc()
+                        .orders(c -> orders).orderItems(c -> items).products(c -> products)
+                        .payments(c -> payments).tables(c -> tables).changeFeed(c -> feed)
+                        .rollups(c -> rollup).orderLogs(c -> logs),
+                tx);
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T recording(Class<T> type, java.util.function.BiFunction<String, Object[], Object> answer) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, m, a) -> {
+            if (m.getDeclaringClass() == Object.class) {
+                return m.getName().equals("toString") ? type.getSimpleName() : m.invoke(this, a);
+            }
+            calls.add(type.getSimpleName() + "." + m.getName() + (a == null ? "[]" : Arrays.toString(a)));
+            return answer.apply(m.getName(), a);
+        });
+    }
+
+    private static OrderItem item(Long id, Long productId, int quantity, String note) {
+        OrderItem item = new OrderItem();
+        item.setId(id);
+        item.setOrderId(50L);
+        item.setProductId(productId);
+        item.setQuantity(quantity);
+        item.setNote(note);
+        return item;
+    }
+}
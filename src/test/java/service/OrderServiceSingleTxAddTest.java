@@ -0,0 +1,301 @@
+package service;
+
+import DataConnection.TransactionExecutor;
+import dao.ChangeFeedDAO;
+import dao.jdbc.ChangeFeedJdbcDAO;
+import dao.jdbc.OrderItemsJdbcDAO;
+import dao.jdbc.OrderJdbcDAO;
+import dao.jdbc.PaymentJdbcDAO;
+import dao.jdbc.ProductJdbcDAO;
+import dao.jdbc.RestaurantTableJdbcDAO;
+import model.ChangeEvent;
+import model.OrderStatus;
+import model.Product;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * {@link OrderService#addItemInOneTransaction} — garsonun "ürün ekle" komutu
+ * H2 üzerinde gerçek JDBC DAO'larıyla: sipariş, kalem, stok, toplamlar, masa
+ * durumu, sipariş logu ve {@code change_seq} tek transaction'da yazılır.
+ */
+class OrderServiceSingleTxAddTest {
+
+    private static final long TABLE_ID = 1L;
+    private static final long WAITER_ID = 7L;
+
+    @BeforeEach
+    void setUp() {
+        ChangeFeedJdbcDAO.resetAvailability();
+    }
+
+    @Test
+    void first_add_opens_an_order_and_writes_every_side_effect() throws SQLException {
+        DataSource ds = database("singleTxNewOrder", true);
+        OrderService service = service(ds, null);
+
+        OrderService.AddItemResult result = service.addItemInOneTransaction(
+                TABLE_ID, WAITER_ID, adana(), 2, null, "Adana x2 eklendi");
+
+        assertTrue(result.orderCreated());
+        long orderId = result.order().getId();
+        assertEquals(OrderStatus.IN_PROGRESS, result.order().getStatus());
+        assertEquals(List.of("2 x 250.0000"), lines(ds, orderId));
+        assertEquals(List.of("500.00/100.00/600.00"), totals(ds, orderId));
+        assertEquals(18, queryInt(ds, "SELECT stock_qty FROM products WHERE id=10"));
+        assertEquals(List.of("OCCUPIED"), strings(ds, "SELECT status FROM dining_tables WHERE id=" + TABLE_ID));
+        assertEquals(List.of(orderId + ":Adana x2 eklendi"),
+                strings(ds, "SELECT CONCAT(order_id, ':', message) FROM order_logs"));
+        assertEquals(List.of(ChangeEvent.TOPIC_TABLE + ":" + TABLE_ID + ":" + orderId),
+                strings(ds, "SELECT CONCAT(topic, ':', table_id, ':', entity_id) FROM change_seq"));
+    }
+
+    @Test
+    void second_add_increments_the_existing_line_of_the_open_order() throws SQLException {
+        DataSource ds = database("singleTxIncrement", true);
+        OrderService service = service(ds, null);
+
+        long orderId = service.addItemInOneTransaction(TABLE_ID, WAITER_ID, adana(), 2, null, "ilk").order().getId();
+        OrderService.AddItemResult second = service.addItemInOneTransaction(
+                TABLE_ID, WAITER_ID, adana(), 1, null, "ikinci");
+
+        assertFalse(second.orderCreated());
+        assertEquals(orderId, second.order().getId());
+        assertEquals(1, queryInt(ds, "SELECT COUNT(*) FROM orders"));
+        assertEquals(List.of("3 x 250.0000"), lines(ds, orderId));
+        assertEquals(List.of("750.00/150.00/900.00"), totals(ds, orderId));
+        assertEquals(17, queryInt(ds, "SELECT stock_qty FROM products WHERE id=10"));
+        assertEquals(2, queryInt(ds, "SELECT COUNT(*) FROM order_logs"));
+        assertEquals(2, queryInt(ds, "SELECT COUNT(*) FROM change_seq"));
+    }
+
+    @Test
+    void piece_based_add_uses_the_per_piece_price() throws SQLException {
+        DataSource ds = database("singleTxPieces", true);
+        OrderService service = service(ds, null);
+        Product liver = product(11L, "Ciğer Şiş", "200.00");
+        liver.setPiecesPerPortion(4);
+        liver.setUnitLabel("şiş");
+
+        long orderId = service.addItemInOneTransaction(TABLE_ID, WAITER_ID, liver, 1, 5, "5 şiş").order().getId();
+
+        assertEquals(List.of("5 x 50.0000"), lines(ds, orderId));
+        assertEquals(List.of(4), ints(ds, "SELECT pieces_per_portion FROM order_items WHERE order_id=" + orderId));
+        assertEquals(List.of("250.00/50.00/300.00"), totals(ds, orderId));
+        assertEquals(15, queryInt(ds, "SELECT stock_qty FROM products WHERE id=11"));
+    }
+
+    @Test
+    void old_schema_without_amount_columns_falls_back_to_full_recompute() throws SQLException {
+        DataSource ds = database("singleTxOldSchema", false);
+        OrderService service = service(ds, null);
+
+        long orderId = service.addItemInOneTransaction(TABLE_ID, WAITER_ID, adana(), 2, null, "ilk").order().getId();
+        service.addItemInOneTransaction(TABLE_ID, WAITER_ID, adana(), 1, null, "ikinci");
+
+        // Kalem anahtarı yok → UPDATE/INSERT yolu; tutar sütunu yok → eski tam hesap (0)
+        assertEquals(List.of("3 x 250.0000"), lines(ds, orderId));
+        assertEquals(List.of("0.00/0.00/0.00"), totals(ds, orderId));
+        assertEquals(17, queryInt(ds, "SELECT stock_qty FROM products WHERE id=10"));
+        assertEquals(List.of("OCCUPIED"), strings(ds, "SELECT status FROM dining_tables WHERE id=" + TABLE_ID));
+        assertEquals(2, queryInt(ds, "SELECT COUNT(*) FROM order_logs"));
+        assertEquals(2, queryInt(ds, "SELECT COUNT(*) FROM change_seq"));
+    }
+
+    @Test
+    void failure_after_the_writes_rolls_everything_back() throws SQLException {
+        DataSource ds = database("singleTxRollback", true);
+        ChangeFeedDAO failingFeed = new ChangeFeedDAO() {
+            @Override public void append(String topic, Long tableId, Long entityId) {
+                throw new IllegalStateException("günlük yazılamadı");
+            }
+            @Override public void appendForOrder(String topic, Long orderId) {
+                throw new IllegalStateException("günlük yazılamadı");
+            }
+            @Override public List<ChangeEvent> findSince(long afterSeq, int limit) { return List.of(); }
+            @Override public long latestSeq() { return 0; }
+            @Override public boolean isAvailable() { return true; }
+        };
+        OrderService service = service(ds, c -> failingFeed);
+
+        assertThrows(IllegalStateException.class, () -> service.addItemInOneTransaction(
+                TABLE_ID, WAITER_ID, adana(), 2, null, "geri alınacak"));
+
+        assertEquals(0, queryInt(ds, "SELECT COUNT(*) FROM orders"));
+        assertEquals(0, queryInt(ds, "SELECT COUNT(*) FROM order_items"));
+        assertEquals(20, queryInt(ds, "SELECT stock_qty FROM products WHERE id=10"));
+        assertEquals(List.of("EMPTY"), strings(ds, "SELECT status FROM dining_tables WHERE id=" + TABLE_ID));
+        assertEquals(0, queryInt(ds, "SELECT COUNT(*) FROM order_logs"));
+        assertEquals(0, queryInt(ds, "SELECT COUNT(*) FROM change_seq"));
+    }
+
+    // ---- yardımcılar ----
+
+    /** Gerçek JDBC DAO'ları; {@code feed} verilirse değişiklik günlüğü onunla değişir. */
+    private static OrderService service(DataSource ds, Function<Connection, ChangeFeedDAO> feed) {
+        OrderService.TxDaos daos = OrderService.TxDaos.jdbc();
+        if (feed != null) daos.changeFeed(feed);
+        TransactionExecutor tx = new TransactionExecutor() {
+            @Override
+            public <T> T execute(Function<Connection, T> work) {
+                try (Connection c = ds.getConnection()) {
+                    c.setAutoCommit(false);
+                    try {
+                        T out = work.apply(c);
+                        c.commit();
+                        return out;
+                    } catch (RuntimeException e) {
+                        c.rollback();
+                        throw e;
+                    }
+                } catch (SQLException e) {
+                    throw new RuntimeException(e);
+                }
+            }
+        };
+        return new OrderService(new OrderJdbcDAO(ds), new OrderItemsJdbcDAO(ds), new ProductJdbcDAO(ds),
+                new PaymentJdbcDAO(ds), new RestaurantTableJdbcDAO(ds), daos, tx);
+    }
+
+    /**
+     * Güncel şema ({@code current}): üretilmiş tutar sütunları ve kalem anahtarı.
+     * Eski şema: ikisi de yok. Anahtar tespiti URL başına önbelleğe alındığından
+     * her test kendi veritabanını kullanır.
+     */
+    private static DataSource database(String name, boolean current) throws SQLException {
+        JdbcDataSource ds = new JdbcDataSource();
+        ds.setURL("jdbc:h2:mem:" + name + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1");
+        ds.setUser("sa");
+        ds.setPassword("");
+        try (Connection c = ds.getConnection(); Statement st = c.createStatement()) {
+            st.execute("DROP ALL OBJECTS");
+            st.execute("CREATE TABLE dining_tables (" +
+                    "id BIGINT AUTO_INCREMENT PRIMARY KEY," +
+                    "table_no INT NOT NULL," +
+                    "status VARCHAR(16) NOT NULL," +
+                    "note VARCHAR(255)," +
+                    "created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP," +
+                    "updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP" +
+                    ")");
+            st.execute("CREATE TABLE orders (" +
+                    "id BIGINT AUTO_INCREMENT PRIMARY KEY," +
+                    "table_id BIGINT," +
+                    "waiter_id BIGINT," +
+                    "status VARCHAR(16) NOT NULL," +
+                    "order_date TIMESTAMP DEFAULT CURRENT_TIMESTAMP," +
+                    "note VARCHAR(255)," +
+                    "subtotal DECIMAL(12,2) NOT NULL DEFAULT 0," +
+                    "tax_total DECIMAL(12,2) NOT NULL DEFAULT 0," +
+                    "discount_total DECIMAL(12,2) NOT NULL DEFAULT 0," +
+                    "total DECIMAL(12,2) NOT NULL DEFAULT 0," +
+                    "closed_at TIMESTAMP NULL," +
+                    "created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP," +
+                    "updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP" +
+                    ")");
+            st.execute("CREATE TABLE order_items (" +
+                    "id BIGINT AUTO_INCREMENT PRIMARY KEY," +
+                    "order_id BIGINT NOT NULL," +
+                    "product_id BIGINT NOT NULL," +
+                    "product_name VARCHAR(255)," +
+                    "quantity INT NOT NULL," +
+                    "unit_price DECIMAL(12,4) NOT NULL," +
+                    "pieces_per_portion INT," +
+                    "unit_label VARCHAR(32)," +
+                    "note VARCHAR(255)," +
+                    "created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP," +
+                    "updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP" +
+                    (current
+                            ? ", net_amount DECIMAL(12,2) GENERATED ALWAYS AS (ROUND(quantity * unit_price, 2))" +
+                              ", tax_amount DECIMAL(12,2) GENERATED ALWAYS AS (ROUND(quantity * unit_price * 0.20, 2))" +
+                              ", line_total DECIMAL(12,2) GENERATED ALWAYS AS (ROUND(quantity * unit_price * 1.20, 2))" +
+                              ", note_hash CHAR(32) NOT NULL DEFAULT ''" +
+                              ", CONSTRAINT uk_order_items_line UNIQUE (order_id, product_id, note_hash)"
+                            : "") +
+                    ")");
+            st.execute("CREATE TABLE products (" +
+                    "id BIGINT AUTO_INCREMENT PRIMARY KEY," +
+                    "name VARCHAR(255) NOT NULL," +
+                    "category_id BIGINT," +
+                    "unit_price DECIMAL(12,2) NOT NULL," +
+                    "stock_qty INT," +
+                    "is_active BOOLEAN DEFAULT TRUE," +
+                    "pieces_per_portion INT," +
+                    "unit_label VARCHAR(32)," +
+                    "created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP," +
+                    "updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP" +
+                    ")");
+            st.execute("CREATE TABLE order_logs (" +
+                    "id BIGINT AUTO_INCREMENT PRIMARY KEY," +
+                    "order_id BIGINT NOT NULL," +
+                    "event_time TIMESTAMP NOT NULL," +
+                    "message VARCHAR(500)" +
+                    ")");
+            st.execute("CREATE TABLE change_seq (" +
+                    "seq BIGINT AUTO_INCREMENT PRIMARY KEY," +
+                    "topic VARCHAR(16) NOT NULL," +
+                    "table_id BIGINT," +
+                    "entity_id BIGINT," +
+                    "origin VARCHAR(40)," +
+                    "created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP" +
+                    ")");
+            st.execute("INSERT INTO dining_tables (id, table_no, status) VALUES (" + TABLE_ID + ", 5, 'EMPTY')");
+            st.execute("INSERT INTO products (id, name, unit_price, stock_qty) VALUES " +
+                    "(10, 'Adana', 250.00, 20), (11, 'Ciğer Şiş', 200.00, 20)");
+        }
+        return ds;
+    }
+
+    private static Product adana() {
+        return product(10L, "Adana", "250.00");
+    }
+
+    private static Product product(Long id, String name, String price) {
+        Product p = new Product();
+        p.setId(id);
+        p.setName(name);
+        p.setUnitPrice(new BigDecimal(price));
+        return p;
+    }
+
+    private static List<String> lines(DataSource ds, long orderId) throws SQLException {
+        return strings(ds, "SELECT CONCAT(quantity, ' x ', unit_price) FROM order_items WHERE order_id="
+                + orderId + " ORDER BY id");
+    }
+
+    private static List<String> totals(DataSource ds, long orderId) throws SQLException {
+        return strings(ds, "SELECT CONCAT(subtotal, '/', tax_total, '/', total) FROM orders WHERE id=" + orderId);
+    }
+
+    private static int queryInt(DataSource ds, String sql) throws SQLException {
+        return ints(ds, sql).get(0);
+    }
+
+    private static List<Integer> ints(DataSource ds, String sql) throws SQLException {
+        List<Integer> out = new ArrayList<>();
+        try (Connection c = ds.getConnection(); Statement st = c.createStatement(); ResultSet rs = st.executeQuery(sql)) {
+            while (rs.next()) out.add(rs.getInt(1));
+        }
+        return out;
+    }
+
+    private static List<String> strings(DataSource ds, String sql) throws SQLException {
+        List<String> out = new ArrayList<>();
+        try (Connection c = ds.getConnection(); Statement st = c.createStatement(); ResultSet rs = st.executeQuery(sql)) {
+            while (rs.next()) out.add(rs.getString(1));
+        }
+        return out;
+    }
+}
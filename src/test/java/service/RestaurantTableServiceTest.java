@@ -0,0 +1,64 @@
+package service;
+
+import DataConnection.TransactionExecutor;
+import dao.ChangeFeedDAO;
+import dao.RestaurantTableDAO;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RestaurantTableServiceTest {
+
+    private final List<String> calls = new ArrayList<>();
+
+    @Test
+    void status_change_is_journaled_in_the_same_transaction() {
+        RestaurantTableService service = service();
+
+        service.markTableOccupied(3L, false);
+        service.markTableReserved(4L);
+
+        assertEquals(List.of(
+                "tx.begin",
+                "RestaurantTableDAO.updateStatus[3, EMPTY]",
+                "ChangeFeedDAO.append[TABLE, 3, null]",
+                "tx.commit",
+                "tx.begin",
+                "RestaurantTableDAO.updateStatus[4, RESERVED]",
+                "ChangeFeedDAO.append[TABLE, 4, null]",
+                "tx.commit"), calls);
+    }
+
+    private RestaurantTableService service() {
+        RestaurantTableDAO tables = recording(RestaurantTableDAO.class);
+        ChangeFeedDAO feed = recording(ChangeFeedDAO.class);
+        TransactionExecutor tx = new TransactionExecutor() {
+            @Override
+            public <T> T execute(Function<Connection, T> work) {
+                calls.add("tx.begin");
+                T result = work.apply(null);
+                calls.add("tx.commit");
+                return result;
+            }
+        };
+        return new RestaurantTableService(tables, c -> tables, c -> feed, tx);
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T recording(Class<T> type) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, m, a) -> {
+            if (m.getDeclaringClass() == Object.class) {
+                return m.getName().equals("toString") ? type.getSimpleName() : m.invoke(this, a);
+            }
+            calls.add(type.getSimpleName() + "." + m.getName() + (a == null ? "[]" : Arrays.toString(a)));
+            return null;
+        });
+    }
+}
@@ -1,15 +1,19 @@
 package service.print;
 
+import dao.CategoryDAO;
 import dao.CategoryPrinterRouteDAO;
 import dao.KitchenPrinterDAO;
 import dao.ProductDAO;
+import model.Category;
 import model.CategoryPrinterRoute;
 import model.KitchenPrinter;
 import model.OrderItem;
 import model.Product;
 import org.junit.jupiter.api.Test;
+import service.CatalogCache;
 
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
@@ -37,7 +41,7 @@ class KitchenRouterTest {
                 20L, List.of(2)
         ));
 
-        KitchenRouter router = new KitchenRouter(printers, routes, products);
+        KitchenRouter router = new KitchenRouter(printers, routes, catalogOf(products));
 
         OrderItem i1 = newItem(101L, 2, "Kuzu Ciğer");
         OrderItem i2 = newItem(102L, 1, "Pide Döner");
@@ -67,7 +71,7 @@ class KitchenRouterTest {
                 10L, List.of(1, 3)   // aynı kategori iki yazıcıya
         ));
 
-        KitchenRouter router = new KitchenRouter(printers, routes, products);
+        KitchenRouter router = new KitchenRouter(printers, routes, catalogOf(products));
         Map<KitchenPrinter, List<OrderItem>> grouped =
                 router.routeItems(List.of(newItem(101L, 1, "Ciğer")));
 
@@ -81,7 +85,7 @@ class KitchenRouterTest {
         FakeKitchenPrinterDAO printers = new FakeKitchenPrinterDAO(Collections.emptyMap());
         FakeRouteDAO routes = new FakeRouteDAO(Collections.emptyMap());
 
-        KitchenRouter router = new KitchenRouter(printers, routes, products);
+        KitchenRouter router = new KitchenRouter(printers, routes, catalogOf(products));
         Map<KitchenPrinter, List<OrderItem>> grouped =
                 router.routeItems(List.of(newItem(999L, 1, "Atanmamış Ürün")));
 
@@ -97,7 +101,7 @@ class KitchenRouterTest {
         FakeKitchenPrinterDAO printers = new FakeKitchenPrinterDAO(Map.of(1, inactive));
         FakeRouteDAO routes = new FakeRouteDAO(Map.of(10L, List.of(1)));
 
-        KitchenRouter router = new KitchenRouter(printers, routes, products);
+        KitchenRouter router = new KitchenRouter(printers, routes, catalogOf(products));
         Map<KitchenPrinter, List<OrderItem>> grouped =
                 router.routeItems(List.of(newItem(101L, 1, "Ciğer")));
 
@@ -105,7 +109,76 @@ class KitchenRouterTest {
     }
 
     @Test
-    void repeated_missing_override_printer_is_looked_up_once() {
+    void inactive_printer_falls_back_along_the_chain() {
+        Product liver = newProduct(101L, "Ciğer", 10L);
+        FakeProductDAO products = new FakeProductDAO(Map.of(101L, liver));
+        KitchenPrinter k1 = newPrinter(1, "K1");
+        k1.setActive(false);
+        k1.setFallbackPrinterId(2);
+        KitchenPrinter k2 = newPrinter(2, "K2");
+        k2.setActive(false);
+        k2.setFallbackPrinterId(3);
+        KitchenPrinter k3 = newPrinter(3, "K3");
+        FakeKitchenPrinterDAO printers = new FakeKitchenPrinterDAO(Map.of(1, k1, 2, k2, 3, k3));
+        FakeRouteDAO routes = new FakeRouteDAO(Map.of(10L, List.of(1)));
+
+        KitchenRouter router = new KitchenRouter(printers, routes, catalogOf(products));
+        Map<KitchenRouter.Route, List<OrderItem>> grouped =
+                router.route(List.of(newItem(101L, 1, "Ciğer")), p -> true);
+
+        assertEquals(1, grouped.size());
+        KitchenRouter.Route route = grouped.keySet().iterator().next();
+        assertEquals(k3, route.target());
+        assertEquals(k1, route.reroutedFrom(), "yedek fiş asıl yazıcıyı bilmeli");
+        assertEquals(k3, router.routeItems(List.of(newItem(101L, 1, "Ciğer"))).keySet().iterator().next());
+    }
+
+    @Test
+    void unhealthy_printer_reroutes_to_first_healthy_fallback() {
+        Product liver = newProduct(101L, "Ciğer", 10L);
+        Product doner = newProduct(102L, "Döner", 20L);
+        FakeProductDAO products = new FakeProductDAO(Map.of(101L, liver, 102L, doner));
+        KitchenPrinter k1 = newPrinter(1, "K1");
+        k1.setFallbackPrinterId(2);
+        KitchenPrinter k2 = newPrinter(2, "K2");
+        FakeKitchenPrinterDAO printers = new FakeKitchenPrinterDAO(Map.of(1, k1, 2, k2));
+        FakeRouteDAO routes = new FakeRouteDAO(Map.of(10L, List.of(1), 20L, List.of(2)));
+
+        KitchenRouter router = new KitchenRouter(printers, routes, catalogOf(products));
+        OrderItem liverItem = newItem(101L, 1, "Ciğer");
+        OrderItem donerItem = newItem(102L, 1, "Döner");
+        Map<KitchenRouter.Route, List<OrderItem>> grouped =
+                router.route(List.of(liverItem, donerItem), p -> !p.getCode().equals("K1"));
+
+        // K2 kendi fişini ve K1 yerine ayrı bir yedek fiş alır
+        assertEquals(2, grouped.size());
+        assertEquals(List.of(liverItem), grouped.get(new KitchenRouter.Route(k2, k1)));
+        assertEquals(List.of(donerItem), grouped.get(new KitchenRouter.Route(k2, null)));
+    }
+
+    @Test
+    void without_healthy_fallback_item_stays_on_first_active_printer() {
+        Product liver = newProduct(101L, "Ciğer", 10L);
+        FakeProductDAO products = new FakeProductDAO(Map.of(101L, liver));
+        KitchenPrinter k1 = newPrinter(1, "K1");
+        k1.setFallbackPrinterId(2);
+        KitchenPrinter k2 = newPrinter(2, "K2");
+        k2.setFallbackPrinterId(1);                     // yanlış tanım: döngü
+        FakeKitchenPrinterDAO printers = new FakeKitchenPrinterDAO(Map.of(1, k1, 2, k2));
+        FakeRouteDAO routes = new FakeRouteDAO(Map.of(10L, List.of(1)));
+
+        KitchenRouter router = new KitchenRouter(printers, routes, catalogOf(products));
+        Map<KitchenRouter.Route, List<OrderItem>> grouped =
+                router.route(List.of(newItem(101L, 1, "Ciğer")), p -> false);
+
+        assertEquals(1, grouped.size());
+        KitchenRouter.Route route = grouped.keySet().iterator().next();
+        assertEquals(k1, route.target(), "sağlıklı yedek yoksa fiş asıl yazıcının kuyruğuna");
+        assertFalse(route.isRerouted());
+    }
+
+    @Test
+    void missing_override_printer_falls_through_without_queries() {
         FakeProductDAO products = new FakeProductDAO(Collections.emptyMap());
         FakeKitchenPrinterDAO printers = new FakeKitchenPrinterDAO(Collections.emptyMap());
         FakeRouteDAO routes = new FakeRouteDAO(Collections.emptyMap());
@@ -115,15 +188,63 @@ class KitchenRouterTest {
         OrderItem second = newItem(null, 1, "Second");
         second.setKitchenOverrideId(99);
 
-        KitchenRouter router = new KitchenRouter(printers, routes, products);
+        KitchenRouter router = new KitchenRouter(printers, routes, catalogOf(products));
         Map<KitchenPrinter, List<OrderItem>> grouped = router.routeItems(List.of(first, second));
 
         assertTrue(grouped.isEmpty());
-        assertEquals(1, printers.findByIdCallsFor(99));
+        assertEquals(0, printers.findByIdCallsFor(99), "yazıcılar görüntüden okunmalı");
+    }
+
+    @Test
+    void routing_reads_the_snapshot_until_invalidated() {
+        Product liver = newProduct(101L, "Ciğer", 10L);
+        Product doner = newProduct(102L, "Döner", 20L);
+        FakeProductDAO products = new FakeProductDAO(Map.of(101L, liver, 102L, doner));
+        KitchenPrinter k1 = newPrinter(1, "K1");
+        KitchenPrinter k2 = newPrinter(2, "K2");
+        FakeKitchenPrinterDAO printers = new FakeKitchenPrinterDAO(new HashMap<>(Map.of(1, k1, 2, k2)));
+        Map<Long, List<Integer>> routeMap = new HashMap<>(Map.of(10L, List.of(1), 20L, List.of(2)));
+        FakeRouteDAO routes = new FakeRouteDAO(routeMap);
+
+        KitchenRouter router = new KitchenRouter(printers, routes, catalogOf(products));
+        List<OrderItem> order = List.of(newItem(101L, 1, "Ciğer"), newItem(102L, 1, "Döner"));
+        for (int i = 0; i < 5; i++) {
+            assertEquals(2, router.routeItems(order).size());
+        }
+        assertEquals(1, routes.findAllCalls, "tablo bir kez yüklenmeli");
+        assertEquals(0, routes.findByCategoryCalls, "kategori başına sorgu yapılmamalı");
+
+        // Eşleştirme değişti: ciğer de K2'ye
+        routeMap.put(10L, List.of(2));
+        assertEquals(2, router.routeItems(order).size(), "geçersizleştirmeden eski tablo kullanılır");
+        router.invalidate();
+        Map<KitchenPrinter, List<OrderItem>> grouped = router.routeItems(order);
+        assertEquals(1, grouped.size());
+        assertEquals(2, grouped.get(k2).size());
+        assertEquals(2, routes.findAllCalls);
+    }
+
+    @Test
+    void product_categories_come_from_catalog_cache_not_per_item_queries() {
+        Product liver = newProduct(101L, "Ciğer", 10L);
+        FakeProductDAO products = new FakeProductDAO(Map.of(101L, liver));
+        FakeKitchenPrinterDAO printers = new FakeKitchenPrinterDAO(Map.of(1, newPrinter(1, "K1")));
+        FakeRouteDAO routes = new FakeRouteDAO(Map.of(10L, List.of(1)));
+
+        KitchenRouter router = new KitchenRouter(printers, routes, catalogOf(products));
+        router.routeItems(List.of(newItem(101L, 1, "Ciğer"), newItem(101L, 2, "Ciğer")));
+        router.routeItems(List.of(newItem(101L, 1, "Ciğer")));
+
+        assertEquals(0, products.findByIdCalls, "kalem başına ürün sorgusu yapılmamalı");
+        assertEquals(1, products.findAllCalls, "katalog bir kez yüklenmeli");
     }
 
     // ---- yardımcılar ----
 
+    private static CatalogCache catalogOf(ProductDAO products) {
+        return new CatalogCache(products, new FakeCategoryDAO(), Duration.ofMinutes(5));
+    }
+
     private static OrderItem newItem(Long productId, int qty, String name) {
         OrderItem i = new OrderItem();
         i.setProductId(productId);
@@ -175,11 +296,19 @@ class KitchenRouterTest {
 
     static class FakeRouteDAO implements CategoryPrinterRouteDAO {
         private final Map<Long, List<Integer>> map;
+        int findAllCalls;
+        int findByCategoryCalls;
         FakeRouteDAO(Map<Long, List<Integer>> map) { this.map = map; }
         @Override public List<Integer> findPrinterIdsByCategory(Long categoryId) {
+            findByCategoryCalls++;
             return map.getOrDefault(categoryId, List.of());
         }
-        @Override public List<CategoryPrinterRoute> findAll()                  { return List.of(); }
+        @Override public List<CategoryPrinterRoute> findAll() {
+            findAllCalls++;
+            List<CategoryPrinterRoute> out = new ArrayList<>();
+            map.forEach((cat, ids) -> ids.forEach(id -> out.add(new CategoryPrinterRoute(cat, id))));
+            return out;
+        }
         @Override public void link(Long c, Integer p)                          { }
         @Override public void unlink(Long c, Integer p)                        { }
         @Override public void deleteByCategory(Long categoryId)                { }
@@ -187,16 +316,28 @@ class KitchenRouterTest {
 
     static class FakeProductDAO implements ProductDAO {
         private final Map<Long, Product> store;
+        int findByIdCalls;
+        int findAllCalls;
         FakeProductDAO(Map<Long, Product> store) { this.store = store; }
         @Override public Long create(Product e)                  { throw new UnsupportedOperationException(); }
         @Override public void update(Product e)                  { store.put(e.getId(), e); }
         @Override public void deleteById(Long id)                { store.remove(id); }
-        @Override public Optional<Product> findById(Long id)     { return Optional.ofNullable(store.get(id)); }
-        @Override public List<Product> findAll(int o, int l)     { return new ArrayList<>(store.values()); }
+        @Override public Optional<Product> findById(Long id)     { findByIdCalls++; return Optional.ofNullable(store.get(id)); }
+        @Override public List<Product> findAll(int o, int l)     { findAllCalls++; return new ArrayList<>(store.values()); }
         @Override public List<Product> searchByName(String q, int l)            { return List.of(); }
         @Override public List<Product> findByCategory(Long c, int o, int l)     { return List.of(); }
         @Override public List<Product> findByCategoryName(String n)             { return List.of(); }
         @Override public void updateStock(Long productId, int delta)            { }
         @Override public Optional<Product> findByName(String name)              { return Optional.empty(); }
     }
+
+    static class FakeCategoryDAO implements CategoryDAO {
+        @Override public Long create(Category e)                       { throw new UnsupportedOperationException(); }
+        @Override public void update(Category e)                       { }
+        @Override public void deleteById(Long id)                      { }
+        @Override public Optional<Category> findById(Long id)           { return Optional.empty(); }
+        @Override public List<Category> findAll(int o, int l)           { return List.of(); }
+        @Override public List<Category> searchByName(String q, int l)   { return List.of(); }
+        @Override public Optional<Category> findByName(String name)     { return Optional.empty(); }
+    }
 }
@@ -0,0 +1,263 @@
+package service.print;
+
+import dao.KitchenPrinterDAO;
+import dao.PrintJobDAO;
+import model.KitchenPrinter;
+import model.PrintJob;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PrintQueueWorkerTest {
+
+    private PrintQueueWorker worker;
+
+    @AfterEach
+    void tearDown() {
+        if (worker != null) worker.shutdown();
+    }
+
+    @Test
+    void failed_jobs_drain_in_order_once_printer_comes_back() throws Exception {
+        FakePrintJobDAO jobs = new FakePrintJobDAO();
+        KitchenPrinter ocak = printer(1L, "OCAK");
+        FlakyPrinter device = new FlakyPrinter(3);
+        worker = newWorker(jobs, new FakeKitchenPrinterDAO(), device, 10);
+        worker.start();
+
+        PrintJob first = jobs.failedJob(1, "1");
+        PrintJob second = jobs.failedJob(1, "2");
+        assertTrue(worker.submit(first, ocak));
+        assertTrue(worker.submit(second, ocak));
+        assertFalse(worker.submit(first, ocak), "aynı iş iki kez kuyruğa girmemeli");
+
+        await(() -> worker.depth() == 0);
+        assertEquals(List.of("1", "2"), device.printedTables);
+        assertEquals(PrintJob.PrintJobStatus.PRINTED, jobs.findById(first.getId()).orElseThrow().getStatus());
+        assertEquals(PrintJob.PrintJobStatus.PRINTED, jobs.findById(second.getId()).orElseThrow().getStatus());
+        // 3 başarısız deneme başta bekleyen işe yazıldı, sıradaki iş beklerken deneme harcamadı
+        assertEquals(1 + 3, jobs.findById(first.getId()).orElseThrow().getAttempts());
+        assertEquals(1, jobs.findById(second.getId()).orElseThrow().getAttempts());
+
+        PrintQueueWorker.Stats stats = worker.stats();
+        assertEquals(2, stats.printed());
+        assertEquals(3, stats.failedAttempts());
+        assertEquals(0, stats.totalDepth());
+    }
+
+    @Test
+    void job_is_abandoned_after_max_attempts() throws Exception {
+        FakePrintJobDAO jobs = new FakePrintJobDAO();
+        FlakyPrinter device = new FlakyPrinter(Integer.MAX_VALUE);
+        worker = newWorker(jobs, new FakeKitchenPrinterDAO(), device, 4);
+        worker.start();
+
+        PrintJob job = jobs.failedJob(1, "5");
+        worker.submit(job, printer(1L, "OCAK"));
+
+        await(() -> worker.stats().abandoned() == 1);
+        assertEquals(0, worker.depth());
+        PrintJob stored = jobs.findById(job.getId()).orElseThrow();
+        assertEquals(PrintJob.PrintJobStatus.FAILED, stored.getStatus());
+        assertEquals(4, stored.getAttempts());
+        assertEquals(3, device.calls.get());
+    }
+
+    @Test
+    void job_printed_elsewhere_is_not_printed_again() throws Exception {
+        FakePrintJobDAO jobs = new FakePrintJobDAO();
+        FlakyPrinter device = new FlakyPrinter(0);
+        worker = newWorker(jobs, new FakeKitchenPrinterDAO(), device, 10);
+
+        PrintJob job = jobs.failedJob(1, "7");
+        worker.submit(job, printer(1L, "OCAK"));
+        jobs.markPrinted(job.getId());          // örn. admin elle yeniden bastı
+        worker.start();
+
+        await(() -> worker.depth() == 0);
+        assertEquals(0, device.calls.get());
+        assertEquals(1, worker.stats().skipped());
+    }
+
+    @Test
+    void retry_follows_the_current_route_instead_of_the_original_printer() throws Exception {
+        FakePrintJobDAO jobs = new FakePrintJobDAO();
+        KitchenPrinter ocak = printer(1L, "OCAK");
+        KitchenPrinter firin = printer(2L, "FIRIN");
+        FlakyPrinter ocakDevice = new FlakyPrinter(Integer.MAX_VALUE);
+        List<String> headersAtFirin = Collections.synchronizedList(new ArrayList<>());
+        ReceiptPrinter firinDevice = new ReceiptPrinter() {
+            @Override public void print(Receipt r) { headersAtFirin.add(r.getHeader()); }
+            @Override public String code() { return "FIRIN"; }
+        };
+        AtomicInteger routed = new AtomicInteger();
+        // İlk deneme asıl yazıcıya, sonrakiler yedeğe çözülür
+        worker = new PrintQueueWorker(jobs, new FakeKitchenPrinterDAO(),
+                p -> p.getId() == 1L ? ocakDevice : firinDevice,
+                p -> routed.getAndIncrement() == 0
+                        ? new KitchenRouter.Route(p, null)
+                        : new KitchenRouter.Route(firin, p),
+                10, Duration.ofMillis(1), Duration.ofMillis(5));
+        worker.start();
+
+        PrintJob job = jobs.failedJob(1, "3");
+        assertTrue(worker.submit(job, ocak));
+
+        await(() -> worker.depth() == 0);
+        assertEquals(1, ocakDevice.calls.get());
+        assertEquals(List.of("*** YEDEK: OCAK ***"), headersAtFirin);
+        assertEquals(PrintJob.PrintJobStatus.PRINTED, jobs.findById(job.getId()).orElseThrow().getStatus());
+    }
+
+    @Test
+    void recovery_requeues_pending_jobs_per_printer() throws Exception {
+        FakePrintJobDAO jobs = new FakePrintJobDAO();
+        FakeKitchenPrinterDAO printers = new FakeKitchenPrinterDAO();
+        printers.put(printer(1L, "OCAK"));
+        printers.put(printer(2L, "FIRIN"));
+        KitchenPrinter passive = printer(3L, "PASIF");
+        passive.setActive(false);
+        printers.put(passive);
+
+        jobs.failedJob(1, "1");
+        jobs.failedJob(2, "2");
+        jobs.failedJob(3, "3");                                  // pasif yazıcı → atlanır
+        PrintJob exhausted = jobs.failedJob(1, "4");
+        exhausted.setAttempts(10);                                // hakkı bitmiş → atlanır
+        jobs.markPrinted(jobs.failedJob(2, "5").getId());         // basılmış → findPending'e gelmez
+
+        FlakyPrinter device = new FlakyPrinter(0);
+        worker = newWorker(jobs, printers, device, 10);
+
+        assertEquals(2, worker.recoverPending());
+        assertEquals(0, worker.recoverPending(), "ikinci tur aynı işleri tekrar eklememeli");
+        worker.start();
+
+        await(() -> worker.depth() == 0 && device.printedTables.size() == 2);
+        assertTrue(device.printedTables.containsAll(List.of("1", "2")));
+        assertEquals(2, worker.stats().queues().size());
+    }
+
+    // ---- yardımcılar ----
+
+    private static PrintQueueWorker newWorker(PrintJobDAO jobs, KitchenPrinterDAO printers,
+                                              ReceiptPrinter device, int maxAttempts) {
+        return new PrintQueueWorker(jobs, printers, p -> device,
+                maxAttempts, Duration.ofMillis(1), Duration.ofMillis(5));
+    }
+
+    private static KitchenPrinter printer(Long id, String code) {
+        KitchenPrinter p = new KitchenPrinter(code, code, "127.0.0.1");
+        p.setId(id);
+        return p;
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline) fail("Zaman aşımı");
+            Thread.sleep(5);
+        }
+    }
+
+    // ---- fakes ----
+
+    /** İlk {@code failures} çağrıda hata veren yazıcı. */
+    static class FlakyPrinter implements ReceiptPrinter {
+        private final int failures;
+        final AtomicInteger calls = new AtomicInteger();
+        final List<String> printedTables = Collections.synchronizedList(new ArrayList<>());
+
+        FlakyPrinter(int failures) { this.failures = failures; }
+
+        @Override
+        public void print(Receipt receipt) throws PrinterException {
+            if (calls.incrementAndGet() <= failures) {
+                throw new PrinterException("bağlantı reddedildi");
+            }
+            printedTables.add(receipt.getTableNo());
+        }
+
+        @Override
+        public String code() { return "FAKE"; }
+    }
+
+    static class FakePrintJobDAO implements PrintJobDAO {
+        private final Map<Long, PrintJob> store = Collections.synchronizedMap(new LinkedHashMap<>());
+        private long seq;
+        final List<Integer> batchSizes = Collections.synchronizedList(new ArrayList<>());
+
+        /** İlk gönderimi başarısız olmuş bir iş (PrintingService'in bıraktığı hâl). */
+        synchronized PrintJob failedJob(int printerId, String tableNo) {
+            Receipt r = new Receipt("*** TEST ***", "Salon", tableNo, "Garson",
+                    LocalDateTime.now(), List.of(new Receipt.Line(1, "Adana")), null, 100L);
+            PrintJob j = new PrintJob();
+            j.setOrderId(100L);
+            j.setPrinterId(printerId);
+            j.setPayload(ReceiptCodec.encode(r));
+            j.setId(enqueue(j));
+            markFailed(j.getId(), "ilk gönderim");
+            return j;
+        }
+
+        @Override public synchronized Long enqueue(PrintJob job) {
+            long id = ++seq;
+            job.setCreatedAt(LocalDateTime.now().minusMinutes(1));
+            store.put(id, job);
+            return id;
+        }
+
+        @Override public List<Long> enqueueAll(List<PrintJob> jobs) {
+            batchSizes.add(jobs.size());
+            return PrintJobDAO.super.enqueueAll(jobs);
+        }
+
+        @Override public Optional<PrintJob> findById(Long id) { return Optional.ofNullable(store.get(id)); }
+
+        @Override public synchronized List<PrintJob> findPending(int limit) {
+            List<PrintJob> out = new ArrayList<>();
+            for (PrintJob j : store.values()) {
+                if (j.getStatus() != PrintJob.PrintJobStatus.PRINTED && out.size() < limit) out.add(j);
+            }
+            return out;
+        }
+
+        @Override public synchronized void markPrinted(Long id) {
+            PrintJob j = store.get(id);
+            if (j.getStatus() == PrintJob.PrintJobStatus.PRINTED) return;
+            j.setStatus(PrintJob.PrintJobStatus.PRINTED);
+            j.setPrintedAt(LocalDateTime.now());
+        }
+
+        @Override public synchronized void markFailed(Long id, String error) {
+            PrintJob j = store.get(id);
+            j.setStatus(PrintJob.PrintJobStatus.FAILED);
+            j.setAttempts(j.getAttempts() + 1);
+            j.setLastError(error);
+        }
+    }
+
+    static class FakeKitchenPrinterDAO implements KitchenPrinterDAO {
+        private final Map<Integer, KitchenPrinter> store = new LinkedHashMap<>();
+        void put(KitchenPrinter p)                                       { store.put(Math.toIntExact(p.getId()), p); }
+        @Override public Integer create(KitchenPrinter e)               { throw new UnsupportedOperationException(); }
+        @Override public void update(KitchenPrinter e)                  { put(e); }
+        @Override public void deleteById(Integer id)                    { store.remove(id); }
+        @Override public Optional<KitchenPrinter> findById(Integer id)  { return Optional.ofNullable(store.get(id)); }
+        @Override public List<KitchenPrinter> findAll(int o, int l)     { return new ArrayList<>(store.values()); }
+        @Override public Optional<KitchenPrinter> findByCode(String c)  { return Optional.empty(); }
+        @Override public List<KitchenPrinter> findActive()              { return new ArrayList<>(store.values()); }
+    }
+}
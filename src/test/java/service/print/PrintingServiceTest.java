@@ -0,0 +1,390 @@
+package service.print;
+
+import model.KitchenPrinter;
+import model.OrderItem;
+import model.PrintJob;
+import model.Product;
+import org.junit.jupiter.api.Test;
+import service.CatalogCache;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PrintingServiceTest {
+
+    @Test
+    void printers_are_called_concurrently() {
+        // İki yazıcı da diğerini beklemeden geçemez → sıralı çağrıda bariyer zaman aşımına düşer
+        CyclicBarrier bothInside = new CyclicBarrier(2);
+        ReceiptPrinter rendezvous = new ReceiptPrinter() {
+            @Override public void print(Receipt r) throws PrinterException {
+                try {
+                    bothInside.await(2, TimeUnit.SECONDS);
+                } catch (Exception e) {
+                    throw new PrinterException("paralel çağrılmadı", e);
+                }
+            }
+            @Override public String code() { return "R"; }
+        };
+        PrintQueueWorkerTest.FakePrintJobDAO jobs = new PrintQueueWorkerTest.FakePrintJobDAO();
+        PrintingService service = newService(jobs, rendezvous, rendezvous);
+        service.setFanOutDeadline(Duration.ofSeconds(5));
+
+        List<PrintingService.PrintResult> results = service.sendOrderToKitchens(
+                100L, "Salon", "5", "Ahmet", null, orderItems());
+
+        assertEquals(2, results.size());
+        assertTrue(results.get(0).success, results.get(0).toString());
+        assertTrue(results.get(1).success, results.get(1).toString());
+    }
+
+    @Test
+    void slow_printer_does_not_hold_the_caller_past_the_deadline() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        RecordingPrinter fast = new RecordingPrinter(null);
+        RecordingPrinter stuck = new RecordingPrinter(release);
+        PrintQueueWorkerTest.FakePrintJobDAO jobs = new PrintQueueWorkerTest.FakePrintJobDAO();
+        PrintingService service = newService(jobs, fast, stuck);
+        service.setFanOutDeadline(Duration.ofMillis(200));
+
+        long started = System.nanoTime();
+        List<PrintingService.PrintResult> results = service.sendOrderToKitchens(
+                100L, "Salon", "5", "Ahmet", null, orderItems());
+        long elapsedMs = (System.nanoTime() - started) / 1_000_000;
+
+        assertTrue(elapsedMs < 2_000, "çağıran yavaş yazıcıyı beklememeli: " + elapsedMs + " ms");
+        assertEquals(2, results.size());
+        assertEquals("K1", results.get(0).target.getCode(), "sonuçlar yönlendirme sırasıyla döner");
+        assertTrue(results.get(0).success);
+        PrintingService.PrintResult slow = results.get(1);
+        assertFalse(slow.success);
+        assertTrue(slow.queued);
+        assertNotNull(slow.jobId);
+        assertEquals(PrintJob.PrintJobStatus.PENDING, jobs.findById(slow.jobId).orElseThrow().getStatus());
+
+        // Yazıcı sonunda yanıt verince iş arka planda PRINTED olur
+        release.countDown();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (jobs.findById(slow.jobId).orElseThrow().getStatus() != PrintJob.PrintJobStatus.PRINTED) {
+            if (System.nanoTime() > deadline) fail("arka plandaki baskı tamamlanmadı");
+            Thread.sleep(10);
+        }
+        assertEquals(1, stuck.printed);
+    }
+
+    @Test
+    void printer_known_to_be_offline_is_not_dialled() {
+        RecordingPrinter k1 = new RecordingPrinter(null);
+        RecordingPrinter k2 = new RecordingPrinter(null) {
+            @Override public PrinterStatus probe() {
+                return PrinterStatus.of(PrinterStatus.State.OFFLINE, "bağlantı reddedildi");
+            }
+        };
+        PrintQueueWorkerTest.FakePrintJobDAO jobs = new PrintQueueWorkerTest.FakePrintJobDAO();
+        Map<Integer, KitchenPrinter> printers = new HashMap<>();
+        printers.put(1, newPrinter(1, "K1"));
+        printers.put(2, newPrinter(2, "K2"));
+        PrintingService service = new PrintingService(newRouter(printers), jobs,
+                new KitchenRouterTest.FakeKitchenPrinterDAO(printers), Map.of(1, k1, 2, k2));
+
+        service.refreshPrinterStatuses();
+        assertEquals(PrinterStatus.State.UNKNOWN, service.printerStatus(1).state(), "durum bildirmeyen yazıcı");
+        assertTrue(service.printerStatus(2).isOffline());
+
+        List<PrintingService.PrintResult> results = service.sendOrderToKitchens(
+                100L, "Salon", "5", "Ahmet", null, orderItems());
+
+        assertTrue(results.get(0).success);
+        PrintingService.PrintResult skipped = results.get(1);
+        assertFalse(skipped.success);
+        assertTrue(skipped.queued, "çevrimdışı yazıcının fişi kuyruğa bırakılmalı");
+        assertEquals(1, k1.printed);
+        assertEquals(0, k2.printed, "kapalı yazıcıya bağlanılmamalı");
+        service.stopRetryWorker();
+    }
+
+    @Test
+    void receipt_for_jammed_printer_goes_to_its_fallback_marked_as_backup() {
+        List<Receipt> printedAtK2 = new java.util.concurrent.CopyOnWriteArrayList<>();
+        RecordingPrinter k1 = new RecordingPrinter(null) {
+            @Override public PrinterStatus probe() {
+                return PrinterStatus.of(PrinterStatus.State.NEEDS_ATTENTION, "Kağıt bitti");
+            }
+        };
+        ReceiptPrinter k2 = new ReceiptPrinter() {
+            @Override public void print(Receipt r) { printedAtK2.add(r); }
+            @Override public String code() { return "K2"; }
+        };
+        PrintQueueWorkerTest.FakePrintJobDAO jobs = new PrintQueueWorkerTest.FakePrintJobDAO();
+        Map<Integer, KitchenPrinter> printers = new HashMap<>();
+        KitchenPrinter primary = newPrinter(1, "K1");
+        primary.setFallbackPrinterId(2);
+        printers.put(1, primary);
+        printers.put(2, newPrinter(2, "K2"));
+        PrintingService service = new PrintingService(newRouter(printers), jobs,
+                new KitchenRouterTest.FakeKitchenPrinterDAO(printers), Map.of(1, k1, 2, k2));
+        service.refreshPrinterStatuses();
+
+        List<PrintingService.PrintResult> results = service.sendOrderToKitchens(
+                100L, "Salon", "5", "Ahmet", null, orderItems());
+
+        assertEquals(2, results.size());
+        assertTrue(results.stream().allMatch(r -> r.success && r.target.getCode().equals("K2")));
+        assertEquals(0, k1.printed);
+        Receipt backup = printedAtK2.stream()
+                .filter(r -> r.getHeader().contains("YEDEK")).findFirst().orElseThrow();
+        assertEquals("*** YEDEK: K1 ***", backup.getHeader());
+        assertTrue(backup.getOrderNote().contains("K1 yazıcısı yerine"));
+        assertTrue(backup.getLines().get(0).isHighlighted(), "K1'in kalemi vurgulu basılmalı");
+        assertFalse(backup.getLines().get(1).isHighlighted());
+        service.stopRetryWorker();
+    }
+
+    @Test
+    void printer_failing_during_send_falls_through_its_chain_in_the_same_send() {
+        List<Receipt> printedAtK3 = new java.util.concurrent.CopyOnWriteArrayList<>();
+        ReceiptPrinter failing = new ReceiptPrinter() {
+            @Override public void print(Receipt r) throws PrinterException {
+                throw new PrinterException("bağlantı koptu");
+            }
+            @Override public String code() { return "X"; }
+        };
+        ReceiptPrinter k3 = new ReceiptPrinter() {
+            @Override public void print(Receipt r) { printedAtK3.add(r); }
+            @Override public String code() { return "K3"; }
+        };
+        PrintQueueWorkerTest.FakePrintJobDAO jobs = new PrintQueueWorkerTest.FakePrintJobDAO();
+        Map<Integer, KitchenPrinter> printers = new HashMap<>();
+        KitchenPrinter primary = newPrinter(1, "K1");
+        primary.setFallbackPrinterId(4);
+        KitchenPrinter second = newPrinter(4, "K4");
+        second.setFallbackPrinterId(3);
+        printers.put(1, primary);
+        printers.put(2, newPrinter(2, "K2"));
+        printers.put(3, newPrinter(3, "K3"));
+        printers.put(4, second);
+        PrintingService service = new PrintingService(newRouter(printers), jobs,
+                new KitchenRouterTest.FakeKitchenPrinterDAO(printers),
+                Map.of(1, failing, 2, new RecordingPrinter(null), 3, k3, 4, failing));
+
+        List<PrintingService.PrintResult> results = service.sendOrderToKitchens(
+                100L, "Salon", "5", "Ahmet", null, orderItems());
+
+        PrintingService.PrintResult k1 = results.get(0);
+        assertTrue(k1.success, k1.toString());
+        assertEquals("K3", k1.target.getCode(), "K1 → K4 → K3 zinciri aynı gönderimde izlenmeli");
+        assertEquals(1, printedAtK3.size());
+        assertEquals("*** YEDEK: K1 ***", printedAtK3.get(0).getHeader());
+        PrintJob stored = jobs.findById(k1.jobId).orElseThrow();
+        assertEquals(PrintJob.PrintJobStatus.PRINTED, stored.getStatus());
+        assertEquals(Integer.valueOf(1), stored.getPrinterId(), "iş asıl mutfağa kayıtlı kalır");
+        assertEquals(0, service.retryStats().totalDepth());
+        service.stopRetryWorker();
+    }
+
+    @Test
+    void all_tickets_of_an_order_are_recorded_in_one_batch_before_printing() {
+        PrintQueueWorkerTest.FakePrintJobDAO jobs = new PrintQueueWorkerTest.FakePrintJobDAO();
+        List<Integer> recordedAtPrint = new java.util.concurrent.CopyOnWriteArrayList<>();
+        ReceiptPrinter checking = new ReceiptPrinter() {
+            @Override public void print(Receipt r) { recordedAtPrint.add(jobs.findPending(10).size()); }
+            @Override public String code() { return "C"; }
+        };
+        PrintingService service = newService(jobs, checking, checking);
+
+        List<PrintingService.PrintResult> results = service.sendOrderToKitchens(
+                100L, "Salon", "5", "Ahmet", null, orderItems());
+
+        assertTrue(results.stream().allMatch(r -> r.success && r.jobId != null));
+        assertEquals(List.of(2), jobs.batchSizes, "iki fiş tek batch'te yazılmalı");
+        assertEquals(2, recordedAtPrint.size());
+        assertTrue(recordedAtPrint.stream().allMatch(n -> n >= 1), "fiş kaydından önce basılmamalı");
+        for (PrintingService.PrintResult r : results) {
+            PrintJob stored = jobs.findById(r.jobId).orElseThrow();
+            assertEquals(PrintJob.PrintJobStatus.PRINTED, stored.getStatus());
+            assertTrue(stored.getPayload().startsWith(ReceiptCodec.V2_PREFIX));
+        }
+    }
+
+    @Test
+    void ticket_is_not_printed_when_its_job_cannot_be_recorded() {
+        PrintQueueWorkerTest.FakePrintJobDAO jobs = new PrintQueueWorkerTest.FakePrintJobDAO() {
+            @Override public List<Long> enqueueAll(List<PrintJob> batch) {
+                throw new RuntimeException("DB yok");
+            }
+        };
+        RecordingPrinter k1 = new RecordingPrinter(null);
+        RecordingPrinter k2 = new RecordingPrinter(null);
+        PrintingService service = newService(jobs, k1, k2);
+
+        List<PrintingService.PrintResult> results = service.sendOrderToKitchens(
+                100L, "Salon", "5", "Ahmet", null, orderItems());
+
+        assertEquals(2, results.size());
+        assertTrue(results.stream().noneMatch(r -> r.success || r.queued));
+        assertEquals(0, k1.printed + k2.printed);
+    }
+
+    @Test
+    void record_stalled_mid_write_is_reported_queued_and_printed_once_it_lands() throws Exception {
+        CountDownLatch dbBack = new CountDownLatch(1);
+        PrintQueueWorkerTest.FakePrintJobDAO jobs = stallingJobs(new CountDownLatch(1), dbBack);
+        RecordingPrinter k1 = new RecordingPrinter(null);
+        RecordingPrinter k2 = new RecordingPrinter(null);
+        PrintingService service = newService(jobs, k1, k2);
+        service.setFanOutDeadline(Duration.ofMillis(100));
+
+        long started = System.nanoTime();
+        List<PrintingService.PrintResult> results = service.sendOrderToKitchens(
+                100L, "Salon", "5", "Ahmet", null, orderItems());
+        long elapsedMs = (System.nanoTime() - started) / 1_000_000;
+
+        assertTrue(elapsedMs < 2_000, "çağıran takılan kaydı beklememeli: " + elapsedMs + " ms");
+        assertEquals(2, results.size());
+        // Kayıt yazılırken iptal edilemez: "kaydedilemedi" değil, kuyrukta
+        assertTrue(results.stream().allMatch(r -> r.queued && !r.success), results.toString());
+
+        dbBack.countDown();
+        awaitPrinted(jobs, 1L, 2L);
+        assertEquals(1, k1.printed);
+        assertEquals(1, k2.printed);
+    }
+
+    @Test
+    void record_still_waiting_behind_another_batch_is_cancelled_and_never_written() throws Exception {
+        CountDownLatch firstBatchIn = new CountDownLatch(1);
+        CountDownLatch dbBack = new CountDownLatch(1);
+        PrintQueueWorkerTest.FakePrintJobDAO jobs = stallingJobs(firstBatchIn, dbBack);
+        RecordingPrinter k1 = new RecordingPrinter(null);
+        RecordingPrinter k2 = new RecordingPrinter(null);
+        PrintingService service = newService(jobs, k1, k2);
+        service.setFanOutDeadline(Duration.ofMillis(100));
+
+        Thread first = new Thread(() -> service.sendOrderToKitchens(
+                100L, "Salon", "5", "Ahmet", null, orderItems()));
+        first.start();
+        assertTrue(firstBatchIn.await(2, TimeUnit.SECONDS));
+
+        List<PrintingService.PrintResult> results = service.sendOrderToKitchens(
+                200L, "Salon", "6", "Ahmet", null, orderItems());
+
+        assertEquals(2, results.size());
+        assertTrue(results.stream().noneMatch(r -> r.success || r.queued), results.toString());
+
+        dbBack.countDown();
+        first.join(5_000);
+        awaitPrinted(jobs, 1L, 2L);
+        Thread.sleep(100);
+        assertEquals(List.of(2), jobs.batchSizes, "iptal edilen fişler yazılmamalı");
+        assertEquals(2, k1.printed + k2.printed, "yalnız ilk siparişin fişleri basılır");
+    }
+
+    // ---- yardımcılar ----
+
+    /** İlk {@code enqueueAll} girince {@code entered} açılır, {@code release} açılana kadar bekler. */
+    private static PrintQueueWorkerTest.FakePrintJobDAO stallingJobs(CountDownLatch entered,
+                                                                     CountDownLatch release) {
+        return new PrintQueueWorkerTest.FakePrintJobDAO() {
+            @Override public List<Long> enqueueAll(List<PrintJob> batch) {
+                entered.countDown();
+                try {
+                    release.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return super.enqueueAll(batch);
+            }
+        };
+    }
+
+    private static void awaitPrinted(PrintQueueWorkerTest.FakePrintJobDAO jobs, Long... ids)
+            throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        for (Long id : ids) {
+            while (jobs.findById(id).map(j -> j.getStatus() != PrintJob.PrintJobStatus.PRINTED).orElse(true)) {
+                if (System.nanoTime() > deadline) fail("iş " + id + " basılmadı");
+                Thread.sleep(10);
+            }
+        }
+    }
+
+    /** 10 → K1, 20 → K2; K1 ve K2 için verilen yazıcılar. */
+    private static PrintingService newService(PrintQueueWorkerTest.FakePrintJobDAO jobs,
+                                              ReceiptPrinter k1, ReceiptPrinter k2) {
+        Map<Integer, KitchenPrinter> printers = new HashMap<>();
+        printers.put(1, newPrinter(1, "K1"));
+        printers.put(2, newPrinter(2, "K2"));
+        return new PrintingService(newRouter(printers), jobs, Map.of(1, k1, 2, k2));
+    }
+
+    private static KitchenRouter newRouter(Map<Integer, KitchenPrinter> printers) {
+        Map<Long, Product> products = new HashMap<>();
+        products.put(101L, newProduct(101L, "Kuzu Ciğer", 10L));
+        products.put(102L, newProduct(102L, "Lahmacun", 20L));
+        return new KitchenRouter(
+                new KitchenRouterTest.FakeKitchenPrinterDAO(printers),
+                new KitchenRouterTest.FakeRouteDAO(Map.of(10L, List.of(1), 20L, List.of(2))),
+                new CatalogCache(new KitchenRouterTest.FakeProductDAO(products),
+                        new KitchenRouterTest.FakeCategoryDAO(), Duration.ofMinutes(5)));
+    }
+
+    private static List<OrderItem> orderItems() {
+        return List.of(newItem(101L, "Kuzu Ciğer"), newItem(102L, "Lahmacun"));
+    }
+
+    private static OrderItem newItem(Long productId, String name) {
+        OrderItem i = new OrderItem();
+        i.setProductId(productId);
+        i.setProductName(name);
+        i.setQuantity(1);
+        i.setUnitPrice(new BigDecimal("10.00"));
+        return i;
+    }
+
+    private static Product newProduct(Long id, String name, Long categoryId) {
+        Product p = new Product();
+        p.setId(id);
+        p.setName(name);
+        p.setCategoryId(categoryId);
+        p.setUnitPrice(new BigDecimal("10.00"));
+        return p;
+    }
+
+    private static KitchenPrinter newPrinter(int id, String code) {
+        KitchenPrinter p = new KitchenPrinter(code, code, "127.0.0.1");
+        p.setId((long) id);
+        return p;
+    }
+
+    /** {@code gate} verilirse açılana kadar bekleyen yazıcı. */
+    static class RecordingPrinter implements ReceiptPrinter {
+        private final CountDownLatch gate;
+        volatile int printed;
+
+        RecordingPrinter(CountDownLatch gate) { this.gate = gate; }
+
+        @Override
+        public void print(Receipt receipt) throws PrinterException {
+            if (gate != null) {
+                try {
+                    if (!gate.await(10, TimeUnit.SECONDS)) throw new PrinterException("zaman aşımı");
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new PrinterException("kesildi", e);
+                }
+            }
+            printed++;
+        }
+
+        @Override
+        public String code() { return "REC"; }
+    }
+}
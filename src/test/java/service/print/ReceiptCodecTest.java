@@ -0,0 +1,89 @@
+package service.print;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReceiptCodecTest {
+
+    @Test
+    void compact_payload_round_trips_every_field() {
+        Receipt r = new Receipt("*** YEDEK: DÖNER ***", "Üst Kat", "12", "Şükrü",
+                LocalDateTime.of(2026, 5, 17, 21, 4, 33, 123_000_000),
+                List.of(new Receipt.Line(2, "İskender", "az acılı", true),
+                        new Receipt.Line(1, "Ayran", null, false)),
+                "DÖNER yazıcısı yerine basıldı", 4711L);
+
+        String payload = ReceiptCodec.encode(r);
+        assertTrue(payload.startsWith(ReceiptCodec.V2_PREFIX));
+
+        Receipt back = ReceiptCodec.decode(payload);
+        assertEquals(r.getHeader(), back.getHeader());
+        assertEquals(r.getSalonName(), back.getSalonName());
+        assertEquals(r.getTableNo(), back.getTableNo());
+        assertEquals(r.getWaiterName(), back.getWaiterName());
+        assertEquals(r.getTime(), back.getTime());
+        assertEquals(r.getOrderNote(), back.getOrderNote());
+        assertEquals(Long.valueOf(4711L), back.getOrderId());
+        assertEquals(2, back.getLines().size());
+        Receipt.Line first = back.getLines().get(0);
+        assertEquals(2, first.getQuantity());
+        assertEquals("İskender", first.getProductName());
+        assertEquals("az acılı", first.getNote());
+        assertTrue(first.isHighlighted());
+        assertNull(back.getLines().get(1).getNote());
+        assertFalse(back.getLines().get(1).isHighlighted());
+    }
+
+    @Test
+    void nullable_fields_survive_round_trip() {
+        Receipt r = new Receipt(null, null, null, null, LocalDateTime.of(2026, 1, 1, 0, 0),
+                List.of(new Receipt.Line(1, "Çay")), null, null);
+
+        Receipt back = ReceiptCodec.decode(ReceiptCodec.encode(r));
+
+        assertNull(back.getOrderNote());
+        assertNull(back.getOrderId());
+        assertEquals("-", back.getTableNo());
+    }
+
+    @Test
+    void legacy_json_payload_is_still_readable() {
+        // Yükseltmeden önce kuyruğa düşmüş kayıt (Gson, pretty-print)
+        String legacy = "{\n"
+                + "  \"header\": \"*** OCAK ***\",\n"
+                + "  \"salonName\": \"Salon\",\n"
+                + "  \"tableNo\": \"5\",\n"
+                + "  \"waiterName\": \"Ahmet\",\n"
+                + "  \"time\": \"2026-05-17T20:15:00\",\n"
+                + "  \"lines\": [\n"
+                + "    {\n"
+                + "      \"quantity\": 3,\n"
+                + "      \"productName\": \"Adana\",\n"
+                + "      \"highlighted\": true\n"
+                + "    }\n"
+                + "  ],\n"
+                + "  \"orderId\": 100\n"
+                + "}";
+
+        Receipt back = ReceiptCodec.decode(legacy);
+
+        assertEquals("*** OCAK ***", back.getHeader());
+        assertEquals(LocalDateTime.of(2026, 5, 17, 20, 15), back.getTime());
+        assertEquals(3, back.getLines().get(0).getQuantity());
+        assertTrue(back.getLines().get(0).isHighlighted());
+    }
+
+    @Test
+    void corrupt_payload_is_rejected() {
+        assertThrows(IllegalArgumentException.class, () -> ReceiptCodec.decode(""));
+        assertThrows(IllegalArgumentException.class, () -> ReceiptCodec.decode("R2:%%%"));
+        String valid = ReceiptCodec.encode(new Receipt("H", "S", "1", "G", LocalDateTime.now(),
+                List.of(new Receipt.Line(1, "Adana")), null, 1L));
+        assertThrows(IllegalArgumentException.class,
+                () -> ReceiptCodec.decode(valid.substring(0, valid.length() - 8)));
+    }
+}
@@ -2,8 +2,18 @@ package service.print;
 
 import org.junit.jupiter.api.Test;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -117,6 +127,218 @@ class TcpEscPosPrinterTest {
                 () -> new TcpEscPosPrinter("X", "127.0.0.1", 9100, 100));
     }
 
+    // ---- kalıcı bağlantı + durum yoklaması (yerel sahte yazıcı ile) ----
+
+    @Test
+    void connection_is_released_after_each_receipt_by_default() throws Exception {
+        try (FakeTcpPrinter fake = new FakeTcpPrinter()) {
+            TcpEscPosPrinter p = localPrinter(fake);
+            p.print(sampleReceipt());
+            await(() -> fake.cuts() == 1 && fake.closedByClient.get() == 1);
+            p.print(sampleReceipt());
+            await(() -> fake.cuts() == 2 && fake.closedByClient.get() == 2);
+            assertEquals(2, fake.connections.get(), "her fiş kendi bağlantısıyla");
+        }
+    }
+
+    @Test
+    void printer_that_just_printed_is_not_probed() throws Exception {
+        try (FakeTcpPrinter fake = new FakeTcpPrinter()) {
+            TcpEscPosPrinter p = localPrinter(fake);
+            p.print(sampleReceipt());
+            await(() -> fake.cuts() == 1);
+
+            assertEquals(PrinterStatus.State.ONLINE, p.probe().state());
+            assertEquals(1, fake.connections.get(), "yoklama yeni bağlantı açmamalı");
+        }
+    }
+
+    @Test
+    void consecutive_receipts_share_one_connection_when_keep_alive_is_enabled() throws Exception {
+        try (FakeTcpPrinter fake = new FakeTcpPrinter()) {
+            TcpEscPosPrinter p = keepAlivePrinter(fake);
+            p.print(sampleReceipt());
+            p.print(sampleReceipt());
+            await(() -> fake.cuts() == 2);
+            assertEquals(1, fake.connections.get(), "ikinci fiş aynı soketten gitmeli");
+            p.close();
+        }
+    }
+
+    @Test
+    void dropped_connection_is_detected_and_reopened() throws Exception {
+        try (FakeTcpPrinter fake = new FakeTcpPrinter()) {
+            TcpEscPosPrinter p = keepAlivePrinter(fake);
+            p.print(sampleReceipt());
+            await(() -> fake.cuts() == 1);
+
+            fake.dropConnections();           // yazıcı boştaki bağlantıyı kapattı
+            Thread.sleep(50);
+            p.print(sampleReceipt());
+
+            await(() -> fake.cuts() == 2);
+            assertEquals(2, fake.connections.get());
+            p.close();
+        }
+    }
+
+    @Test
+    void probe_reads_printer_and_paper_status() throws Exception {
+        FakeTcpPrinter fake = new FakeTcpPrinter();
+        TcpEscPosPrinter p = localPrinter(fake);
+
+        assertEquals(PrinterStatus.State.ONLINE, p.probe().state());
+
+        fake.paperStatus = 0x12 | 0x0C;       // kağıt sensörü: azaldı
+        assertEquals(PrinterStatus.State.PAPER_LOW, p.probe().state());
+
+        fake.paperStatus = 0x12 | 0x60;       // kağıt bitti
+        fake.printerStatus = 0x12 | 0x08;     // çevrimdışı biti
+        assertEquals(PrinterStatus.State.NEEDS_ATTENTION, p.probe().state());
+
+        fake.close();                         // yazıcı kapandı
+        PrinterStatus down = p.probe();
+        assertEquals(PrinterStatus.State.OFFLINE, down.state());
+        assertTrue(down.isOffline());
+        assertSame(down, p.status());
+        assertThrows(PrinterException.class, () -> p.print(sampleReceipt()));
+    }
+
+    @Test
+    void printer_without_status_support_is_still_usable() throws Exception {
+        try (FakeTcpPrinter fake = new FakeTcpPrinter()) {
+            fake.answersStatus = false;
+            TcpEscPosPrinter p = localPrinter(fake);
+
+            PrinterStatus st = p.probe();
+            assertEquals(PrinterStatus.State.ONLINE, st.state());
+            assertEquals("Durum bildirmiyor", st.detail());
+
+            p.print(sampleReceipt());
+            await(() -> fake.cuts() == 1);
+            p.close();
+        }
+    }
+
+    private static TcpEscPosPrinter localPrinter(FakeTcpPrinter fake) {
+        return new TcpEscPosPrinter("K1", "K1", "127.0.0.1", fake.port(), 42, 1000, 1000);
+    }
+
+    private static TcpEscPosPrinter keepAlivePrinter(FakeTcpPrinter fake) {
+        return new TcpEscPosPrinter("K1", "K1", "127.0.0.1", fake.port(), 42, 1000, 1000, 30_000);
+    }
+
+    private static Receipt sampleReceipt() {
+        return new Receipt("*** OCAK ***", "Salon", "3", "Ahmet", LocalDateTime.now(),
+                List.of(new Receipt.Line(1, "Adana Kebap")), null, 7L);
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + 5_000_000_000L;
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline) fail("Zaman aşımı");
+            Thread.sleep(5);
+        }
+    }
+
+    /**
+     * Yerel 9100 taklidi: gelen baytları biriktirir, {@code DLE EOT n}
+     * komutuna ayarlanan durum baytıyla cevap verir.
+     */
+    static final class FakeTcpPrinter implements AutoCloseable {
+        private final ServerSocket server;
+        private final List<Socket> clients = new CopyOnWriteArrayList<>();
+        private final ByteArrayOutputStream received = new ByteArrayOutputStream();
+        final AtomicInteger connections = new AtomicInteger();
+        /** İstemcinin kapattığı (EOF ile biten) bağlantılar. */
+        final AtomicInteger closedByClient = new AtomicInteger();
+        volatile int printerStatus = 0x12;
+        volatile int paperStatus = 0x12;
+        volatile boolean answersStatus = true;
+
+        FakeTcpPrinter() throws IOException {
+            server = new ServerSocket(0, 10, InetAddress.getLoopbackAddress());
+            Thread t = new Thread(this::acceptLoop, "fake-printer");
+            t.setDaemon(true);
+            t.start();
+        }
+
+        int port() {
+            return server.getLocalPort();
+        }
+
+        private void acceptLoop() {
+            while (!server.isClosed()) {
+                try {
+                    Socket s = server.accept();
+                    connections.incrementAndGet();
+                    clients.add(s);
+                    Thread t = new Thread(() -> serve(s), "fake-printer-conn");
+                    t.setDaemon(true);
+                    t.start();
+                } catch (IOException e) {
+                    return;
+                }
+            }
+        }
+
+        private void serve(Socket s) {
+            try (s) {
+                InputStream in = s.getInputStream();
+                OutputStream out = s.getOutputStream();
+                int b;
+                while ((b = in.read()) >= 0) {
+                    if (b != EscPos.DLE) {
+                        record(b);
+                        continue;
+                    }
+                    int cmd = in.read();
+                    int n = in.read();
+                    if (cmd == EscPos.EOT && n >= 0) {
+                        if (answersStatus) {
+                            out.write(n == 4 ? paperStatus : printerStatus);
+                            out.flush();
+                        }
+                    } else {
+                        record(b);
+                        if (cmd >= 0) record(cmd);
+                        if (n >= 0) record(n);
+                    }
+                }
+                closedByClient.incrementAndGet();
+            } catch (IOException ignored) {
+                // bağlantı kapandı
+            }
+        }
+
+        private synchronized void record(int b) {
+            received.write(b);
+        }
+
+        /** Kesim komutu sayısı = basılan fiş sayısı. */
+        synchronized int cuts() {
+            byte[] bytes = received.toByteArray();
+            int count = 0;
+            for (int i = 0; i + 2 < bytes.length; i++) {
+                if (bytes[i] == 0x1D && bytes[i + 1] == 'V' && bytes[i + 2] == 1) count++;
+            }
+            return count;
+        }
+
+        void dropConnections() {
+            for (Socket c : clients) {
+                try { c.close(); } catch (IOException ignored) {}
+            }
+            clients.clear();
+        }
+
+        @Override
+        public void close() throws IOException {
+            server.close();
+            dropConnections();
+        }
+    }
+
     /** byte dizisinde verilen alt-dizinin geçtiğini kontrol et. */
     private static boolean containsSequence(byte[] haystack, byte[] needle) {
         outer:
@@ -0,0 +1,72 @@
+package service.report;
+
+import model.Payment;
+import model.PaymentMethod;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.Test;
+import service.report.ReportWorkbookBuilder.PaymentTally;
+import service.report.ReportWorkbookBuilder.ReportData;
+
+import java.io.ByteArrayInputStream;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReportWorkbookBuilderTest {
+
+    @Test
+    void tally_counts_methods_and_hours_without_keeping_rows() {
+        PaymentTally tally = new PaymentTally();
+        tally.accept(payment("100.00", PaymentMethod.CASH, LocalDateTime.of(2026, 1, 5, 12, 30)));
+        tally.accept(payment("50.50", PaymentMethod.CREDIT_CARD, LocalDateTime.of(2026, 1, 5, 12, 45)));
+        tally.accept(payment("25.00", null, null));
+        tally.accept(payment(null, PaymentMethod.CASH, LocalDateTime.of(2026, 1, 5, 21, 0)));
+
+        assertEquals(4, tally.count());
+        assertEquals(new BigDecimal("175.50"), tally.total());
+        assertEquals(3, tally.countFor(PaymentMethod.CASH));
+        assertEquals(new BigDecimal("125.00"), tally.sumFor(PaymentMethod.CASH));
+        assertEquals(2, tally.countAt(12));
+        assertEquals(new BigDecimal("150.50"), tally.sumAt(12));
+        assertEquals(1, tally.countAt(21));
+    }
+
+    @Test
+    void streamed_workbook_has_all_rows_and_sized_columns() throws Exception {
+        PaymentTally tally = new PaymentTally();
+        for (int i = 0; i < 1_000; i++) {
+            tally.accept(payment("10.00", PaymentMethod.CASH, LocalDateTime.of(2026, 1, 1 + i % 28, i % 24, 0)));
+        }
+        List<ReportWorkbookBuilder.ProductSummaryRow> products = new java.util.ArrayList<>();
+        for (int i = 0; i < 3 * StreamingSheet.ROW_WINDOW; i++) {
+            products.add(new ReportWorkbookBuilder.ProductSummaryRow("Adana Kebap " + i, "", 10, 0));
+        }
+        ReportData data = new ReportData(true, "2026-01", tally, tally.total(), BigDecimal.ZERO, tally.total(),
+                products, List.of());
+
+        byte[] bytes = ReportWorkbookBuilder.write(data);
+
+        try (XSSFWorkbook wb = new XSSFWorkbook(new ByteArrayInputStream(bytes))) {
+            Sheet sheet = wb.getSheet("Ay Sonu");
+            assertEquals("AY SONU RAPORU - 2026-01", sheet.getRow(0).getCell(0).getStringCellValue());
+            assertEquals("Sipariş Sayısı: 1000", sheet.getRow(5).getCell(0).getStringCellValue());
+            // Pencereden çok önce diske akan satırlar da dosyada
+            int last = sheet.getLastRowNum();
+            assertTrue(last > 3 * StreamingSheet.ROW_WINDOW, "son satır " + last);
+            assertEquals("GİDERLER", sheet.getRow(last - 1).getCell(0).getStringCellValue());
+            // Sütun genişliği içerikten: "Porsiyon Karşılığı" başlığı 18 karakter
+            assertTrue(sheet.getColumnWidth(3) >= 18 * 256, "genişlik " + sheet.getColumnWidth(3));
+        }
+    }
+
+    private static Payment payment(String amount, PaymentMethod method, LocalDateTime paidAt) {
+        Payment p = new Payment();
+        p.setAmount(amount == null ? null : new BigDecimal(amount));
+        p.setMethod(method);
+        p.setPaidAt(paidAt);
+        return p;
+    }
+}
@@ -0,0 +1,43 @@
+package service.security;
+
+import org.junit.jupiter.api.Test;
+import service.api.ConditionalGet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ConditionalGetTest {
+
+    @Test void etagIsWeakAndCarriesEpochAndVersion() {
+        ConditionalGet cg = new ConditionalGet("e1");
+        assertEquals("W/\"e1-t5v7\"", cg.etag("t5v7"));
+    }
+
+    @Test void differentEpochsNeverMatch() {
+        String before = new ConditionalGet("e1").etag("p3");
+        String after = new ConditionalGet("e2").etag("p3");
+        assertNotEquals(before, after);
+        assertFalse(ConditionalGet.matches(before, after));
+    }
+
+    @Test void matchesExactWeakAndStrongForms() {
+        String etag = new ConditionalGet("e1").etag("p3");
+        assertTrue(ConditionalGet.matches(etag, etag));
+        assertTrue(ConditionalGet.matches("\"e1-p3\"", etag), "zayıf karşılaştırma W/ önekini yok sayar");
+        assertFalse(ConditionalGet.matches("W/\"e1-p4\"", etag));
+    }
+
+    @Test void matchesAnyEntryOfListOrWildcard() {
+        String etag = new ConditionalGet("e1").etag("f9u2");
+        assertTrue(ConditionalGet.matches("W/\"x\", " + etag, etag));
+        assertTrue(ConditionalGet.matches("*", etag));
+    }
+
+    @Test void missingHeaderNeverMatches() {
+        String etag = new ConditionalGet("e1").etag("c1");
+        assertFalse(ConditionalGet.matches(null, etag));
+        assertFalse(ConditionalGet.matches("  ", etag));
+    }
+}
@@ -82,6 +82,35 @@ class SessionStoreTest {
         }
     }
 
+    @Test void isActiveDoesNotRefreshIdleTimer() throws Exception {
+        // SSE heartbeat'i isActive kullanır — açık akış oturumu canlı tutmamalı
+        SessionStore s = new SessionStore(3_600_000L, 120L);
+        try {
+            String t = s.issue(makeUser("sse"));
+            for (int i = 0; i < 3; i++) {
+                Thread.sleep(60);
+                s.isActive(t);
+            }
+            assertFalse(s.isActive(t), "isActive idle sayacını sıfırlamamalı");
+            assertFalse(s.lookup(t).isPresent());
+        } finally {
+            s.shutdown();
+        }
+    }
+
+    @Test void isActiveFalseAfterRevoke() {
+        SessionStore s = new SessionStore();
+        try {
+            String t = s.issue(makeUser("bob"));
+            assertTrue(s.isActive(t));
+            s.revoke(t);
+            assertFalse(s.isActive(t));
+            assertFalse(s.isActive(null));
+        } finally {
+            s.shutdown();
+        }
+    }
+
     @Test void tokensAreUnique() {
         SessionStore s = new SessionStore();
         try {
@@ -0,0 +1,58 @@
+package state;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * {@link ChangeFeedCursor} — commit sırası seq sırasından farklı olduğunda
+ * satır kaçırılmaması ve tekrar işlenmemesi.
+ */
+class ChangeFeedCursorTest {
+
+    @Test
+    void contiguousRowsAdvancePosition() {
+        ChangeFeedCursor cursor = new ChangeFeedCursor(10L, () -> 0L);
+        assertTrue(cursor.accept(11L));
+        assertTrue(cursor.accept(12L));
+        cursor.advance();
+        assertEquals(12L, cursor.position());
+        assertFalse(cursor.accept(12L), "işlenmiş satır tekrar kabul edilmemeli");
+    }
+
+    @Test
+    void lateCommitInsideGapIsStillDelivered() {
+        AtomicLong now = new AtomicLong(1_000L);
+        ChangeFeedCursor cursor = new ChangeFeedCursor(10L, now::get);
+
+        // seq 11 henüz commit olmadı, 12 göründü
+        assertTrue(cursor.accept(12L));
+        cursor.advance();
+        assertEquals(10L, cursor.position(), "boşluk kapanana kadar imleç ilerlememeli");
+
+        // sonraki tur aynı 12'yi tekrar okur — yeniden işlenmemeli; 11 geç geldi
+        now.addAndGet(500L);
+        assertFalse(cursor.accept(12L));
+        assertTrue(cursor.accept(11L));
+        cursor.advance();
+        assertEquals(12L, cursor.position());
+    }
+
+    @Test
+    void gapIsSkippedAfterTimeout() {
+        AtomicLong now = new AtomicLong(1_000L);
+        ChangeFeedCursor cursor = new ChangeFeedCursor(10L, now::get);
+
+        assertTrue(cursor.accept(13L));
+        cursor.advance();
+        assertEquals(10L, cursor.position());
+
+        now.addAndGet(ChangeFeedCursor.GAP_TIMEOUT_MILLIS);
+        cursor.advance();
+        assertEquals(13L, cursor.position(), "rollback edilmiş seq sonsuza kadar beklenmemeli");
+    }
+}
@@ -0,0 +1,83 @@
+package state;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * {@link TableStripes} — çapraz masa transferinde deadlock olmaması ve
+ * farklı şeritlerin birbirini beklememesi.
+ */
+class TableStripesTest {
+
+    @Test
+    void crossTransfersDoNotDeadlock() throws Exception {
+        TableStripes stripes = new TableStripes(8);
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        try {
+            Future<?> ab = pool.submit(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    stripes.lockBoth(3, 5);
+                    stripes.unlockBoth(3, 5);
+                }
+            });
+            Future<?> ba = pool.submit(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    stripes.lockBoth(5, 3);
+                    stripes.unlockBoth(5, 3);
+                }
+            });
+            ab.get(10, TimeUnit.SECONDS);
+            ba.get(10, TimeUnit.SECONDS);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void differentStripesDoNotBlockEachOther() throws Exception {
+        TableStripes stripes = new TableStripes(8);
+        stripes.lock(1);
+        try {
+            AtomicBoolean acquired = new AtomicBoolean();
+            CountDownLatch done = new CountDownLatch(1);
+            Thread other = new Thread(() -> {
+                stripes.lock(2);
+                acquired.set(true);
+                stripes.unlock(2);
+                done.countDown();
+            });
+            other.start();
+            assertTrue(done.await(2, TimeUnit.SECONDS), "masa 2 masa 1'in kilidini beklememeli");
+            assertTrue(acquired.get());
+        } finally {
+            stripes.unlock(1);
+        }
+    }
+
+    @Test
+    void sameTableIsReentrantAndExclusive() throws Exception {
+        TableStripes stripes = new TableStripes(8);
+        stripes.lock(4);
+        stripes.lock(4);   // overload'lar iç içe çağrılabilir
+        CountDownLatch done = new CountDownLatch(1);
+        Thread other = new Thread(() -> {
+            stripes.lock(12);   // 12 % 8 == 4 → aynı şerit
+            stripes.unlock(12);
+            done.countDown();
+        });
+        other.start();
+        assertFalse(done.await(200, TimeUnit.MILLISECONDS), "aynı şerit beklemeli");
+        stripes.unlock(4);
+        stripes.unlock(4);
+        assertTrue(done.await(2, TimeUnit.SECONDS));
+    }
+}
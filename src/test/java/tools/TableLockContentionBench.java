@@ -0,0 +1,426 @@
+package tools;
+
+import DataConnection.Db;
+import model.Role;
+import model.User;
+import state.AppState;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * AppState kilit modeli için çekişme (contention) ölçüm aracı — gerçek
+ * {@link AppState} metotlarını bellek içi H2 üzerinde çalıştırır.
+ *
+ * <p>N eşzamanlı garson istemcisi rastgele masalarda
+ * {@link AppState#addItem(int, Long, int, User)} +
+ * {@link AppState#decreaseItem(int, String, int, User, String)} yapar. Üç faz:
+ * <ul>
+ *   <li><b>mutasyon</b> — yalnız garsonlar (taban çizgisi).</li>
+ *   <li><b>+rapor</b> — ek olarak bir rapor istemcisi sürekli satış özeti,
+ *       ürün özeti, günün ödemeleri ve ham ürün satış dökümü çeker.</li>
+ *   <li><b>+yetki</b> — ek olarak bir admin sürekli
+ *       {@link AppState#replaceAreaPermissions} çağırır.</li>
+ * </ul>
+ * Rapor ve yetki yolları masa şeridi ya da singleton monitörü almadığı sürece
+ * garsonların hızı ve p99 gecikmesi taban çizgisine yakın kalır. Bir faz
+ * eşiği aşarsa araç uyarı basar ve 1 ile çıkar.
+ *
+ * <p>{@code db.url} verilmezse bellek içi H2 kullanılır; araç şemayı kendisi
+ * kurar ve geçmiş satış verisi üretir. H2 dışı bir URL reddedilir.
+ *
+ * <p>Kullanım (proje root'unda; H2 test kapsamında olduğundan test classpath'i):
+ * <pre>{@code
+ *   mvn -q test-compile dependency:build-classpath \
+ *       -Dmdep.includeScope=test -Dmdep.outputFile=target/test-cp.txt
+ *   java -cp target/classes:target/test-classes:$(cat target/test-cp.txt) \
+ *        tools.TableLockContentionBench 16 5 0.7 3
+ * }</pre>
+ *
+ * <p>Argümanlar (hepsi opsiyonel): garson sayısı (16), faz süresi sn (5),
+ * kabul edilen en düşük hız oranı (0.7), kabul edilen en yüksek p99 katı (3).
+ */
+public final class TableLockContentionBench {
+
+    private static final String DEFAULT_URL = "jdbc:h2:mem:lock-bench;MODE=MySQL;DATABASE_TO_LOWER=TRUE;"
+            + "DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=10000;IGNORE_UNKNOWN_SETTINGS=TRUE";
+    private static final int HISTORY_ORDERS = 12_000;
+    private static final long PRODUCT_ID = 1L;
+    private static final String PRODUCT_NAME = "Adana";
+    private static final long WAITER_ID = 2L;
+    /** Bu değerin altındaki p99 artışları gürültü sayılır. */
+    private static final double P99_FLOOR_MS = 5.0;
+
+    public static void main(String[] args) throws Exception {
+        int clients = args.length > 0 ? Integer.parseInt(args[0]) : 16;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+        double minRate = args.length > 2 ? Double.parseDouble(args[2]) : 0.7;
+        double maxP99 = args.length > 3 ? Double.parseDouble(args[3]) : 3.0;
+
+        // Db ilk kullanımda yapılandırmayı okur — AppState'ten önce ayarlanmalı
+        System.setProperty("db.url", System.getProperty("db.url", DEFAULT_URL));
+        if (!System.getProperty("db.url").startsWith("jdbc:h2:")) {
+            System.err.println("Yalnız H2 desteklenir (araç şemayı siler/kurar): " + System.getProperty("db.url"));
+            System.exit(2);
+        }
+        System.setProperty("db.user", System.getProperty("db.user", "sa"));
+        System.setProperty("db.password", System.getProperty("db.password", "sa"));
+        System.setProperty("db.pool.maxSize", System.getProperty("db.pool.maxSize", Integer.toString(clients + 4)));
+        createSchema();
+
+        User admin = new User("admin", "", Role.ADMIN, "Bench Admin");
+        admin.setId(1L);
+        AppState app = AppState.getInstance();
+        awaitRollups(app);
+
+        List<Integer> tables = new ArrayList<>();
+        Set<String> allAreas = new LinkedHashSet<>();
+        for (AppState.AreaDefinition area : app.getAllAreas()) {
+            tables.addAll(area.getTableNumbers());
+            allAreas.add(AppState.areaKey(area.getBuilding(), area.getSection()));
+        }
+        Set<String> firstArea = allAreas.isEmpty() ? Set.of() : Set.of(allAreas.iterator().next());
+
+        System.out.println("Garson=" + clients + ", faz=" + seconds + "sn, masa=" + tables.size()
+                + ", geçmiş sipariş=" + HISTORY_ORDERS);
+
+        LocalDate today = LocalDate.now();
+        Runnable report = () -> {
+            app.getSalesSummary(today.minusDays(90), today);
+            app.getProductSummary(today.minusDays(90), today);
+            app.getSalesOn(today.minusDays(1));
+            app.getProductSalesBefore(LocalDateTime.now());
+        };
+        boolean[] flip = {false};
+        Runnable permissions = () -> {
+            flip[0] = !flip[0];
+            app.replaceAreaPermissions(WAITER_ID, flip[0] ? allAreas : firstArea);
+        };
+
+        run(app, admin, tables, clients, 1, List.of());   // ısınma
+        Result base = run(app, admin, tables, clients, seconds, List.of());
+        Result withReports = run(app, admin, tables, clients, seconds, List.of(report));
+        Result withAdmin = run(app, admin, tables, clients, seconds, List.of(report, permissions));
+
+        print("mutasyon", base, seconds);
+        print("+rapor  ", withReports, seconds);
+        print("+yetki  ", withAdmin, seconds);
+
+        boolean ok = check("mutasyon", base, base, minRate, maxP99)
+                & check("+rapor", base, withReports, minRate, maxP99)
+                & check("+yetki", base, withAdmin, minRate, maxP99);
+        System.exit(ok ? 0 : 1);
+    }
+
+    private record Result(long mutations, long sideCalls, long failures, long[] latenciesNanos) {
+        double percentileMillis(double p) {
+            if (latenciesNanos.length == 0) return 0;
+            int idx = (int) Math.ceil(p * latenciesNanos.length) - 1;
+            return latenciesNanos[Math.max(0, Math.min(idx, latenciesNanos.length - 1))] / 1_000_000.0;
+        }
+    }
+
+    /** Her garson kendi masa kümesinde çalışır (aynı masada yarış yok); şeritler yine paylaşılır. */
+    private static Result run(AppState app, User user, List<Integer> tables, int clients, int seconds,
+                              List<Runnable> sideClients) throws InterruptedException {
+        AtomicBoolean running = new AtomicBoolean(true);
+        LongAdder mutations = new LongAdder();
+        LongAdder sideCalls = new LongAdder();
+        LongAdder failures = new LongAdder();
+        long[][] latencies = new long[clients][];
+        int[] counts = new int[clients];
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < clients; i++) {
+            int client = i;
+            List<Integer> own = new ArrayList<>();
+            for (int t = client; t < tables.size(); t += clients) {
+                own.add(tables.get(t));
+            }
+            if (own.isEmpty()) own.add(tables.get(client % tables.size()));
+            threads.add(new Thread(() -> {
+                long[] buf = new long[4096];
+                int n = 0;
+                while (running.get()) {
+                    int tableNo = own.get(ThreadLocalRandom.current().nextInt(own.size()));
+                    for (int step = 0; step < 2; step++) {
+                        long start = System.nanoTime();
+                        try {
+                            if (step == 0) {
+                                app.addItem(tableNo, PRODUCT_ID, 1, user);
+                            } else {
+                                app.decreaseItem(tableNo, PRODUCT_NAME, 1, user, "bench");
+                            }
+                            mutations.increment();
+                        } catch (RuntimeException ex) {
+                            failures.increment();
+                        }
+                        if (n == buf.length) buf = Arrays.copyOf(buf, n * 2);
+                        buf[n++] = System.nanoTime() - start;
+                    }
+                }
+                latencies[client] = buf;
+                counts[client] = n;
+            }, "bench-client-" + i));
+        }
+        for (int i = 0; i < sideClients.size(); i++) {
+            Runnable side = sideClients.get(i);
+            threads.add(new Thread(() -> {
+                while (running.get()) {
+                    try {
+                        side.run();
+                    } catch (RuntimeException ex) {
+                        failures.increment();
+                    }
+                    sideCalls.increment();
+                }
+            }, "bench-side-" + i));
+        }
+        threads.forEach(Thread::start);
+        TimeUnit.SECONDS.sleep(seconds);
+        running.set(false);
+        for (Thread t : threads) {
+            t.join();
+        }
+        int total = Arrays.stream(counts).sum();
+        long[] all = new long[total];
+        int pos = 0;
+        for (int i = 0; i < clients; i++) {
+            System.arraycopy(latencies[i], 0, all, pos, counts[i]);
+            pos += counts[i];
+        }
+        Arrays.sort(all);
+        return new Result(mutations.sum(), sideCalls.sum(), failures.sum(), all);
+    }
+
+    private static void print(String label, Result r, int seconds) {
+        System.out.printf("%s  mutasyon/sn=%8.1f  p50=%6.2fms  p99=%7.2fms  max=%8.2fms  yan çağrı=%5d  hata=%d%n",
+                label, (double) r.mutations / seconds, r.percentileMillis(0.50), r.percentileMillis(0.99),
+                r.percentileMillis(1.0), r.sideCalls, r.failures);
+    }
+
+    private static boolean check(String label, Result base, Result loaded, double minRate, double maxP99) {
+        boolean ok = true;
+        double rate = base.mutations == 0 ? 1 : (double) loaded.mutations / base.mutations;
+        if (rate < minRate) {
+            System.out.printf("UYARI: %s fazında mutasyon hızı taban çizgisinin %.2f katına düştü (eşik %.2f)%n",
+                    label, rate, minRate);
+            ok = false;
+        }
+        double baseP99 = base.percentileMillis(0.99);
+        double loadedP99 = loaded.percentileMillis(0.99);
+        if (loadedP99 > P99_FLOOR_MS && loadedP99 > baseP99 * maxP99) {
+            System.out.printf("UYARI: %s fazında p99 %.2fms → %.2fms (eşik %.1fx)%n",
+                    label, baseP99, loadedP99, maxP99);
+            ok = false;
+        }
+        if (loaded.failures > 0) {
+            System.out.printf("UYARI: %s fazında %d çağrı hata verdi%n", label, loaded.failures);
+            ok = false;
+        }
+        return ok;
+    }
+
+    /** Açılıştaki rollup yenilemesi bitene kadar bekler; raporlar boş tablo okumasın. */
+    private static void awaitRollups(AppState app) throws InterruptedException {
+        LocalDate today = LocalDate.now();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(60);
+        while (app.getSalesSummary(today.minusDays(90), today).count() < HISTORY_ORDERS) {
+            if (System.nanoTime() > deadline) {
+                System.out.println("UYARI: satış rollup'ı 60 sn'de dolmadı; raporlar eksik veriyle çalışacak");
+                return;
+            }
+            TimeUnit.MILLISECONDS.sleep(200);
+        }
+    }
+
+    /** Uygulamanın kullandığı tablolar (güncel şema) + geçmiş satış verisi. */
+    private static void createSchema() throws SQLException {
+        try (Connection c = Db.getConnection(); Statement st = c.createStatement()) {
+            st.execute("DROP ALL OBJECTS");
+            st.execute("CREATE TABLE roles (id BIGINT AUTO_INCREMENT PRIMARY KEY, name VARCHAR(32) NOT NULL)");
+            st.execute("CREATE TABLE users (" +
+                    "id BIGINT AUTO_INCREMENT PRIMARY KEY," +
+                    "username VARCHAR(64) NOT NULL," +
+                    "password_hash VARCHAR(255)," +
+                    "full_name VARCHAR(128)," +
+                    "role_id BIGINT," +
+                    "is_active BOOLEAN DEFAULT TRUE," +
+                    "created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP," +
+                    "updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP" +
+                    ")");
+            st.execute("CREATE TABLE categories (" +
+                    "id BIGINT AUTO_INCREMENT PRIMARY KEY," +
+                    "name VARCHAR(255) NOT NULL," +
+                    "created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP," +
+                    "updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP" +
+                    ")");
+            st.execute("CREATE TABLE products (" +
+                    "id BIGINT AUTO_INCREMENT PRIMARY KEY," +
+                    "name VARCHAR(255) NOT NULL," +
+                    "category_id BIGINT," +
+                    "unit_price DECIMAL(12,2) NOT NULL," +
+                    "stock_qty INT," +
+                    "is_active BOOLEAN DEFAULT TRUE," +
+                    "pieces_per_portion INT," +
+                    "unit_label VARCHAR(32)," +
+                    "created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP," +
+                    "updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP" +
+                    ")");
+            st.execute("CREATE TABLE dining_tables (" +
+                    "id BIGINT AUTO_INCREMENT PRIMARY KEY," +
+                    "table_no INT NOT NULL," +
+                    "status VARCHAR(16) NOT NULL," +
+                    "note VARCHAR(255)," +
+                    "created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP," +
+                    "updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP" +
+                    ")");
+            st.execute("CREATE TABLE orders (" +
+                    "id BIGINT AUTO_INCREMENT PRIMARY KEY," +
+                    "table_id BIGINT," +
+                    "waiter_id BIGINT," +
+                    "status VARCHAR(16) NOT NULL," +
+                    "order_date TIMESTAMP DEFAULT CURRENT_TIMESTAMP," +
+                    "note VARCHAR(255)," +
+                    "subtotal DECIMAL(12,2) NOT NULL DEFAULT 0," +
+                    "tax_total DECIMAL(12,2) NOT NULL DEFAULT 0," +
+                    "discount_total DECIMAL(12,2) NOT NULL DEFAULT 0," +
+                    "total DECIMAL(12,2) NOT NULL DEFAULT 0," +
+                    "closed_at TIMESTAMP NULL," +
+                    "created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP," +
+                    "updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP" +
+                    ")");
+            st.execute("CREATE INDEX idx_orders_table_status ON orders (table_id, status)");
+            st.execute("CREATE TABLE order_items (" +
+                    "id BIGINT AUTO_INCREMENT PRIMARY KEY," +
+                    "order_id BIGINT NOT NULL," +
+                    "product_id BIGINT," +
+                    "product_name VARCHAR(255)," +
+                    "quantity INT NOT NULL," +
+                    "unit_price DECIMAL(12,4) NOT NULL," +
+                    "pieces_per_portion INT," +
+                    "unit_label VARCHAR(32)," +
+                    "note VARCHAR(255)," +
+                    "printed_at TIMESTAMP NULL," +
+                    "kitchen_override_id INT," +
+                    "created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP," +
+                    "updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP," +
+                    "net_amount DECIMAL(12,2) GENERATED ALWAYS AS (ROUND(quantity * unit_price, 2))," +
+                    "tax_amount DECIMAL(12,2) GENERATED ALWAYS AS (ROUND(quantity * unit_price * 0.20, 2))," +
+                    "line_total DECIMAL(12,2) GENERATED ALWAYS AS (ROUND(quantity * unit_price * 1.20, 2))," +
+                    "note_hash CHAR(32) NOT NULL DEFAULT ''," +
+                    "CONSTRAINT uk_order_items_line UNIQUE (order_id, product_id, note_hash)" +
+                    ")");
+            st.execute("CREATE TABLE payments (" +
+                    "id BIGINT AUTO_INCREMENT PRIMARY KEY," +
+                    "order_id BIGINT," +
+                    "cashier_id BIGINT," +
+                    "amount DECIMAL(12,2)," +
+                    "method VARCHAR(16)," +
+                    "paid_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP," +
+                    "created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP," +
+                    "updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP" +
+                    ")");
+            st.execute("CREATE INDEX idx_payments_paid_at ON payments (paid_at)");
+            st.execute("CREATE TABLE order_logs (" +
+                    "id BIGINT AUTO_INCREMENT PRIMARY KEY," +
+                    "order_id BIGINT NOT NULL," +
+                    "event_time TIMESTAMP NOT NULL," +
+                    "message VARCHAR(500)" +
+                    ")");
+            st.execute("CREATE TABLE change_seq (" +
+                    "seq BIGINT AUTO_INCREMENT PRIMARY KEY," +
+                    "topic VARCHAR(16) NOT NULL," +
+                    "table_id BIGINT," +
+                    "entity_id BIGINT," +
+                    "origin VARCHAR(40)," +
+                    "created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP" +
+                    ")");
+            st.execute("CREATE TABLE daily_sales_rollup (" +
+                    "sale_date DATE NOT NULL," +
+                    "sale_hour TINYINT NOT NULL," +
+                    "method VARCHAR(16) NOT NULL DEFAULT ''," +
+                    "sale_count INT NOT NULL DEFAULT 0," +
+                    "amount DECIMAL(14,2) NOT NULL DEFAULT 0," +
+                    "PRIMARY KEY (sale_date, sale_hour, method)" +
+                    ")");
+            st.execute("CREATE TABLE daily_product_rollup (" +
+                    "sale_date DATE NOT NULL," +
+                    "product_name VARCHAR(255) NOT NULL," +
+                    "unit_label VARCHAR(32) NOT NULL DEFAULT ''," +
+                    "pieces_per_portion INT NOT NULL DEFAULT 0," +
+                    "quantity INT NOT NULL DEFAULT 0," +
+                    "amount DECIMAL(14,2) NOT NULL DEFAULT 0," +
+                    "PRIMARY KEY (sale_date, product_name, unit_label)" +
+                    ")");
+            st.execute("CREATE TABLE user_area_permissions (" +
+                    "id BIGINT AUTO_INCREMENT PRIMARY KEY," +
+                    "user_id BIGINT NOT NULL," +
+                    "building VARCHAR(64) NOT NULL," +
+                    "section VARCHAR(64) NOT NULL," +
+                    "created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP," +
+                    "CONSTRAINT uk_user_area UNIQUE (user_id, building, section)" +
+                    ")");
+            st.execute("CREATE TABLE kitchen_printers (" +
+                    "id INT AUTO_INCREMENT PRIMARY KEY," +
+                    "code VARCHAR(32) NOT NULL," +
+                    "display_name VARCHAR(64)," +
+                    "host VARCHAR(128)," +
+                    "port INT," +
+                    "char_per_line INT," +
+                    "code_page INT," +
+                    "is_active BOOLEAN DEFAULT TRUE," +
+                    "note VARCHAR(255)," +
+                    "fallback_printer_id INT NULL," +
+                    "keep_alive_ms INT NULL," +
+                    "created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP," +
+                    "updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP" +
+                    ")");
+            st.execute("CREATE TABLE category_printer_routes (" +
+                    "id BIGINT AUTO_INCREMENT PRIMARY KEY," +
+                    "category_id BIGINT NOT NULL," +
+                    "printer_id INT NOT NULL," +
+                    "created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP," +
+                    "CONSTRAINT uk_category_printer UNIQUE (category_id, printer_id)" +
+                    ")");
+            st.execute("CREATE TABLE expenses (" +
+                    "id BIGINT AUTO_INCREMENT PRIMARY KEY," +
+                    "amount DECIMAL(19,2) NOT NULL," +
+                    "expense_name VARCHAR(255)," +
+                    "expense_date DATE," +
+                    "quantity_kg DECIMAL(12,3)," +
+                    "unit_price_per_kg DECIMAL(12,2)," +
+                    "created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP," +
+                    "updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP" +
+                    ")");
+
+            st.execute("INSERT INTO roles (id, name) VALUES (1, 'ADMIN'), (2, 'GARSON'), (3, 'KASIYER')");
+            st.execute("INSERT INTO users (id, username, full_name, role_id) VALUES " +
+                    "(1, 'admin', 'Bench Admin', 1), (" + WAITER_ID + ", 'garson', 'Bench Garson', 2)");
+            st.execute("INSERT INTO categories (id, name) VALUES (1, 'Izgara'), (2, 'İçecek')");
+            st.execute("INSERT INTO products (id, name, category_id, unit_price, stock_qty) VALUES " +
+                    "(" + PRODUCT_ID + ", '" + PRODUCT_NAME + "', 1, 250.00, 1000000)," +
+                    "(2, 'Urfa', 1, 240.00, 1000000)," +
+                    "(3, 'Ayran', 2, 30.00, 1000000)");
+            // ~58 günlük kapanmış sipariş geçmişi: sipariş başına üç kalem, tek ödeme
+            st.execute("INSERT INTO orders (waiter_id, status, order_date, subtotal, tax_total, total, closed_at) " +
+                    "SELECT " + WAITER_ID + ", 'COMPLETED', t, 1040.00, 208.00, 1248.00, t FROM (" +
+                    "SELECT DATEADD('MINUTE', -X * 7, CURRENT_TIMESTAMP) AS t FROM SYSTEM_RANGE(1, " + HISTORY_ORDERS + "))");
+            st.execute("INSERT INTO order_items (order_id, product_id, product_name, quantity, unit_price) " +
+                    "SELECT o.id, p.id, p.name, 2, p.unit_price FROM orders o CROSS JOIN products p");
+            st.execute("INSERT INTO payments (order_id, cashier_id, amount, method, paid_at) " +
+                    "SELECT id, 1, total, CASE WHEN MOD(id, 3) = 0 THEN 'CARD' ELSE 'CASH' END, closed_at FROM orders");
+        }
+    }
+}